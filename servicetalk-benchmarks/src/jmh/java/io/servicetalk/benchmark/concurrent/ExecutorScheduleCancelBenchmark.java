@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.concurrent;
+
+import io.servicetalk.concurrent.api.AsyncContext;
+import io.servicetalk.concurrent.api.Executor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+
+import static io.servicetalk.concurrent.api.Executors.from;
+import static io.servicetalk.concurrent.api.Executors.immediate;
+import static io.servicetalk.concurrent.api.Executors.newHashedWheelTimerExecutor;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Schedules and cancels timers, which is what every request timeout does when the response arrives in time.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+public class ExecutorScheduleCancelBenchmark {
+    static {
+        AsyncContext.disable();
+    }
+
+    private static final Runnable NOOP_TASK = () -> { };
+
+    /**
+     * {@code global}: the global scheduler (a hashed wheel timer) used by {@link Executor}s created without a
+     * scheduler, {@code wheel}: a dedicated hashed wheel timer, {@code jdk}: a single threaded
+     * {@link java.util.concurrent.ScheduledExecutorService} which was the global scheduler before.
+     */
+    @Param({"global", "wheel", "jdk"})
+    public String scheduler;
+
+    private Executor executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (scheduler) {
+            case "global":
+                executor = immediate();
+                break;
+            case "wheel":
+                executor = newHashedWheelTimerExecutor(Runnable::run, Duration.ofMillis(1), 512);
+                break;
+            case "jdk":
+                executor = from(Runnable::run, newSingleThreadScheduledExecutor());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scheduler: " + scheduler);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (executor != immediate()) {
+            executor.closeAsync().toFuture().get();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void scheduleCancelSingleThread() {
+        executor.schedule(NOOP_TASK, 30, SECONDS).cancel();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void scheduleCancelContended() {
+        executor.schedule(NOOP_TASK, 30, SECONDS).cancel();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.concurrent;
+
+import io.servicetalk.concurrent.api.AsyncContext;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Publisher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.servicetalk.concurrent.api.Executors.newCachedThreadExecutor;
+import static io.servicetalk.concurrent.api.Executors.newOffloadingExecutor;
+import static io.servicetalk.concurrent.api.internal.OffloaderAwareExecutor.ensureThreadAffinity;
+import static java.lang.Runtime.getRuntime;
+
+/**
+ * Offloads the signals of a {@link Publisher} of {@link #items} items, which is what every offloaded streaming
+ * request or response does.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+public class SignalOffloadingBenchmark {
+    static {
+        AsyncContext.disable();
+    }
+
+    /**
+     * {@code task}: the default task based offloader on a cached thread {@link Executor}, {@code thread}: the thread
+     * based offloader on a cached thread {@link Executor}, {@code offloading}: the default task based offloader on an
+     * {@link io.servicetalk.concurrent.api.Executors#newOffloadingExecutor(int) offloading Executor}.
+     */
+    @Param({"task", "thread", "offloading"})
+    public String offloader;
+
+    @Param({"1", "16", "1024"})
+    public int items;
+
+    private Executor executor;
+    private Publisher<Integer> publisher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (offloader) {
+            case "task":
+                executor = newCachedThreadExecutor();
+                break;
+            case "thread":
+                executor = ensureThreadAffinity(newCachedThreadExecutor());
+                break;
+            case "offloading":
+                executor = newOffloadingExecutor(getRuntime().availableProcessors());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown offloader: " + offloader);
+        }
+        publisher = Publisher.range(0, items).publishOn(executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.closeAsync().toFuture().get();
+    }
+
+    @Benchmark
+    public void offloadSignals() throws Exception {
+        publisher.ignoreElements().toFuture().get();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.data;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.CompositeBuffer;
+import io.servicetalk.data.protobuf.ProtobufSerializationProvider;
+import io.servicetalk.serialization.api.StreamingDeserializer;
+import io.servicetalk.serialization.api.StreamingSerializer;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.BytesValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static java.lang.Math.min;
+
+/*
+ * This benchmark measures protobuf serialization into a Buffer and deserialization from a Buffer for small and
+ * multi-MB messages, with heap and direct memory.
+ *
+ * The serialized message is split into chunks of 16KB for deserialization, which resembles a payload body that is
+ * aggregated from the frames read by the transport.
+ *
+ * Run with "-prof gc" to compare the allocation rate (gc.alloc.rate.norm).
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProtobufSerializationBenchmark {
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    @Param({"16", "1024", "4194304"})
+    public int messageSize;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private final ProtobufSerializationProvider provider = new ProtobufSerializationProvider();
+    private StreamingSerializer serializer;
+    private StreamingDeserializer<BytesValue> deserializer;
+    private BytesValue message;
+    private CompositeBuffer serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final byte[] content = new byte[messageSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        message = BytesValue.newBuilder().setValue(ByteString.copyFrom(content)).build();
+        serializer = provider.getSerializer(BytesValue.class);
+        deserializer = provider.getDeserializer(BytesValue.class);
+
+        final byte[] bytes = message.toByteArray();
+        serialized = DEFAULT_ALLOCATOR.newCompositeBuffer(Integer.MAX_VALUE);
+        for (int i = 0; i < bytes.length; i += CHUNK_SIZE) {
+            final int length = min(CHUNK_SIZE, bytes.length - i);
+            serialized.addBuffer(DEFAULT_ALLOCATOR.newBuffer(length, direct).writeBytes(bytes, i, length));
+        }
+    }
+
+    @Benchmark
+    public Buffer serialize() {
+        // Start with a small buffer, as the serializer would get it from the BufferAllocator.
+        final Buffer buffer = DEFAULT_ALLOCATOR.newBuffer(256, direct);
+        serializer.serialize(message, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public BytesValue deserialize() {
+        return deserializer.deserialize(serialized.duplicate()).iterator().next();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.http;
+
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Executors;
+import io.servicetalk.http.api.HttpClient;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.servicetalk.concurrent.api.Publisher.range;
+import static io.servicetalk.http.api.HttpExecutionStrategies.defaultStrategy;
+import static io.servicetalk.http.api.HttpExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.http.netty.HttpClients.forResolvedAddress;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static io.servicetalk.http.netty.HttpServers.forAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+
+/*
+ * This benchmark compares the cached thread Executor and the virtual thread Executor to offload a BlockingHttpService
+ * which blocks for every request, e.g. waiting for a slow downstream call. Every invocation issues a batch of
+ * concurrent requests over a single HTTP/2 connection so that all blocking handlers are in flight at the same time.
+ *
+ * The virtual thread Executor requires Java 21+. Run with "-prof gc" to compare the allocation rate, the peak number
+ * of platform threads (and their stacks) created by the cached thread Executor grows with the concurrency.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockingServiceOffloadingBenchmark {
+
+    @Param({"cached", "virtual"})
+    public String executorType;
+
+    @Param({"1000", "10000"})
+    public int concurrency;
+
+    @Param({"10"})
+    public long blockingTimeMs;
+
+    private Executor executor;
+    private ServerContext serverContext;
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        executor = "virtual".equals(executorType) ? Executors.newVirtualThreadExecutor() :
+                Executors.newCachedThreadExecutor();
+        serverContext = forAddress(localAddress(0))
+                .protocols(h2Default())
+                .executionStrategy(defaultStrategy(executor))
+                .listenBlockingAndAwait((ctx, request, responseFactory) -> {
+                    Thread.sleep(blockingTimeMs);
+                    return responseFactory.ok();
+                });
+        client = forResolvedAddress(serverHostAndPort(serverContext))
+                .protocols(h2Default())
+                .executionStrategy(noOffloadsStrategy())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        serverContext.close();
+        executor.closeAsync().toFuture().get();
+    }
+
+    @Benchmark
+    public void concurrentBlockingRequests() throws Exception {
+        range(0, concurrency)
+                .flatMapMergeSingle(i -> client.request(client.get("/")), concurrency)
+                .ignoreElements()
+                .toFuture().get();
+    }
+}
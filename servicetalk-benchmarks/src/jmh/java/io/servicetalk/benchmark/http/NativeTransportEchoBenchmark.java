@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.http;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.transport.api.IoExecutor;
+import io.servicetalk.transport.api.ServerContext;
+import io.servicetalk.transport.netty.internal.IoThreadFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.http.netty.HttpClients.forResolvedAddress;
+import static io.servicetalk.http.netty.HttpServers.forAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static io.servicetalk.transport.netty.internal.NettyIoExecutors.fromNettyEventLoopGroup;
+
+/*
+ * This benchmark compares the epoll and io_uring transports for an echo request/response exchange over the loopback
+ * interface. It only runs on Linux, io_uring requires kernel 5.9 or later.
+ *
+ * Run with multiple threads (e.g. "-t 8") to compare the throughput with concurrent connections, each JMH thread uses
+ * its own connection.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NativeTransportEchoBenchmark {
+
+    @Param({"epoll", "io_uring"})
+    public String transport;
+
+    @Param({"256", "16384"})
+    public int payloadSize;
+
+    private IoExecutor ioExecutor;
+    private ServerContext serverContext;
+    private Buffer payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ioExecutor = fromNettyEventLoopGroup(newEventLoopGroup(transport));
+        payload = DEFAULT_ALLOCATOR.newBuffer(payloadSize).writeBytes(new byte[payloadSize]);
+        serverContext = forAddress(localAddress(0))
+                .ioExecutor(ioExecutor)
+                .executionStrategy(noOffloadsStrategy())
+                .listenAndAwait((ctx, request, responseFactory) ->
+                        succeeded(responseFactory.ok().payloadBody(request.payloadBody())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        serverContext.close();
+        ioExecutor.closeAsync().toFuture().get();
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        BlockingHttpClient client;
+
+        @Setup(Level.Trial)
+        public void setup(final NativeTransportEchoBenchmark benchmark) {
+            client = forResolvedAddress(serverHostAndPort(benchmark.serverContext))
+                    .ioExecutor(benchmark.ioExecutor)
+                    .executionStrategy(noOffloadsStrategy())
+                    .buildBlocking();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public int echo(final ClientState state) throws Exception {
+        final BlockingHttpClient client = state.client;
+        final HttpResponse response = client.request(client.post("/").payloadBody(payload.duplicate()));
+        return response.payloadBody().readableBytes();
+    }
+
+    private static EventLoopGroup newEventLoopGroup(final String transport) {
+        final IoThreadFactory threadFactory = new IoThreadFactory(transport + "-io-executor");
+        final int ioThreads = Runtime.getRuntime().availableProcessors();
+        switch (transport) {
+            case "epoll":
+                Epoll.ensureAvailability();
+                return new EpollEventLoopGroup(ioThreads, threadFactory);
+            case "io_uring":
+                IOUring.ensureAvailability();
+                return new IOUringEventLoopGroup(ioThreads, threadFactory);
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.http;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferAllocators.pooledAllocator;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpExecutionStrategies.noOffloadsStrategy;
+import static io.servicetalk.http.netty.HttpClients.forResolvedAddress;
+import static io.servicetalk.http.netty.HttpServers.forAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+
+/*
+ * This benchmark compares the unpooled (default) and pooled BufferAllocators for a request/response exchange over the
+ * loopback interface, where the server allocates a new response payload body on the event loop for every request.
+ *
+ * Run with "-prof gc" to compare the allocation rate (gc.alloc.rate.norm) of both allocators, the sample mode reports
+ * the latency percentiles (p0.99).
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 10)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PooledBufferAllocatorHttpBenchmark {
+
+    @Param({"unpooled", "pooled"})
+    public String allocatorType;
+
+    @Param({"1024", "65536"})
+    public int payloadSize;
+
+    private ServerContext serverContext;
+    private BlockingHttpClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final BufferAllocator allocator = "pooled".equals(allocatorType) ? pooledAllocator() : DEFAULT_ALLOCATOR;
+        final byte[] content = new byte[payloadSize];
+        serverContext = forAddress(localAddress(0))
+                .bufferAllocator(allocator)
+                .executionStrategy(noOffloadsStrategy())
+                .listenAndAwait((ctx, request, responseFactory) -> {
+                    final Buffer payload = ctx.executionContext().bufferAllocator().newBuffer(content.length)
+                            .writeBytes(content);
+                    return succeeded(responseFactory.ok().payloadBody(payload));
+                });
+        client = forResolvedAddress(serverHostAndPort(serverContext))
+                .bufferAllocator(allocator)
+                .executionStrategy(noOffloadsStrategy())
+                .buildBlocking();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        serverContext.close();
+    }
+
+    @Benchmark
+    public int requestResponse() throws Exception {
+        final HttpResponse response = client.request(client.get("/"));
+        return response.payloadBody().readableBytes();
+    }
+}
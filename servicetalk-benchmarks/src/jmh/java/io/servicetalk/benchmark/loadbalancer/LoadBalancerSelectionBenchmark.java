@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.benchmark.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.loadbalancer.EwmaScoreTracker;
+import io.servicetalk.loadbalancer.P2CLoadBalancer;
+import io.servicetalk.loadbalancer.RoundRobinLoadBalancer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static io.servicetalk.concurrent.api.Completable.completed;
+import static io.servicetalk.concurrent.api.Publisher.fromIterable;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.net.InetSocketAddress.createUnresolved;
+
+/*
+ * This benchmark measures the cost of selecting a connection from a load balancer which already established a
+ * connection to every address. The P2C load balancer reads the score of the connections of two addresses for every
+ * selection, while the round robin load balancer does not consider the score.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoadBalancerSelectionBenchmark {
+    private static final Predicate<LoadBalancedConnection> SELECTOR = __ -> true;
+
+    @Param({"roundrobin", "p2c"})
+    public String loadBalancerType;
+
+    @Param({"3", "10", "100"})
+    public int hosts;
+
+    private LoadBalancer<LoadBalancedConnection> loadBalancer;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final List<ServiceDiscovererEvent<InetSocketAddress>> events = new ArrayList<>(hosts);
+        for (int i = 1; i <= hosts; ++i) {
+            events.add(new DefaultServiceDiscovererEvent<>(createUnresolved("127.0.0." + i, 0), true));
+        }
+        // Load balancers synchronously subscribe and will consume all events during construction.
+        loadBalancer = "p2c".equals(loadBalancerType) ?
+                new P2CLoadBalancer<>(fromIterable(events), ConnFactory.INSTANCE) :
+                new RoundRobinLoadBalancer<>(fromIterable(events), ConnFactory.INSTANCE);
+        // Make sure that every address has a connection, so that the benchmark does not measure connection creation.
+        for (int i = 0; i < hosts * 100; ++i) {
+            loadBalancer.selectConnection(SELECTOR).toFuture().get();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        loadBalancer.closeAsync().toFuture().get();
+    }
+
+    @Benchmark
+    public LoadBalancedConnection selectConnection() throws Exception {
+        return loadBalancer.selectConnection(SELECTOR).toFuture().get();
+    }
+
+    private static final class ConnFactory implements ConnectionFactory<InetSocketAddress, LoadBalancedConnection> {
+        static final ConnFactory INSTANCE = new ConnFactory();
+
+        private ConnFactory() {
+        }
+
+        @Override
+        public Single<LoadBalancedConnection> newConnection(final InetSocketAddress inetSocketAddress) {
+            final EwmaScoreTracker scoreTracker = new EwmaScoreTracker();
+            return succeeded(new LoadBalancedConnection() {
+                @Override
+                public int score() {
+                    return scoreTracker.score();
+                }
+
+                @Override
+                public Completable onClose() {
+                    return completed();
+                }
+
+                @Override
+                public Completable closeAsync() {
+                    return completed();
+                }
+
+                @Override
+                public Completable closeAsyncGracefully() {
+                    return completed();
+                }
+            });
+        }
+
+        @Override
+        public Completable onClose() {
+            return completed();
+        }
+
+        @Override
+        public Completable closeAsync() {
+            return completed();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpHeadersFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static io.netty.buffer.Unpooled.directBuffer;
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.HttpHeaderNames.AUTHORIZATION;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.TE;
+import static io.servicetalk.http.api.HttpHeaderNames.USER_AGENT;
+import static io.servicetalk.http.api.HttpHeaderValues.TRAILERS;
+import static io.servicetalk.http.netty.H2ToStH1Utils.h1HeadersToH2Headers;
+
+/*
+ * This benchmark measures the HTTP/2 header path for a gRPC request with 17 headers, most of them custom metadata:
+ * - encode: build HttpHeaders, translate them to Http2Headers and HPACK encode them.
+ * - decode: HPACK decode a header block and look up names through the HttpHeaders view.
+ *
+ * factory=default builds DefaultHttpHeaders which have to be copied into Http2Headers before encoding, factory=h2
+ * builds Http2Headers directly via H2HeadersFactory. The encoder keeps its dynamic table across invocations, as it
+ * would on a long lived connection. Run with "-prof gc" to compare allocations.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@BenchmarkMode(Mode.Throughput)
+public class H2HeadersBenchmark {
+
+    private static final CharSequence GRPC_ACCEPT_ENCODING = newAsciiString("grpc-accept-encoding");
+    private static final CharSequence GRPC_TIMEOUT = newAsciiString("grpc-timeout");
+    private static final CharSequence X_REQUEST_ID = newAsciiString("x-request-id");
+    private static final CharSequence[] METADATA_NAMES = new CharSequence[10];
+
+    static {
+        for (int i = 0; i < METADATA_NAMES.length; ++i) {
+            METADATA_NAMES[i] = newAsciiString("x-metadata-" + i);
+        }
+    }
+
+    @Param({"default", "h2"})
+    private String factory;
+
+    private HttpHeadersFactory headersFactory;
+    private DefaultHttp2HeadersEncoder encoder;
+    private ByteBuf encoded;
+    private ByteBuf headerBlock;
+
+    @Setup(Level.Trial)
+    public void setup() throws Http2Exception {
+        headersFactory = "h2".equals(factory) ? H2HeadersFactory.INSTANCE : DefaultHttpHeadersFactory.INSTANCE;
+        encoder = new DefaultHttp2HeadersEncoder();
+        encoded = directBuffer(1024);
+        headerBlock = directBuffer(1024);
+        new DefaultHttp2HeadersEncoder().encodeHeaders(1, h1HeadersToH2Headers(build()), headerBlock);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        encoded.release();
+        headerBlock.release();
+    }
+
+    @Benchmark
+    public int encode() throws Http2Exception {
+        encoded.clear();
+        encoder.encodeHeaders(1, h1HeadersToH2Headers(build()), encoded);
+        return encoded.readableBytes();
+    }
+
+    @Benchmark
+    public void decode(final Blackhole bh) throws Http2Exception {
+        // A new decoder per header block, otherwise the dynamic table would be updated with the same entries.
+        final Http2Headers h2Headers = new DefaultHttp2HeadersDecoder(true).decodeHeaders(1,
+                headerBlock.duplicate());
+        final HttpHeaders headers = new NettyH2HeadersToHttpHeaders(h2Headers, true);
+        bh.consume(headers.get(CONTENT_TYPE));
+        bh.consume(headers.get(GRPC_TIMEOUT));
+        bh.consume(headers.get(METADATA_NAMES[METADATA_NAMES.length - 1]));
+    }
+
+    private HttpHeaders build() {
+        final HttpHeaders headers = headersFactory.newHeaders()
+                .add(CONTENT_TYPE, newAsciiString("application/grpc+proto"))
+                .add(TE, TRAILERS)
+                .add(USER_AGENT, newAsciiString("grpc-java-servicetalk/0.0.0"))
+                .add(GRPC_ACCEPT_ENCODING, newAsciiString("gzip"))
+                .add(GRPC_TIMEOUT, newAsciiString("1S"))
+                .add(AUTHORIZATION, newAsciiString("Bearer eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9"))
+                .add(X_REQUEST_ID, newAsciiString("f058ebd6-02f7-4d3f-942e-904344e8cde5"));
+        for (int i = 0; i < METADATA_NAMES.length; ++i) {
+            headers.add(METADATA_NAMES[i], newAsciiString("metadata-value-" + i));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.ArrayHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.EmptyHttpHeaders;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpHeadersFactory;
+import io.servicetalk.http.api.HttpResponseMetaData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN;
+import static io.servicetalk.http.api.HttpHeaderNames.CACHE_CONTROL;
+import static io.servicetalk.http.api.HttpHeaderNames.CONNECTION;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.DATE;
+import static io.servicetalk.http.api.HttpHeaderNames.ETAG;
+import static io.servicetalk.http.api.HttpHeaderNames.LAST_MODIFIED;
+import static io.servicetalk.http.api.HttpHeaderNames.SERVER;
+import static io.servicetalk.http.api.HttpHeaderNames.SET_COOKIE;
+import static io.servicetalk.http.api.HttpHeaderNames.VARY;
+import static io.servicetalk.http.api.HttpHeaderValues.APPLICATION_JSON;
+import static io.servicetalk.http.api.HttpHeaderValues.KEEP_ALIVE;
+import static io.servicetalk.http.api.HttpHeaderValues.NO_CACHE;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseMetaDataFactory.newResponseMetaData;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+
+/*
+ * This benchmark compares HttpHeaders implementations for a typical response with 16 headers, covering the life of
+ * the headers: building, looking up names (present and absent), iterating and encoding as HTTP/1.x.
+ *
+ * factory=default uses DefaultHttpHeadersFactory (hash buckets with an entry object per header), factory=array uses
+ * ArrayHttpHeadersFactory (parallel arrays with an open addressing index). Run with "-prof gc" to compare allocations.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 10)
+@BenchmarkMode(Mode.Throughput)
+public class HttpHeadersBenchmark {
+
+    private static final CharSequence X_REQUEST_ID = newAsciiString("x-request-id");
+    private static final CharSequence X_MISSING = newAsciiString("x-missing");
+
+    @Param({"default", "array"})
+    private String factory;
+
+    private HttpHeadersFactory headersFactory;
+    private HttpHeaders headers;
+    private HttpResponseMetaData metaData;
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        headersFactory = "array".equals(factory) ? ArrayHttpHeadersFactory.INSTANCE :
+                DefaultHttpHeadersFactory.INSTANCE;
+        headers = build();
+        metaData = newResponseMetaData(HTTP_1_1, OK, headers);
+        channel = new EmbeddedChannel(new HttpResponseEncoder(new ArrayDeque<>(), 256, 256));
+    }
+
+    @Benchmark
+    public HttpHeaders build() {
+        return headersFactory.newHeaders()
+                .add(DATE, newAsciiString("Sun, 06 Nov 1994 08:49:37 GMT"))
+                .add(SERVER, newAsciiString("servicetalk-benchmark"))
+                .add(CONTENT_TYPE, APPLICATION_JSON)
+                .add(CONTENT_LENGTH, newAsciiString("1024"))
+                .add(CONNECTION, KEEP_ALIVE)
+                .add(CACHE_CONTROL, NO_CACHE)
+                .add(ACCESS_CONTROL_ALLOW_ORIGIN, newAsciiString("*"))
+                .add(VARY, ACCEPT_ENCODING)
+                .add(VARY, ACCEPT)
+                .add(ETAG, newAsciiString("\"33a64df551425fcc55e4d42a148795d9f25f89d4\""))
+                .add(LAST_MODIFIED, newAsciiString("Wed, 21 Oct 2015 07:28:00 GMT"))
+                .add(SET_COOKIE, newAsciiString("session=38afes7a8; Path=/; Secure; HttpOnly"))
+                .add(SET_COOKIE, newAsciiString("lang=en-US; Path=/; Max-Age=3600"))
+                .add(X_REQUEST_ID, newAsciiString("f058ebd6-02f7-4d3f-942e-904344e8cde5"))
+                .add(newAsciiString("X-Custom-Header-Name"), newAsciiString("X-Custom-Header-Value"))
+                .add(newAsciiString("X-Another-Header-Name"), newAsciiString("X-Another-Header-Value"));
+    }
+
+    @Benchmark
+    public void get(final Blackhole bh) {
+        bh.consume(headers.get(CONTENT_LENGTH));
+        bh.consume(headers.get(X_REQUEST_ID));
+        bh.consume(headers.get(X_MISSING));
+        bh.consume(headers.contains(CONNECTION, KEEP_ALIVE));
+    }
+
+    @Benchmark
+    public int iterate() {
+        int length = 0;
+        final Iterator<Map.Entry<CharSequence, CharSequence>> itr = headers.iterator();
+        while (itr.hasNext()) {
+            final Map.Entry<CharSequence, CharSequence> entry = itr.next();
+            length += entry.getKey().length() + entry.getValue().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int encode() {
+        channel.writeOutbound(metaData);
+        channel.writeOutbound(EmptyHttpHeaders.INSTANCE);
+
+        int size = 0;
+        ByteBuf byteBuf;
+        while ((byteBuf = channel.readOutbound()) != null) {
+            size += byteBuf.readableBytes();
+            byteBuf.release();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.http.api.HttpRequestMethod;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferAllocators.PREFER_DIRECT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferUtils.getByteBufAllocator;
+import static io.servicetalk.buffer.netty.BufferUtils.toByteBuf;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/*
+ * This benchmark measures decoding of a typical browser GET request, with header names either in their canonical
+ * (well-known, interned) spelling or in an unusual case which has to be sliced from the cumulation buffer.
+ *
+ * Run with "-prof gc" to see the allocations per decoded request (gc.alloc.rate.norm).
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class HttpRequestDecoderBenchmark {
+
+    private static final String[][] HEADERS = {
+            {"Host", "servicetalk.io"},
+            {"User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10.15; rv:79.0) Gecko/20100101 Firefox/79.0"},
+            {"Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8"},
+            {"Accept-Language", "en-US,en;q=0.5"},
+            {"Accept-Encoding", "gzip, deflate, br"},
+            {"Referer", "https://servicetalk.io/"},
+            {"Connection", "keep-alive"},
+            {"Cookie", "session=abcdef0123456789; theme=dark"},
+            {"Upgrade-Insecure-Requests", "1"},
+            {"Cache-Control", "max-age=0"},
+    };
+
+    @Param({"canonical", "uppercase"})
+    private String nameCase;
+
+    private ByteBuf requestByteBuf;
+
+    private Queue<HttpRequestMethod> methodQueue;
+
+    private EmbeddedChannel channel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final StringBuilder sb = new StringBuilder(1024).append("GET /docs/index.html HTTP/1.1\r\n");
+        for (String[] header : HEADERS) {
+            sb.append("uppercase".equals(nameCase) ? header[0].toUpperCase() : header[0])
+                    .append(": ").append(header[1]).append("\r\n");
+        }
+        sb.append("\r\n");
+        requestByteBuf = toByteBuf(PREFER_DIRECT_ALLOCATOR.fromAscii(sb));
+
+        methodQueue = new ArrayDeque<>();
+        channel = new EmbeddedChannel(new HttpRequestDecoder(methodQueue,
+                getByteBufAllocator(DEFAULT_ALLOCATOR), DefaultHttpHeadersFactory.INSTANCE, 8192, 8192));
+    }
+
+    @Benchmark
+    public int headers() {
+        channel.writeInbound(requestByteBuf.duplicate());
+
+        final HttpRequestMetaData request = channel.readInbound();
+        final HttpHeaders trailers = channel.readInbound();
+        // The response encoder would normally consume the method.
+        methodQueue.poll();
+
+        if (request.headers().size() != HEADERS.length) {
+            throw new IllegalStateException("Unexpected number of headers: " + request.headers().size());
+        }
+
+        return request.headers().size() + trailers.size();
+    }
+}
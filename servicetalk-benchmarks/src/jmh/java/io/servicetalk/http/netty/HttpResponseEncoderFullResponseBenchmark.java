@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package io.servicetalk.http.netty;
 
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.http.api.EmptyHttpHeaders;
+import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpResponseMetaData;
 
 import io.netty.buffer.ByteBuf;
@@ -27,6 +28,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -37,12 +39,18 @@ import java.util.ArrayDeque;
 import static io.servicetalk.buffer.api.ReadOnlyBufferAllocators.DEFAULT_RO_ALLOCATOR;
 import static io.servicetalk.http.api.CharSequences.newAsciiString;
 import static io.servicetalk.http.api.DefaultHttpHeadersFactory.INSTANCE;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN;
+import static io.servicetalk.http.api.HttpHeaderNames.CACHE_CONTROL;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.DATE;
+import static io.servicetalk.http.api.HttpHeaderNames.SERVER;
+import static io.servicetalk.http.api.HttpHeaderValues.NO_CACHE;
 import static io.servicetalk.http.api.HttpHeaderValues.TEXT_PLAIN;
 import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
 import static io.servicetalk.http.api.HttpResponseMetaDataFactory.newResponseMetaData;
 import static io.servicetalk.http.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static io.servicetalk.transport.netty.internal.CloseHandler.UNSUPPORTED_PROTOCOL_CLOSE_HANDLER;
 
 /*
  * This benchmark measures encoding of full HTTP request with headers and payload body. Everything is allocated using
@@ -50,6 +58,10 @@ import static io.servicetalk.http.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
  *
  * Benchmark                                               Mode  Cnt       Score      Error  Units
  * HttpResponseEncoderBenchmarkFullResponse.fullResponse  thrpt    5  669406.100 ± 6113.671  ops/s
+ *
+ * With staticHeaders=true the server, content-type, CORS and caching headers are written from a pre-encoded block
+ * (H1ProtocolConfigBuilder#staticResponseHeaders) instead of being part of each response's headers, and the date
+ * header is taken from the per-thread cache (H1ProtocolConfigBuilder#dateResponseHeader).
  */
 @Fork(value = 1)
 @State(Scope.Benchmark)
@@ -58,6 +70,9 @@ import static io.servicetalk.http.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
 @BenchmarkMode(Mode.Throughput)
 public class HttpResponseEncoderFullResponseBenchmark {
 
+    @Param({"false", "true"})
+    private boolean staticHeaders;
+
     private HttpResponseMetaData metaData;
     private Buffer payloadBody;
 
@@ -68,10 +83,20 @@ public class HttpResponseEncoderFullResponseBenchmark {
         payloadBody = DEFAULT_RO_ALLOCATOR.fromAscii("Internal Server Error payload body for response");
         metaData = newResponseMetaData(HTTP_1_1, INTERNAL_SERVER_ERROR, INSTANCE.newHeaders())
                 .addHeader(CONTENT_LENGTH, newAsciiString(Integer.toString(payloadBody.readableBytes())))
-                .addHeader(CONTENT_TYPE, TEXT_PLAIN)
                 .addHeader(newAsciiString("X-Custom-Header-Name"), newAsciiString("X-Custom-Header-Value"));
+        final HttpHeaders commonHeaders = INSTANCE.newHeaders()
+                .add(SERVER, newAsciiString("servicetalk-benchmark"))
+                .add(CONTENT_TYPE, TEXT_PLAIN)
+                .add(ACCESS_CONTROL_ALLOW_ORIGIN, newAsciiString("*"))
+                .add(CACHE_CONTROL, NO_CACHE);
 
-        channel = new EmbeddedChannel(new HttpResponseEncoder(new ArrayDeque<>(), 256, 256));
+        if (staticHeaders) {
+            channel = new EmbeddedChannel(new HttpResponseEncoder(new ArrayDeque<>(), 256, 256,
+                    new EncodedHeaderBlock(commonHeaders), true, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER));
+        } else {
+            metaData.headers().add(commonHeaders).add(DATE, newAsciiString("Sun, 06 Nov 1994 08:49:37 GMT"));
+            channel = new EmbeddedChannel(new HttpResponseEncoder(new ArrayDeque<>(), 256, 256));
+        }
     }
 
     @Benchmark
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.router.predicate;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.servicetalk.buffer.api.ReadOnlyBufferAllocators.DEFAULT_RO_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpRequestMethod.GET;
+import static io.servicetalk.http.router.predicate.Predicates.method;
+import static io.servicetalk.http.router.predicate.Predicates.pathEquals;
+import static io.servicetalk.http.router.predicate.Predicates.pathStartsWith;
+
+/*
+ * This benchmark measures routing a request with InOrderRouter when the path requirements of the routes are indexed
+ * (as done by HttpPredicateRouterBuilder for whenPathEquals/whenPathIsOneOf/whenPathStartsWith) and when they are not,
+ * which requires evaluating the predicates of all preceding routes. Half of the routes require an exact path and the
+ * other half a path prefix, and all routes also require the GET method.
+ */
+@Fork(value = 1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.Throughput)
+public class HttpPredicateRouterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int routes;
+
+    @Param({"indexed", "sequential"})
+    public String mode;
+
+    private StreamingHttpService router;
+    private StreamingHttpRequest firstRouteRequest;
+    private StreamingHttpRequest lastRouteRequest;
+    private StreamingHttpRequest fallbackRequest;
+    private StreamingHttpRequestResponseFactory reqRespFactory;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final boolean indexed = "indexed".equals(mode);
+        final Single<StreamingHttpResponse> response = succeeded(null);
+        final StreamingHttpService service = (ctx, request, responseFactory) -> response;
+        final List<Route> routeList = new ArrayList<>(routes);
+        for (int i = 0; i < routes; ++i) {
+            final String path = path(i);
+            if ((i & 1) == 0) {
+                routeList.add(new Route(method(GET).and(pathEquals(path)), service, null,
+                        indexed ? new String[] {path} : null, null));
+            } else {
+                final String prefix = path + '/';
+                routeList.add(new Route(method(GET).and(pathStartsWith(prefix)), service, null,
+                        null, indexed ? prefix : null));
+            }
+        }
+        router = new InOrderRouter(DefaultFallbackServiceStreaming.instance(), routeList);
+        reqRespFactory = new DefaultStreamingHttpRequestResponseFactory(DEFAULT_RO_ALLOCATOR,
+                DefaultHttpHeadersFactory.INSTANCE, HTTP_1_1);
+        firstRouteRequest = reqRespFactory.get(path(0));
+        lastRouteRequest = reqRespFactory.get(path(routes - 1) + "/items/1");
+        fallbackRequest = reqRespFactory.get("/unknown");
+    }
+
+    private static String path(final int i) {
+        return "/api/v1/resource" + i;
+    }
+
+    @Benchmark
+    public Single<StreamingHttpResponse> firstRoute() {
+        return router.handle(null, firstRouteRequest, reqRespFactory);
+    }
+
+    @Benchmark
+    public Single<StreamingHttpResponse> lastRoute() {
+        return router.handle(null, lastRouteRequest, reqRespFactory);
+    }
+
+    @Benchmark
+    public Single<StreamingHttpResponse> fallback() {
+        return router.handle(null, fallbackRequest, reqRespFactory);
+    }
+}
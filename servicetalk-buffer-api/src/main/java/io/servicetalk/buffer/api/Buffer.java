@@ -1903,6 +1903,20 @@ public interface Buffer {
      */
     boolean isDirect();
 
+    /**
+     * Return the memory of this buffer to the {@link BufferAllocator} which allocated it, if the allocator pools memory.
+     * <p>
+     * Most {@link BufferAllocator}s do not pool memory and rely upon the GC to reclaim it, for these buffers this
+     * method is a noop. Buffers allocated by a pooling {@link BufferAllocator} are owned by the code which allocated
+     * them until they are written to a transport (at which point ownership is transferred to the transport) or until
+     * this method is called. A buffer must not be accessed after its memory has been returned.
+     *
+     * @return {@code true} if the memory of this buffer was returned to the allocator as a result of this call.
+     */
+    default boolean release() {
+        return false;
+    }
+
     /**
      * Returns {@code true} if and only if this buffer has a backing byte array.
      * If this method returns true, you can safely call {@link #array()} and
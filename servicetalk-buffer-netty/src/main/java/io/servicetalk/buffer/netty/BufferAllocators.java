@@ -18,6 +18,9 @@ package io.servicetalk.buffer.netty;
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
 
+import static io.netty.buffer.PooledByteBufAllocator.defaultNumDirectArena;
+import static io.netty.util.internal.PlatformDependent.directBufferPreferred;
+
 /**
  * Available {@link BufferAllocator}s.
  */
@@ -42,4 +45,43 @@ public final class BufferAllocators {
     private BufferAllocators() {
         // no instances
     }
+
+    /**
+     * Returns a shared {@link BufferAllocator} whose {@link Buffer}s are backed by pooled Netty buffers, using the
+     * default number of arenas. The pool is only created on the first invocation of this method. See
+     * {@link #newPooledAllocator(boolean, int)} for the ownership semantics of the returned {@link Buffer}s.
+     *
+     * @return a shared pooled {@link BufferAllocator}.
+     */
+    public static BufferAllocator pooledAllocator() {
+        return PooledAllocatorHolder.POOLED_ALLOCATOR;
+    }
+
+    /**
+     * Create a new {@link BufferAllocator} whose {@link Buffer}s are backed by pooled Netty buffers.
+     * <p>
+     * Unlike the other allocators in this class, {@link Buffer}s allocated by the returned allocator are reference
+     * counted. They are owned by the code which allocated them until they are written to a transport, which will
+     * {@link Buffer#release() release} them once written, or until {@link Buffer#release()} is called explicitly. A
+     * {@link Buffer} must not be written more than once or used after it has been written or released. Data read from
+     * the transport is still copied into unpooled memory, so user code never needs to release received
+     * {@link Buffer}s.
+     * <p>
+     * Thread local caches are only created for Netty event loop threads. Using the same number of arenas as IO threads
+     * gives each event loop its own arena and avoids contention between them.
+     *
+     * @param preferDirect {@code true} to prefer direct memory when the type of memory is not specified.
+     * @param numArenas the number of arenas (typically the number of IO threads).
+     * @return a new pooled {@link BufferAllocator}.
+     */
+    public static BufferAllocator newPooledAllocator(boolean preferDirect, int numArenas) {
+        return new PooledBufferAllocator(preferDirect, numArenas);
+    }
+
+    private static final class PooledAllocatorHolder {
+        // defaultNumDirectArena() is 0 if direct memory is not available, fallback to the number of IO threads Netty
+        // would use by default.
+        static final BufferAllocator POOLED_ALLOCATOR = newPooledAllocator(directBufferPreferred(),
+                Math.max(1, defaultNumDirectArena()));
+    }
 }
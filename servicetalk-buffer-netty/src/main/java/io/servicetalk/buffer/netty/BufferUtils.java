@@ -18,6 +18,7 @@ package io.servicetalk.buffer.netty;
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.buffer.api.EmptyBuffer;
+import io.servicetalk.buffer.netty.PooledBufferAllocator.PoolingByteBufAllocator;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -109,6 +110,61 @@ public final class BufferUtils {
                 directBufferPreferred() ? PREFER_DIRECT_ALLOCATOR : PREFER_HEAP_ALLOCATOR);
     }
 
+    /**
+     * Prepares a {@link ByteBuf} obtained from a {@link Buffer} to be written to a Netty channel, which releases it once
+     * written.
+     * <p>
+     * Pooled buffers transfer their ownership to the transport on write, so they are returned as-is and released by
+     * the transport. Other buffers are retained so that references held by the user remain accessible after the write.
+     *
+     * @param buffer the {@link ByteBuf} to write.
+     * @return the {@link ByteBuf} to pass to the Netty channel.
+     */
+    public static ByteBuf retainForWrite(ByteBuf buffer) {
+        return isPooled(buffer) ? buffer : buffer.retain();
+    }
+
+    /**
+     * Release the passed {@link Buffer} if it is backed by pooled memory and will not be written to the transport.
+     *
+     * @param buffer the {@link Buffer} which is discarded.
+     */
+    public static void releaseIfPooled(Buffer buffer) {
+        final ByteBuf byteBuf = toByteBufNoThrow(buffer);
+        if (byteBuf != null && isPooled(byteBuf)) {
+            byteBuf.release();
+        }
+    }
+
+    /**
+     * Returns a duplicate of the passed {@link Buffer} which holds its own reference to the memory, if the
+     * {@link Buffer} is backed by pooled memory.
+     * <p>
+     * Writing the duplicate to the transport transfers the ownership of the duplicate only, so the passed
+     * {@link Buffer} can be written again, e.g. when a request is retried. The passed {@link Buffer} must still be
+     * {@link Buffer#release() released} once it is not written anymore.
+     *
+     * @param buffer the {@link Buffer} to duplicate.
+     * @return a retained duplicate of the passed {@link Buffer}, or {@code null} if it is not backed by pooled memory.
+     */
+    @Nullable
+    public static Buffer retainedDuplicateIfPooled(Buffer buffer) {
+        final ByteBuf byteBuf = toByteBufNoThrow(buffer);
+        return byteBuf != null && isPooled(byteBuf) ? new NettyBuffer<>(byteBuf.retainedDuplicate()) : null;
+    }
+
+    /**
+     * Determines if the passed {@link ByteBuf} was allocated by a {@link BufferAllocators#newPooledAllocator(boolean,
+     * int) pooled BufferAllocator}, and hence is owned by the code which allocated it.
+     *
+     * @param buffer the {@link ByteBuf} to check.
+     * @return {@code true} if the passed {@link ByteBuf} was allocated by a pooled {@link BufferAllocator}.
+     */
+    static boolean isPooled(ByteBuf buffer) {
+        // Derived buffers (e.g. slices) and composites return the allocator of the buffer they were created from.
+        return buffer.alloc() instanceof PoolingByteBufAllocator;
+    }
+
     /**
      * Return a {@link Buffer} for the given {@link ByteBuf}.
      *
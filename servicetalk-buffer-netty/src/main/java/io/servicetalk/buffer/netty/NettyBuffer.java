@@ -795,6 +795,12 @@ class NettyBuffer<T extends ByteBuf> implements Buffer {
         return buffer.isDirect();
     }
 
+    @Override
+    public boolean release() {
+        // Unpooled buffers rely upon the GC, releasing them would invalidate references which are still in use.
+        return BufferUtils.isPooled(buffer) && buffer.release();
+    }
+
     @Override
     public boolean hasArray() {
         return buffer.hasArray();
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.buffer.netty;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.buffer.api.CompositeBuffer;
+import io.servicetalk.buffer.netty.ServiceTalkBufferAllocator.ForceTypeByteBufAllocator;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+
+import static io.netty.buffer.PooledByteBufAllocator.defaultMaxOrder;
+import static io.netty.buffer.PooledByteBufAllocator.defaultNormalCacheSize;
+import static io.netty.buffer.PooledByteBufAllocator.defaultPageSize;
+import static io.netty.buffer.PooledByteBufAllocator.defaultSmallCacheSize;
+import static io.servicetalk.buffer.api.EmptyBuffer.EMPTY_BUFFER;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A {@link BufferAllocator} which allocates memory from a {@link PooledByteBufAllocator}.
+ * <p>
+ * Thread local caches are only used for Netty event loop threads, so each event loop is bound to its own arena when
+ * the number of arenas is equal to the number of IO threads. Buffers returned from this allocator must either be
+ * written to a transport or {@link Buffer#release() released}. Leak detection is provided by Netty's
+ * {@code io.netty.util.ResourceLeakDetector} and can be configured via the {@code io.netty.leakDetection.level} system
+ * property (e.g. {@code paranoid} for tests).
+ * <p>
+ * Memory is not allocated when wrapping existing {@code byte[]} or {@link ByteBuffer} objects, so the returned
+ * {@link Buffer}s are unreleasable in this case and {@link Buffer#release()} is a noop.
+ */
+final class PooledBufferAllocator implements BufferAllocator {
+    private final PoolingByteBufAllocator allocator;
+    private final ByteBufAllocator forceHeapAllocator;
+    private final ByteBufAllocator forceDirectAllocator;
+    private final BufferAllocator wrapAllocator;
+    private final boolean preferDirect;
+
+    PooledBufferAllocator(boolean preferDirect, int numArenas) {
+        if (numArenas <= 0) {
+            throw new IllegalArgumentException("numArenas: " + numArenas + " (expected >0)");
+        }
+        this.preferDirect = preferDirect;
+        // useCacheForAllThreads=false means only FastThreadLocalThreads (e.g. Netty event loops) get a thread local
+        // cache, and each of these threads is bound to the least used arena. Offloaded threads will use the arenas
+        // without a cache, which avoids unbounded growth of thread local caches for large thread pools.
+        allocator = new PoolingByteBufAllocator(preferDirect, numArenas);
+        forceHeapAllocator = new ForceTypeByteBufAllocator(allocator, false);
+        forceDirectAllocator = new ForceTypeByteBufAllocator(allocator, true);
+        wrapAllocator = preferDirect ? BufferUtils.PREFER_DIRECT_ALLOCATOR : BufferUtils.PREFER_HEAP_ALLOCATOR;
+    }
+
+    @Override
+    public Buffer newBuffer(int initialCapacity) {
+        return new NettyBuffer<>(allocator.buffer(initialCapacity));
+    }
+
+    @Override
+    public Buffer newBuffer(int initialCapacity, boolean direct) {
+        return new NettyBuffer<>(direct ? allocator.directBuffer(initialCapacity) :
+                allocator.heapBuffer(initialCapacity));
+    }
+
+    @Override
+    public CompositeBuffer newCompositeBuffer() {
+        return newCompositeBuffer(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public CompositeBuffer newCompositeBuffer(int maxComponents) {
+        // The composite itself does not hold pooled memory, so it is not tracked for leaks. Releasing the composite
+        // will release all of its components.
+        return new NettyCompositeBuffer(new CompositeByteBuf(allocator, preferDirect, maxComponents));
+    }
+
+    @Override
+    public Buffer fromSequence(CharSequence data, Charset charset) {
+        if (charset == US_ASCII) {
+            return fromAscii(data);
+        }
+        if (charset == UTF_8) {
+            return fromUtf8(data);
+        }
+        return fromSequence0(allocator, data, charset);
+    }
+
+    @Override
+    public Buffer fromSequence(CharSequence data, Charset charset, boolean direct) {
+        if (charset == US_ASCII) {
+            return fromAscii(data, direct);
+        }
+        if (charset == UTF_8) {
+            return fromUtf8(data, direct);
+        }
+        return fromSequence0(direct ? forceDirectAllocator : forceHeapAllocator, data, charset);
+    }
+
+    @Override
+    public Buffer fromUtf8(CharSequence data) {
+        return data.length() == 0 ? EMPTY_BUFFER : new NettyBuffer<>(ByteBufUtil.writeUtf8(allocator, data));
+    }
+
+    @Override
+    public Buffer fromUtf8(CharSequence data, boolean direct) {
+        return data.length() == 0 ? EMPTY_BUFFER : new NettyBuffer<>(ByteBufUtil.writeUtf8(direct ?
+                forceDirectAllocator : forceHeapAllocator, data));
+    }
+
+    @Override
+    public Buffer fromAscii(CharSequence data) {
+        return data.length() == 0 ? EMPTY_BUFFER : new NettyBuffer<>(ByteBufUtil.writeAscii(allocator, data));
+    }
+
+    @Override
+    public Buffer fromAscii(CharSequence data, boolean direct) {
+        return data.length() == 0 ? EMPTY_BUFFER : new NettyBuffer<>(ByteBufUtil.writeAscii(direct ?
+                forceDirectAllocator : forceHeapAllocator, data));
+    }
+
+    @Override
+    public Buffer wrap(byte[] bytes) {
+        return wrapAllocator.wrap(bytes);
+    }
+
+    @Override
+    public Buffer wrap(ByteBuffer buffer) {
+        return wrapAllocator.wrap(buffer);
+    }
+
+    /**
+     * Identifies the {@link ByteBuf}s allocated by a {@link PooledBufferAllocator}, see
+     * {@link BufferUtils#isPooled(ByteBuf)}. Other pooled {@link ByteBufAllocator}s (e.g. the one of
+     * the transport) must not be mistaken for it, their buffers are not owned by the user.
+     */
+    static final class PoolingByteBufAllocator extends PooledByteBufAllocator {
+        PoolingByteBufAllocator(boolean preferDirect, int numArenas) {
+            super(preferDirect, numArenas, numArenas, defaultPageSize(), defaultMaxOrder(),
+                    defaultSmallCacheSize(), defaultNormalCacheSize(), false);
+        }
+    }
+
+    private static Buffer fromSequence0(ByteBufAllocator allocator, CharSequence data, Charset charset) {
+        return data.length() == 0 ? EMPTY_BUFFER : new NettyBuffer<>(ByteBufUtil.encodeString(allocator,
+                data instanceof CharBuffer ? (CharBuffer) data : CharBuffer.wrap(data), charset));
+    }
+}
@@ -743,6 +743,12 @@ class WrappedBuffer implements Buffer {
         return buffer.isDirect();
     }
 
+    @Override
+    public boolean release() {
+        // The wrapped Buffer is a noop for unpooled memory.
+        return buffer.release();
+    }
+
     @Override
     public boolean hasArray() {
         return buffer.hasArray();
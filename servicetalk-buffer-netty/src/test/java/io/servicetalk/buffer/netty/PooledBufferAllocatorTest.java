@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.buffer.netty;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.buffer.api.CompositeBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static io.servicetalk.buffer.netty.BufferUtils.newBufferFrom;
+import static io.servicetalk.buffer.netty.BufferUtils.releaseIfPooled;
+import static io.servicetalk.buffer.netty.BufferUtils.retainedDuplicateIfPooled;
+import static io.servicetalk.buffer.netty.BufferUtils.retainForWrite;
+import static io.servicetalk.buffer.netty.BufferUtils.toByteBuf;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+@RunWith(Parameterized.class)
+public class PooledBufferAllocatorTest {
+
+    private final BufferAllocator allocator;
+    private final boolean preferDirect;
+
+    public PooledBufferAllocatorTest(boolean preferDirect) {
+        this.preferDirect = preferDirect;
+        allocator = BufferAllocators.newPooledAllocator(preferDirect, 1);
+    }
+
+    @Parameterized.Parameters(name = "{index}: preferDirect = {0}")
+    public static Collection<Boolean> data() {
+        return Arrays.asList(true, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidNumArenas() {
+        BufferAllocators.newPooledAllocator(preferDirect, 0);
+    }
+
+    @Test
+    public void newBuffer() {
+        assertReleasable(allocator.newBuffer(), preferDirect);
+        assertReleasable(allocator.newBuffer(true), true);
+        assertReleasable(allocator.newBuffer(false), false);
+    }
+
+    @Test
+    public void fromSequence() {
+        assertReleasable(allocator.fromAscii("test"), preferDirect);
+        assertReleasable(allocator.fromAscii("test", true), true);
+        assertReleasable(allocator.fromAscii("test", false), false);
+        assertReleasable(allocator.fromUtf8("test"), preferDirect);
+        assertReleasable(allocator.fromUtf8("test", true), true);
+        assertReleasable(allocator.fromUtf8("test", false), false);
+        assertReleasable(allocator.fromSequence("test", UTF_16), preferDirect);
+        assertReleasable(allocator.fromSequence("test", UTF_16, true), true);
+        assertReleasable(allocator.fromSequence("test", UTF_16, false), false);
+    }
+
+    @Test
+    public void fromSequenceContent() {
+        Buffer buffer = allocator.fromSequence("test", UTF_16, true);
+        assertThat(buffer.toString(UTF_16), is("test"));
+        assertThat(buffer.release(), is(true));
+    }
+
+    @Test
+    public void releaseCompositeReleasesComponents() {
+        Buffer component1 = allocator.fromAscii("test1");
+        Buffer component2 = allocator.fromAscii("test2");
+        CompositeBuffer composite = allocator.newCompositeBuffer().addBuffer(component1).addBuffer(component2);
+        assertThat(composite.toString(US_ASCII), is("test1test2"));
+
+        assertThat(composite.release(), is(true));
+        assertThat(toByteBuf(component1).refCnt(), is(0));
+        assertThat(toByteBuf(component2).refCnt(), is(0));
+    }
+
+    @Test
+    public void releaseReadOnlyView() {
+        Buffer buffer = allocator.fromAscii("test");
+        assertThat(buffer.asReadOnly().release(), is(true));
+        assertThat(toByteBuf(buffer).refCnt(), is(0));
+    }
+
+    @Test
+    public void wrapIsUnreleasable() {
+        Buffer wrapped = allocator.wrap(new byte[] {1, 2, 3});
+        assertThat(wrapped.release(), is(false));
+        assertThat(toByteBuf(wrapped).refCnt(), greaterThan(0));
+    }
+
+    @Test
+    public void writeTransfersOwnershipOfPooledBuffers() {
+        ByteBuf pooled = toByteBuf(allocator.fromAscii("test"));
+        assertThat(retainForWrite(pooled), is(sameInstance(pooled)));
+        assertThat(pooled.refCnt(), is(1));
+        pooled.release();
+
+        ByteBuf unpooled = toByteBuf(BufferAllocators.DEFAULT_ALLOCATOR.fromAscii("test"));
+        int refCnt = unpooled.refCnt();
+        retainForWrite(unpooled).release();
+        assertThat(unpooled.refCnt(), is(refCnt));
+    }
+
+    @Test
+    public void releaseIfPooledOnlyReleasesPooledBuffers() {
+        Buffer pooled = allocator.fromAscii("test");
+        releaseIfPooled(pooled);
+        assertThat(toByteBuf(pooled).refCnt(), is(0));
+
+        Buffer unpooled = newBufferFrom(Unpooled.buffer().writeByte(1));
+        releaseIfPooled(unpooled);
+        assertThat(toByteBuf(unpooled).refCnt(), is(1));
+    }
+
+    @Test
+    public void releaseIsNoopForUnpooledBuffers() {
+        Buffer unpooled = BufferAllocators.DEFAULT_ALLOCATOR.fromAscii("test");
+        int refCnt = toByteBuf(unpooled).refCnt();
+        assertThat(unpooled.release(), is(false));
+        assertThat(unpooled.asReadOnly().release(), is(false));
+        assertThat(toByteBuf(unpooled).refCnt(), is(refCnt));
+    }
+
+    @Test
+    public void buffersOfOtherPooledAllocatorsAreNotOwned() {
+        Buffer transportBuffer = newBufferFrom(PooledByteBufAllocator.DEFAULT.directBuffer().writeByte(1));
+        try {
+            assertThat(transportBuffer.release(), is(false));
+            releaseIfPooled(transportBuffer);
+            assertThat(toByteBuf(transportBuffer).refCnt(), is(1));
+            assertThat(retainedDuplicateIfPooled(transportBuffer), is(nullValue()));
+        } finally {
+            toByteBuf(transportBuffer).release();
+        }
+    }
+
+    @Test
+    public void retainedDuplicateCanBeWrittenWithoutReleasingOriginal() {
+        Buffer pooled = allocator.fromAscii("test");
+        Buffer duplicate = retainedDuplicateIfPooled(pooled);
+        assertThat(duplicate, is(notNullValue()));
+        assertThat(toByteBuf(pooled).refCnt(), is(2));
+        // Writing the duplicate transfers its ownership to the transport, which releases it.
+        retainForWrite(toByteBuf(duplicate)).release();
+        assertThat(pooled.toString(US_ASCII), is("test"));
+        assertThat(pooled.release(), is(true));
+    }
+
+    private static void assertReleasable(Buffer buffer, boolean direct) {
+        assertThat(buffer.isDirect(), is(direct));
+        ByteBuf byteBuf = toByteBuf(buffer);
+        assertThat(byteBuf.refCnt(), is(1));
+        assertThat(buffer.release(), is(true));
+        assertThat(byteBuf.refCnt(), is(0));
+    }
+}
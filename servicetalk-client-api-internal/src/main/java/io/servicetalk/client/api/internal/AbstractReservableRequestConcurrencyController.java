@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -112,6 +112,11 @@ abstract class AbstractReservableRequestConcurrencyController implements Reserva
         };
     }
 
+    @Override
+    public final int activeRequests() {
+        return pendingRequests;
+    }
+
     final int lastSeenMaxValue(int defaultValue) {
         return maxConcurrencyHolder.lastSeenValue(defaultValue);
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,4 +33,18 @@ public interface ReservableRequestConcurrencyController extends RequestConcurren
      * @return a {@link Completable} for the release.
      */
     Completable releaseAsync();
+
+    /**
+     * Returns the number of requests which are currently accepted by {@link #tryRequest()} and not yet
+     * {@link #requestFinished() finished}.
+     * @return the number of requests in-flight, or a negative value if the connection is reserved or will not accept
+     * requests anymore.
+     */
+    int activeRequests();
+
+    /**
+     * Returns the maximum number of concurrent requests which {@link #tryRequest()} currently accepts.
+     * @return the maximum number of concurrent requests which {@link #tryRequest()} currently accepts.
+     */
+    int maxConcurrentRequests();
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,11 @@ final class ReservableRequestConcurrencyControllerMulti extends AbstractReservab
         this.maxRequests = maxRequests;
     }
 
+    @Override
+    public int maxConcurrentRequests() {
+        return lastSeenMaxValue(maxRequests);
+    }
+
     @Override
     public Result tryRequest() {
         final int maxConcurrency = lastSeenMaxValue(maxRequests);
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,11 @@ final class ReservableRequestConcurrencyControllerOnlySingle extends AbstractRes
         super(maxConcurrency, onClosing);
     }
 
+    @Override
+    public int maxConcurrentRequests() {
+        return lastSeenMaxValue(1) > 0 ? 1 : 0;
+    }
+
     @Override
     public Result tryRequest() {
         // No concurrency means we have to have 0 requests!
@@ -270,6 +270,15 @@ public abstract class AbstractRetryingFilterBuilder<Builder
             return retryForPredicate.test(meta, throwable);
         }
 
+        /**
+         * Returns the maximum number of allowed retries.
+         *
+         * @return the maximum number of allowed retries
+         */
+        public int maxRetries() {
+            return maxRetries;
+        }
+
         /**
          * Builds a new retry strategy {@link BiIntFunction} for retrying with
          * {@link Publisher#retryWhen(BiIntFunction)}, {@link Single#retryWhen(BiIntFunction)}, and
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.client.api;
+
+/**
+ * A {@link LoadBalancedConnection} which may process multiple requests concurrently, for example by multiplexing
+ * streams over a single transport connection.
+ * <p>
+ * {@link LoadBalancer}s may use the current usage of such connections to spread requests across connections instead of
+ * saturating a single connection before using the next one.
+ */
+public interface MultiplexedLoadBalancedConnection extends LoadBalancedConnection {
+
+    /**
+     * Returns the number of requests which are currently in-flight on this connection.
+     *
+     * @return the number of requests which are currently in-flight on this connection, or a negative value if this
+     * connection is reserved or does not accept new requests anymore (e.g. because it is closing).
+     */
+    int activeRequests();
+
+    /**
+     * Returns the maximum number of requests which this connection currently allows to be in-flight concurrently. This
+     * value may change over the lifetime of the connection, for example when the peer updates its settings.
+     *
+     * @return the maximum number of requests which this connection currently allows to be in-flight concurrently.
+     */
+    int maxConcurrentRequests();
+
+    /**
+     * Sets a {@link Runnable} which is invoked every time a request on this connection completes, and hence this
+     * connection may accept a new request. A connection supports a single listener, a subsequent invocation replaces
+     * the previous listener.
+     *
+     * @param listener the {@link Runnable} to invoke every time a request on this connection completes.
+     */
+    void capacityListener(Runnable listener);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.client.api;
+
+/**
+ * A {@link LoadBalancedConnection} which reports the outcome of its requests.
+ * <p>
+ * {@link LoadBalancer}s may use the outcome of requests to detect unhealthy addresses which still accept connections.
+ */
+public interface RequestTrackingLoadBalancedConnection extends LoadBalancedConnection {
+
+    /**
+     * Sets a {@link RequestOutcomeListener} which is notified about the outcome of every request on this connection.
+     * A connection supports a single listener, a subsequent invocation replaces the previous listener.
+     *
+     * @param listener the {@link RequestOutcomeListener} to notify.
+     */
+    void requestOutcomeListener(RequestOutcomeListener listener);
+
+    /**
+     * A listener for the outcome of requests on a {@link RequestTrackingLoadBalancedConnection}.
+     */
+    interface RequestOutcomeListener {
+        /**
+         * Invoked when a request succeeded.
+         */
+        void onSuccess();
+
+        /**
+         * Invoked when a request failed, either because of an error or because the peer indicated a failure which is
+         * not caused by the request (e.g. an HTTP 5xx response).
+         */
+        void onFailure();
+    }
+}
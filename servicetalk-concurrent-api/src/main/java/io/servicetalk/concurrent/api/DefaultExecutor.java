@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,7 +36,7 @@ import javax.annotation.Nullable;
 import static io.servicetalk.concurrent.Cancellable.IGNORE_CANCEL;
 import static io.servicetalk.concurrent.internal.SignalOffloaders.defaultOffloaderFactory;
 import static java.lang.Thread.NORM_PRIORITY;
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -46,14 +46,19 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 final class DefaultExecutor extends AbstractOffloaderAwareExecutor implements Consumer<Runnable> {
 
     private static final long DEFAULT_KEEP_ALIVE_TIME_SECONDS = 60;
+    private static final long GLOBAL_TIMER_TICK_MILLIS = 1;
+    private static final int GLOBAL_TIMER_TICKS_PER_WHEEL = 512;
     /**
      * We do not execute user code (potentially blocking/long running) on the scheduler thread and hence using a single
      * scheduler thread is usually ok. In cases, when it is not, one can always override the executor with a custom
      * scheduler.
+     * <p>
+     * Most tasks scheduled on the global scheduler are timeouts which are cancelled before they expire, so a hashed
+     * wheel is used instead of a heap protected by a lock, which becomes a point of contention at high request rates.
      */
-    private static final ScheduledExecutorService GLOBAL_SINGLE_THREADED_SCHEDULED_EXECUTOR =
-            newSingleThreadScheduledExecutor(new DefaultThreadFactory("servicetalk-global-scheduler",
-                    true, NORM_PRIORITY));
+    private static final HashedWheelTimer GLOBAL_TIMER = new HashedWheelTimer(
+            new DefaultThreadFactory("servicetalk-global-scheduler", true, NORM_PRIORITY),
+            GLOBAL_TIMER_TICK_MILLIS, MILLISECONDS, GLOBAL_TIMER_TICKS_PER_WHEEL);
     private static final RejectedExecutionHandler DEFAULT_REJECTION_HANDLER = new AbortPolicy();
 
     private final InternalExecutor executor;
@@ -72,7 +77,12 @@ final class DefaultExecutor extends AbstractOffloaderAwareExecutor implements Co
 
     DefaultExecutor(java.util.concurrent.Executor jdkExecutor, boolean interruptOnCancel) {
         // Since we run blocking task, we should try interrupt when cancelled.
-        this(jdkExecutor, new SingleThreadedScheduler(jdkExecutor), interruptOnCancel);
+        this(jdkExecutor, new WheelTimerScheduler(jdkExecutor, GLOBAL_TIMER, false), interruptOnCancel);
+    }
+
+    DefaultExecutor(java.util.concurrent.Executor jdkExecutor, HashedWheelTimer timer) {
+        // Since we run blocking task, we should try interrupt when cancelled.
+        this(jdkExecutor, new WheelTimerScheduler(jdkExecutor, timer, true), true);
     }
 
     DefaultExecutor(java.util.concurrent.Executor jdkExecutor, ScheduledExecutorService scheduler) {
@@ -208,32 +218,34 @@ final class DefaultExecutor extends AbstractOffloaderAwareExecutor implements Co
         };
     }
 
-    private static final class SingleThreadedScheduler implements InternalScheduler {
+    private static final class WheelTimerScheduler implements InternalScheduler {
 
         private final java.util.concurrent.Executor offloadExecutor;
+        private final HashedWheelTimer timer;
+        private final boolean stopOnClose;
 
-        SingleThreadedScheduler(final java.util.concurrent.Executor offloadExecutor) {
+        WheelTimerScheduler(final java.util.concurrent.Executor offloadExecutor, final HashedWheelTimer timer,
+                            final boolean stopOnClose) {
             this.offloadExecutor = offloadExecutor;
+            this.timer = timer;
+            this.stopOnClose = stopOnClose;
         }
 
         @Override
         public void run() {
-            // This uses shared scheduled executor service and hence there is no clear lifetime, so, we ignore shutdown.
-            // Since GLOBAL_SINGLE_THREADED_SCHEDULED_EXECUTOR uses daemon threads, the threads will be shutdown on JVM
-            // shutdown.
+            // A dedicated timer is owned by this Executor and stopped with it. The global timer is shared and hence
+            // has no clear lifetime, so it is never stopped. It uses a daemon thread, which ends on JVM shutdown.
+            if (stopOnClose) {
+                timer.stop();
+            }
         }
 
         @Override
         public Cancellable apply(final Runnable task, final long delay, final TimeUnit unit) {
-            // When using the global scheduler, offload timer ticks to the user specified Executor since user code
-            // executed on the timer tick can block.
-            ScheduledFuture<?> future = GLOBAL_SINGLE_THREADED_SCHEDULED_EXECUTOR.schedule(
-                    () -> offloadExecutor.execute(task), delay, unit);
-            // Schedulers are only used to generate a tick and do not execute any user code. This means they will never
-            // run any blocking code and hence it does not matter whether we use the interruptOnCancel as sent by the
-            // user upon creation in the scheduler. User code (completion of Completable on tick) will be executed on
-            // the configured executor and not the Scheduler thread.
-            return () -> future.cancel(true);
+            // Offload timer ticks to the user specified Executor since user code executed on the timer tick can block.
+            // The timer is only used to generate a tick and does not execute any user code, so cancelling the
+            // returned Cancellable never needs to interrupt a thread.
+            return timer.schedule(() -> offloadExecutor.execute(task), delay, unit);
         }
     }
 }
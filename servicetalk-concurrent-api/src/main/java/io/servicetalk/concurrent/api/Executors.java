@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,12 +15,15 @@
  */
 package io.servicetalk.concurrent.api;
 
+import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import static io.servicetalk.concurrent.api.ImmediateExecutor.IMMEDIATE_EXECUTOR;
+import static java.lang.Thread.NORM_PRIORITY;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Utility methods to create various {@link Executor}s.
@@ -88,6 +91,55 @@ public final class Executors {
         return EXECUTOR_PLUGINS.wrapExecutor(new DefaultExecutor(1, Integer.MAX_VALUE, threadFactory));
     }
 
+    /**
+     * Creates a new {@link Executor} optimized for offloading signals, with a fixed number of threads as specified by
+     * the {@code size}.
+     * <p>
+     * Each thread drains its own queue of tasks in batches and tasks submitted from the same thread are preferably
+     * executed by the same thread, idle threads steal tasks from other threads. Compared to
+     * {@link #newCachedThreadExecutor()} this avoids a thread hand-off for every offloaded signal, but it is only
+     * suitable for short non-blocking tasks: a blocking task delays other tasks queued for the same thread.
+     *
+     * @param size Number of threads used by the newly created {@link Executor}.
+     * @return A new {@link Executor} that will use the {@code size} number of threads.
+     */
+    public static Executor newOffloadingExecutor(int size) {
+        return newOffloadingExecutor(size, new DefaultThreadFactory());
+    }
+
+    /**
+     * Creates a new {@link Executor} optimized for offloading signals, with a fixed number of threads as specified by
+     * the {@code size}.
+     * <p>
+     * Each thread drains its own queue of tasks in batches and tasks submitted from the same thread are preferably
+     * executed by the same thread, idle threads steal tasks from other threads. Compared to
+     * {@link #newCachedThreadExecutor(ThreadFactory)} this avoids a thread hand-off for every offloaded signal, but it
+     * is only suitable for short non-blocking tasks: a blocking task delays other tasks queued for the same thread.
+     *
+     * @param size Number of threads used by the newly created {@link Executor}.
+     * @param threadFactory {@link ThreadFactory} to use.
+     * @return A new {@link Executor} that will use the {@code size} number of threads.
+     */
+    public static Executor newOffloadingExecutor(int size, ThreadFactory threadFactory) {
+        return EXECUTOR_PLUGINS.wrapExecutor(new DefaultExecutor(new OffloadingWorkerPool(size, threadFactory)));
+    }
+
+    /**
+     * Creates a new {@link Executor} that starts a new virtual thread for each task. Delayed task execution will be
+     * delegated to a global scheduler.
+     * <p>
+     * Virtual threads are cheap to create and block, which makes this {@link Executor} a good fit to offload a large
+     * number of concurrent blocking tasks (e.g. for the blocking programming models) that would otherwise require a
+     * platform thread each.
+     *
+     * @return A new {@link Executor}.
+     * @throws UnsupportedOperationException if virtual threads are not available (Java 21+ is required).
+     */
+    public static Executor newVirtualThreadExecutor() {
+        return EXECUTOR_PLUGINS.wrapExecutor(new DefaultExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor(),
+                true));
+    }
+
     /**
      * Creates a new {@link Executor} from the provided {@code jdkExecutor}. <p>
      * Delayed task execution will be delegated to a global scheduler, unless passed
@@ -242,4 +294,31 @@ public final class Executors {
         return EXECUTOR_PLUGINS.wrapExecutor(
                 new DefaultExecutor(jdkExecutor, scheduledExecutorService, mayInterruptOnCancel));
     }
+
+    /**
+     * Creates a new {@link Executor} using {@code executor} to execute immediate tasks and a dedicated hashed wheel
+     * timer to schedule delayed tasks.
+     * <p>
+     * Scheduling and cancelling a delayed task are {@code O(1)} and do not take a lock, which suits timeouts that are
+     * scheduled at a high rate and almost always cancelled before they expire. Delayed tasks expire with the resolution
+     * of {@code tickDuration} and are executed on {@code jdkExecutor}. The global scheduler used by {@link Executor}s
+     * which are created without a {@link ScheduledExecutorService} is also a hashed wheel timer, with a tick of one
+     * millisecond.
+     * Task execution will not honor cancellations unless passed {@link java.util.concurrent.Executor}
+     * is an instance of {@link ExecutorService}.
+     *
+     * @param jdkExecutor {@link java.util.concurrent.Executor} to use for executing tasks.
+     * The lifetime of this object is transferred to the return value. In other words {@link Executor#closeAsync()} will
+     * call {@link ExecutorService#shutdown()} (if possible).
+     * @param tickDuration the resolution of the timer.
+     * @param ticksPerWheel the number of buckets of the wheel. Delayed tasks are spread over the buckets, so a higher
+     * number reduces the number of tasks visited on every tick, at the cost of memory.
+     * @return A new {@link Executor}.
+     */
+    public static Executor newHashedWheelTimerExecutor(java.util.concurrent.Executor jdkExecutor,
+                                                       Duration tickDuration, int ticksPerWheel) {
+        return EXECUTOR_PLUGINS.wrapExecutor(new DefaultExecutor(jdkExecutor, new HashedWheelTimer(
+                new DefaultThreadFactory("servicetalk-timer", true, NORM_PRIORITY), tickDuration.toNanos(),
+                NANOSECONDS, ticksPerWheel)));
+    }
 }
@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import io.servicetalk.concurrent.Cancellable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * A timer which keeps scheduled tasks in a hashed wheel of buckets, as described in
+ * <a href="http://www.cs.columbia.edu/~nahum/w6998/papers/ton97-timing-wheels.pdf">Hashed and Hierarchical Timing
+ * Wheels</a>.
+ * <p>
+ * Scheduling and cancelling a task are {@code O(1)} and do not take a lock: scheduled tasks are added to a lock-free
+ * queue which is drained by the worker thread on every tick, and cancelled tasks are only marked as such and removed
+ * by the worker thread when it visits their bucket, at the latest after one revolution of the wheel. This suits
+ * timeouts, which are scheduled at a high rate and almost always cancelled before they expire, better than a heap
+ * protected by a lock. Tasks expire with the resolution of a tick, and are run on the worker thread.
+ * <p>
+ * The worker thread is started when the first task is scheduled, and parks without ticking while no task is scheduled.
+ * While tasks are scheduled it only wakes up for the ticks of buckets which hold tasks, or when another task is
+ * scheduled, rather than on every tick.
+ */
+final class HashedWheelTimer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_SHUTDOWN = 2;
+    private static final AtomicIntegerFieldUpdater<HashedWheelTimer> workerStateUpdater =
+            newUpdater(HashedWheelTimer.class, "workerState");
+
+    private final long tickNanos;
+    private final int mask;
+    private final Timeout[] bucketHeads;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Thread workerThread;
+    private final long startNanos;
+    private volatile int workerState;
+    private volatile boolean workerIdle;
+
+    /**
+     * Create a new instance.
+     *
+     * @param threadFactory the {@link ThreadFactory} to create the worker thread.
+     * @param tickDuration the duration of a tick.
+     * @param unit the {@link TimeUnit} of {@code tickDuration}.
+     * @param ticksPerWheel the number of buckets of the wheel, rounded up to a power of two.
+     */
+    HashedWheelTimer(final ThreadFactory threadFactory, final long tickDuration, final TimeUnit unit,
+                     final int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration: " + tickDuration + " (expected >0)");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel: " + ticksPerWheel + " (expected (0, 2^30])");
+        }
+        tickNanos = unit.toNanos(tickDuration);
+        final int wheelLength = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        mask = wheelLength - 1;
+        bucketHeads = new Timeout[wheelLength];
+        workerThread = threadFactory.newThread(this::runWorker);
+        startNanos = nanoTime();
+    }
+
+    /**
+     * Schedule a task.
+     *
+     * @param task the task to run on the worker thread once {@code delay} elapsed.
+     * @param delay the delay after which {@code task} runs.
+     * @param unit the {@link TimeUnit} of {@code delay}.
+     * @return {@link Cancellable} which prevents {@code task} from running, if it did not run yet.
+     * @throws RejectedExecutionException if this timer is stopped.
+     */
+    Cancellable schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        startWorker();
+        final long now = nanoTime() - startNanos;
+        long deadline = now + unit.toNanos(delay);
+        if (delay > 0 && deadline < 0) {
+            // Guard against overflow.
+            deadline = Long.MAX_VALUE;
+        }
+        final Timeout timeout = new Timeout(task, deadline);
+        pendingTimeouts.add(timeout);
+        if (workerIdle) {
+            LockSupport.unpark(workerThread);
+        }
+        return timeout;
+    }
+
+    /**
+     * Stop the worker thread. Scheduled tasks which did not run yet will not run.
+     */
+    void stop() {
+        if (workerStateUpdater.getAndSet(this, WORKER_SHUTDOWN) == WORKER_STARTED) {
+            LockSupport.unpark(workerThread);
+        }
+    }
+
+    private void startWorker() {
+        final int state = workerState;
+        if (state == WORKER_INIT) {
+            if (workerStateUpdater.compareAndSet(this, WORKER_INIT, WORKER_STARTED)) {
+                workerThread.start();
+            }
+        } else if (state == WORKER_SHUTDOWN) {
+            throw new RejectedExecutionException("Timer is stopped");
+        }
+    }
+
+    private void runWorker() {
+        // Number of timeouts in the buckets, including cancelled timeouts which were not removed yet.
+        long bucketedTimeouts = 0;
+        long tick = (nanoTime() - startNanos) / tickNanos;
+        while (workerState == WORKER_STARTED) {
+            if (bucketedTimeouts == 0 && pendingTimeouts.isEmpty()) {
+                workerIdle = true;
+                if (pendingTimeouts.isEmpty() && workerState == WORKER_STARTED) {
+                    LockSupport.park(this);
+                }
+                workerIdle = false;
+                // No timeout is in the buckets, so skipping the ticks which elapsed while parked is safe.
+                tick = max(tick, (nanoTime() - startNanos) / tickNanos);
+                continue;
+            }
+            if (bucketHeads[(int) (tick & mask)] == null && pendingTimeouts.isEmpty()) {
+                // Nothing expires on this tick, park until the tick of the next bucket which holds timeouts. A newly
+                // scheduled timeout may expire earlier, so scheduling unparks the worker as if it was idle.
+                final long nextTick = nextBucketedTick(tick);
+                workerIdle = true;
+                if (pendingTimeouts.isEmpty() && workerState == WORKER_STARTED) {
+                    LockSupport.parkNanos(this, tickNanos * nextTick - (nanoTime() - startNanos));
+                }
+                workerIdle = false;
+                // The buckets of all ticks before nextTick are empty, so skipping the ticks which elapsed is safe.
+                tick = max(tick, min(nextTick, (nanoTime() - startNanos) / tickNanos));
+                continue;
+            }
+            final long now = waitForTick(tick);
+            if (now < 0) {
+                break;
+            }
+            bucketedTimeouts += transferPendingTimeouts(tick);
+            bucketedTimeouts -= expireTimeouts((int) (tick & mask), now);
+            ++tick;
+        }
+    }
+
+    /**
+     * Returns the first tick after {@code tick} whose bucket holds timeouts. Must only be called if any bucket holds
+     * timeouts.
+     */
+    private long nextBucketedTick(final long tick) {
+        for (int i = 1; i < bucketHeads.length; ++i) {
+            if (bucketHeads[(int) ((tick + i) & mask)] != null) {
+                return tick + i;
+            }
+        }
+        return tick + bucketHeads.length;
+    }
+
+    private long waitForTick(final long tick) {
+        final long deadline = tickNanos * (tick + 1);
+        for (;;) {
+            final long now = nanoTime() - startNanos;
+            final long sleepNanos = deadline - now;
+            if (sleepNanos <= 0) {
+                return now;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+            if (workerState != WORKER_STARTED) {
+                return -1;
+            }
+        }
+    }
+
+    private int transferPendingTimeouts(final long tick) {
+        int transferred = 0;
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; ++i) {
+            final Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.state != Timeout.ST_INIT) {
+                continue;
+            }
+            final long calculatedTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculatedTick - tick) / bucketHeads.length;
+            // Timeouts whose deadline already passed go into the current bucket and expire on this tick.
+            final int bucket = (int) (max(calculatedTick, tick) & mask);
+            timeout.next = bucketHeads[bucket];
+            bucketHeads[bucket] = timeout;
+            ++transferred;
+        }
+        return transferred;
+    }
+
+    private int expireTimeouts(final int bucket, final long now) {
+        int removed = 0;
+        Timeout prev = null;
+        Timeout timeout = bucketHeads[bucket];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            final boolean remove;
+            if (timeout.state != Timeout.ST_INIT) {
+                remove = true;
+            } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                remove = true;
+                timeout.expire();
+            } else {
+                remove = false;
+                --timeout.remainingRounds;
+            }
+            if (remove) {
+                timeout.next = null;
+                if (prev == null) {
+                    bucketHeads[bucket] = next;
+                } else {
+                    prev.next = next;
+                }
+                ++removed;
+            } else {
+                prev = timeout;
+            }
+            timeout = next;
+        }
+        return removed;
+    }
+
+    private static final class Timeout implements Cancellable {
+        static final int ST_INIT = 0;
+        static final int ST_CANCELLED = 1;
+        static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> stateUpdater = newUpdater(Timeout.class, "state");
+
+        private final Runnable task;
+        final long deadline;
+        // Only accessed from the worker thread.
+        long remainingRounds;
+        @Nullable
+        Timeout next;
+        volatile int state;
+
+        Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void expire() {
+            if (stateUpdater.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                try {
+                    task.run();
+                } catch (Throwable cause) {
+                    LOGGER.warn("Unexpected exception from scheduled task {}", task, cause);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            stateUpdater.compareAndSet(this, ST_INIT, ST_CANCELLED);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.utils.internal.PlatformDependent.newUnboundedMpscQueue;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * A {@link java.util.concurrent.Executor} with a fixed number of worker threads, optimized for short non-blocking
+ * tasks such as offloading signals.
+ * <ul>
+ *     <li>Each worker owns an unbounded MPSC queue which it drains in batches without parking in between, so
+ *     submitting a task to a busy worker does not need to hand off to (and wake up) another thread.</li>
+ *     <li>Each producer thread is assigned to a worker, so tasks submitted from the same thread (e.g. the signals of a
+ *     subscriber delivered on an event loop) are executed by the same worker unless they are stolen.</li>
+ *     <li>Idle workers spin for a while stealing tasks from other workers before they park.</li>
+ * </ul>
+ * Stolen tasks may run concurrently with tasks that were submitted before them, so no ordering is guaranteed between
+ * tasks. The signal offloaders only have a single task pending per subscriber at any time, which preserves the
+ * ordering of signals. Blocking tasks delay all other tasks assigned to the same worker, unless they are stolen by a
+ * spinning worker.
+ */
+final class OffloadingWorkerPool implements java.util.concurrent.Executor, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffloadingWorkerPool.class);
+    private static final int INITIAL_QUEUE_CAPACITY = 64;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int MAX_STEAL_SIZE = MAX_BATCH_SIZE / 2;
+    private static final int SPIN_ITERATIONS = 64;
+    private static final AtomicIntegerFieldUpdater<OffloadingWorkerPool> nextWorkerUpdater =
+            newUpdater(OffloadingWorkerPool.class, "nextWorker");
+
+    private final Worker[] workers;
+    private final ThreadLocal<Worker> producerWorker = ThreadLocal.withInitial(this::nextWorker);
+    private volatile int nextWorker;
+    private volatile boolean closed;
+
+    OffloadingWorkerPool(final int size, final ThreadFactory threadFactory) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size: " + size + " (expected >0)");
+        }
+        requireNonNull(threadFactory);
+        workers = new Worker[size];
+        for (int i = 0; i < size; ++i) {
+            workers[i] = new Worker(this, i, threadFactory);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        requireNonNull(task);
+        if (closed) {
+            throw new RejectedExecutionException("Executor closed: " + this);
+        }
+        producerWorker.get().offer(task);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker worker : workers) {
+            // Workers run all pending tasks before they terminate.
+            worker.wakeUp();
+        }
+    }
+
+    private Worker nextWorker() {
+        return workers[(nextWorkerUpdater.getAndIncrement(this) & Integer.MAX_VALUE) % workers.length];
+    }
+
+    private static final class Worker implements Runnable {
+        private static final int STATE_RUNNING = 0;
+        private static final int STATE_PARKED = 1;
+        private static final AtomicIntegerFieldUpdater<Worker> stateUpdater = newUpdater(Worker.class, "state");
+        private static final AtomicIntegerFieldUpdater<Worker> consumerLockUpdater =
+                newUpdater(Worker.class, "consumerLock");
+
+        private final OffloadingWorkerPool pool;
+        private final int index;
+        private final Thread thread;
+        private final Queue<Runnable> tasks = newUnboundedMpscQueue(INITIAL_QUEUE_CAPACITY);
+        private volatile int state;
+        // The queue only supports a single consumer, stealing workers need to acquire this lock to poll it.
+        private volatile int consumerLock;
+
+        Worker(final OffloadingWorkerPool pool, final int index, final ThreadFactory threadFactory) {
+            this.pool = pool;
+            this.index = index;
+            thread = threadFactory.newThread(this);
+        }
+
+        void offer(final Runnable task) {
+            tasks.offer(task);
+            if (state == STATE_PARKED) {
+                wakeUp();
+            }
+        }
+
+        void wakeUp() {
+            if (stateUpdater.compareAndSet(this, STATE_PARKED, STATE_RUNNING)) {
+                unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            // Tasks submitted from a worker thread are queued on the same worker.
+            pool.producerWorker.set(this);
+            int spins = 0;
+            for (;;) {
+                if (drain(this, MAX_BATCH_SIZE) > 0 || steal()) {
+                    spins = 0;
+                } else if (pool.closed) {
+                    if (tasks.isEmpty()) {
+                        return;
+                    }
+                } else if (++spins < SPIN_ITERATIONS) {
+                    Thread.yield();
+                } else {
+                    spins = 0;
+                    // Publish the state before checking the queue, producers check the state after offering a task
+                    // so either this worker sees the task or the producer sees the parked state and unparks.
+                    state = STATE_PARKED;
+                    if (tasks.isEmpty() && !pool.closed) {
+                        park(this);
+                    }
+                    state = STATE_RUNNING;
+                }
+            }
+        }
+
+        private boolean steal() {
+            final Worker[] workers = pool.workers;
+            for (int i = 1; i < workers.length; ++i) {
+                final Worker victim = workers[(index + i) % workers.length];
+                if (!victim.tasks.isEmpty() && drain(victim, MAX_STEAL_SIZE) > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int drain(final Worker source, final int maxTasks) {
+            int count = 0;
+            Runnable task;
+            // Tasks are polled one at a time, so other workers can steal the remaining tasks of the source if one of
+            // the tasks takes a long time.
+            while (count < maxTasks && (task = source.poll()) != null) {
+                ++count;
+                try {
+                    task.run();
+                } catch (Throwable cause) {
+                    LOGGER.warn("Unexpected exception from task {}.", task, cause);
+                }
+            }
+            return count;
+        }
+
+        @Nullable
+        private Runnable poll() {
+            if (!consumerLockUpdater.compareAndSet(this, 0, 1)) {
+                return null;
+            }
+            try {
+                return tasks.poll();
+            } finally {
+                consumerLock = 0;
+            }
+        }
+    }
+}
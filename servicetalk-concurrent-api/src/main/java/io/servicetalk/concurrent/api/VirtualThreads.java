@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.utils.internal.PlatformDependent.throwException;
+import static java.lang.invoke.MethodHandles.publicLookup;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Access to virtual threads, which are only available on Java 21+. The methods are looked up reflectively so that
+ * this module can still target Java 8.
+ */
+final class VirtualThreads {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+    @Nullable
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = newVirtualThreadPerTaskExecutorHandle();
+
+    private VirtualThreads() {
+        // No instances.
+    }
+
+    /**
+     * Determine if virtual threads are available.
+     *
+     * @return {@code true} if virtual threads are available.
+     */
+    static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a new {@link ExecutorService} that starts a new virtual thread for each task.
+     *
+     * @return a new {@link ExecutorService} that starts a new virtual thread for each task.
+     * @throws UnsupportedOperationException if virtual threads are not available.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads are not available, Java 21+ is required");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (Throwable cause) {
+            return throwException(cause);
+        }
+    }
+
+    @Nullable
+    private static MethodHandle newVirtualThreadPerTaskExecutorHandle() {
+        try {
+            return publicLookup().findStatic(java.util.concurrent.Executors.class, "newVirtualThreadPerTaskExecutor",
+                    methodType(ExecutorService.class));
+        } catch (Throwable cause) {
+            LOGGER.debug("Virtual threads are not available", cause);
+            return null;
+        }
+    }
+}
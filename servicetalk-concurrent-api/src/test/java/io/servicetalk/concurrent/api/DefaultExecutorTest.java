@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,10 +51,12 @@ import javax.annotation.Nullable;
 import static io.servicetalk.concurrent.api.BlockingTestUtils.awaitIndefinitelyNonNull;
 import static io.servicetalk.concurrent.api.Executors.from;
 import static io.servicetalk.concurrent.api.Executors.newFixedSizeExecutor;
+import static io.servicetalk.concurrent.api.Executors.newHashedWheelTimerExecutor;
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
 import static io.servicetalk.concurrent.internal.DeliberateException.DELIBERATE_EXCEPTION;
 import static io.servicetalk.concurrent.internal.TerminalNotification.complete;
 import static io.servicetalk.concurrent.internal.TerminalNotification.error;
+import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofNanos;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -106,6 +108,12 @@ public final class DefaultExecutorTest {
                 UNBOUNDED /*Size defines core size, else is unbounded*/));
         nameAndExecutorPairs.add(newParams(() -> from(new ThreadPoolExecutor(2, 2, 60, SECONDS,
                 new SynchronousQueue<>()), newScheduledThreadPool(2)), "different-executors", true, 2));
+        nameAndExecutorPairs.add(newParams(() -> newHashedWheelTimerExecutor(new ThreadPoolExecutor(2, 2, 60, SECONDS,
+                new SynchronousQueue<>()), ofMillis(1), 64), "hashed-wheel-timer", true, 2));
+        if (VirtualThreads.isSupported()) {
+            nameAndExecutorPairs.add(newParams(io.servicetalk.concurrent.api.Executors::newVirtualThreadExecutor,
+                    "virtual-thread", true, UNBOUNDED));
+        }
         return nameAndExecutorPairs;
     }
 
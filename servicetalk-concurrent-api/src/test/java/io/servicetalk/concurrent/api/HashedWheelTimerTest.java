@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class HashedWheelTimerTest {
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    // A small wheel, so that tasks are scheduled multiple rounds ahead.
+    private final HashedWheelTimer timer = new HashedWheelTimer(new DefaultThreadFactory(), 1, MILLISECONDS, 8);
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void tasksDoNotRunBeforeTheirDelay() throws Exception {
+        final int tasks = 200;
+        final CountDownLatch latch = new CountDownLatch(tasks);
+        final AtomicInteger early = new AtomicInteger();
+        for (int i = 0; i < tasks; ++i) {
+            final long delayMillis = i % 50;
+            final long startNanos = nanoTime();
+            timer.schedule(() -> {
+                if (nanoTime() - startNanos < MILLISECONDS.toNanos(delayMillis)) {
+                    early.incrementAndGet();
+                }
+                latch.countDown();
+            }, delayMillis, MILLISECONDS);
+        }
+        latch.await();
+        assertThat(early.get(), is(0));
+    }
+
+    @Test
+    public void cancelledTasksDoNotRun() throws Exception {
+        final AtomicInteger cancelledRuns = new AtomicInteger();
+        for (int i = 0; i < 100; ++i) {
+            final Cancellable cancellable = timer.schedule(cancelledRuns::incrementAndGet, 10 + i % 20, MILLISECONDS);
+            cancellable.cancel();
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        timer.schedule(latch::countDown, 40, MILLISECONDS);
+        latch.await();
+        assertThat(cancelledRuns.get(), is(0));
+    }
+
+    @Test
+    public void scheduleAfterIdle() throws Exception {
+        final CountDownLatch first = new CountDownLatch(1);
+        timer.schedule(first::countDown, 1, MILLISECONDS);
+        first.await();
+        // Let the worker park without any scheduled task.
+        Thread.sleep(20);
+        final long startNanos = nanoTime();
+        final CountDownLatch second = new CountDownLatch(1);
+        timer.schedule(second::countDown, 20, MILLISECONDS);
+        second.await();
+        assertThat(nanoTime() - startNanos, greaterThanOrEqualTo(MILLISECONDS.toNanos(20)));
+    }
+
+    @Test
+    public void earlierTaskScheduledWhileWaitingForLaterBucket() throws Exception {
+        // A wheel large enough that the worker parks until the bucket of the later task instead of ticking.
+        final HashedWheelTimer largeTimer = new HashedWheelTimer(new DefaultThreadFactory(), 1, MILLISECONDS, 4096);
+        try {
+            final CountDownLatch later = new CountDownLatch(1);
+            largeTimer.schedule(later::countDown, 2000, MILLISECONDS);
+            // Let the worker park until the bucket of the later task.
+            Thread.sleep(20);
+            final long startNanos = nanoTime();
+            final CountDownLatch earlier = new CountDownLatch(1);
+            largeTimer.schedule(earlier::countDown, 10, MILLISECONDS);
+            earlier.await();
+            final long elapsedNanos = nanoTime() - startNanos;
+            assertThat(elapsedNanos, greaterThanOrEqualTo(MILLISECONDS.toNanos(10)));
+            assertThat(elapsedNanos, lessThan(MILLISECONDS.toNanos(1000)));
+            assertThat(later.getCount(), is(1L));
+            later.await();
+        } finally {
+            largeTimer.stop();
+        }
+    }
+
+    @Test
+    public void taskThrowingDoesNotStopTimer() throws Exception {
+        timer.schedule(() -> {
+            throw new IllegalStateException("deliberate exception");
+        }, 0, NANOSECONDS);
+        final CountDownLatch latch = new CountDownLatch(1);
+        timer.schedule(latch::countDown, 5, MILLISECONDS);
+        latch.await();
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void scheduleAfterStopIsRejected() {
+        timer.stop();
+        timer.schedule(() -> { }, 1, MILLISECONDS);
+    }
+}
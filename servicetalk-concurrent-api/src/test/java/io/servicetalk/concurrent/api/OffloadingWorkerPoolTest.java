@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.concurrent.api;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class OffloadingWorkerPoolTest {
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final OffloadingWorkerPool pool = new OffloadingWorkerPool(4, new DefaultThreadFactory());
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void tasksFromConcurrentProducers() throws Exception {
+        final int producers = 8;
+        final int tasks = 10_000;
+        final CountDownLatch done = new CountDownLatch(producers * tasks);
+        final List<Thread> threads = new ArrayList<>(producers);
+        for (int p = 0; p < producers; ++p) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < tasks; ++i) {
+                    pool.execute(done::countDown);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.await();
+    }
+
+    @Test
+    public void blockedWorkerTasksAreStolen() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        // Both tasks are queued on the same worker since they are submitted from the same thread.
+        pool.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        pool.execute(done::countDown);
+        // Submit from other threads to keep other workers busy spinning, so one of them steals the second task.
+        while (!done.await(1, MILLISECONDS)) {
+            final Thread thread = new Thread(() -> pool.execute(() -> { }));
+            thread.start();
+            thread.join();
+        }
+        blocked.countDown();
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void rejectAfterClose() {
+        pool.close();
+        pool.execute(() -> { });
+    }
+
+    @Test
+    public void pendingTasksRunOnClose() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        pool.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        pool.execute(done::countDown);
+        pool.close();
+        blocked.countDown();
+        done.await();
+    }
+}
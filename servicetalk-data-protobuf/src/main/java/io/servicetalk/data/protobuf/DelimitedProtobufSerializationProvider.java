@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.data.protobuf;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.CompositeBuffer;
+import io.servicetalk.serialization.api.SerializationException;
+import io.servicetalk.serialization.api.SerializationProvider;
+import io.servicetalk.serialization.api.StreamingDeserializer;
+import io.servicetalk.serialization.api.StreamingSerializer;
+import io.servicetalk.serialization.api.TypeHolder;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.data.protobuf.ProtobufSerializationProvider.newCodedInputStream;
+import static io.servicetalk.data.protobuf.ProtobufSerializationProvider.newCodedOutputStream;
+import static io.servicetalk.data.protobuf.ProtobufSerializationProvider.requireMessageLite;
+import static java.lang.Math.min;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * A {@link SerializationProvider} for serializing/deserializing streams of length-delimited
+ * <a href="https://developers.google.com/protocol-buffers/">protocol buffer</a> objects.
+ * <p>
+ * Each message is prefixed with its size encoded as a varint, the same format as {@code writeDelimitedTo} and
+ * {@code parseDelimitedFrom}. The deserializer emits every message as soon as all its bytes are available and only
+ * retains the bytes of a partially received message across {@link Buffer}s, so the memory used while deserializing
+ * a stream is bounded by the maximum message size rather than by the size of the stream.
+ */
+public final class DelimitedProtobufSerializationProvider implements SerializationProvider {
+    /**
+     * The default maximum size in bytes of a single message.
+     */
+    public static final int DEFAULT_MAX_MESSAGE_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_VARINT32_SIZE = 5;
+
+    private final ConcurrentMap<Class, Parser> parsers;
+    private final Function<Class<?>, Parser<?>> parserForClass;
+    private final int maxMessageSize;
+
+    /**
+     * Creates a new instance which accepts messages of at most {@link #DEFAULT_MAX_MESSAGE_SIZE} bytes.
+     */
+    public DelimitedProtobufSerializationProvider() {
+        this(DEFAULT_MAX_MESSAGE_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxMessageSize the maximum size in bytes of a single message, larger messages fail the deserialization.
+     */
+    public DelimitedProtobufSerializationProvider(final int maxMessageSize) {
+        this(ProtobufSerializationProvider::reflectionParserFor, maxMessageSize);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param parserForClass a {@link Function} that returns the {@link Parser} for a message type.
+     * @param maxMessageSize the maximum size in bytes of a single message, larger messages fail the deserialization.
+     */
+    public DelimitedProtobufSerializationProvider(final Function<Class<?>, Parser<?>> parserForClass,
+                                                  final int maxMessageSize) {
+        if (maxMessageSize <= 0) {
+            throw new IllegalArgumentException("maxMessageSize: " + maxMessageSize + " (expected >0)");
+        }
+        this.parsers = new ConcurrentHashMap<>();
+        this.parserForClass = parserForClass;
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    @Override
+    public <T> StreamingSerializer getSerializer(final Class<T> classToSerialize) {
+        requireMessageLite(classToSerialize);
+        return DelimitedProtobufSerializer.INSTANCE;
+    }
+
+    @Override
+    public <T> StreamingSerializer getSerializer(final TypeHolder<T> typeToSerialize) {
+        return getSerializer(classFor(typeToSerialize));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> StreamingDeserializer<T> getDeserializer(final Class<T> classToDeSerialize) {
+        requireMessageLite(classToDeSerialize);
+        Parser<T> parser = parsers.computeIfAbsent(classToDeSerialize, parserForClass::apply);
+        return new DelimitedProtobufDeserializer<>(parser, maxMessageSize);
+    }
+
+    @Override
+    public <T> StreamingDeserializer<T> getDeserializer(final TypeHolder<T> typeToDeserialize) {
+        return getDeserializer(classFor(typeToDeserialize));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X> Class<X> classFor(final TypeHolder<X> typeHolder) {
+        Type type = typeHolder.type();
+        if (type instanceof Class) {
+            return (Class<X>) type;
+        }
+        throw new SerializationException("Type is not an instance of Class: " + type.getClass().getName());
+    }
+
+    private static final class DelimitedProtobufSerializer implements StreamingSerializer {
+        static final StreamingSerializer INSTANCE = new DelimitedProtobufSerializer();
+
+        private DelimitedProtobufSerializer() {
+            // singleton
+        }
+
+        @Override
+        public void serialize(final Object toSerialize, final Buffer destination) {
+            final MessageLite msg = (MessageLite) toSerialize;
+            final int size = msg.getSerializedSize();
+            final int delimitedSize = CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+            destination.ensureWritable(delimitedSize);
+            final int writerIdx = destination.writerIndex();
+            final CodedOutputStream out = newCodedOutputStream(destination, writerIdx, delimitedSize);
+            try {
+                out.writeUInt32NoTag(size);
+                msg.writeTo(out);
+            } catch (IOException e) {
+                throw new SerializationException("error trying to write object", e);
+            }
+            destination.writerIndex(writerIdx + delimitedSize);
+        }
+    }
+
+    private static final class DelimitedProtobufDeserializer<T> implements StreamingDeserializer<T> {
+        private final Parser<T> parser;
+        private final int maxMessageSize;
+        @Nullable
+        private CompositeBuffer accumulate;
+        /**
+         * <ul>
+         *     <li>{@code < 0} - read the size of the next message</li>
+         *     <li>{@code >= 0} - read the message of this size</li>
+         * </ul>
+         */
+        private int lengthOfData = -1;
+
+        DelimitedProtobufDeserializer(final Parser<T> parser, final int maxMessageSize) {
+            this.parser = parser;
+            this.maxMessageSize = maxMessageSize;
+        }
+
+        @Override
+        public Iterable<T> deserialize(Buffer toDeserialize) {
+            if (accumulate != null && accumulate.readableBytes() > 0) {
+                accumulate.addBuffer(toDeserialize, true);
+                toDeserialize = accumulate;
+            }
+            List<T> parsedData = null;
+            T first = null;
+            for (;;) {
+                if (lengthOfData < 0 && !readLength(toDeserialize)) {
+                    break;
+                }
+                if (toDeserialize.readableBytes() < lengthOfData) {
+                    break;
+                }
+                final T t = parse(toDeserialize);
+                if (first == null) {
+                    first = t;
+                } else {
+                    if (parsedData == null) {
+                        parsedData = new ArrayList<>(4);
+                        parsedData.add(first);
+                    }
+                    parsedData.add(t);
+                }
+            }
+            retainRemaining(toDeserialize);
+            return parsedData != null ? parsedData : first != null ? singletonList(first) : emptyList();
+        }
+
+        /**
+         * Reads the varint size prefix of the next message.
+         *
+         * @param buffer the {@link Buffer} to read from.
+         * @return {@code true} if the size was read, {@code false} if more bytes are required.
+         */
+        private boolean readLength(final Buffer buffer) {
+            final int readerIdx = buffer.readerIndex();
+            final int end = min(buffer.writerIndex(), readerIdx + MAX_VARINT32_SIZE);
+            int length = 0;
+            for (int i = readerIdx, shift = 0; i < end; ++i, shift += 7) {
+                final byte b = buffer.getByte(i);
+                length |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    if (length < 0 || length > maxMessageSize) {
+                        throw new SerializationException("Message size " + (length & 0xFFFFFFFFL) +
+                                " exceeds the maximum of " + maxMessageSize);
+                    }
+                    buffer.readerIndex(i + 1);
+                    lengthOfData = length;
+                    return true;
+                }
+            }
+            if (end - readerIdx == MAX_VARINT32_SIZE) {
+                throw new SerializationException("Malformed message size");
+            }
+            return false;
+        }
+
+        private T parse(final Buffer buffer) {
+            final T t;
+            try {
+                t = parser.parseFrom(newCodedInputStream(buffer, buffer.readerIndex(), lengthOfData));
+            } catch (InvalidProtocolBufferException e) {
+                throw new SerializationException("error trying to parse protobuf", e);
+            }
+            // The NIO buffer indexes are not connected to the Buffer indexes, consume the parsed bytes.
+            buffer.skipBytes(lengthOfData);
+            lengthOfData = -1;
+            return t;
+        }
+
+        private void retainRemaining(final Buffer buffer) {
+            if (buffer == accumulate) {
+                accumulate.discardSomeReadBytes();
+            } else if (buffer.readableBytes() > 0) {
+                if (accumulate == null) {
+                    accumulate = DEFAULT_ALLOCATOR.newCompositeBuffer(Integer.MAX_VALUE);
+                }
+                accumulate.addBuffer(buffer, true);
+            }
+        }
+
+        @Override
+        public boolean hasData() {
+            return lengthOfData >= 0 || (accumulate != null && accumulate.readableBytes() > 0);
+        }
+
+        @Override
+        public void close() {
+            if (hasData()) {
+                throw new SerializationException("Deserializer disposed with left over data.");
+            }
+        }
+    }
+}
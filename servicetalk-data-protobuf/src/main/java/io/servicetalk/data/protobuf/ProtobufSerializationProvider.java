@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,21 +22,20 @@ import io.servicetalk.serialization.api.StreamingDeserializer;
 import io.servicetalk.serialization.api.StreamingSerializer;
 import io.servicetalk.serialization.api.TypeHolder;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.Parser;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
-import static io.servicetalk.buffer.api.Buffer.asInputStream;
-import static io.servicetalk.buffer.api.Buffer.asOutputStream;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 
 /**
@@ -45,7 +44,8 @@ import static java.util.Collections.singletonList;
  *
  * Note: This implementation assumes byte streams represent a single message. This implementation currently uses
  * {@code writeTo/parseFrom} and not {@code writeDelimitedTo/parseDelimitedFrom} to serialize/deserialize messages.
- * It cannot be used to process a stream of delimited messages on a single Buffer.
+ * It cannot be used to process a stream of delimited messages on a single Buffer, use
+ * {@link DelimitedProtobufSerializationProvider} for streams of delimited messages.
  */
 public final class ProtobufSerializationProvider implements SerializationProvider {
 
@@ -117,20 +117,39 @@ public final class ProtobufSerializationProvider implements SerializationProvide
         }
     }
 
-    private static <T> void requireMessageLite(final Class<T> type) {
+    static <T> void requireMessageLite(final Class<T> type) {
         if (!MessageLite.class.isAssignableFrom(type)) {
             throw new SerializationException("class is not an instance of MessageLite: " + type.getName());
         }
     }
 
+    static CodedOutputStream newCodedOutputStream(final Buffer destination, final int index, final int length) {
+        return destination.hasArray() ?
+                CodedOutputStream.newInstance(destination.array(), destination.arrayOffset() + index, length) :
+                CodedOutputStream.newInstance(destination.toNioBuffer(index, length));
+    }
+
+    static CodedInputStream newCodedInputStream(final Buffer source, final int index, final int length) {
+        return source.nioBufferCount() == 1 ? CodedInputStream.newInstance(source.toNioBuffer(index, length)) :
+                CodedInputStream.newInstance(asList(source.toNioBuffers(index, length)));
+    }
+
     private static final class ProtobufSerializer implements StreamingSerializer {
         @Override
         public void serialize(final Object toSerialize, final Buffer destination) {
-            try (OutputStream out = asOutputStream(destination)) {
-                ((MessageLite) toSerialize).writeTo(out);
+            final MessageLite msg = (MessageLite) toSerialize;
+            // The size is computed (and cached by the message) upfront, so the destination is resized at most once and
+            // the message is encoded directly into its memory.
+            final int size = msg.getSerializedSize();
+            destination.ensureWritable(size);
+            final int writerIdx = destination.writerIndex();
+            final CodedOutputStream out = newCodedOutputStream(destination, writerIdx, size);
+            try {
+                msg.writeTo(out);
             } catch (IOException e) {
                 throw new SerializationException("error trying to write object", e);
             }
+            destination.writerIndex(writerIdx + size);
         }
     }
 
@@ -143,14 +162,19 @@ public final class ProtobufSerializationProvider implements SerializationProvide
 
         @Override
         public Iterable<T> deserialize(final Buffer toDeserialize) {
-            try (InputStream in = asInputStream(toDeserialize)) {
-                // using InputStream as proto 2.5 doesn't have parseFrom(ByteBuffer)
-                return singletonList(parser.parseFrom(in));
+            // Parse from the NIO buffers backing the Buffer, composite Buffers are read component by component
+            // without merging them into a single temporary buffer first.
+            final CodedInputStream in = newCodedInputStream(toDeserialize, toDeserialize.readerIndex(),
+                    toDeserialize.readableBytes());
+            final T t;
+            try {
+                t = parser.parseFrom(in);
             } catch (InvalidProtocolBufferException e) {
                 throw new SerializationException("error trying to parse protobuf", e);
-            } catch (IOException e) {
-                throw new SerializationException("error reading from buffer", e);
             }
+            // The NIO buffer indexes are not connected to the Buffer indexes, consume the parsed bytes.
+            toDeserialize.skipBytes(toDeserialize.readableBytes());
+            return singletonList(t);
         }
 
         @Override
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.data.protobuf;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.data.protobuf.test.TestProtos.DummyMessage;
+import io.servicetalk.serialization.api.SerializationException;
+import io.servicetalk.serialization.api.StreamingDeserializer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class DelimitedProtobufSerializationProviderTest {
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    private final DelimitedProtobufSerializationProvider provider = new DelimitedProtobufSerializationProvider();
+
+    private final DummyMessage first = DummyMessage.newBuilder().setMessage("first").build();
+    private final DummyMessage second = DummyMessage.newBuilder().setMessage("second").build();
+    private final DummyMessage empty = DummyMessage.newBuilder().build();
+
+    @Test
+    public void serializeMessage() throws IOException {
+        Buffer buffer = DEFAULT_ALLOCATOR.newBuffer();
+        provider.getSerializer(DummyMessage.class).serialize(first, buffer);
+        assertThat(toBytes(buffer), equalTo(delimitedBytes(first)));
+    }
+
+    @Test
+    public void deserializeMultipleMessagesInOneBuffer() throws IOException {
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
+        List<DummyMessage> messages = toList(deserializer.deserialize(wrap(delimitedBytes(first, empty, second))));
+        assertThat(messages, contains(first, empty, second));
+        assertThat(deserializer.hasData(), is(false));
+        deserializer.close();
+    }
+
+    @Test
+    public void deserializeMessagesSplitAcrossBuffers() throws IOException {
+        byte[] bytes = delimitedBytes(first, empty, second);
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
+        List<DummyMessage> messages = new ArrayList<>();
+        for (byte b : bytes) {
+            deserializer.deserialize(wrap(new byte[]{b})).forEach(messages::add);
+        }
+        assertThat(messages, contains(first, empty, second));
+        assertThat(deserializer.hasData(), is(false));
+        deserializer.close();
+    }
+
+    @Test
+    public void emitsCompleteMessagesBeforeTheStreamEnds() throws IOException {
+        byte[] bytes = delimitedBytes(first, second);
+        int split = bytes.length - 2;
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
+        assertThat(toList(deserializer.deserialize(wrap(bytes, 0, split))), contains(first));
+        assertThat(deserializer.hasData(), is(true));
+        assertThat(toList(deserializer.deserialize(wrap(bytes, split, bytes.length - split))), contains(second));
+        assertThat(deserializer.hasData(), is(false));
+    }
+
+    @Test
+    public void deserializeEmptyBuffer() {
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
+        assertThat(toList(deserializer.deserialize(DEFAULT_ALLOCATOR.newBuffer())), is(empty()));
+        assertThat(deserializer.hasData(), is(false));
+    }
+
+    @Test
+    public void maxMessageSizeExceeded() throws IOException {
+        DelimitedProtobufSerializationProvider p = new DelimitedProtobufSerializationProvider(
+                first.getSerializedSize() - 1);
+        expectedException.expect(SerializationException.class);
+        p.getDeserializer(DummyMessage.class).deserialize(wrap(delimitedBytes(first)));
+    }
+
+    @Test
+    public void closeWithPartialMessage() throws IOException {
+        byte[] bytes = delimitedBytes(first);
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
+        assertThat(toList(deserializer.deserialize(wrap(bytes, 0, bytes.length - 1))), is(empty()));
+        expectedException.expect(SerializationException.class);
+        deserializer.close();
+    }
+
+    @Test
+    public void invalidMaxMessageSize() {
+        expectedException.expect(IllegalArgumentException.class);
+        new DelimitedProtobufSerializationProvider(0);
+    }
+
+    private static byte[] delimitedBytes(DummyMessage... messages) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DummyMessage message : asList(messages)) {
+            message.writeDelimitedTo(out);
+        }
+        return out.toByteArray();
+    }
+
+    private static Buffer wrap(byte[] bytes) {
+        return DEFAULT_ALLOCATOR.wrap(bytes);
+    }
+
+    private static Buffer wrap(byte[] bytes, int offset, int length) {
+        return DEFAULT_ALLOCATOR.newBuffer(length).writeBytes(bytes, offset, length);
+    }
+
+    private static byte[] toBytes(Buffer buffer) {
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -62,6 +62,14 @@ public class ProtobufSerializationProviderTest {
         assertThat(toBytes(buffer), equalTo(testMessageBytes));
     }
 
+    @Test
+    public void serializeMessageToDirectBuffer() {
+        Buffer buffer = DEFAULT_ALLOCATOR.newBuffer(1, true).writeByte(42);
+        provider.getSerializer(DummyMessage.class).serialize(testMessage, buffer);
+        assertThat(buffer.readByte(), equalTo((byte) 42));
+        assertThat(toBytes(buffer), equalTo(testMessageBytes));
+    }
+
     @Test
     public void invalidSerializerClassException() {
         expectedException.expect(SerializationException.class);
@@ -88,6 +96,18 @@ public class ProtobufSerializationProviderTest {
         assertThat(message, equalTo(testMessage));
     }
 
+    @Test
+    public void deserializeCompositeBuffer() {
+        int half = testMessageBytes.length / 2;
+        Buffer buffer = DEFAULT_ALLOCATOR.newCompositeBuffer()
+                .addBuffer(newBuffer().writeBytes(testMessageBytes, 0, half))
+                .addBuffer(DEFAULT_ALLOCATOR.newBuffer(1, true)
+                        .writeBytes(testMessageBytes, half, testMessageBytes.length - half));
+        DummyMessage message = firstOf(provider.getDeserializer(DummyMessage.class).deserialize(buffer));
+        assertThat(message, equalTo(testMessage));
+        assertThat(buffer.readableBytes(), equalTo(0));
+    }
+
     @Test
     public void invalidDeserializerClassException() {
         expectedException.expect(SerializationException.class);
@@ -17,7 +17,9 @@ package io.servicetalk.grpc.api;
 
 import io.servicetalk.concurrent.BlockingIterator;
 import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.BlockingHttpClient;
 import io.servicetalk.http.api.BlockingStreamingHttpClient;
 import io.servicetalk.http.api.BlockingStreamingHttpRequest;
@@ -28,22 +30,33 @@ import io.servicetalk.http.api.HttpRequestFactory;
 import io.servicetalk.http.api.HttpResponse;
 import io.servicetalk.http.api.StreamingHttpClient;
 import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.internal.BlockingIterables.singletonBlockingIterable;
-import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.grpc.api.GrpcDeadlines.effectiveTimeout;
+import static io.servicetalk.grpc.api.GrpcDeadlines.withDeadline;
 import static io.servicetalk.grpc.api.GrpcUtils.initRequest;
+import static io.servicetalk.grpc.api.GrpcUtils.readGrpcMessageEncoding;
 import static io.servicetalk.grpc.api.GrpcUtils.uncheckedCast;
 import static io.servicetalk.grpc.api.GrpcUtils.validateResponseAndGetPayload;
+import static io.servicetalk.utils.internal.PlatformDependent.throwException;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.requireNonNull;
 
 final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
     private final StreamingHttpClient streamingHttpClient;
     private final GrpcExecutionContext executionContext;
+    private final GrpcMessageEncoding defaultRequestEncoding;
 
-    DefaultGrpcClientCallFactory(final StreamingHttpClient streamingHttpClient) {
+    DefaultGrpcClientCallFactory(final StreamingHttpClient streamingHttpClient,
+                                 final GrpcMessageEncoding defaultRequestEncoding) {
         this.streamingHttpClient = requireNonNull(streamingHttpClient);
+        this.defaultRequestEncoding = requireNonNull(defaultRequestEncoding);
         executionContext = new DefaultGrpcExecutionContext(streamingHttpClient.executionContext());
     }
 
@@ -56,13 +69,19 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(responseClass);
         final HttpClient client = streamingHttpClient.asClient();
         return (metadata, request) -> {
+            @Nullable
+            final Duration timeout = effectiveTimeout(metadata.timeout());
             final HttpRequest httpRequest = newAggregatedRequest(metadata, request, client,
-                    serializationProvider, requestClass);
+                    serializationProvider, requestClass, timeout);
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            return (strategy == null ? client.request(httpRequest) : client.request(strategy, httpRequest))
-                    .map(response -> validateResponseAndGetPayload(response,
-                            serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass)));
+            Single<HttpResponse> response = strategy == null ? client.request(httpRequest) :
+                    client.request(strategy, httpRequest);
+            if (timeout != null) {
+                response = withDeadline(response, nanoTime() + timeout.toNanos(), executor());
+            }
+            return response.map(resp -> validateResponseAndGetPayload(resp,
+                    serializationProvider.deserializerFor(readGrpcMessageEncoding(resp), responseClass)));
         };
     }
 
@@ -74,16 +93,26 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(requestClass);
         requireNonNull(responseClass);
         return (metadata, request) -> {
+            @Nullable
+            final Duration timeout = effectiveTimeout(metadata.timeout());
             final StreamingHttpRequest httpRequest = streamingHttpClient.post(metadata.path());
-            initRequest(httpRequest);
+            initRequest(httpRequest, timeout);
             httpRequest.payloadBody(request.map(GrpcUtils::uncheckedCast),
-                    serializationProvider.serializerFor(metadata, requestClass));
+                    serializationProvider.serializerFor(metadata, requestClass, requestEncoding(metadata)));
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            return (strategy == null ? streamingHttpClient.request(httpRequest) :
-                    streamingHttpClient.request(strategy, httpRequest))
-                    .flatMapPublisher(response -> validateResponseAndGetPayload(response,
-                            serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass)));
+            final Single<StreamingHttpResponse> response = strategy == null ?
+                    streamingHttpClient.request(httpRequest) : streamingHttpClient.request(strategy, httpRequest);
+            if (timeout == null) {
+                return response.flatMapPublisher(resp -> validateResponseAndGetPayload(resp,
+                        serializationProvider.deserializerFor(readGrpcMessageEncoding(resp), responseClass)));
+            }
+            final long deadlineNanos = nanoTime() + timeout.toNanos();
+            final Executor executor = executor();
+            return withDeadline(response, deadlineNanos, executor)
+                    .flatMapPublisher(resp -> withDeadline(validateResponseAndGetPayload(resp,
+                            serializationProvider.deserializerFor(readGrpcMessageEncoding(resp), responseClass)),
+                            deadlineNanos, executor));
         };
     }
 
@@ -114,14 +143,23 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(responseClass);
         final BlockingHttpClient client = streamingHttpClient.asBlockingClient();
         return (metadata, request) -> {
+            @Nullable
+            final Duration timeout = effectiveTimeout(metadata.timeout());
             final HttpRequest httpRequest = newAggregatedRequest(metadata, request, client,
-                    serializationProvider, requestClass);
+                    serializationProvider, requestClass, timeout);
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            final HttpResponse response = strategy == null ? client.request(httpRequest) :
-                    client.request(strategy, httpRequest);
+            final HttpResponse response;
+            if (timeout == null) {
+                response = strategy == null ? client.request(httpRequest) : client.request(strategy, httpRequest);
+            } else {
+                // The server may not enforce the deadline or may not be reachable, don't block past the deadline.
+                response = blockingInvocation(withDeadline(client.asClient().request(
+                        strategy == null ? client.executionContext().executionStrategy() : strategy, httpRequest),
+                        nanoTime() + timeout.toNanos(), executor()));
+            }
             return validateResponseAndGetPayload(response,
-                    serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass));
+                    serializationProvider.deserializerFor(readGrpcMessageEncoding(response), responseClass));
         };
     }
 
@@ -134,16 +172,31 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         requireNonNull(responseClass);
         final BlockingStreamingHttpClient client = streamingHttpClient.asBlockingStreamingClient();
         return (metadata, request) -> {
+            @Nullable
+            final Duration timeout = effectiveTimeout(metadata.timeout());
             final BlockingStreamingHttpRequest httpRequest = client.post(metadata.path());
-            initRequest(httpRequest);
-            httpRequest.payloadBody(request, serializationProvider.serializerFor(metadata, requestClass));
+            initRequest(httpRequest, timeout);
+            httpRequest.payloadBody(request,
+                    serializationProvider.serializerFor(metadata, requestClass, requestEncoding(metadata)));
             @Nullable
             final GrpcExecutionStrategy strategy = metadata.strategy();
-            final BlockingStreamingHttpResponse response = strategy == null ? client.request(httpRequest) :
-                    client.request(strategy, httpRequest);
-            return validateResponseAndGetPayload(response.toStreamingResponse(),
-                    serializationProvider.deserializerFor(getMessageEncoding(metadata), responseClass))
-                    .toIterable();
+            if (timeout == null) {
+                final BlockingStreamingHttpResponse response = strategy == null ? client.request(httpRequest) :
+                        client.request(strategy, httpRequest);
+                return validateResponseAndGetPayload(response.toStreamingResponse(),
+                        serializationProvider.deserializerFor(readGrpcMessageEncoding(response), responseClass))
+                        .toIterable();
+            }
+            // The server may not enforce the deadline or may not be reachable, don't block past the deadline.
+            final long deadlineNanos = nanoTime() + timeout.toNanos();
+            final Executor executor = executor();
+            final StreamingHttpResponse response = blockingInvocation(withDeadline(
+                    client.asStreamingClient().request(strategy == null ?
+                            client.executionContext().executionStrategy() : strategy,
+                            httpRequest.toStreamingRequest()), deadlineNanos, executor));
+            return withDeadline(validateResponseAndGetPayload(response,
+                    serializationProvider.deserializerFor(readGrpcMessageEncoding(response), responseClass)),
+                    deadlineNanos, executor).toIterable();
         };
     }
 
@@ -195,18 +248,37 @@ final class DefaultGrpcClientCallFactory implements GrpcClientCallFactory {
         return streamingHttpClient.onClose();
     }
 
-    private GrpcMessageEncoding getMessageEncoding(@SuppressWarnings("unused") final GrpcClientMetadata metadata) {
-        // compression not yet supported.
-        return None;
+    private static <T> T blockingInvocation(final Single<T> source) throws Exception {
+        final Future<T> future = source.toFuture();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            return throwException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private Executor executor() {
+        return streamingHttpClient.executionContext().executor();
+    }
+
+    private GrpcMessageEncoding requestEncoding(final GrpcClientMetadata metadata) {
+        @Nullable
+        final GrpcMessageEncoding requestEncoding = metadata.requestEncoding();
+        return requestEncoding == null ? defaultRequestEncoding : requestEncoding;
     }
 
-    private static <Req> HttpRequest newAggregatedRequest(final GrpcClientMetadata metadata, final Req rawReq,
+    private <Req> HttpRequest newAggregatedRequest(final GrpcClientMetadata metadata, final Req rawReq,
                                                           final HttpRequestFactory requestFactory,
                                                           final GrpcSerializationProvider serializationProvider,
-                                                          final Class<Req> requestClass) {
+                                                          final Class<Req> requestClass,
+                                                          @Nullable final Duration timeout) {
         final HttpRequest httpRequest = requestFactory.post(metadata.path());
-        initRequest(httpRequest);
+        initRequest(httpRequest, timeout);
         return httpRequest.payloadBody(uncheckedCast(rawReq),
-                serializationProvider.serializerFor(metadata, requestClass));
+                serializationProvider.serializerFor(metadata, requestClass, requestEncoding(metadata)));
     }
 }
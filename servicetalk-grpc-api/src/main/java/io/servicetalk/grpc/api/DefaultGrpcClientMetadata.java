@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.grpc.api;
 
+import java.time.Duration;
 import javax.annotation.Nullable;
 
 import static java.util.Objects.requireNonNull;
@@ -26,6 +27,10 @@ public class DefaultGrpcClientMetadata extends DefaultGrpcMetadata implements Gr
 
     @Nullable
     private final GrpcExecutionStrategy strategy;
+    @Nullable
+    private final GrpcMessageEncoding requestEncoding;
+    @Nullable
+    private final Duration timeout;
 
     /**
      * Creates a new instance.
@@ -33,8 +38,7 @@ public class DefaultGrpcClientMetadata extends DefaultGrpcMetadata implements Gr
      * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
      */
     protected DefaultGrpcClientMetadata(final String path) {
-        super(path);
-        strategy = null;
+        this(path, null, null, null);
     }
 
     /**
@@ -46,12 +50,70 @@ public class DefaultGrpcClientMetadata extends DefaultGrpcMetadata implements Gr
      */
     protected DefaultGrpcClientMetadata(final String path,
                                         final GrpcExecutionStrategy strategy) {
+        this(path, requireNonNull(strategy), null, null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
+     * @param requestEncoding {@link GrpcMessageEncoding} to use for the request messages of the associated
+     * <a href="https://www.grpc.io">gRPC</a> method.
+     */
+    protected DefaultGrpcClientMetadata(final String path,
+                                        final GrpcMessageEncoding requestEncoding) {
+        this(path, null, requireNonNull(requestEncoding), null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
+     * @param timeout Timeout to use for the associated <a href="https://www.grpc.io">gRPC</a> call.
+     */
+    protected DefaultGrpcClientMetadata(final String path,
+                                        final Duration timeout) {
+        this(path, null, null, requireNonNull(timeout));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param path for the associated <a href="https://www.grpc.io">gRPC</a> method.
+     * @param strategy {@link GrpcExecutionStrategy} to use for the associated <a href="https://www.grpc.io">gRPC</a>
+     * method, or {@code null} to use the default of the client.
+     * @param requestEncoding {@link GrpcMessageEncoding} to use for the request messages of the associated
+     * <a href="https://www.grpc.io">gRPC</a> method, or {@code null} to use the default of the client.
+     * @param timeout Timeout to use for the associated <a href="https://www.grpc.io">gRPC</a> call, or {@code null} for
+     * no timeout.
+     */
+    protected DefaultGrpcClientMetadata(final String path,
+                                        @Nullable final GrpcExecutionStrategy strategy,
+                                        @Nullable final GrpcMessageEncoding requestEncoding,
+                                        @Nullable final Duration timeout) {
         super(path);
-        this.strategy = requireNonNull(strategy);
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("timeout: " + timeout + " (expected >0)");
+        }
+        this.strategy = strategy;
+        this.requestEncoding = requestEncoding;
+        this.timeout = timeout;
     }
 
     @Override
     public final GrpcExecutionStrategy strategy() {
         return strategy;
     }
+
+    @Nullable
+    @Override
+    public final GrpcMessageEncoding requestEncoding() {
+        return requestEncoding;
+    }
+
+    @Nullable
+    @Override
+    public final Duration timeout() {
+        return timeout;
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -92,6 +92,17 @@ public abstract class GrpcClientBuilder<U, R>
     @Override
     public abstract GrpcClientBuilder<U, R> loadBalancerFactory(HttpLoadBalancerFactory<R> loadBalancerFactory);
 
+    /**
+     * Sets the {@link GrpcMessageEncoding} used to compress request messages, unless overridden per call by
+     * {@link GrpcClientMetadata#requestEncoding()}. Defaults to {@link GrpcMessageEncoding#None}.
+     * <p>
+     * Response messages are decoded according to the encoding selected by the server, independent of this setting.
+     *
+     * @param encoding {@link GrpcMessageEncoding} used to compress request messages.
+     * @return {@code this}
+     */
+    public abstract GrpcClientBuilder<U, R> defaultRequestEncoding(GrpcMessageEncoding encoding);
+
     /**
      * Append the filter to the chain of filters used to decorate the client created by this builder.
      * <p>
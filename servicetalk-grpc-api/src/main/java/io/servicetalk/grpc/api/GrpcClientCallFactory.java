@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -156,7 +156,20 @@ public interface GrpcClientCallFactory extends ListenableAsyncCloseable {
      * @return A new {@link GrpcClientCallFactory}.
      */
     static GrpcClientCallFactory from(StreamingHttpClient httpClient) {
-        return new DefaultGrpcClientCallFactory(httpClient);
+        return from(httpClient, GrpcMessageEncoding.None);
+    }
+
+    /**
+     * Creates a new {@link GrpcClientCallFactory} using the passed {@link StreamingHttpClient}.
+     *
+     * @param httpClient {@link StreamingHttpClient} to use. The returned {@link GrpcClientCallFactory} will own the
+     * lifecycle of this {@link StreamingHttpClient}.
+     * @param defaultRequestEncoding {@link GrpcMessageEncoding} to use for request messages, unless overridden by
+     * {@link GrpcClientMetadata#requestEncoding()}.
+     * @return A new {@link GrpcClientCallFactory}.
+     */
+    static GrpcClientCallFactory from(StreamingHttpClient httpClient, GrpcMessageEncoding defaultRequestEncoding) {
+        return new DefaultGrpcClientCallFactory(httpClient, defaultRequestEncoding);
     }
 
     /**
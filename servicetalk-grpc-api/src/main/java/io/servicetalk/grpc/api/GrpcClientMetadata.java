@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.grpc.api;
 
+import java.time.Duration;
 import javax.annotation.Nullable;
 
 /**
@@ -31,4 +32,32 @@ public interface GrpcClientMetadata extends GrpcMetadata {
      */
     @Nullable
     GrpcExecutionStrategy strategy();
+
+    /**
+     * {@link GrpcMessageEncoding} to use for the request messages of the associated
+     * <a href="https://www.grpc.io">gRPC</a> method.
+     *
+     * @return {@link GrpcMessageEncoding} to use for the request messages of the associated
+     * <a href="https://www.grpc.io">gRPC</a> method, or {@code null} to use the default of the client.
+     */
+    @Nullable
+    default GrpcMessageEncoding requestEncoding() {
+        return null;
+    }
+
+    /**
+     * Timeout to use for the associated <a href="https://www.grpc.io">gRPC</a> call. The timeout is sent to the
+     * server via the {@code grpc-timeout} header and the call fails with {@link GrpcStatusCode#DEADLINE_EXCEEDED} if
+     * it does not complete in time.
+     * <p>
+     * If the call is made while processing a request that has a deadline (see {@link GrpcDeadlines}), the lesser of
+     * this timeout and the remaining time of that deadline is used.
+     *
+     * @return Timeout to use for the associated <a href="https://www.grpc.io">gRPC</a> call, or {@code null} for no
+     * timeout.
+     */
+    @Nullable
+    default Duration timeout() {
+        return null;
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.concurrent.api.AsyncContext;
+import io.servicetalk.concurrent.api.AsyncContextMap.Key;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.AsyncContextMap.Key.newKey;
+import static io.servicetalk.concurrent.api.Completable.defer;
+import static io.servicetalk.concurrent.api.Completable.failed;
+import static io.servicetalk.grpc.api.GrpcStatusCode.DEADLINE_EXCEEDED;
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofNanos;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Access to the deadline of the <a href="https://www.grpc.io">gRPC</a> request that is currently being processed.
+ * <p>
+ * When a request carries a {@code grpc-timeout} header, the server stores its deadline in the {@link AsyncContext}
+ * while the request is processed, cancels the handler once the deadline expires and responds with
+ * {@link GrpcStatusCode#DEADLINE_EXCEEDED}. gRPC calls made from within the handler automatically use the remaining
+ * time as their timeout, HTTP clients can do the same by appending {@link #deadlinePropagatingHttpClientFilter()}.
+ */
+public final class GrpcDeadlines {
+    private static final Key<Long> DEADLINE_NANOS_KEY = newKey("grpc-deadline");
+    private static final StreamingHttpClientFilterFactory DEADLINE_PROPAGATING_HTTP_CLIENT_FILTER =
+            client -> new StreamingHttpClientFilter(client) {
+                @Override
+                protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                                final HttpExecutionStrategy strategy,
+                                                                final StreamingHttpRequest request) {
+                    final Duration timeout = effectiveTimeout(null);
+                    if (timeout == null) {
+                        return delegate.request(strategy, request);
+                    }
+                    final long deadlineNanos = nanoTime() + timeout.toNanos();
+                    final Executor executor = delegate.executionContext().executor();
+                    return withDeadline(delegate.request(strategy, request), deadlineNanos, executor)
+                            .map(response -> response.transformRawPayloadBody(payload ->
+                                    withDeadline(payload, deadlineNanos, executor)));
+                }
+            };
+
+    private GrpcDeadlines() {
+        // No instances.
+    }
+
+    /**
+     * Get the remaining time until the deadline of the <a href="https://www.grpc.io">gRPC</a> request that is
+     * currently being processed.
+     *
+     * @return the remaining time until the deadline, {@link Duration#ZERO} if the deadline has already expired, or
+     * {@code null} if the request being processed has no deadline.
+     */
+    @Nullable
+    public static Duration remainingTime() {
+        final Long deadlineNanos = AsyncContext.get(DEADLINE_NANOS_KEY);
+        if (deadlineNanos == null) {
+            return null;
+        }
+        final long remainingNanos = deadlineNanos - nanoTime();
+        return remainingNanos > 0 ? ofNanos(remainingNanos) : ZERO;
+    }
+
+    /**
+     * Get a {@link StreamingHttpClientFilterFactory} that applies the remaining time until the deadline of the
+     * <a href="https://www.grpc.io">gRPC</a> request currently being processed as a timeout to HTTP requests.
+     * Requests that are not made while processing a request with a deadline are not affected.
+     *
+     * @return a {@link StreamingHttpClientFilterFactory} that applies the remaining time until the deadline as a
+     * timeout to HTTP requests.
+     */
+    public static StreamingHttpClientFilterFactory deadlinePropagatingHttpClientFilter() {
+        return DEADLINE_PROPAGATING_HTTP_CLIENT_FILTER;
+    }
+
+    static void deadline(final long deadlineNanos) {
+        AsyncContext.put(DEADLINE_NANOS_KEY, deadlineNanos);
+    }
+
+    /**
+     * Get the timeout to use for a call made in the current {@link AsyncContext}.
+     *
+     * @param callTimeout the timeout requested for the call, or {@code null} if none.
+     * @return the lesser of {@code callTimeout} and the remaining time until the current deadline, or {@code null} if
+     * neither is present.
+     */
+    @Nullable
+    static Duration effectiveTimeout(@Nullable final Duration callTimeout) {
+        final Duration remaining = remainingTime();
+        if (remaining == null) {
+            return callTimeout;
+        }
+        return callTimeout == null || remaining.compareTo(callTimeout) < 0 ? remaining : callTimeout;
+    }
+
+    static <T> Single<T> withDeadline(final Single<T> single, final long deadlineNanos, final Executor executor) {
+        return Single.defer(() -> {
+            final long remainingNanos = deadlineNanos - nanoTime();
+            if (remainingNanos <= 0) {
+                return Single.<T>failed(newDeadlineExceededException()).subscribeShareContext();
+            }
+            return single.idleTimeout(remainingNanos, NANOSECONDS, executor)
+                    .recoverWith(cause -> Single.failed(cause instanceof TimeoutException ?
+                            newDeadlineExceededException() : cause))
+                    .subscribeShareContext();
+        });
+    }
+
+    static <T> Publisher<T> withDeadline(final Publisher<T> publisher, final long deadlineNanos,
+                                         final Executor executor) {
+        return publisher.takeUntil(defer(() -> executor.timer(deadlineNanos - nanoTime(), NANOSECONDS)
+                .concat(failed(newDeadlineExceededException()))));
+    }
+
+    static GrpcStatusException newDeadlineExceededException() {
+        return new GrpcStatus(DEADLINE_EXCEEDED, null, "Deadline exceeded").asException();
+    }
+}
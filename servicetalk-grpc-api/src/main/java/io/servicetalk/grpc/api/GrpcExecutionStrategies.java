@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -50,6 +50,17 @@ public final class GrpcExecutionStrategies {
         return new DefaultGrpcExecutionStrategy(HttpExecutionStrategies.defaultStrategy(executor));
     }
 
+    /**
+     * The default {@link GrpcExecutionStrategy} using a shared {@link Executor} that starts a new virtual thread for
+     * each task, see {@link HttpExecutionStrategies#virtualThreadStrategy()}.
+     *
+     * @return Default {@link GrpcExecutionStrategy} using virtual threads.
+     * @throws UnsupportedOperationException if virtual threads are not available (Java 21+ is required).
+     */
+    public static GrpcExecutionStrategy virtualThreadStrategy() {
+        return new DefaultGrpcExecutionStrategy(HttpExecutionStrategies.virtualThreadStrategy());
+    }
+
     /**
      * A {@link GrpcExecutionStrategy} that disables all offloads.
      *
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes and decodes individual <a href="https://github.com/grpc/grpc/blob/master/doc/compression.md">compressed
+ * gRPC messages</a>.
+ * <p>
+ * Implementations operate on streams backed by {@link Buffer}s so serializers can write a message directly into the
+ * encoder, and parse a message directly from the decoder, without materializing the uncompressed message first.
+ */
+public interface GrpcMessageCodec {
+
+    /**
+     * Creates a new {@link OutputStream} which encodes all bytes written to it into {@code destination}. The encoded
+     * representation is complete once the returned {@link OutputStream} is closed.
+     *
+     * @param destination {@link Buffer} to write the encoded bytes to.
+     * @return a new {@link OutputStream} which encodes all bytes written to it into {@code destination}.
+     * @throws IOException if the encoder can not be created.
+     */
+    OutputStream newEncoder(Buffer destination) throws IOException;
+
+    /**
+     * Creates a new {@link InputStream} which decodes the readable bytes of {@code source}.
+     *
+     * @param source {@link Buffer} containing exactly one encoded message.
+     * @return a new {@link InputStream} which decodes the readable bytes of {@code source}.
+     * @throws IOException if the decoder can not be created, for example because of an invalid header.
+     */
+    InputStream newDecoder(Buffer source) throws IOException;
+}
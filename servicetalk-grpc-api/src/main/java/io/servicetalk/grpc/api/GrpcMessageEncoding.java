@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,18 +15,30 @@
  */
 package io.servicetalk.grpc.api;
 
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+
 /**
  * Supported <a href="https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md#message-encoding">
  *     gRPC message encoding schemes</a>.
+ * <p>
+ * The set of encodings is fixed, custom {@link GrpcMessageCodec}s can not be registered. Servers respond with the
+ * encoding of the request if the client lists it in {@code grpc-accept-encoding}, and uncompressed otherwise. There is
+ * no server side default encoding.
  */
 public enum GrpcMessageEncoding {
 
-    None("identity");
+    None("identity", IdentityGrpcMessageCodec.INSTANCE),
+    Gzip("gzip", ZipGrpcMessageCodec.GZIP),
+    Deflate("deflate", ZipGrpcMessageCodec.DEFLATE);
 
     private final String encoding;
+    private final GrpcMessageCodec codec;
 
-    GrpcMessageEncoding(final String encoding) {
+    GrpcMessageEncoding(final String encoding, final GrpcMessageCodec codec) {
         this.encoding = encoding;
+        this.codec = codec;
     }
 
     /**
@@ -37,4 +49,30 @@ public enum GrpcMessageEncoding {
     public String encoding() {
         return encoding;
     }
+
+    /**
+     * The {@link GrpcMessageCodec} used to encode and decode messages with this encoding.
+     *
+     * @return the {@link GrpcMessageCodec} used to encode and decode messages with this encoding.
+     */
+    public GrpcMessageCodec codec() {
+        return codec;
+    }
+
+    /**
+     * Returns the {@link GrpcMessageEncoding} for the passed {@link #encoding()} representation.
+     *
+     * @param encoding the {@link #encoding()} representation, case insensitive.
+     * @return the {@link GrpcMessageEncoding} for the passed {@code encoding}, or {@code null} if the encoding is not
+     * supported.
+     */
+    @Nullable
+    public static GrpcMessageEncoding fromEncoding(final CharSequence encoding) {
+        for (GrpcMessageEncoding messageEncoding : values()) {
+            if (contentEqualsIgnoreCase(messageEncoding.encoding, encoding)) {
+                return messageEncoding;
+            }
+        }
+        return null;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.grpc.api;
 
+import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.concurrent.BlockingIterable;
 import io.servicetalk.concurrent.BlockingIterator;
 import io.servicetalk.concurrent.GracefulAutoCloseable;
@@ -22,6 +23,7 @@ import io.servicetalk.concurrent.api.AsyncCloseable;
 import io.servicetalk.concurrent.api.AsyncCloseables;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.grpc.api.GrpcRoutes.BlockingRequestStreamingRoute;
@@ -33,6 +35,7 @@ import io.servicetalk.grpc.api.GrpcRoutes.ResponseStreamingRoute;
 import io.servicetalk.grpc.api.GrpcRoutes.Route;
 import io.servicetalk.grpc.api.GrpcRoutes.StreamingRoute;
 import io.servicetalk.grpc.api.GrpcServiceFactory.ServerBinder;
+import io.servicetalk.grpc.api.GrpcUtils.PayloadFailureUpdater;
 import io.servicetalk.http.api.BlockingHttpService;
 import io.servicetalk.http.api.BlockingStreamingHttpRequest;
 import io.servicetalk.http.api.BlockingStreamingHttpServerResponse;
@@ -55,6 +58,7 @@ import io.servicetalk.transport.api.ExecutionContext;
 import io.servicetalk.transport.api.ServerContext;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -64,6 +68,8 @@ import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.Single.failed;
 import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.grpc.api.GrpcDeadlines.deadline;
+import static io.servicetalk.grpc.api.GrpcDeadlines.withDeadline;
 import static io.servicetalk.grpc.api.GrpcRouteConversions.toAsyncCloseable;
 import static io.servicetalk.grpc.api.GrpcRouteConversions.toRequestStreamingRoute;
 import static io.servicetalk.grpc.api.GrpcRouteConversions.toResponseStreamingRoute;
@@ -72,14 +78,17 @@ import static io.servicetalk.grpc.api.GrpcRouteConversions.toStreaming;
 import static io.servicetalk.grpc.api.GrpcStatus.fromCodeValue;
 import static io.servicetalk.grpc.api.GrpcStatusCode.INVALID_ARGUMENT;
 import static io.servicetalk.grpc.api.GrpcStatusCode.UNIMPLEMENTED;
+import static io.servicetalk.grpc.api.GrpcUtils.negotiateResponseEncoding;
 import static io.servicetalk.grpc.api.GrpcUtils.newErrorResponse;
 import static io.servicetalk.grpc.api.GrpcUtils.newResponse;
 import static io.servicetalk.grpc.api.GrpcUtils.readGrpcMessageEncoding;
+import static io.servicetalk.grpc.api.GrpcUtils.readTimeout;
 import static io.servicetalk.grpc.api.GrpcUtils.setStatus;
 import static io.servicetalk.grpc.api.GrpcUtils.setStatusOk;
 import static io.servicetalk.http.api.HttpApiConversions.toStreamingHttpService;
 import static io.servicetalk.http.api.HttpExecutionStrategies.defaultStrategy;
 import static io.servicetalk.http.api.HttpRequestMethod.POST;
+import static java.lang.System.nanoTime;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableMap;
 
@@ -129,9 +138,10 @@ final class GrpcRouter {
                 final StreamingHttpService service;
                 if (!POST.equals(request.method()) || (service = allRoutes.get(request.path())) == null) {
                     return NOT_FOUND_SERVICE.handle(ctx, request, responseFactory);
-                } else {
-                    return service.handle(ctx, request, responseFactory);
                 }
+                final Duration timeout = readTimeout(request);
+                return timeout == null ? service.handle(ctx, request, responseFactory) :
+                        handleWithDeadline(service, ctx, request, responseFactory, timeout);
             }
 
             @Override
@@ -146,6 +156,23 @@ final class GrpcRouter {
         });
     }
 
+    private static Single<StreamingHttpResponse> handleWithDeadline(
+            final StreamingHttpService service, final HttpServiceContext ctx, final StreamingHttpRequest request,
+            final StreamingHttpResponseFactory responseFactory, final Duration timeout) {
+        final long deadlineNanos = nanoTime() + timeout.toNanos();
+        final Executor executor = ctx.executionContext().executor();
+        final BufferAllocator allocator = ctx.executionContext().bufferAllocator();
+        // The handler and the calls it makes observe the deadline through the AsyncContext.
+        deadline(deadlineNanos);
+        return withDeadline(service.handle(ctx, request, responseFactory), deadlineNanos, executor)
+                .recoverWith(cause -> cause instanceof GrpcStatusException ?
+                        succeeded(newErrorResponse(responseFactory, cause, allocator).version(request.version())) :
+                        failed(cause))
+                .map(response -> response.transformRawPayloadBody(payload ->
+                        withDeadline(payload, deadlineNanos, executor))
+                        .transformRaw(new PayloadFailureUpdater(allocator)));
+    }
+
     private static void populateRoutes(final ExecutionContext executionContext,
                                        final Map<String, StreamingHttpService> allRoutes,
                                        final Map<String, RouteProvider> routes,
@@ -247,15 +274,16 @@ final class GrpcRouter {
                             try {
                                 final GrpcServiceContext serviceContext =
                                         new DefaultGrpcServiceContext(request.path(), ctx);
+                                final GrpcMessageEncoding encoding = readGrpcMessageEncoding(request);
                                 final HttpDeserializer<Req> deserializer =
-                                        serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                                requestClass);
+                                        serializationProvider.deserializerFor(encoding, requestClass);
                                 return route.handle(serviceContext, request.payloadBody(deserializer))
                                         .map(rawResp -> newResponse(responseFactory,
                                                 ctx.executionContext().bufferAllocator())
                                                 .payloadBody(rawResp,
                                                         serializationProvider.serializerFor(serviceContext,
-                                                                responseClass)))
+                                                                responseClass,
+                                                                negotiateResponseEncoding(request, encoding))))
                                         .recoverWith(cause -> succeeded(newErrorResponse(responseFactory, cause,
                                                 ctx.executionContext().bufferAllocator())));
                             } catch (Throwable t) {
@@ -297,13 +325,14 @@ final class GrpcRouter {
                         try {
                             final GrpcServiceContext serviceContext =
                                     new DefaultGrpcServiceContext(request.path(), ctx);
+                            final GrpcMessageEncoding encoding = readGrpcMessageEncoding(request);
                             final HttpDeserializer<Req> deserializer =
-                                    serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                            requestClass);
+                                    serializationProvider.deserializerFor(encoding, requestClass);
                             final Publisher<Resp> response = route.handle(serviceContext,
                                     request.payloadBody(deserializer));
                             return succeeded(newResponse(responseFactory, response,
-                                    serializationProvider.serializerFor(serviceContext, responseClass),
+                                    serializationProvider.serializerFor(serviceContext, responseClass,
+                                            negotiateResponseEncoding(request, encoding)),
                                     ctx.executionContext().bufferAllocator()));
                         } catch (Throwable t) {
                             return succeeded(newErrorResponse(responseFactory, t,
@@ -437,13 +466,14 @@ final class GrpcRouter {
                             try {
                                 final GrpcServiceContext serviceContext =
                                         new DefaultGrpcServiceContext(request.path(), ctx);
+                                final GrpcMessageEncoding encoding = readGrpcMessageEncoding(request);
                                 final HttpDeserializer<Req> deserializer =
-                                        serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                                requestClass);
+                                        serializationProvider.deserializerFor(encoding, requestClass);
                                 final Resp response = route.handle(serviceContext, request.payloadBody(deserializer));
                                 return newResponse(responseFactory, ctx.executionContext().bufferAllocator())
                                         .payloadBody(response,
-                                                serializationProvider.serializerFor(serviceContext, responseClass));
+                                                serializationProvider.serializerFor(serviceContext, responseClass,
+                                                        negotiateResponseEncoding(request, encoding)));
                             } catch (Throwable t) {
                                 return newErrorResponse(responseFactory, t, ctx.executionContext().bufferAllocator());
                             }
@@ -492,11 +522,12 @@ final class GrpcRouter {
                                            final BlockingStreamingHttpServerResponse response) throws Exception {
                             final GrpcServiceContext serviceContext =
                                     new DefaultGrpcServiceContext(request.path(), ctx);
+                            final GrpcMessageEncoding encoding = readGrpcMessageEncoding(request);
                             final HttpDeserializer<Req> deserializer =
-                                    serializationProvider.deserializerFor(readGrpcMessageEncoding(request),
-                                            requestClass);
+                                    serializationProvider.deserializerFor(encoding, requestClass);
                             final HttpSerializer<Resp> serializer =
-                                    serializationProvider.serializerFor(serviceContext, responseClass);
+                                    serializationProvider.serializerFor(serviceContext, responseClass,
+                                            negotiateResponseEncoding(request, encoding));
                             final DefaultGrpcPayloadWriter<Resp> grpcPayloadWriter =
                                     new DefaultGrpcPayloadWriter<>(response.sendMetaData(serializer));
                             try {
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,29 @@ public interface GrpcSerializationProvider {
      */
     <T> HttpSerializer<T> serializerFor(GrpcMetadata metadata, Class<T> type);
 
+    /**
+     * Get a {@link HttpSerializer} for a {@link Class} of type {@link T} which encodes messages with the passed
+     * {@link GrpcMessageEncoding}. The returned {@link HttpSerializer} sets the {@code grpc-encoding} header to the
+     * encoding it applies.
+     * <p>
+     * The default implementation does not support compression. For any {@link GrpcMessageEncoding} other than
+     * {@link GrpcMessageEncoding#None} it logs a warning and falls back to {@link #serializerFor(GrpcMetadata, Class)},
+     * so messages are sent uncompressed.
+     *
+     * @param metadata {@link GrpcMetadata} for the serializer.
+     * @param type The {@link Class} type that the returned {@link HttpSerializer} can serialize.
+     * @param messageEncoding {@link GrpcMessageEncoding} for the serializer.
+     * @param <T> The type of object to serialize.
+     * @return a {@link HttpSerializer} for a {@link Class} of type {@link T}.
+     */
+    default <T> HttpSerializer<T> serializerFor(GrpcMetadata metadata, Class<T> type,
+                                                GrpcMessageEncoding messageEncoding) {
+        if (messageEncoding != GrpcMessageEncoding.None) {
+            GrpcUtils.warnUnsupportedEncoding(this, messageEncoding);
+        }
+        return serializerFor(metadata, type);
+    }
+
     /**
      * Get a {@link HttpDeserializer} for a {@link Class} of type {@link T}.
      *
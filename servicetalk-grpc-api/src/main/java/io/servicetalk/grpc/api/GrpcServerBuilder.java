@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -66,6 +66,27 @@ public abstract class GrpcServerBuilder {
      */
     public abstract GrpcServerBuilder backlog(int backlog);
 
+    /**
+     * Bind one listen socket per IO thread to the same address using {@code SO_REUSEPORT}, which lets the kernel
+     * distribute new connections across the IO threads instead of accepting all connections on a single thread.
+     * <p>
+     * This is only supported by the native epoll transport for IP addresses, otherwise a single listen socket is bound.
+     * The resulting {@link ServerContext} closes all listen sockets.
+     * <p>
+     * Implementations which do not support this option reject {@code true}, a single listen socket is the default.
+     *
+     * @param reusePort {@code true} to bind one listen socket per IO thread.
+     * @return {@code this}.
+     * @throws UnsupportedOperationException if {@code reusePort} is {@code true} and this builder does not support
+     * binding multiple listen sockets.
+     */
+    public GrpcServerBuilder reusePort(boolean reusePort) {
+        if (reusePort) {
+            throw new UnsupportedOperationException("reusePort is not supported by " + getClass().getName());
+        }
+        return this;
+    }
+
     /**
      * Initiate security configuration for this server. Calling any {@code commit} method on the returned
      * {@link GrpcServerSecurityConfigurator} will commit the configuration.
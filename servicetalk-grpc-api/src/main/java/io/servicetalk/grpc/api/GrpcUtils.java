@@ -30,12 +30,15 @@ import io.servicetalk.http.api.StatelessTrailersTransformer;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
 import io.servicetalk.http.api.TrailersTransformer;
-import io.servicetalk.serialization.api.SerializationException;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.rpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.Base64;
+import java.util.Set;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
@@ -43,8 +46,10 @@ import static io.servicetalk.concurrent.api.Publisher.empty;
 import static io.servicetalk.concurrent.api.Publisher.failed;
 import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
 import static io.servicetalk.grpc.api.GrpcStatusCode.INTERNAL;
-import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.grpc.api.GrpcStatusCode.UNIMPLEMENTED;
+import static io.servicetalk.http.api.CharSequences.indexOf;
 import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.CharSequences.regionMatches;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
 import static io.servicetalk.http.api.HttpHeaderNames.SERVER;
 import static io.servicetalk.http.api.HttpHeaderNames.TE;
@@ -52,16 +57,39 @@ import static io.servicetalk.http.api.HttpHeaderNames.USER_AGENT;
 import static io.servicetalk.http.api.HttpHeaderValues.TRAILERS;
 import static io.servicetalk.http.api.HttpRequestMethod.POST;
 import static java.lang.String.valueOf;
+import static java.time.Duration.ofHours;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofNanos;
+import static java.time.Duration.ofSeconds;
+import static java.util.Arrays.stream;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.joining;
 
 final class GrpcUtils {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GrpcUtils.class);
     private static final CharSequence GRPC_CONTENT_TYPE = newAsciiString("application/grpc");
     private static final CharSequence GRPC_STATUS_CODE_TRAILER = newAsciiString("grpc-status");
     private static final CharSequence GRPC_STATUS_DETAILS_TRAILER = newAsciiString("grpc-status-details-bin");
     private static final CharSequence GRPC_STATUS_MESSAGE_TRAILER = newAsciiString("grpc-message");
     // TODO (nkant): add project version
     private static final CharSequence GRPC_USER_AGENT = newAsciiString("grpc-service-talk/");
-    private static final CharSequence IDENTITY = newAsciiString(None.encoding());
     private static final CharSequence GRPC_MESSAGE_ENCODING_KEY = newAsciiString("grpc-encoding");
+    private static final CharSequence GRPC_MESSAGE_ACCEPT_ENCODING_KEY = newAsciiString("grpc-accept-encoding");
+    private static final CharSequence GRPC_MESSAGE_ACCEPT_ENCODING_VALUE = newAsciiString(
+            stream(GrpcMessageEncoding.values()).map(GrpcMessageEncoding::encoding).collect(joining(",")));
+    private static final Set<Class<?>> PROVIDERS_WITHOUT_ENCODING_SUPPORT = newKeySet();
+    private static final CharSequence GRPC_TIMEOUT_KEY = newAsciiString("grpc-timeout");
+    // https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md allows at most 8 digits for the timeout value.
+    private static final int GRPC_TIMEOUT_MAX_DIGITS = 8;
+    private static final long GRPC_TIMEOUT_MAX_VALUE = 99_999_999;
+    private static final char[] GRPC_TIMEOUT_UNITS = {'n', 'u', 'm', 'S', 'M', 'H'};
+    private static final long[] GRPC_TIMEOUT_UNIT_NANOS = {1, MICROSECONDS.toNanos(1), MILLISECONDS.toNanos(1),
+            SECONDS.toNanos(1), MINUTES.toNanos(1), HOURS.toNanos(1)};
     private static final GrpcStatus STATUS_OK = GrpcStatus.fromCodeValue(GrpcStatusCode.OK.value());
     private static final TrailersTransformer<Object, Object> ENSURE_GRPC_STATUS_RECEIVED =
             new StatelessTrailersTransformer<Object>() {
@@ -76,12 +104,70 @@ final class GrpcUtils {
         // No instances.
     }
 
-    static void initRequest(final HttpRequestMetaData request) {
+    static void initRequest(final HttpRequestMetaData request, @Nullable final Duration timeout) {
         assert POST.equals(request.method());
         final HttpHeaders headers = request.headers();
         headers.set(USER_AGENT, GRPC_USER_AGENT);
         headers.set(TE, TRAILERS);
         headers.set(CONTENT_TYPE, GRPC_CONTENT_TYPE);
+        headers.set(GRPC_MESSAGE_ACCEPT_ENCODING_KEY, GRPC_MESSAGE_ACCEPT_ENCODING_VALUE);
+        if (timeout != null) {
+            headers.set(GRPC_TIMEOUT_KEY, encodeTimeout(timeout.toNanos()));
+        }
+    }
+
+    static String encodeTimeout(final long timeoutNanos) {
+        if (timeoutNanos <= 0) {
+            // The deadline has already expired, the value must be a positive integer.
+            return "1n";
+        }
+        // Use the finest unit that fits, the value is truncated so the server never waits longer than the client.
+        for (int i = 0; i < GRPC_TIMEOUT_UNITS.length; ++i) {
+            final long value = timeoutNanos / GRPC_TIMEOUT_UNIT_NANOS[i];
+            if (value <= GRPC_TIMEOUT_MAX_VALUE) {
+                return valueOf(value) + GRPC_TIMEOUT_UNITS[i];
+            }
+        }
+        return valueOf(GRPC_TIMEOUT_MAX_VALUE) + GRPC_TIMEOUT_UNITS[GRPC_TIMEOUT_UNITS.length - 1];
+    }
+
+    @Nullable
+    static Duration readTimeout(final HttpMetaData httpMetaData) {
+        final CharSequence timeout = httpMetaData.headers().get(GRPC_TIMEOUT_KEY);
+        return timeout == null ? null : decodeTimeout(timeout);
+    }
+
+    @Nullable
+    static Duration decodeTimeout(final CharSequence timeout) {
+        final int length = timeout.length();
+        if (length < 2 || length > GRPC_TIMEOUT_MAX_DIGITS + 1) {
+            // Malformed values are ignored, the request is processed without a deadline.
+            return null;
+        }
+        long value = 0;
+        for (int i = 0; i < length - 1; ++i) {
+            final char c = timeout.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+        }
+        switch (timeout.charAt(length - 1)) {
+            case 'n':
+                return ofNanos(value);
+            case 'u':
+                return ofNanos(MICROSECONDS.toNanos(value));
+            case 'm':
+                return ofNanos(MILLISECONDS.toNanos(value));
+            case 'S':
+                return ofSeconds(value);
+            case 'M':
+                return ofMinutes(value);
+            case 'H':
+                return ofHours(value);
+            default:
+                return null;
+        }
     }
 
     static <T> StreamingHttpResponse newResponse(final StreamingHttpResponseFactory responseFactory,
@@ -204,13 +290,79 @@ final class GrpcUtils {
 
     static GrpcMessageEncoding readGrpcMessageEncoding(final HttpMetaData httpMetaData) {
         final CharSequence encoding = httpMetaData.headers().get(GRPC_MESSAGE_ENCODING_KEY);
-        // identity is a special header for no compression
-        if (encoding != null && !contentEqualsIgnoreCase(encoding, IDENTITY)) {
-            final String lowercaseEncoding = encoding.toString().toLowerCase();
-            throw new SerializationException("Compression " + lowercaseEncoding + " not supported");
-        } else {
+        if (encoding == null) {
+            return None;
+        }
+        final GrpcMessageEncoding messageEncoding = GrpcMessageEncoding.fromEncoding(encoding);
+        if (messageEncoding == null) {
+            // https://github.com/grpc/grpc/blob/master/doc/compression.md requires UNIMPLEMENTED for unknown encodings.
+            throw new GrpcStatus(UNIMPLEMENTED, null, "Compression " + encoding.toString().toLowerCase() +
+                    " not supported").asException();
+        }
+        return messageEncoding;
+    }
+
+    /**
+     * Logs once per {@link GrpcSerializationProvider} type that messages are not compressed because the provider does
+     * not support the configured {@link GrpcMessageEncoding}.
+     *
+     * @param provider the {@link GrpcSerializationProvider} which does not support {@code encoding}.
+     * @param encoding the {@link GrpcMessageEncoding} which is not supported.
+     */
+    static void warnUnsupportedEncoding(final GrpcSerializationProvider provider, final GrpcMessageEncoding encoding) {
+        if (PROVIDERS_WITHOUT_ENCODING_SUPPORT.add(provider.getClass())) {
+            LOGGER.warn("{} does not support message encoding {}, messages are sent uncompressed.",
+                    provider.getClass().getName(), encoding.encoding());
+        }
+    }
+
+    /**
+     * Selects the {@link GrpcMessageEncoding} of a response. The response uses the encoding of the request if the
+     * client lists it in {@code grpc-accept-encoding}, and is not compressed otherwise.
+     *
+     * @param request the {@link HttpRequestMetaData} of the request.
+     * @param requestEncoding the {@link GrpcMessageEncoding} of the request.
+     * @return the {@link GrpcMessageEncoding} of the response.
+     */
+    static GrpcMessageEncoding negotiateResponseEncoding(final HttpRequestMetaData request,
+                                                         final GrpcMessageEncoding requestEncoding) {
+        if (requestEncoding == None) {
             return None;
         }
+        for (CharSequence acceptEncodings : request.headers().values(GRPC_MESSAGE_ACCEPT_ENCODING_KEY)) {
+            if (containsEncoding(acceptEncodings, requestEncoding.encoding())) {
+                return requestEncoding;
+            }
+        }
+        // https://github.com/grpc/grpc/blob/master/doc/compression.md forbids encodings the client did not accept.
+        return None;
+    }
+
+    private static boolean containsEncoding(final CharSequence acceptEncodings, final String encoding) {
+        int start = 0;
+        while (start < acceptEncodings.length()) {
+            int end = indexOf(acceptEncodings, ',', start);
+            if (end < 0) {
+                end = acceptEncodings.length();
+            }
+            final int next = end + 1;
+            while (start < end && isWhitespace(acceptEncodings.charAt(start))) {
+                ++start;
+            }
+            while (end > start && isWhitespace(acceptEncodings.charAt(end - 1))) {
+                --end;
+            }
+            if (end - start == encoding.length() &&
+                    regionMatches(acceptEncodings, true, start, encoding, 0, encoding.length())) {
+                return true;
+            }
+            start = next;
+        }
+        return false;
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t';
     }
 
     private static void initResponse(final HttpResponseMetaData response) {
@@ -218,6 +370,7 @@ final class GrpcUtils {
         final HttpHeaders headers = response.headers();
         headers.set(SERVER, GRPC_USER_AGENT);
         headers.set(CONTENT_TYPE, GRPC_CONTENT_TYPE);
+        headers.set(GRPC_MESSAGE_ACCEPT_ENCODING_KEY, GRPC_MESSAGE_ACCEPT_ENCODING_VALUE);
     }
 
     @Nullable
@@ -332,6 +485,25 @@ final class GrpcUtils {
         }
     }
 
+    /**
+     * Converts a failure of a payload, which has already been processed by a {@link GrpcStatusUpdater}, into the
+     * status in the trailers.
+     */
+    static final class PayloadFailureUpdater extends StatelessTrailersTransformer<Object> {
+        private final BufferAllocator allocator;
+
+        PayloadFailureUpdater(final BufferAllocator allocator) {
+            this.allocator = allocator;
+        }
+
+        @Override
+        protected HttpHeaders payloadFailed(final Throwable cause, final HttpHeaders trailers) {
+            setStatus(trailers, cause, allocator);
+            // Swallow exception as we are converting it to the trailers.
+            return trailers;
+        }
+    }
+
     private static final class ErrorUpdater extends StatelessTrailersTransformer<Object> {
         private final Throwable cause;
         private final BufferAllocator allocator;
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static io.servicetalk.buffer.api.Buffer.asInputStream;
+import static io.servicetalk.buffer.api.Buffer.asOutputStream;
+
+/**
+ * {@link GrpcMessageCodec} which does not transform the message.
+ */
+final class IdentityGrpcMessageCodec implements GrpcMessageCodec {
+    static final GrpcMessageCodec INSTANCE = new IdentityGrpcMessageCodec();
+
+    private IdentityGrpcMessageCodec() {
+        // Singleton
+    }
+
+    @Override
+    public OutputStream newEncoder(final Buffer destination) {
+        return asOutputStream(destination);
+    }
+
+    @Override
+    public InputStream newDecoder(final Buffer source) {
+        return asInputStream(source);
+    }
+
+    @Override
+    public String toString() {
+        return "identity";
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.buffer.api.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.buffer.api.Buffer.asInputStream;
+import static java.util.zip.Deflater.DEFAULT_COMPRESSION;
+
+final class ZipGrpcMessageCodec implements GrpcMessageCodec {
+    static final GrpcMessageCodec GZIP = new ZipGrpcMessageCodec(true);
+    static final GrpcMessageCodec DEFLATE = new ZipGrpcMessageCodec(false);
+
+    private static final int BUFFER_SIZE = 8192;
+    // ID1, ID2, CM (deflate), FLG, MTIME (4 bytes), XFL, OS. Same header as written by java.util.zip.GZIPOutputStream.
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0};
+
+    private final boolean gzip;
+    /**
+     * A {@link Deflater} is only used by one encoder at a time. It is taken from the current thread when an encoder is
+     * created, and offered back to the thread which closes the encoder.
+     */
+    private final ThreadLocal<Deflater> deflaters = new ThreadLocal<>();
+
+    private ZipGrpcMessageCodec(final boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    @Override
+    public OutputStream newEncoder(final Buffer destination) {
+        Deflater deflater = deflaters.get();
+        if (deflater == null) {
+            // gzip uses the raw deflate format framed with its own header and trailer.
+            deflater = new Deflater(DEFAULT_COMPRESSION, gzip);
+        } else {
+            deflaters.set(null);
+        }
+        return new DeflaterEncoder(destination, deflater, gzip ? new CRC32() : null);
+    }
+
+    @Override
+    public InputStream newDecoder(final Buffer source) throws IOException {
+        final InputStream in = asInputStream(source);
+        // The default Inflater of these streams is released on close.
+        return gzip ? new GZIPInputStream(in, BUFFER_SIZE) : new InflaterInputStream(in);
+    }
+
+    private void release(final Deflater deflater) {
+        if (deflaters.get() == null) {
+            deflater.reset();
+            deflaters.set(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return gzip ? "gzip" : "deflate";
+    }
+
+    private final class DeflaterEncoder extends OutputStream {
+        private final Buffer destination;
+        private final Deflater deflater;
+        @Nullable
+        private final CRC32 crc;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private boolean closed;
+
+        DeflaterEncoder(final Buffer destination, final Deflater deflater, @Nullable final CRC32 crc) {
+            this.destination = destination;
+            this.deflater = deflater;
+            this.crc = crc;
+            if (crc != null) {
+                destination.writeBytes(GZIP_HEADER);
+            }
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (len == 0) {
+                return;
+            }
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate();
+                }
+                if (crc != null) {
+                    destination.writeIntLE((int) crc.getValue());
+                    destination.writeIntLE((int) deflater.getBytesRead());
+                }
+            } finally {
+                release(deflater);
+            }
+        }
+
+        private void deflate() {
+            final int length = deflater.deflate(buffer, 0, buffer.length);
+            if (length > 0) {
+                destination.writeBytes(buffer, 0, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.api;
+
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.HttpRequestMetaData;
+
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Deflate;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Gzip;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
+import static io.servicetalk.grpc.api.GrpcUtils.negotiateResponseEncoding;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_2_0;
+import static io.servicetalk.http.api.HttpRequestMetaDataFactory.newRequestMetaData;
+import static io.servicetalk.http.api.HttpRequestMethod.POST;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class GrpcUtilsTest {
+
+    @Test
+    public void responseUsesRequestEncodingIfAccepted() {
+        assertThat(negotiateResponseEncoding(request("identity, GZIP ,deflate"), Gzip), is(Gzip));
+        assertThat(negotiateResponseEncoding(request("gzip,deflate"), Deflate), is(Deflate));
+    }
+
+    @Test
+    public void responseIsNotCompressedIfRequestEncodingIsNotAccepted() {
+        assertThat(negotiateResponseEncoding(request("identity,deflate"), Gzip), is(None));
+        assertThat(negotiateResponseEncoding(request("gzipx"), Gzip), is(None));
+    }
+
+    @Test
+    public void responseIsNotCompressedWithoutAcceptEncoding() {
+        assertThat(negotiateResponseEncoding(request(null), Gzip), is(None));
+    }
+
+    @Test
+    public void acceptEncodingInMultipleHeaders() {
+        final HttpRequestMetaData request = request("identity");
+        request.headers().add("grpc-accept-encoding", "gzip");
+        assertThat(negotiateResponseEncoding(request, Gzip), is(Gzip));
+    }
+
+    private static HttpRequestMetaData request(@Nullable final String acceptEncoding) {
+        final HttpRequestMetaData request = newRequestMetaData(HTTP_2_0, POST, "/test",
+                DefaultHttpHeadersFactory.INSTANCE.newHeaders());
+        if (acceptEncoding != null) {
+            request.headers().set("grpc-accept-encoding", acceptEncoding);
+        }
+        return request;
+    }
+}
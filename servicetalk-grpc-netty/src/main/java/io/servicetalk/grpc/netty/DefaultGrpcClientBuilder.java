@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import io.servicetalk.grpc.api.GrpcClientBuilder;
 import io.servicetalk.grpc.api.GrpcClientCallFactory;
 import io.servicetalk.grpc.api.GrpcClientSecurityConfigurator;
 import io.servicetalk.grpc.api.GrpcExecutionStrategy;
+import io.servicetalk.grpc.api.GrpcMessageEncoding;
 import io.servicetalk.http.api.FilterableStreamingHttpConnection;
 import io.servicetalk.http.api.HttpLoadBalancerFactory;
 import io.servicetalk.http.api.HttpProtocolConfig;
@@ -37,11 +38,14 @@ import io.servicetalk.transport.api.IoExecutor;
 import java.net.SocketOption;
 import java.util.function.Predicate;
 
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static java.util.Objects.requireNonNull;
 
 final class DefaultGrpcClientBuilder<U, R> extends GrpcClientBuilder<U, R> {
 
     private final SingleAddressHttpClientBuilder<U, R> httpClientBuilder;
+    private GrpcMessageEncoding defaultRequestEncoding = None;
 
     DefaultGrpcClientBuilder(final SingleAddressHttpClientBuilder<U, R> httpClientBuilder) {
         this.httpClientBuilder = httpClientBuilder.protocols(h2Default());
@@ -130,9 +134,15 @@ final class DefaultGrpcClientBuilder<U, R> extends GrpcClientBuilder<U, R> {
         return this;
     }
 
+    @Override
+    public GrpcClientBuilder<U, R> defaultRequestEncoding(final GrpcMessageEncoding encoding) {
+        defaultRequestEncoding = requireNonNull(encoding);
+        return this;
+    }
+
     @Override
     protected GrpcClientCallFactory newGrpcClientCallFactory() {
-        return GrpcClientCallFactory.from(httpClientBuilder.buildStreaming());
+        return GrpcClientCallFactory.from(httpClientBuilder.buildStreaming(), defaultRequestEncoding);
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -66,6 +66,12 @@ final class DefaultGrpcServerBuilder extends GrpcServerBuilder implements Server
         return this;
     }
 
+    @Override
+    public GrpcServerBuilder reusePort(final boolean reusePort) {
+        httpServerBuilder.reusePort(reusePort);
+        return this;
+    }
+
     @Override
     public GrpcServerSecurityConfigurator secure() {
         HttpServerSecurityConfigurator secure = httpServerBuilder.secure();
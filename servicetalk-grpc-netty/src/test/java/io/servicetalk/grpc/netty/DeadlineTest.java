@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.grpc.netty;
+
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.grpc.api.GrpcServiceContext;
+import io.servicetalk.grpc.api.GrpcStatusException;
+import io.servicetalk.grpc.netty.TesterProto.TestRequest;
+import io.servicetalk.grpc.netty.TesterProto.TestResponse;
+import io.servicetalk.grpc.netty.TesterProto.Tester.BlockingTesterClient;
+import io.servicetalk.grpc.netty.TesterProto.Tester.ClientFactory;
+import io.servicetalk.grpc.netty.TesterProto.Tester.ServiceFactory;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TestMetadata;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TestResponseStreamMetadata;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TesterClient;
+import io.servicetalk.grpc.netty.TesterProto.Tester.TesterService;
+import io.servicetalk.http.netty.HttpServers;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.grpc.api.GrpcDeadlines.remainingTime;
+import static io.servicetalk.grpc.api.GrpcStatusCode.DEADLINE_EXCEEDED;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThrows;
+
+public class DeadlineTest {
+    private static final String NEVER = "never";
+    private static final String NO_DEADLINE = "none";
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final CountDownLatch handlerCancelled = new CountDownLatch(1);
+    private final ServerContext serverContext;
+
+    public DeadlineTest() throws Exception {
+        serverContext = GrpcServers.forAddress(localAddress(0))
+                .listenAndAwait(new ServiceFactory(new TesterServiceImpl(handlerCancelled)));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        serverContext.close();
+    }
+
+    @Test
+    public void serverCancelsHandlerWhenDeadlineExpires() throws Exception {
+        try (BlockingTesterClient client = GrpcClients.forAddress(serverHostAndPort(serverContext))
+                .buildBlocking(new ClientFactory())) {
+            // The client enforces the deadline as well, establish the connection first so that the request reaches the
+            // server before the deadline expires.
+            client.test(newRequest(""));
+            GrpcStatusException e = assertThrows(GrpcStatusException.class,
+                    () -> client.test(new TestMetadata(ofMillis(100)), newRequest(NEVER)));
+            assertThat(e.status().code(), is(DEADLINE_EXCEEDED));
+            handlerCancelled.await();
+        }
+    }
+
+    @Test
+    public void clientFailsWhenDeadlineExpires() throws Exception {
+        try (TesterClient client = GrpcClients.forAddress(serverHostAndPort(serverContext))
+                .build(new ClientFactory())) {
+            client.test(newRequest("")).toFuture().get();
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> client.test(new TestMetadata(ofMillis(100)), newRequest(NEVER)).toFuture().get());
+            assertThat(e.getCause(), is(instanceOf(GrpcStatusException.class)));
+            assertThat(((GrpcStatusException) e.getCause()).status().code(), is(DEADLINE_EXCEEDED));
+            handlerCancelled.await();
+        }
+    }
+
+    @Test
+    public void blockingClientFailsWhenServerIgnoresDeadline() throws Exception {
+        try (ServerContext ignoringServer = HttpServers.forAddress(localAddress(0))
+                .protocols(h2Default())
+                .listenStreamingAndAwait((ctx, request, responseFactory) -> Single.never());
+             BlockingTesterClient client = GrpcClients.forAddress(serverHostAndPort(ignoringServer))
+                     .buildBlocking(new ClientFactory())) {
+            GrpcStatusException e = assertThrows(GrpcStatusException.class,
+                    () -> client.test(new TestMetadata(ofMillis(100)), newRequest(NEVER)));
+            assertThat(e.status().code(), is(DEADLINE_EXCEEDED));
+            e = assertThrows(GrpcStatusException.class, () -> client.testResponseStream(
+                    new TestResponseStreamMetadata(ofMillis(100)), newRequest(NEVER)).iterator().next());
+            assertThat(e.status().code(), is(DEADLINE_EXCEEDED));
+        }
+    }
+
+    @Test
+    public void handlerObservesRemainingTime() throws Exception {
+        final Duration callTimeout = ofSeconds(30);
+        try (BlockingTesterClient client = GrpcClients.forAddress(serverHostAndPort(serverContext))
+                .buildBlocking(new ClientFactory())) {
+            final Duration remaining = Duration.parse(
+                    client.test(new TestMetadata(callTimeout), newRequest("")).getMessage());
+            assertThat(remaining, is(lessThanOrEqualTo(callTimeout)));
+            assertThat(client.test(newRequest("")).getMessage(), equalTo(NO_DEADLINE));
+        }
+    }
+
+    private static TestRequest newRequest(String name) {
+        return TestRequest.newBuilder().setName(name).build();
+    }
+
+    private static final class TesterServiceImpl implements TesterService {
+        private final CountDownLatch handlerCancelled;
+
+        TesterServiceImpl(final CountDownLatch handlerCancelled) {
+            this.handlerCancelled = handlerCancelled;
+        }
+
+        @Override
+        public Single<TestResponse> test(GrpcServiceContext ctx, TestRequest request) {
+            if (NEVER.equals(request.getName())) {
+                return Single.<TestResponse>never().whenCancel(handlerCancelled::countDown);
+            }
+            final Duration remaining = remainingTime();
+            return succeeded(TestResponse.newBuilder()
+                    .setMessage(remaining == null ? NO_DEADLINE : remaining.toString()).build());
+        }
+
+        @Override
+        public Publisher<TestResponse> testBiDiStream(GrpcServiceContext ctx, Publisher<TestRequest> request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Publisher<TestResponse> testResponseStream(GrpcServiceContext ctx, TestRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Single<TestResponse> testRequestStream(GrpcServiceContext ctx, Publisher<TestRequest> request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
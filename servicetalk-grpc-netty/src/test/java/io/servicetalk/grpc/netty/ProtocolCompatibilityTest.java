@@ -64,7 +64,6 @@ import io.grpc.protobuf.StatusProto;
 import io.grpc.stub.StreamObserver;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.FromDataPoints;
@@ -190,7 +189,6 @@ public class ProtocolCompatibilityTest {
         testRequestResponse(client, server, streaming);
     }
 
-    @Ignore("gRPC compression not supported by ServiceTalk yet")
     @Theory
     public void grpcJavaToServiceTalkCompressedGzip(@FromDataPoints("ssl") final boolean ssl,
                                                     @FromDataPoints("streaming") final boolean streaming)
@@ -26,11 +26,12 @@ import io.servicetalk.serialization.api.TypeHolder;
 
 import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.CodedOutputStream;
-import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.MessageLite;
 import com.google.protobuf.Parser;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,6 +40,7 @@ import javax.annotation.Nullable;
 import static com.google.protobuf.CodedOutputStream.newInstance;
 import static com.google.protobuf.UnsafeByteOperations.unsafeWrap;
 import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
 import static java.lang.Math.max;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
@@ -49,13 +51,15 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
     private final GrpcMessageEncoding messageEncoding;
     private final ProtoSerializer serializer;
     private final Parser<T> parser;
+    private final int maxInboundMessageSize;
 
     ProtoBufSerializationProvider(final Class<T> targetClass, final GrpcMessageEncoding messageEncoding,
-                                  final Parser<T> parser) {
+                                  final Parser<T> parser, final int maxInboundMessageSize) {
         this.targetClass = targetClass;
         this.messageEncoding = messageEncoding;
         this.serializer = new ProtoSerializer(messageEncoding);
         this.parser = parser;
+        this.maxInboundMessageSize = maxInboundMessageSize;
     }
 
     @Override
@@ -79,7 +83,7 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
         }
         @SuppressWarnings("unchecked")
         Parser<X> parser = (Parser<X>) this.parser;
-        return new ProtoDeserializer<>(parser, messageEncoding);
+        return new ProtoDeserializer<>(parser, messageEncoding, maxInboundMessageSize);
     }
 
     @Override
@@ -100,6 +104,8 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
 
     private static final class ProtoDeserializer<T> implements StreamingDeserializer<T> {
         private final Parser<T> parser;
+        private final GrpcMessageEncoding grpcMessageEncoding;
+        private final int maxInboundMessageSize;
         private final CompositeBuffer accumulate;
         /**
          * <ul>
@@ -110,9 +116,11 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
         private int lengthOfData = -1;
         private boolean compressed;
 
-        ProtoDeserializer(final Parser<T> parser,
-                          @SuppressWarnings("unused") final GrpcMessageEncoding grpcMessageEncoding) {
+        ProtoDeserializer(final Parser<T> parser, final GrpcMessageEncoding grpcMessageEncoding,
+                          final int maxInboundMessageSize) {
             this.parser = parser;
+            this.grpcMessageEncoding = grpcMessageEncoding;
+            this.maxInboundMessageSize = maxInboundMessageSize;
             accumulate = DEFAULT_ALLOCATOR.newCompositeBuffer(Integer.MAX_VALUE);
         }
 
@@ -132,8 +140,9 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
                     }
 
                     compressed = isCompressed(toDeserialize);
-                    // TODO (nkant) : handle compression
-                    assert !compressed;
+                    if (compressed && grpcMessageEncoding == None) {
+                        throw new SerializationException("Compressed message received without grpc-encoding");
+                    }
 
                     // https://github.com/grpc/grpc/blob/master/doc/PROTOCOL-HTTP2.md specifies size as 4 bytes
                     // unsigned int However netty buffers only support up to Integer.MAX_VALUE, and even
@@ -143,6 +152,10 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
                     if (lengthOfData < 0) {
                         throw new SerializationException("Message-Length invalid: " + lengthOfData);
                     }
+                    if (lengthOfData > maxInboundMessageSize) {
+                        throw new SerializationException("Message-Length " + lengthOfData +
+                                " exceeds the maximum inbound message size " + maxInboundMessageSize);
+                    }
                 } else {
                     if (toDeserialize.readableBytes() < lengthOfData) {
                         return addToAccumulateIfRequiredAndReturn(toDeserialize, parsedData);
@@ -150,23 +163,28 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
 
                     final T t;
                     try {
-                        final CodedInputStream in;
-                        if (toDeserialize.nioBufferCount() == 1) {
-                            in = CodedInputStream.newInstance(toDeserialize.toNioBuffer(toDeserialize.readerIndex(),
-                                    lengthOfData));
+                        if (compressed) {
+                            t = parseCompressed(toDeserialize.slice(toDeserialize.readerIndex(), lengthOfData));
                         } else {
-                            // Aggregated payload body may consist of multiple Buffers. In this case,
-                            // CompositeBuffer.toNioBuffer(idx, length) may return a single ByteBuffer (when requested
-                            // length < components[0].length) or create a new ByteBuffer and copy multiple components
-                            // into it. Later, proto parser will copy data from this temporary ByteBuffer again.
-                            // To avoid unnecessary copying, we use newCodedInputStream(buffers, lengthOfData).
-                            final ByteBuffer[] buffers = toDeserialize.toNioBuffers(toDeserialize.readerIndex(),
-                                    lengthOfData);
-                            in = buffers.length == 1 ? CodedInputStream.newInstance(buffers[0]) :
-                                    newCodedInputStream(buffers, lengthOfData);
+                            final CodedInputStream in;
+                            if (toDeserialize.nioBufferCount() == 1) {
+                                in = CodedInputStream.newInstance(toDeserialize.toNioBuffer(
+                                        toDeserialize.readerIndex(), lengthOfData));
+                            } else {
+                                // Aggregated payload body may consist of multiple Buffers. In this case,
+                                // CompositeBuffer.toNioBuffer(idx, length) may return a single ByteBuffer (when
+                                // requested length < components[0].length) or create a new ByteBuffer and copy
+                                // multiple components into it. Later, proto parser will copy data from this temporary
+                                // ByteBuffer again. To avoid unnecessary copying, we use
+                                // newCodedInputStream(buffers, lengthOfData).
+                                final ByteBuffer[] buffers = toDeserialize.toNioBuffers(toDeserialize.readerIndex(),
+                                        lengthOfData);
+                                in = buffers.length == 1 ? CodedInputStream.newInstance(buffers[0]) :
+                                        newCodedInputStream(buffers, lengthOfData);
+                            }
+                            t = parser.parseFrom(in);
                         }
-                        t = parser.parseFrom(in);
-                    } catch (InvalidProtocolBufferException e) {
+                    } catch (IOException e) {
                         throw new SerializationException(e);
                     }
 
@@ -205,6 +223,17 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
             }
         }
 
+        private T parseCompressed(final Buffer compressedMessage) throws IOException {
+            // The decoder reads from a slice, so the compressed bytes are never copied, and the uncompressed message is
+            // parsed as it is decoded. The size limit stops decoding once the uncompressed message exceeds the maximum
+            // inbound message size, so a small compressed message can not inflate without bounds.
+            try (InputStream decoder = grpcMessageEncoding.codec().newDecoder(compressedMessage)) {
+                final CodedInputStream in = CodedInputStream.newInstance(decoder);
+                in.setSizeLimit(maxInboundMessageSize);
+                return parser.parseFrom(in);
+            }
+        }
+
         private static CodedInputStream newCodedInputStream(final ByteBuffer[] buffers, final int lengthOfData) {
             // Because we allocated a new internal ByteBuffer that will never be mutated we may just wrap it and
             // enable aliasing to avoid an extra copying inside parser for a deserialized message.
@@ -252,8 +281,10 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
     }
 
     private static final class ProtoSerializer implements StreamingSerializer {
+        private final GrpcMessageEncoding encoding;
 
-        ProtoSerializer(@SuppressWarnings("unused") final GrpcMessageEncoding encoding) {
+        ProtoSerializer(final GrpcMessageEncoding encoding) {
+            this.encoding = encoding;
         }
 
         @Override
@@ -263,8 +294,11 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
                         toSerialize.getClass().getName());
             }
             final MessageLite msg = (MessageLite) toSerialize;
+            if (encoding != None) {
+                serializeCompressed(msg, destination);
+                return;
+            }
             final int size = msg.getSerializedSize();
-            // TODO (nkant) : handle compression
             destination.writeByte(0);
             destination.writeInt(size);
             destination.ensureWritable(size);
@@ -281,5 +315,21 @@ final class ProtoBufSerializationProvider<T extends MessageLite> implements Seri
             }
             destination.writerIndex(writerIdx + size);
         }
+
+        private void serializeCompressed(final MessageLite msg, final Buffer destination) {
+            destination.writeByte(1);
+            // The compressed size is unknown upfront, reserve space for the length and update it after encoding.
+            final int lengthIdx = destination.writerIndex();
+            destination.writeInt(0);
+            final int dataIdx = destination.writerIndex();
+            try (OutputStream encoder = encoding.codec().newEncoder(destination)) {
+                final CodedOutputStream out = newInstance(encoder);
+                msg.writeTo(out);
+                out.flush();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+            destination.setInt(lengthIdx, destination.writerIndex() - dataIdx);
+        }
     }
 }
@@ -42,6 +42,7 @@ import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
 import static io.servicetalk.http.api.CharSequences.newAsciiString;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
 
 /**
  * A builder for building a {@link GrpcSerializationProvider} that can serialize and deserialize
@@ -52,9 +53,10 @@ import static java.util.Collections.unmodifiableMap;
 public final class ProtoBufSerializationProviderBuilder {
     private static final CharSequence GRPC_MESSAGE_ENCODING_KEY = newAsciiString("grpc-encoding");
     private static final CharSequence APPLICATION_GRPC_PROTO = newAsciiString("application/grpc+proto");
+    private static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = 4 * 1024 * 1024;
 
-    private final Map<Class, EnumMap<GrpcMessageEncoding, HttpSerializer>> serializers = new HashMap<>();
-    private final Map<Class, EnumMap<GrpcMessageEncoding, HttpDeserializer>> deserializers = new HashMap<>();
+    private final Map<Class<?>, Parser<?>> parsers = new HashMap<>();
+    private int maxInboundMessageSize = DEFAULT_MAX_INBOUND_MESSAGE_SIZE;
 
     /**
      * Register the passed {@code messageType} with the provided {@link Parser}.
@@ -66,11 +68,55 @@ public final class ProtoBufSerializationProviderBuilder {
      */
     public <T extends MessageLite> ProtoBufSerializationProviderBuilder
     registerMessageType(Class<T> messageType, Parser<T> parser) {
-        EnumMap<GrpcMessageEncoding, HttpSerializer> serializersForType = new EnumMap<>(GrpcMessageEncoding.class);
-        EnumMap<GrpcMessageEncoding, HttpDeserializer> deserializersForType = new EnumMap<>(GrpcMessageEncoding.class);
+        parsers.put(requireNonNull(messageType), requireNonNull(parser));
+        return this;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a message that can be deserialized, after it has been decompressed. Messages
+     * which exceed this size fail deserialization without being decompressed further. Defaults to 4 MiB.
+     *
+     * @param maxInboundMessageSize the maximum size in bytes of a deserialized message.
+     * @return {@code this}
+     */
+    public ProtoBufSerializationProviderBuilder maxInboundMessageSize(final int maxInboundMessageSize) {
+        if (maxInboundMessageSize <= 0) {
+            throw new IllegalArgumentException("maxInboundMessageSize: " + maxInboundMessageSize + " (expected >0)");
+        }
+        this.maxInboundMessageSize = maxInboundMessageSize;
+        return this;
+    }
+
+    /**
+     * Builds a new {@link GrpcSerializationProvider} containing all the message types registered with this builder.
+     *
+     * @return New {@link GrpcSerializationProvider} that will serialize and deserialize message types that were
+     * registered to this builder.
+     */
+    public GrpcSerializationProvider build() {
+        final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpSerializer<?>>> serializers = new HashMap<>();
+        final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpDeserializer<?>>> deserializers = new HashMap<>();
+        for (Map.Entry<Class<?>, Parser<?>> entry : parsers.entrySet()) {
+            @SuppressWarnings("unchecked")
+            final Class<MessageLite> messageType = (Class<MessageLite>) entry.getKey();
+            @SuppressWarnings("unchecked")
+            final Parser<MessageLite> parser = (Parser<MessageLite>) entry.getValue();
+            addMessageType(messageType, parser, maxInboundMessageSize, serializers, deserializers);
+        }
+        return new ProtoSerializationProvider(serializers, deserializers);
+    }
+
+    private static <T extends MessageLite> void addMessageType(
+            final Class<T> messageType, final Parser<T> parser, final int maxInboundMessageSize,
+            final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpSerializer<?>>> serializers,
+            final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpDeserializer<?>>> deserializers) {
+        EnumMap<GrpcMessageEncoding, HttpSerializer<?>> serializersForType = new EnumMap<>(GrpcMessageEncoding.class);
+        EnumMap<GrpcMessageEncoding, HttpDeserializer<?>> deserializersForType =
+                new EnumMap<>(GrpcMessageEncoding.class);
         for (GrpcMessageEncoding grpcMessageEncoding : GrpcMessageEncoding.values()) {
             DefaultSerializer serializer = new DefaultSerializer(
-                    new ProtoBufSerializationProvider<>(messageType, grpcMessageEncoding, parser));
+                    new ProtoBufSerializationProvider<>(messageType, grpcMessageEncoding, parser,
+                            maxInboundMessageSize));
             HttpSerializer<T> httpSerializer = new ProtoHttpSerializer<>(serializer, grpcMessageEncoding, messageType);
             serializersForType.put(grpcMessageEncoding, httpSerializer);
             deserializersForType.put(grpcMessageEncoding, new HttpDeserializer<T>() {
@@ -94,48 +140,44 @@ public final class ProtoBufSerializationProviderBuilder {
 
         serializers.put(messageType, serializersForType);
         deserializers.put(messageType, deserializersForType);
-        return this;
-    }
-
-    /**
-     * Builds a new {@link GrpcSerializationProvider} containing all the message types registered with this builder.
-     *
-     * @return New {@link GrpcSerializationProvider} that will serialize and deserialize message types that were
-     * registered to this builder.
-     */
-    public GrpcSerializationProvider build() {
-        return new ProtoSerializationProvider(serializers, deserializers);
     }
 
     private static class ProtoSerializationProvider implements GrpcSerializationProvider {
-        private final Map<Class, EnumMap<GrpcMessageEncoding, HttpSerializer>> serializers;
-        private final Map<Class, EnumMap<GrpcMessageEncoding, HttpDeserializer>> deserializers;
+        private final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpSerializer<?>>> serializers;
+        private final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpDeserializer<?>>> deserializers;
 
-        ProtoSerializationProvider(final Map<Class, EnumMap<GrpcMessageEncoding, HttpSerializer>> serializers,
-                                   final Map<Class, EnumMap<GrpcMessageEncoding, HttpDeserializer>> deserializers) {
+        ProtoSerializationProvider(
+                final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpSerializer<?>>> serializers,
+                final Map<Class<?>, EnumMap<GrpcMessageEncoding, HttpDeserializer<?>>> deserializers) {
             this.serializers = unmodifiableMap(serializers);
             this.deserializers = unmodifiableMap(deserializers);
         }
 
         @Override
         public <T> HttpSerializer<T> serializerFor(final GrpcMetadata metadata, final Class<T> type) {
-            EnumMap<GrpcMessageEncoding, HttpSerializer> serializersForType = serializers.get(type);
+            return serializerFor(metadata, type, None);
+        }
+
+        @Override
+        public <T> HttpSerializer<T> serializerFor(final GrpcMetadata metadata, final Class<T> type,
+                                                   final GrpcMessageEncoding messageEncoding) {
+            EnumMap<GrpcMessageEncoding, HttpSerializer<?>> serializersForType = serializers.get(type);
             if (serializersForType == null) {
                 throw new SerializationException("Unknown class to serialize: " + type.getName());
             }
             @SuppressWarnings("unchecked")
-            HttpSerializer<T> httpSerializer = serializersForType.get(None); // compression not yet supported.
+            HttpSerializer<T> httpSerializer = (HttpSerializer<T>) serializersForType.get(messageEncoding);
             return httpSerializer;
         }
 
         @Override
         public <T> HttpDeserializer<T> deserializerFor(final GrpcMessageEncoding messageEncoding, final Class<T> type) {
-            EnumMap<GrpcMessageEncoding, HttpDeserializer> deserializersForType = deserializers.get(type);
+            EnumMap<GrpcMessageEncoding, HttpDeserializer<?>> deserializersForType = deserializers.get(type);
             if (deserializersForType == null) {
                 throw new SerializationException("Unknown class to deserialize: " + type.getName());
             }
             @SuppressWarnings("unchecked")
-            HttpDeserializer<T> httpSerializer = deserializersForType.get(messageEncoding);
+            HttpDeserializer<T> httpSerializer = (HttpDeserializer<T>) deserializersForType.get(messageEncoding);
             return httpSerializer;
         }
     }
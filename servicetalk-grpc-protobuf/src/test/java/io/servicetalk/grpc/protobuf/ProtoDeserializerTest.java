@@ -16,18 +16,24 @@
 package io.servicetalk.grpc.protobuf;
 
 import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.serialization.api.SerializationException;
 import io.servicetalk.serialization.api.StreamingDeserializer;
 
 import com.google.protobuf.Parser;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Deflate;
+import static io.servicetalk.grpc.api.GrpcMessageEncoding.Gzip;
 import static io.servicetalk.grpc.api.GrpcMessageEncoding.None;
 import static io.servicetalk.grpc.protobuf.test.TestProtos.DummyMessage;
 import static java.util.Arrays.asList;
@@ -35,12 +41,21 @@ import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 
 public class ProtoDeserializerTest {
 
+    private static final int MAX_INBOUND_MESSAGE_SIZE = 64 * 1024;
+
     private final Parser<DummyMessage> parser = DummyMessage.parser();
     private final ProtoBufSerializationProvider<DummyMessage> serializationProvider =
-            new ProtoBufSerializationProvider<>(DummyMessage.class, None, parser);
+            new ProtoBufSerializationProvider<>(DummyMessage.class, None, parser, MAX_INBOUND_MESSAGE_SIZE);
+    private final ProtoBufSerializationProvider<DummyMessage> gzipSerializationProvider =
+            new ProtoBufSerializationProvider<>(DummyMessage.class, Gzip, parser, MAX_INBOUND_MESSAGE_SIZE);
+    private final ProtoBufSerializationProvider<DummyMessage> deflateSerializationProvider =
+            new ProtoBufSerializationProvider<>(DummyMessage.class, Deflate, parser, MAX_INBOUND_MESSAGE_SIZE);
 
     @Test
     public void zeroLengthMessageAligned() throws IOException {
@@ -101,6 +116,79 @@ public class ProtoDeserializerTest {
         assertThat("Unexpected messages deserialized.", deserialized, contains("Hello"));
     }
 
+    @Test
+    public void gzipMessagesInSingleBuffer() {
+        Buffer buffer = serialize(gzipSerializationProvider, "Hello1", null, "Hello2");
+        List<String> deserialized = deserialize(gzipSerializationProvider, deserializer ->
+                deserializer.deserialize(buffer));
+        assertThat("Unexpected messages deserialized.", deserialized, contains("Hello1", "", "Hello2"));
+    }
+
+    @Test
+    public void deflateMessagesInSingleBuffer() {
+        Buffer buffer = serialize(deflateSerializationProvider, "Hello1", null, "Hello2");
+        List<String> deserialized = deserialize(deflateSerializationProvider, deserializer ->
+                deserializer.deserialize(buffer));
+        assertThat("Unexpected messages deserialized.", deserialized, contains("Hello1", "", "Hello2"));
+    }
+
+    @Test
+    public void splitCompressedMessageInBuffers() {
+        Buffer msg = serialize(gzipSerializationProvider, "Hello");
+        List<Buffer> buffers = new ArrayList<>();
+        while (msg.readableBytes() > 0) {
+            buffers.add(msg.readSlice(1));
+        }
+        List<String> deserialized = deserialize(gzipSerializationProvider, deserializer ->
+                deserializer.deserialize(buffers));
+        assertThat("Unexpected messages deserialized.", deserialized, contains("Hello"));
+    }
+
+    @Test(expected = SerializationException.class)
+    public void compressedMessageWithoutEncoding() {
+        deserialize(serialize(gzipSerializationProvider, "Hello"));
+    }
+
+    @Test
+    public void gzipMessageIsReadableByGzipInputStream() throws IOException {
+        final String message = repeat('a', 3 * 8192);
+        Buffer buffer = serialize(gzipSerializationProvider, message);
+        assertThat("Unexpected compression flag.", buffer.readByte(), is((byte) 1));
+        final int length = buffer.readInt();
+        assertThat("Unexpected message length.", buffer.readableBytes(), is(length));
+        try (InputStream in = new GZIPInputStream(Buffer.asInputStream(buffer))) {
+            assertThat("Unexpected message decoded.", DummyMessage.parseFrom(in).getMessage(), equalTo(message));
+        }
+    }
+
+    @Test
+    public void largeCompressedMessagesReuseDeflater() {
+        final String message = repeat('a', 3 * 8192);
+        Buffer buffer = serialize(deflateSerializationProvider, message, "Hello", message);
+        List<String> deserialized = deserialize(deflateSerializationProvider, deserializer ->
+                deserializer.deserialize(buffer));
+        assertThat("Unexpected messages deserialized.", deserialized, contains(message, "Hello", message));
+    }
+
+    @Test(expected = SerializationException.class)
+    public void messageExceedsMaxInboundMessageSize() {
+        deserialize(serialize(serializationProvider, repeat('a', MAX_INBOUND_MESSAGE_SIZE)));
+    }
+
+    @Test(expected = SerializationException.class)
+    public void decompressedMessageExceedsMaxInboundMessageSize() {
+        Buffer buffer = serialize(gzipSerializationProvider, repeat('a', MAX_INBOUND_MESSAGE_SIZE));
+        assertThat("Compressed message should not exceed the limit.", buffer.readableBytes(),
+                lessThan(MAX_INBOUND_MESSAGE_SIZE));
+        deserialize(gzipSerializationProvider, deserializer -> deserializer.deserialize(buffer));
+    }
+
+    private static String repeat(final char c, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
     private List<String> deserialize(Buffer buffer) {
         return deserialize(deserializer -> deserializer.deserialize(buffer));
     }
@@ -111,11 +199,30 @@ public class ProtoDeserializerTest {
 
     private List<String> deserialize(
             final Function<StreamingDeserializer<DummyMessage>, Iterable<DummyMessage>> deserializeFunction) {
-        StreamingDeserializer<DummyMessage> deserializer = serializationProvider.getDeserializer(DummyMessage.class);
+        return deserialize(serializationProvider, deserializeFunction);
+    }
+
+    private static List<String> deserialize(
+            final ProtoBufSerializationProvider<DummyMessage> provider,
+            final Function<StreamingDeserializer<DummyMessage>, Iterable<DummyMessage>> deserializeFunction) {
+        StreamingDeserializer<DummyMessage> deserializer = provider.getDeserializer(DummyMessage.class);
         return stream(deserializeFunction.apply(deserializer).spliterator(), false)
                 .map(DummyMessage::getMessage).collect(toList());
     }
 
+    private static Buffer serialize(final ProtoBufSerializationProvider<DummyMessage> provider,
+                                    final String... messages) {
+        Buffer buffer = DEFAULT_ALLOCATOR.newBuffer();
+        for (String message : messages) {
+            DummyMessage.Builder builder = DummyMessage.newBuilder();
+            if (message != null) {
+                builder.setMessage(message);
+            }
+            provider.getSerializer(DummyMessage.class).serialize(builder.build(), buffer);
+        }
+        return buffer;
+    }
+
     private Buffer grpcBufferFor(final String... messages) throws IOException {
         Buffer buffer = DEFAULT_ALLOCATOR.newBuffer();
         OutputStream out = Buffer.asOutputStream(buffer);
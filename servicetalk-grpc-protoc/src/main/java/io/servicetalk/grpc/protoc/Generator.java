@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -63,6 +64,7 @@ import static io.servicetalk.grpc.protoc.Types.GrpcClientFactory;
 import static io.servicetalk.grpc.protoc.Types.GrpcClientFilterFactory;
 import static io.servicetalk.grpc.protoc.Types.GrpcExecutionContext;
 import static io.servicetalk.grpc.protoc.Types.GrpcExecutionStrategy;
+import static io.servicetalk.grpc.protoc.Types.GrpcMessageEncoding;
 import static io.servicetalk.grpc.protoc.Types.GrpcPayloadWriter;
 import static io.servicetalk.grpc.protoc.Types.GrpcRouteExecutionStrategyFactory;
 import static io.servicetalk.grpc.protoc.Types.GrpcRoutes;
@@ -109,12 +111,14 @@ import static io.servicetalk.grpc.protoc.Words.factory;
 import static io.servicetalk.grpc.protoc.Words.metadata;
 import static io.servicetalk.grpc.protoc.Words.onClose;
 import static io.servicetalk.grpc.protoc.Words.request;
+import static io.servicetalk.grpc.protoc.Words.requestEncoding;
 import static io.servicetalk.grpc.protoc.Words.routes;
 import static io.servicetalk.grpc.protoc.Words.rpc;
 import static io.servicetalk.grpc.protoc.Words.serializationProvider;
 import static io.servicetalk.grpc.protoc.Words.service;
 import static io.servicetalk.grpc.protoc.Words.strategy;
 import static io.servicetalk.grpc.protoc.Words.strategyFactory;
+import static io.servicetalk.grpc.protoc.Words.timeout;
 import static java.util.EnumSet.noneOf;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Stream.concat;
@@ -464,6 +468,16 @@ final class Generator {
                             .addParameter(GrpcExecutionStrategy, strategy, FINAL)
                             .addStatement("super($T.$L, $L)", rpcInterface.className, RPC_PATH, strategy)
                             .build())
+                    .addMethod(constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .addParameter(GrpcMessageEncoding, requestEncoding, FINAL)
+                            .addStatement("super($T.$L, $L)", rpcInterface.className, RPC_PATH, requestEncoding)
+                            .build())
+                    .addMethod(constructorBuilder()
+                            .addModifiers(PUBLIC)
+                            .addParameter(Duration.class, timeout, FINAL)
+                            .addStatement("super($T.$L, $L)", rpcInterface.className, RPC_PATH, timeout)
+                            .build())
                     .build();
 
             state.clientMetaDatas.add(new ClientMetaData(methodProto, metaDataClassName));
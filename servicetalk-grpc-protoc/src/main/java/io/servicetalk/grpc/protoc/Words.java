@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,12 +34,14 @@ final class Words {
     static final String metadata = "metadata";
     static final String path = "path";
     static final String request = "request";
+    static final String requestEncoding = "requestEncoding";
     static final String routes = "routes";
     static final String rpc = "rpc";
     static final String serializationProvider = "serializationProvider";
     static final String service = "service";
     static final String strategy = "strategy";
     static final String strategyFactory = strategy + "Factory";
+    static final String timeout = "timeout";
 
     static final String Blocking = "Blocking";
     static final String Builder = "Builder";
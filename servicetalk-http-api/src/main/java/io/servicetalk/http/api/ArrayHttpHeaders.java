@@ -0,0 +1,860 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.api;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.CharSequences.caseInsensitiveHashCode;
+import static io.servicetalk.http.api.CharSequences.contentEquals;
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.http.api.DefaultHttpSetCookie.parseSetCookie;
+import static io.servicetalk.http.api.HeaderUtils.DEFAULT_HEADER_FILTER;
+import static io.servicetalk.http.api.HeaderUtils.domainMatches;
+import static io.servicetalk.http.api.HeaderUtils.isSetCookieNameMatches;
+import static io.servicetalk.http.api.HeaderUtils.parseCookiePair;
+import static io.servicetalk.http.api.HeaderUtils.pathMatches;
+import static io.servicetalk.http.api.HeaderUtils.validateCookieTokenAndHeaderName;
+import static io.servicetalk.http.api.HttpHeaderNames.COOKIE;
+import static io.servicetalk.http.api.HttpHeaderNames.SET_COOKIE;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.Collections.emptyIterator;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link HttpHeaders} which stores names, values and name hashes in parallel arrays, in insertion order.
+ * <p>
+ * Lookups by name go through an open addressing index with linear probing, which maps a slot to the position of an
+ * entry in the arrays. Adding a header does not allocate unless the arrays have to grow, and iteration walks the
+ * arrays sequentially. Removed entries leave a hole (a {@code null} name) which is reclaimed the next time the arrays
+ * are full, so positions held by iterators remain stable in between.
+ * <p>
+ * This is optimized for the common case of a few dozen headers per message.
+ */
+final class ArrayHttpHeaders implements HttpHeaders {
+    private static final CharSequence[] EMPTY_CHAR_SEQUENCES = new CharSequence[0];
+    private static final int[] EMPTY_INTS = new int[0];
+    private static final int MIN_CAPACITY = 4;
+
+    private final boolean validateNames;
+    private final boolean validateCookies;
+    private CharSequence[] names;
+    private CharSequence[] values;
+    private int[] hashes;
+    /**
+     * Open addressing table, each slot holds the position of an entry plus {@code 1}, {@code 0} for an empty slot.
+     * The length is a power of two and at least twice the capacity of the arrays, so the load factor is at most 0.5.
+     */
+    private int[] index;
+    /**
+     * Number of positions in use in the arrays, including removed entries.
+     */
+    private int end;
+    private int size;
+    private int modCount;
+
+    /**
+     * Create a new instance.
+     *
+     * @param sizeHint A hint as to how many headers will be added. The next positive power of two will be used.
+     * @param validateNames {@code true} to validate header names.
+     * @param validateCookies {@code true} to validate cookie contents when parsing.
+     */
+    ArrayHttpHeaders(final int sizeHint, final boolean validateNames, final boolean validateCookies) {
+        this.validateNames = validateNames;
+        this.validateCookies = validateCookies;
+        if (sizeHint <= 0) {
+            names = values = EMPTY_CHAR_SEQUENCES;
+            hashes = index = EMPTY_INTS;
+        } else {
+            final int capacity = sizeHint <= MIN_CAPACITY ? MIN_CAPACITY : highestOneBit(sizeHint - 1) << 1;
+            names = new CharSequence[capacity];
+            values = new CharSequence[capacity];
+            hashes = new int[capacity];
+            index = new int[capacity << 1];
+        }
+    }
+
+    @Nullable
+    @Override
+    public CharSequence get(final CharSequence name) {
+        final int i = findFirst(name, hashCode(name));
+        return i < 0 ? null : values[i];
+    }
+
+    @Nullable
+    @Override
+    public CharSequence getAndRemove(final CharSequence name) {
+        final int nameHash = hashCode(name);
+        final int i = findFirst(name, nameHash);
+        if (i < 0) {
+            return null;
+        }
+        final CharSequence value = values[i];
+        removeAll(name, nameHash, i);
+        return value;
+    }
+
+    @Override
+    public Iterator<? extends CharSequence> valuesIterator(final CharSequence name) {
+        final int nameHash = hashCode(name);
+        final int i = findFirst(name, nameHash);
+        return i < 0 ? emptyIterator() : new ValuesIterator(name, nameHash, i);
+    }
+
+    @Override
+    public boolean contains(final CharSequence name, final CharSequence value) {
+        final int nameHash = hashCode(name);
+        for (int i = findFirst(name, nameHash); i >= 0; i = findNext(name, nameHash, i + 1)) {
+            if (contentEquals(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsIgnoreCase(final CharSequence name, final CharSequence value) {
+        final int nameHash = hashCode(name);
+        for (int i = findFirst(name, nameHash); i >= 0; i = findNext(name, nameHash, i + 1)) {
+            if (contentEqualsIgnoreCase(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<? extends CharSequence> names() {
+        if (size == 0) {
+            return emptySet();
+        }
+        final Set<CharSequence> nameSet = new HashSet<>((int) (size / .75), .75f);
+        for (int i = 0; i < end; ++i) {
+            if (names[i] != null) {
+                nameSet.add(names[i]);
+            }
+        }
+        return nameSet;
+    }
+
+    @Override
+    public HttpHeaders add(final CharSequence name, final CharSequence value) {
+        validateName(name);
+        addEntry(name, hashCode(name), value);
+        return this;
+    }
+
+    @Override
+    public HttpHeaders add(final CharSequence name, final Iterable<? extends CharSequence> values) {
+        validateName(name);
+        final int nameHash = hashCode(name);
+        for (CharSequence value : values) {
+            addEntry(name, nameHash, value);
+        }
+        return this;
+    }
+
+    @Override
+    public HttpHeaders add(final CharSequence name, final CharSequence... values) {
+        validateName(name);
+        final int nameHash = hashCode(name);
+        for (CharSequence value : values) {
+            addEntry(name, nameHash, value);
+        }
+        return this;
+    }
+
+    @Override
+    public HttpHeaders add(final HttpHeaders headers) {
+        if (headers == this) {
+            return this;
+        }
+        if (headers instanceof ArrayHttpHeaders) {
+            // Names and their hashes can be reused as-is.
+            final ArrayHttpHeaders other = (ArrayHttpHeaders) headers;
+            final boolean validate = validateNames && !other.validateNames;
+            for (int i = 0; i < other.end; ++i) {
+                final CharSequence name = other.names[i];
+                if (name != null) {
+                    if (validate) {
+                        validateName(name);
+                    }
+                    addEntry(name, other.hashes[i], other.values[i]);
+                }
+            }
+        } else { // Slow copy
+            for (final Map.Entry<CharSequence, CharSequence> header : headers) {
+                add(header.getKey(), header.getValue());
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public HttpHeaders set(final CharSequence name, final CharSequence value) {
+        validateName(name);
+        final int nameHash = hashCode(name);
+        removeAll(name, nameHash, findFirst(name, nameHash));
+        addEntry(name, nameHash, value);
+        return this;
+    }
+
+    @Override
+    public HttpHeaders set(final CharSequence name, final Iterable<? extends CharSequence> values) {
+        validateName(name);
+        final int nameHash = hashCode(name);
+        removeAll(name, nameHash, findFirst(name, nameHash));
+        for (CharSequence value : values) {
+            addEntry(name, nameHash, value);
+        }
+        return this;
+    }
+
+    @Override
+    public HttpHeaders set(final CharSequence name, final CharSequence... values) {
+        validateName(name);
+        final int nameHash = hashCode(name);
+        removeAll(name, nameHash, findFirst(name, nameHash));
+        for (CharSequence value : values) {
+            addEntry(name, nameHash, value);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean remove(final CharSequence name) {
+        final int nameHash = hashCode(name);
+        return removeAll(name, nameHash, findFirst(name, nameHash));
+    }
+
+    @Override
+    public boolean remove(final CharSequence name, final CharSequence value) {
+        return remove(name, value, true);
+    }
+
+    @Override
+    public boolean removeIgnoreCase(final CharSequence name, final CharSequence value) {
+        return remove(name, value, false);
+    }
+
+    private boolean remove(final CharSequence name, final CharSequence value, final boolean caseSensitive) {
+        final int nameHash = hashCode(name);
+        final int sizeBefore = size;
+        for (int i = findFirst(name, nameHash); i >= 0; i = findNext(name, nameHash, i + 1)) {
+            if (caseSensitive ? contentEquals(value, values[i]) : contentEqualsIgnoreCase(value, values[i])) {
+                removeEntry(i);
+            }
+        }
+        return sizeBefore != size;
+    }
+
+    @Override
+    public HttpHeaders clear() {
+        if (end != 0) {
+            fill(names, 0, end, null);
+            fill(values, 0, end, null);
+            fill(index, 0);
+            end = size = 0;
+            ++modCount;
+        }
+        return this;
+    }
+
+    @Override
+    public Iterator<Map.Entry<CharSequence, CharSequence>> iterator() {
+        return new EntryIterator();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof HttpHeaders && HeaderUtils.equals(this, (HttpHeaders) o);
+    }
+
+    @Override
+    public int hashCode() {
+        return HeaderUtils.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return toString(DEFAULT_HEADER_FILTER);
+    }
+
+    @Nullable
+    @Override
+    public HttpCookiePair getCookie(final CharSequence name) {
+        final int nameHash = hashCode(COOKIE);
+        for (int i = findFirst(COOKIE, nameHash); i >= 0; i = findNext(COOKIE, nameHash, i + 1)) {
+            final HttpCookiePair cookiePair = parseCookiePair(values[i], name);
+            if (cookiePair != null) {
+                return cookiePair;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public HttpSetCookie getSetCookie(final CharSequence name) {
+        final int nameHash = hashCode(SET_COOKIE);
+        for (int i = findFirst(SET_COOKIE, nameHash); i >= 0; i = findNext(SET_COOKIE, nameHash, i + 1)) {
+            final HttpSetCookie setCookie = HeaderUtils.parseSetCookie(values[i], name, validateCookies);
+            if (setCookie != null) {
+                return setCookie;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<? extends HttpCookiePair> getCookiesIterator() {
+        final int nameHash = hashCode(COOKIE);
+        final int i = findFirst(COOKIE, nameHash);
+        return i < 0 ? emptyIterator() : new CookiesIterator(nameHash, i);
+    }
+
+    @Override
+    public Iterator<? extends HttpCookiePair> getCookiesIterator(final CharSequence name) {
+        final int nameHash = hashCode(COOKIE);
+        final int i = findFirst(COOKIE, nameHash);
+        return i < 0 ? emptyIterator() : new CookiesByNameIterator(nameHash, i, name);
+    }
+
+    @Override
+    public Iterator<? extends HttpSetCookie> getSetCookiesIterator() {
+        final int nameHash = hashCode(SET_COOKIE);
+        final int i = findFirst(SET_COOKIE, nameHash);
+        return i < 0 ? emptyIterator() : new SetCookiesIterator(nameHash, i);
+    }
+
+    @Override
+    public Iterator<? extends HttpSetCookie> getSetCookiesIterator(final CharSequence name) {
+        final int nameHash = hashCode(SET_COOKIE);
+        for (int i = findFirst(SET_COOKIE, nameHash); i >= 0; i = findNext(SET_COOKIE, nameHash, i + 1)) {
+            final HttpSetCookie setCookie = HeaderUtils.parseSetCookie(values[i], name, validateCookies);
+            if (setCookie != null) {
+                return new SetCookiesByNameIterator(nameHash, i, setCookie, null, null);
+            }
+        }
+        return emptyIterator();
+    }
+
+    @Override
+    public Iterator<? extends HttpSetCookie> getSetCookiesIterator(final CharSequence name, final CharSequence domain,
+                                                                   final CharSequence path) {
+        final int nameHash = hashCode(SET_COOKIE);
+        for (int i = findFirst(SET_COOKIE, nameHash); i >= 0; i = findNext(SET_COOKIE, nameHash, i + 1)) {
+            // In the future we could attempt to delay full parsing of the cookie until after the domain/path have
+            // been matched, but for simplicity just do the parsing ahead of time.
+            final HttpSetCookie setCookie = HeaderUtils.parseSetCookie(values[i], name, validateCookies);
+            if (setCookie != null && domainMatches(domain, setCookie.domain()) &&
+                    pathMatches(path, setCookie.path())) {
+                return new SetCookiesByNameIterator(nameHash, i, setCookie, domain, path);
+            }
+        }
+        return emptyIterator();
+    }
+
+    @Override
+    public HttpHeaders addCookie(final HttpCookiePair cookie) {
+        // HTTP/1.x requires that all cookies/crumbs are combined into a single Cookie header.
+        // https://tools.ietf.org/html/rfc6265#section-5.4
+        final CharSequence encoded = cookie.encoded();
+        final int nameHash = hashCode(COOKIE);
+        final int i = findFirst(COOKIE, nameHash);
+        if (i >= 0) {
+            values[i] = values[i] + "; " + encoded;
+        } else {
+            addEntry(COOKIE, nameHash, encoded);
+        }
+        return this;
+    }
+
+    @Override
+    public HttpHeaders addSetCookie(final HttpSetCookie cookie) {
+        addEntry(SET_COOKIE, hashCode(SET_COOKIE), cookie.encoded());
+        return this;
+    }
+
+    @Override
+    public boolean removeCookies(final CharSequence name) {
+        final int nameHash = hashCode(COOKIE);
+        boolean removed = false;
+        for (int i = findFirst(COOKIE, nameHash); i >= 0; i = findNext(COOKIE, nameHash, i + 1)) {
+            final CharSequence newHeaderValue = HeaderUtils.removeCookiePairs(values[i], name);
+            if (newHeaderValue != null) {
+                removed = true;
+                if (newHeaderValue.length() != 0) {
+                    values[i] = newHeaderValue;
+                } else {
+                    removeEntry(i);
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeSetCookies(final CharSequence name) {
+        final int nameHash = hashCode(SET_COOKIE);
+        final int sizeBefore = size;
+        for (int i = findFirst(SET_COOKIE, nameHash); i >= 0; i = findNext(SET_COOKIE, nameHash, i + 1)) {
+            if (isSetCookieNameMatches(values[i], name)) {
+                removeEntry(i);
+            }
+        }
+        return sizeBefore != size;
+    }
+
+    @Override
+    public boolean removeSetCookies(final CharSequence name, final CharSequence domain, final CharSequence path) {
+        final int nameHash = hashCode(SET_COOKIE);
+        final int sizeBefore = size;
+        for (int i = findFirst(SET_COOKIE, nameHash); i >= 0; i = findNext(SET_COOKIE, nameHash, i + 1)) {
+            // In the future we could attempt to delay full parsing of the cookie until after the domain/path have
+            // been matched, but for simplicity just do the parsing ahead of time.
+            final HttpSetCookie setCookie = HeaderUtils.parseSetCookie(values[i], name, false);
+            if (setCookie != null && domainMatches(domain, setCookie.domain()) &&
+                    pathMatches(path, setCookie.path())) {
+                removeEntry(i);
+            }
+        }
+        return sizeBefore != size;
+    }
+
+    /**
+     * Get the number of entries the arrays can hold before they are compacted or grown.
+     *
+     * @return the number of entries the arrays can hold before they are compacted or grown.
+     */
+    int capacity() {
+        return names.length;
+    }
+
+    private static int hashCode(final CharSequence name) {
+        return caseInsensitiveHashCode(name);
+    }
+
+    private static int slot(final int nameHash, final int mask) {
+        return (nameHash ^ (nameHash >>> 16)) & mask;
+    }
+
+    private void validateName(@Nullable final CharSequence name) {
+        if (name == null || name.length() == 0) {
+            throw new IllegalArgumentException("empty header names are not allowed");
+        }
+        if (validateNames) {
+            validateCookieTokenAndHeaderName(name);
+        }
+    }
+
+    /**
+     * Find the position of the first (oldest) entry for {@code name}.
+     * <p>
+     * Entries are inserted into the index in the order of their positions, so the probe sequence for a name visits
+     * its entries in insertion order.
+     *
+     * @param name The name to find.
+     * @param nameHash The hash of {@code name}.
+     * @return the position of the first entry for {@code name}, or {@code -1} if there is none.
+     */
+    private int findFirst(final CharSequence name, final int nameHash) {
+        if (size == 0) {
+            return -1;
+        }
+        final int mask = index.length - 1;
+        for (int s = slot(nameHash, mask);; s = (s + 1) & mask) {
+            final int i = index[s] - 1;
+            if (i < 0) {
+                return -1;
+            }
+            final CharSequence current = names[i];
+            if (current != null && hashes[i] == nameHash && contentEqualsIgnoreCase(current, name)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Find the position of the next entry for {@code name}, scanning the arrays from {@code fromIndex}.
+     *
+     * @param name The name to find.
+     * @param nameHash The hash of {@code name}.
+     * @param fromIndex The position to start from (inclusive).
+     * @return the position of the next entry for {@code name}, or {@code -1} if there is none.
+     */
+    private int findNext(final CharSequence name, final int nameHash, int fromIndex) {
+        for (; fromIndex < end; ++fromIndex) {
+            final CharSequence current = names[fromIndex];
+            if (current != null && hashes[fromIndex] == nameHash && contentEqualsIgnoreCase(current, name)) {
+                return fromIndex;
+            }
+        }
+        return -1;
+    }
+
+    private boolean removeAll(final CharSequence name, final int nameHash, final int first) {
+        if (first < 0) {
+            return false;
+        }
+        for (int i = first; i >= 0; i = findNext(name, nameHash, i + 1)) {
+            removeEntry(i);
+        }
+        return true;
+    }
+
+    private void addEntry(final CharSequence name, final int nameHash, final CharSequence value) {
+        requireNonNull(value);
+        if (end == names.length) {
+            makeRoom();
+        }
+        names[end] = name;
+        values[end] = value;
+        hashes[end] = nameHash;
+        insertIntoIndex(nameHash, end);
+        ++end;
+        ++size;
+        ++modCount;
+    }
+
+    private void removeEntry(final int i) {
+        assert names[i] != null;
+        // The slot in the index keeps pointing to the hole until the arrays are compacted.
+        names[i] = null;
+        values[i] = null;
+        --size;
+        ++modCount;
+    }
+
+    private void insertIntoIndex(final int nameHash, final int i) {
+        final int mask = index.length - 1;
+        int s = slot(nameHash, mask);
+        while (index[s] != 0) {
+            s = (s + 1) & mask;
+        }
+        index[s] = i + 1;
+    }
+
+    /**
+     * Reclaim holes left by removed entries if they make up at least half of the arrays, otherwise grow the arrays.
+     */
+    private void makeRoom() {
+        final int capacity = names.length;
+        if (size > capacity >>> 1 || capacity == 0) {
+            final int newCapacity = max(MIN_CAPACITY, capacity << 1);
+            names = copyOf(names, newCapacity);
+            values = copyOf(values, newCapacity);
+            hashes = copyOf(hashes, newCapacity);
+            index = new int[newCapacity << 1];
+        } else {
+            fill(index, 0);
+        }
+        int newEnd = 0;
+        for (int i = 0; i < end; ++i) {
+            final CharSequence name = names[i];
+            if (name != null) {
+                names[newEnd] = name;
+                values[newEnd] = values[i];
+                hashes[newEnd] = hashes[i];
+                insertIntoIndex(hashes[newEnd], newEnd);
+                ++newEnd;
+            }
+        }
+        fill(names, newEnd, end, null);
+        fill(values, newEnd, end, null);
+        end = newEnd;
+    }
+
+    private final class EntryIterator implements Map.Entry<CharSequence, CharSequence>,
+                                                 Iterator<Map.Entry<CharSequence, CharSequence>> {
+        private int expectedModCount = modCount;
+        private int nextIndex;
+        private int current = -1;
+        @Nullable
+        private CharSequence key;
+        @Nullable
+        private CharSequence value;
+
+        @Override
+        public boolean hasNext() {
+            while (nextIndex < end && names[nextIndex] == null) {
+                ++nextIndex;
+            }
+            return nextIndex < end;
+        }
+
+        @Override
+        public Map.Entry<CharSequence, CharSequence> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = nextIndex++;
+            key = names[current];
+            value = values[current];
+            return this;
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeEntry(current);
+            expectedModCount = modCount;
+            current = -1;
+        }
+
+        @Nullable
+        @Override
+        public CharSequence getKey() {
+            return key;
+        }
+
+        @Nullable
+        @Override
+        public CharSequence getValue() {
+            return value;
+        }
+
+        @Override
+        public CharSequence setValue(final CharSequence value) {
+            requireNonNull(value);
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            final CharSequence oldValue = this.value;
+            values[current] = value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return key != null && key.equals(other.getKey()) && value != null && value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Base class for iterators over the entries of a single name, the next matching entry is found eagerly.
+     */
+    private abstract class NameIterator {
+        private final CharSequence name;
+        private final int nameHash;
+        private int expectedModCount = modCount;
+        int nextIndex;
+        int current = -1;
+
+        NameIterator(final CharSequence name, final int nameHash, final int first) {
+            this.name = name;
+            this.nameHash = nameHash;
+            nextIndex = first;
+        }
+
+        final int advance() {
+            if (nextIndex < 0) {
+                throw new NoSuchElementException();
+            }
+            current = nextIndex;
+            nextIndex = findNext(name, nameHash, current + 1);
+            return current;
+        }
+
+        final int findNextMatch(final int fromIndex) {
+            return findNext(name, nameHash, fromIndex);
+        }
+
+        public final void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeEntry(current);
+            expectedModCount = modCount;
+            current = -1;
+        }
+    }
+
+    private final class ValuesIterator extends NameIterator implements Iterator<CharSequence> {
+        @Nullable
+        private CharSequence nextValue;
+
+        ValuesIterator(final CharSequence name, final int nameHash, final int first) {
+            super(name, nameHash, first);
+            nextValue = values[first];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextValue != null;
+        }
+
+        @Override
+        public CharSequence next() {
+            final CharSequence value = nextValue;
+            if (value == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            nextValue = nextIndex < 0 ? null : values[nextIndex];
+            return value;
+        }
+    }
+
+    private final class SetCookiesIterator extends NameIterator implements Iterator<HttpSetCookie> {
+        SetCookiesIterator(final int nameHash, final int first) {
+            super(SET_COOKIE, nameHash, first);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex >= 0;
+        }
+
+        @Override
+        public HttpSetCookie next() {
+            return parseSetCookie(values[advance()], validateCookies);
+        }
+    }
+
+    private final class SetCookiesByNameIterator extends NameIterator implements Iterator<HttpSetCookie> {
+        @Nullable
+        private final CharSequence domain;
+        @Nullable
+        private final CharSequence path;
+        @Nullable
+        private HttpSetCookie next;
+
+        SetCookiesByNameIterator(final int nameHash, final int first, final HttpSetCookie next,
+                                 @Nullable final CharSequence domain, @Nullable final CharSequence path) {
+            super(SET_COOKIE, nameHash, first);
+            this.domain = domain;
+            this.path = path;
+            this.next = next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public HttpSetCookie next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final HttpSetCookie currentCookie = next;
+            next = null;
+            current = nextIndex;
+            for (int i = findNextMatch(current + 1); i >= 0; i = findNextMatch(i + 1)) {
+                // In the future we could attempt to delay full parsing of the cookie until after the domain/path
+                // have been matched, but for simplicity just do the parsing ahead of time.
+                final HttpSetCookie setCookie = HeaderUtils.parseSetCookie(values[i], currentCookie.name(),
+                        validateCookies);
+                if (setCookie != null && (domain == null || path == null ||
+                        (domainMatches(domain, setCookie.domain()) && pathMatches(path, setCookie.path())))) {
+                    next = setCookie;
+                    nextIndex = i;
+                    break;
+                }
+            }
+            return currentCookie;
+        }
+    }
+
+    private final class CookiesIterator extends HeaderUtils.CookiesIterator {
+        private final int nameHash;
+        private int current;
+
+        CookiesIterator(final int nameHash, final int first) {
+            this.nameHash = nameHash;
+            current = first;
+            initNext(values[first]);
+        }
+
+        @Nullable
+        @Override
+        protected CharSequence cookieHeaderValue() {
+            return current < 0 ? null : values[current];
+        }
+
+        @Override
+        protected void advanceCookieHeaderValue() {
+            current = findNext(COOKIE, nameHash, current + 1);
+        }
+    }
+
+    private final class CookiesByNameIterator extends HeaderUtils.CookiesByNameIterator {
+        private final int nameHash;
+        private int current;
+
+        CookiesByNameIterator(final int nameHash, final int first, final CharSequence name) {
+            super(name);
+            this.nameHash = nameHash;
+            current = first;
+            initNext(values[first]);
+        }
+
+        @Nullable
+        @Override
+        protected CharSequence cookieHeaderValue() {
+            return current < 0 ? null : values[current];
+        }
+
+        @Override
+        protected void advanceCookieHeaderValue() {
+            current = findNext(COOKIE, nameHash, current + 1);
+        }
+    }
+}
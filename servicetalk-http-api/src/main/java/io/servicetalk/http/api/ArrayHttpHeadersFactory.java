@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.api;
+
+/**
+ * {@link HttpHeadersFactory} which creates {@link HttpHeaders} backed by flat arrays.
+ * <p>
+ * Compared to {@link DefaultHttpHeadersFactory} the created {@link HttpHeaders} do not allocate per header and iterate
+ * in insertion order over contiguous memory, which favors messages with a moderate number of headers that are built
+ * once and then iterated, e.g. for encoding.
+ */
+public final class ArrayHttpHeadersFactory implements HttpHeadersFactory {
+
+    public static final HttpHeadersFactory INSTANCE = new ArrayHttpHeadersFactory(true, true);
+
+    private final boolean validateNames;
+    private final boolean validateCookies;
+    private final int headersSizeHint;
+    private final int trailersSizeHint;
+
+    /**
+     * Create an instance of the factory with the default size hint.
+     *
+     * @param validateNames {@code true} to validate header/trailer names.
+     * @param validateCookies {@code true} to validate cookie contents when parsing.
+     */
+    public ArrayHttpHeadersFactory(final boolean validateNames, final boolean validateCookies) {
+        this(validateNames, validateCookies, 16, 4);
+    }
+
+    /**
+     * Create an instance of the factory.
+     *
+     * @param validateNames {@code true} to validate header/trailer names.
+     * @param validateCookies {@code true} to validate cookie contents when parsing.
+     * @param headersSizeHint A hint as to how many headers are expected.
+     * @param trailersSizeHint A hint as to how many trailers are expected.
+     */
+    public ArrayHttpHeadersFactory(final boolean validateNames, final boolean validateCookies,
+                                   final int headersSizeHint, final int trailersSizeHint) {
+        this.validateNames = validateNames;
+        this.validateCookies = validateCookies;
+        this.headersSizeHint = headersSizeHint;
+        this.trailersSizeHint = trailersSizeHint;
+    }
+
+    @Override
+    public HttpHeaders newHeaders() {
+        return new ArrayHttpHeaders(headersSizeHint, validateNames, validateCookies);
+    }
+
+    @Override
+    public HttpHeaders newTrailers() {
+        return new ArrayHttpHeaders(trailersSizeHint, validateNames, validateCookies);
+    }
+
+    @Override
+    public HttpHeaders newEmptyTrailers() {
+        return new ArrayHttpHeaders(0, validateNames, validateCookies);
+    }
+
+    @Override
+    public boolean validateCookies() {
+        return validateCookies;
+    }
+}
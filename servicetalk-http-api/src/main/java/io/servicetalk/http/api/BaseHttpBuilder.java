@@ -15,6 +15,7 @@
  */
 package io.servicetalk.http.api;
 
+import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.transport.api.IoExecutor;
 import io.servicetalk.transport.api.ServiceTalkSocketOptions;
@@ -45,6 +46,9 @@ abstract class BaseHttpBuilder<ResolvedAddress> {
 
     /**
      * Sets the {@link BufferAllocator} for all connections created from this builder.
+     * <p>
+     * A pooling {@link BufferAllocator} can be selected here to reduce allocation of payload body {@link Buffer}s
+     * produced by this {@link BufferAllocator}. Such {@link Buffer}s are released by the transport once written.
      *
      * @param allocator {@link BufferAllocator} to use.
      * @return {@code this}.
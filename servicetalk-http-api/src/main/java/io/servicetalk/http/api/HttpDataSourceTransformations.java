@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,19 +29,30 @@ import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.concurrent.internal.ConcurrentSubscription;
 import io.servicetalk.concurrent.internal.DelayedSubscription;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
 import static io.servicetalk.concurrent.internal.SubscriberUtils.checkDuplicateSubscription;
 import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.min;
 import static java.lang.System.nanoTime;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 final class HttpDataSourceTransformations {
+    private static final int FILE_REGION_READ_CHUNK_SIZE = 8192;
+
     private HttpDataSourceTransformations() {
         // no instances
     }
@@ -433,4 +444,128 @@ final class HttpDataSourceTransformations {
             }
         });
     }
+
+    /**
+     * Creates a {@link Publisher} which emits {@code fileRegion}, with its {@link FileChannel} opened when the
+     * {@link Publisher} is subscribed. If the {@link Subscription} is cancelled before {@code fileRegion} is emitted
+     * the transport never takes ownership of its {@link FileChannel}, so it is closed here.
+     *
+     * @param fileRegion The {@link HttpFileRegion} to emit.
+     * @return A {@link Publisher} which emits {@code fileRegion}.
+     */
+    static Publisher<Object> fileRegionPayload(final HttpFileRegion fileRegion) {
+        return Publisher.defer(() -> {
+            // A region created for a Path opens its file only now, so it is not held open before it is written.
+            final HttpFileRegion opened;
+            try {
+                opened = fileRegion.open();
+            } catch (IOException e) {
+                return Publisher.failed(e);
+            }
+            final AtomicBoolean emitted = new AtomicBoolean();
+            return Publisher.<Object>from(opened)
+                    .beforeOnNext(__ -> emitted.set(true))
+                    .beforeCancel(() -> {
+                        if (emitted.compareAndSet(false, true)) {
+                            closeQuietly(opened.channel());
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Replaces each {@link HttpFileRegion} emitted by {@code payloadAndTrailers} with the content of the region, read
+     * in {@link Buffer}s of at most {@link #FILE_REGION_READ_CHUNK_SIZE} bytes as they are requested.
+     *
+     * @param payloadAndTrailers The payload body and trailers which may contain {@link HttpFileRegion}s.
+     * @param allocator Used to allocate the {@link Buffer}s the content is read into.
+     * @return A {@link Publisher} which emits the same items as {@code payloadAndTrailers} but {@link Buffer}s instead
+     * of {@link HttpFileRegion}s.
+     */
+    static Publisher<Object> readFileRegions(final Publisher<?> payloadAndTrailers, final BufferAllocator allocator) {
+        return payloadAndTrailers.flatMapConcatIterable(item -> item instanceof HttpFileRegion ?
+                new FileRegionChunks((HttpFileRegion) item, allocator) : singletonList(item));
+    }
+
+    private static final class FileRegionChunks implements Iterable<Object> {
+        private final HttpFileRegion fileRegion;
+        private final BufferAllocator allocator;
+
+        FileRegionChunks(final HttpFileRegion fileRegion, final BufferAllocator allocator) {
+            this.fileRegion = fileRegion;
+            this.allocator = allocator;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new FileRegionChunksIterator(fileRegion, allocator);
+        }
+    }
+
+    /**
+     * Reads a {@link HttpFileRegion} one chunk per {@link #next()}, so only a bounded amount of the file is in memory
+     * at a time. The {@link FileChannel} is closed when the region has been read, when reading fails, or when the
+     * {@link Iterator} is {@link #close() closed} because the {@link Subscription} was cancelled.
+     */
+    private static final class FileRegionChunksIterator implements Iterator<Object>, AutoCloseable {
+        private final HttpFileRegion fileRegion;
+        private final BufferAllocator allocator;
+        private final long end;
+        private long position;
+
+        FileRegionChunksIterator(final HttpFileRegion fileRegion, final BufferAllocator allocator) {
+            this.fileRegion = fileRegion;
+            this.allocator = allocator;
+            position = fileRegion.position();
+            end = position + fileRegion.count();
+            if (position == end) {
+                close();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final ByteBuffer dst = ByteBuffer.allocate((int) min(FILE_REGION_READ_CHUNK_SIZE, end - position));
+            try {
+                final FileChannel channel = fileRegion.channel();
+                while (dst.hasRemaining()) {
+                    final int read = channel.read(dst, position);
+                    if (read < 0) {
+                        throw new EOFException("Unexpected end of " + fileRegion + " at position " + position);
+                    }
+                    position += read;
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            if (position == end) {
+                close();
+            }
+            dst.flip();
+            return allocator.wrap(dst);
+        }
+
+        @Override
+        public void close() {
+            position = end;
+            closeQuietly(fileRegion.channel());
+        }
+    }
+
+    private static void closeQuietly(final FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // The content has been read, the read failed, or the subscription was cancelled. Nothing else to do.
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package io.servicetalk.http.api;
 
 import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Executors;
 
 import javax.annotation.Nullable;
 
@@ -69,6 +70,24 @@ public final class HttpExecutionStrategies {
         return customStrategyBuilder().offloadAll().executor(executor).mergeStrategy(ReturnOther).build();
     }
 
+    /**
+     * The default {@link HttpExecutionStrategy} using a shared {@link Executor} that starts a new virtual thread for
+     * each task, see {@link Executors#newVirtualThreadExecutor()}.
+     * <p>
+     * This strategy is a good fit for the blocking programming models with many concurrent requests that spend most of
+     * their time blocked, e.g. waiting for slow downstream calls.
+     *
+     * @return Default {@link HttpExecutionStrategy} using virtual threads.
+     * @throws UnsupportedOperationException if virtual threads are not available (Java 21+ is required).
+     */
+    public static HttpExecutionStrategy virtualThreadStrategy() {
+        final HttpExecutionStrategy strategy = VirtualThreadStrategyHolder.STRATEGY;
+        if (strategy == null) {
+            throw new UnsupportedOperationException("Virtual threads are not available, Java 21+ is required");
+        }
+        return strategy;
+    }
+
     /**
      * A {@link HttpExecutionStrategy} that disables all offloads.
      *
@@ -283,4 +302,23 @@ public final class HttpExecutionStrategies {
             Merge
         }
     }
+
+    private static final class VirtualThreadStrategyHolder {
+        @Nullable
+        static final HttpExecutionStrategy STRATEGY = newStrategy();
+
+        private VirtualThreadStrategyHolder() {
+            // No instances.
+        }
+
+        @Nullable
+        private static HttpExecutionStrategy newStrategy() {
+            try {
+                // Virtual threads are not pooled, so a single Executor can be shared and never needs to be closed.
+                return defaultStrategy(Executors.newVirtualThreadExecutor());
+            } catch (UnsupportedOperationException e) {
+                return null;
+            }
+        }
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.api;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+
+import static java.nio.file.Files.size;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A region of a file which is used as the payload body of a {@link StreamingHttpResponse}.
+ * <p>
+ * The transport writes the region directly from the file to the socket without copying the content through the JVM
+ * if the protocol and the connection allow it (e.g. HTTP/1.x without TLS), otherwise the content is read in chunks.
+ * <p>
+ * The ownership of the {@link FileChannel} is transferred to the transport, which closes the {@link FileChannel}
+ * after the region has been written. A region created for a {@link Path} opens its {@link FileChannel} only when the
+ * payload body is subscribed.
+ */
+public final class HttpFileRegion {
+    @Nullable
+    private final FileChannel channel;
+    @Nullable
+    private final Path file;
+    private final long position;
+    private final long count;
+
+    private HttpFileRegion(final FileChannel channel, final long position, final long count) {
+        this(requireNonNull(channel), null, position, count);
+    }
+
+    private HttpFileRegion(final Path file, final long count) {
+        this(null, requireNonNull(file), 0, count);
+    }
+
+    private HttpFileRegion(@Nullable final FileChannel channel, @Nullable final Path file, final long position,
+                           final long count) {
+        this.channel = channel;
+        this.file = file;
+        if (position < 0) {
+            throw new IllegalArgumentException("position: " + position + " (expected >=0)");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count: " + count + " (expected >=0)");
+        }
+        this.position = position;
+        this.count = count;
+    }
+
+    /**
+     * Creates a new {@link HttpFileRegion} for the specified region of a {@link FileChannel}.
+     *
+     * @param channel The {@link FileChannel} to read from, closed by the transport after the region has been written.
+     * @param position The position in the {@link FileChannel} where the region starts.
+     * @param count The number of bytes of the region.
+     * @return a new {@link HttpFileRegion}.
+     */
+    public static HttpFileRegion newFileRegion(final FileChannel channel, final long position, final long count) {
+        return new HttpFileRegion(channel, position, count);
+    }
+
+    /**
+     * Creates a new {@link HttpFileRegion} for the whole content of a file.
+     * <p>
+     * The file is opened when the payload body is subscribed, so no {@link FileChannel} is held open for a payload body
+     * which is never written.
+     *
+     * @param file The {@link Path} of the file.
+     * @return a new {@link HttpFileRegion}.
+     * @throws IOException if the size of the file can not be determined.
+     */
+    public static HttpFileRegion newFileRegion(final Path file) throws IOException {
+        return new HttpFileRegion(file, size(file));
+    }
+
+    /**
+     * Get the {@link FileChannel} to read from.
+     *
+     * @return the {@link FileChannel} to read from.
+     * @throws IllegalStateException if this region was created for a {@link Path}, its {@link FileChannel} is only
+     * opened when the payload body is subscribed.
+     */
+    public FileChannel channel() {
+        if (channel == null) {
+            throw new IllegalStateException("FileChannel of " + file +
+                    " is only opened when the payload body is subscribed");
+        }
+        return channel;
+    }
+
+    /**
+     * Get the position in the {@link #channel()} where the region starts.
+     *
+     * @return the position in the {@link #channel()} where the region starts.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Get the number of bytes of the region.
+     *
+     * @return the number of bytes of the region.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns a {@link HttpFileRegion} with an open {@link FileChannel}, opening the file if this region was created
+     * for a {@link Path}.
+     */
+    HttpFileRegion open() throws IOException {
+        if (channel != null) {
+            return this;
+        }
+        assert file != null;
+        return new HttpFileRegion(FileChannel.open(file, READ), position, count);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "channel=" + (channel != null ? channel : file) +
+                ", position=" + position +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package io.servicetalk.http.api;
 
+import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.http.api.HttpApiConversions.ServiceAdapterHolder;
@@ -71,6 +72,27 @@ public abstract class HttpServerBuilder {
      */
     public abstract HttpServerBuilder backlog(int backlog);
 
+    /**
+     * Bind one listen socket per IO thread to the same address using {@code SO_REUSEPORT}, which lets the kernel
+     * distribute new connections across the IO threads instead of accepting all connections on a single thread.
+     * <p>
+     * This is only supported by the native epoll transport for IP addresses, otherwise a single listen socket is bound.
+     * The resulting {@link ServerContext} closes all listen sockets.
+     * <p>
+     * Implementations which do not support this option reject {@code true}, a single listen socket is the default.
+     *
+     * @param reusePort {@code true} to bind one listen socket per IO thread.
+     * @return {@code this}.
+     * @throws UnsupportedOperationException if {@code reusePort} is {@code true} and this builder does not support
+     * binding multiple listen sockets.
+     */
+    public HttpServerBuilder reusePort(boolean reusePort) {
+        if (reusePort) {
+            throw new UnsupportedOperationException("reusePort is not supported by " + getClass().getName());
+        }
+        return this;
+    }
+
     /**
      * Initiates security configuration for this server. Calling any {@code commit} method on the returned
      * {@link HttpServerSecurityConfigurator} will commit the configuration.
@@ -235,6 +257,9 @@ public abstract class HttpServerBuilder {
 
     /**
      * Sets the {@link BufferAllocator} to be used by this server.
+     * <p>
+     * A pooling {@link BufferAllocator} can be selected here to reduce allocation of payload body {@link Buffer}s
+     * produced by this {@link BufferAllocator}. Such {@link Buffer}s are released by the transport once written.
      *
      * @param allocator {@link BufferAllocator} to use.
      * @return {@code this}.
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,7 +45,10 @@ import static io.servicetalk.concurrent.api.Single.succeeded;
 import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
 import static io.servicetalk.http.api.HeaderUtils.addChunkedEncoding;
 import static io.servicetalk.http.api.HeaderUtils.isTransferEncodingChunked;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
 import static io.servicetalk.http.api.HttpDataSourceTransformations.aggregatePayloadAndTrailers;
+import static io.servicetalk.http.api.HttpDataSourceTransformations.fileRegionPayload;
+import static io.servicetalk.http.api.HttpDataSourceTransformations.readFileRegions;
 import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_0;
 import static java.util.Objects.requireNonNull;
 
@@ -86,7 +89,7 @@ final class StreamingHttpPayloadHolder implements PayloadInfo {
         }
         splitTrailersIfRequired();
         return payloadInfo.onlyEmitsBuffer() ? bufferPayload() :
-                rawPayload().liftSync(HttpTransportBufferFilterOperator.INSTANCE);
+                readFileRegions(rawPayload(), allocator).liftSync(HttpTransportBufferFilterOperator.INSTANCE);
     }
 
     Publisher<Object> payloadBodyAndTrailers() {
@@ -111,6 +114,18 @@ final class StreamingHttpPayloadHolder implements PayloadInfo {
         payloadBody(serializer.serialize(headers, payloadBody, allocator));
     }
 
+    public void payloadBody(final HttpFileRegion fileRegion) {
+        final Publisher<Object> newPayload = fileRegionPayload(requireNonNull(fileRegion));
+        // The transport can not bridge flow control between a Buffer and a file region, drain the existing payload
+        // body before the file region is emitted.
+        this.payloadBody = this.payloadBody == null ? newPayload :
+                payloadBody().ignoreElements().concat(newPayload);
+        payloadInfo.setOnlyEmitsBuffer(false);
+        if (!isTransferEncodingChunked(headers)) {
+            headers.set(CONTENT_LENGTH, Long.toString(fileRegion.count()));
+        }
+    }
+
     public <T> void transformPayloadBody(Function<Publisher<Buffer>, Publisher<T>> transformer,
                                          HttpSerializer<T> serializer) {
         updatePayloadBody(serializer.serialize(headers, transformer.apply(payloadBody()), allocator), true);
@@ -137,7 +152,9 @@ final class StreamingHttpPayloadHolder implements PayloadInfo {
 
     Single<PayloadAndTrailers> aggregate() {
         payloadInfo.setSafeToAggregate(true);
-        return aggregatePayloadAndTrailers(payloadBodyAndTrailers(), allocator);
+        final Publisher<Object> payloadAndTrailers = payloadBodyAndTrailers();
+        return aggregatePayloadAndTrailers(payloadInfo.onlyEmitsBuffer() ? payloadAndTrailers :
+                readFileRegions(payloadAndTrailers, allocator), allocator);
     }
 
     @Override
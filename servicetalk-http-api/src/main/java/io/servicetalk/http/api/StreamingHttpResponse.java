@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -79,6 +79,21 @@ public interface StreamingHttpResponse extends HttpResponseMetaData {
      */
     <T> StreamingHttpResponse payloadBody(Publisher<T> payloadBody, HttpSerializer<T> serializer);
 
+    /**
+     * Returns a {@link StreamingHttpResponse} with its underlying payload set to the content of {@code fileRegion}.
+     * <p>
+     * The transport writes the {@link HttpFileRegion} without copying the content through the JVM when possible. The
+     * {@link HttpHeaderNames#CONTENT_LENGTH content-length} header is set unless
+     * {@link HttpHeaderValues#CHUNKED chunked} transfer encoding is used. The existing payload body will be drained
+     * before the content of {@code fileRegion} is written.
+     * <p>
+     * Accessing the payload body as {@link Buffer}s, e.g. via {@link #payloadBody()}, reads the content of the
+     * {@link HttpFileRegion} in bounded chunks as they are requested.
+     * @param fileRegion The {@link HttpFileRegion} to use as the new payload body.
+     * @return {@code this}
+     */
+    StreamingHttpResponse payloadBody(HttpFileRegion fileRegion);
+
     /**
      * Returns a {@link StreamingHttpResponse} with its underlying payload transformed to the result of serialization.
      * @param transformer A {@link Function} which take as a parameter the existing payload body {@link Publisher} and
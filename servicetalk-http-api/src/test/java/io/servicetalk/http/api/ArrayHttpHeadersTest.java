@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayHttpHeadersTest extends AbstractHttpHeadersTest {
+    @Override
+    protected HttpHeaders newHeaders() {
+        return ArrayHttpHeadersFactory.INSTANCE.newHeaders();
+    }
+
+    @Override
+    protected HttpHeaders newHeaders(final int initialSizeHint) {
+        return new ArrayHttpHeaders(initialSizeHint, true, true);
+    }
+
+    @Test
+    public void compactsInsteadOfGrowingWhenMostEntriesAreRemoved() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        headers.remove("a");
+        headers.remove("b");
+        headers.remove("c", "c1");
+        assertEquals(3, headers.size());
+
+        headers.add("g", "g1");
+        assertEquals(8, headers.capacity());
+        assertEquals(4, headers.size());
+        assertThat(names(headers), contains("d", "e", "f", "g"));
+    }
+
+    @Test
+    public void growsWhenMostEntriesAreStillPresent() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        headers.remove("b");
+        assertEquals(7, headers.size());
+
+        headers.add("g", "g1");
+        assertEquals(16, headers.capacity());
+        assertEquals(8, headers.size());
+        assertThat(names(headers), contains("a", "c", "a", "a", "d", "e", "f", "g"));
+    }
+
+    @Test
+    public void indexIsRebuiltAfterCompaction() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        headers.remove("b");
+        headers.remove("c");
+        headers.remove("d");
+        headers.remove("e");
+        headers.remove("a", "a2");
+        assertEquals(3, headers.size());
+
+        // Compaction moves the remaining entries down, the index has to point at their new positions.
+        headers.add("a", "a4");
+        headers.add("b", "b2");
+        assertEquals(8, headers.capacity());
+
+        assertEquals("a1", headers.get("a"));
+        assertEquals("a1", headers.get("A"));
+        assertThat(values(headers.valuesIterator("a")), contains("a1", "a3", "a4"));
+        assertEquals("f1", headers.get("f"));
+        assertEquals("b2", headers.get("b"));
+        assertNull(headers.get("c"));
+        assertTrue(headers.contains("a", "a3"));
+        assertTrue(headers.contains("F"));
+        assertFalse(headers.contains("a", "a2"));
+        assertFalse(headers.contains("e"));
+        assertThat(names(headers), contains("a", "a", "f", "a", "b"));
+    }
+
+    @Test
+    public void iteratorRemoveSkipsHoles() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        headers.remove("a", "a2");
+        headers.remove("d");
+
+        final Iterator<Entry<CharSequence, CharSequence>> itr = headers.iterator();
+        final List<CharSequence> seen = new ArrayList<>();
+        while (itr.hasNext()) {
+            final Entry<CharSequence, CharSequence> entry = itr.next();
+            seen.add(entry.getValue());
+            if (entry.getKey().equals("c") || entry.getKey().equals("e")) {
+                itr.remove();
+            }
+        }
+        assertEquals(asList("a1", "b1", "c1", "a3", "e1", "f1"), seen);
+        assertEquals(4, headers.size());
+        assertThat(names(headers), contains("a", "b", "a", "f"));
+        assertFalse(headers.contains("c"));
+        assertFalse(headers.contains("e"));
+    }
+
+    @Test
+    public void valuesIteratorRemoveSkipsHoles() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        headers.remove("a", "a2");
+
+        final Iterator<? extends CharSequence> itr = headers.valuesIterator("a");
+        assertEquals("a1", itr.next());
+        assertEquals("a3", itr.next());
+        itr.remove();
+        assertFalse(itr.hasNext());
+        assertThat(values(headers.valuesIterator("a")), contains("a1"));
+        assertEquals(6, headers.size());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorRemoveAfterAddThrows() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        final Iterator<Entry<CharSequence, CharSequence>> itr = headers.iterator();
+        itr.next();
+        headers.add("g", "g1");
+        itr.remove();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void valuesIteratorRemoveAfterRemoveThrows() {
+        final ArrayHttpHeaders headers = newFullHeaders();
+        final Iterator<? extends CharSequence> itr = headers.valuesIterator("a");
+        itr.next();
+        headers.remove("b");
+        itr.remove();
+    }
+
+    private static ArrayHttpHeaders newFullHeaders() {
+        final ArrayHttpHeaders headers = new ArrayHttpHeaders(8, true, true);
+        headers.add("a", "a1");
+        headers.add("b", "b1");
+        headers.add("c", "c1");
+        headers.add("a", "a2");
+        headers.add("a", "a3");
+        headers.add("d", "d1");
+        headers.add("e", "e1");
+        headers.add("f", "f1");
+        assertEquals(8, headers.capacity());
+        return headers;
+    }
+
+    private static List<String> names(final HttpHeaders headers) {
+        final List<String> names = new ArrayList<>();
+        for (Entry<CharSequence, CharSequence> entry : headers) {
+            names.add(entry.getKey().toString());
+        }
+        return names;
+    }
+
+    private static List<String> values(final Iterator<? extends CharSequence> itr) {
+        final List<String> values = new ArrayList<>();
+        while (itr.hasNext()) {
+            values.add(itr.next().toString());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.api;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.TestPublisherSubscriber;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static io.servicetalk.http.api.DefaultHttpHeadersFactory.INSTANCE;
+import static io.servicetalk.http.api.HttpFileRegion.newFileRegion;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.StreamingHttpResponses.newResponse;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.fail;
+
+public class HttpFileRegionTest {
+    private static final int CONTENT_LENGTH = 100_000;
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void payloadBodyReadsFileRegionInChunks() throws Exception {
+        final byte[] content = newContent();
+        final FileChannel channel = FileChannel.open(newFile(content), READ);
+        final Collection<Buffer> chunks = newResponse(OK, HTTP_1_1, INSTANCE.newHeaders(), DEFAULT_ALLOCATOR, INSTANCE)
+                .payloadBody(newFileRegion(channel, 0, content.length))
+                .payloadBody().toFuture().get();
+
+        assertThat(chunks.size(), greaterThan(1));
+        final Buffer aggregated = DEFAULT_ALLOCATOR.newBuffer(content.length);
+        for (Buffer chunk : chunks) {
+            assertThat(chunk.readableBytes(), lessThanOrEqualTo(8192));
+            aggregated.writeBytes(chunk);
+        }
+        assertThat(aggregated, equalTo(DEFAULT_ALLOCATOR.wrap(content)));
+        assertThat("FileChannel not closed after the region was read", channel.isOpen(), is(false));
+    }
+
+    @Test
+    public void pathIsOpenedOnSubscribe() throws Exception {
+        final byte[] content = newContent();
+        final Path file = newFile(content);
+        final StreamingHttpResponse response = newResponse(OK, HTTP_1_1, INSTANCE.newHeaders(), DEFAULT_ALLOCATOR,
+                INSTANCE).payloadBody(newFileRegion(file));
+
+        Files.delete(file);
+        try {
+            response.payloadBody().toFuture().get();
+            fail("File opened before the payload body was subscribed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(NoSuchFileException.class));
+        }
+
+        Files.write(file, content);
+        final Buffer aggregated = DEFAULT_ALLOCATOR.newBuffer(content.length);
+        for (Buffer chunk : response.payloadBody().toFuture().get()) {
+            aggregated.writeBytes(chunk);
+        }
+        assertThat(aggregated, equalTo(DEFAULT_ALLOCATOR.wrap(content)));
+    }
+
+    @Test
+    public void cancelClosesFileChannel() throws Exception {
+        final FileChannel channel = FileChannel.open(newFile(newContent()), READ);
+        final TestPublisherSubscriber<Object> subscriber = new TestPublisherSubscriber<>();
+        toSource(newResponse(OK, HTTP_1_1, INSTANCE.newHeaders(), DEFAULT_ALLOCATOR, INSTANCE)
+                .payloadBody(newFileRegion(channel, 0, CONTENT_LENGTH))
+                .payloadBodyAndTrailers()).subscribe(subscriber);
+
+        subscriber.cancel();
+        assertThat("FileChannel not closed after cancel", channel.isOpen(), is(false));
+    }
+
+    @Test
+    public void cancelWhileReadingClosesFileChannel() throws Exception {
+        final FileChannel channel = FileChannel.open(newFile(newContent()), READ);
+        final TestPublisherSubscriber<Buffer> subscriber = new TestPublisherSubscriber<>();
+        toSource(newResponse(OK, HTTP_1_1, INSTANCE.newHeaders(), DEFAULT_ALLOCATOR, INSTANCE)
+                .payloadBody(newFileRegion(channel, 0, CONTENT_LENGTH))
+                .payloadBody()).subscribe(subscriber);
+
+        subscriber.request(1);
+        assertThat(subscriber.takeItems().size(), is(1));
+        assertThat(channel.isOpen(), is(true));
+        subscriber.cancel();
+        assertThat("FileChannel not closed after cancel", channel.isOpen(), is(false));
+    }
+
+    private Path newFile(final byte[] content) throws Exception {
+        final Path file = tempFolder.newFile().toPath();
+        Files.write(file, content);
+        return file;
+    }
+
+    private static byte[] newContent() {
+        final byte[] content = new byte[CONTENT_LENGTH];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        return content;
+    }
+}
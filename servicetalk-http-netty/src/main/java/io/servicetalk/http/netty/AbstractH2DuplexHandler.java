@@ -17,6 +17,8 @@ package io.servicetalk.http.netty;
 
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpHeadersFactory;
 import io.servicetalk.http.netty.H2ToStH1Utils.H2StreamRefusedException;
@@ -25,6 +27,8 @@ import io.servicetalk.transport.netty.internal.CloseHandler;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http2.DefaultHttp2DataFrame;
@@ -34,19 +38,29 @@ import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2ResetFrame;
 import io.netty.util.ReferenceCountUtil;
 
+import java.io.EOFException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import javax.annotation.Nullable;
 
 import static io.netty.buffer.Unpooled.EMPTY_BUFFER;
 import static io.netty.handler.codec.http2.Http2Error.REFUSED_STREAM;
-import static io.servicetalk.buffer.netty.BufferUtils.toByteBuf;
+import static io.servicetalk.buffer.netty.BufferUtils.getByteBufAllocator;
+import static io.servicetalk.buffer.netty.BufferUtils.newBufferFrom;
+import static io.servicetalk.buffer.netty.BufferUtils.retainForWrite;
 import static io.servicetalk.buffer.netty.BufferUtils.toByteBufNoThrow;
 import static io.servicetalk.http.netty.H2ToStH1Utils.h1HeadersToH2Headers;
+import static io.servicetalk.http.netty.HttpObjectEncoder.closeQuietly;
+import static java.lang.Math.min;
 
 abstract class AbstractH2DuplexHandler extends ChannelDuplexHandler {
 
     final BufferAllocator allocator;
     final HttpHeadersFactory headersFactory;
     final CloseHandler closeHandler;
+    @Nullable
+    private ArrayDeque<Object> pendingWrites;
+    private boolean writingFileRegion;
 
     AbstractH2DuplexHandler(BufferAllocator allocator, HttpHeadersFactory headersFactory, CloseHandler closeHandler) {
         this.allocator = allocator;
@@ -75,7 +89,132 @@ abstract class AbstractH2DuplexHandler extends ChannelDuplexHandler {
             promise.setFailure(new IllegalArgumentException("unsupported Buffer type:" + msg));
             ctx.close();
         } else {
-            ctx.write(new DefaultHttp2DataFrame(byteBuf.retain(), false), promise);
+            ctx.write(new DefaultHttp2DataFrame(retainForWrite(byteBuf), false), promise);
+        }
+    }
+
+    /**
+     * Defers {@code msg} if a {@link HttpFileRegion} is being written, so it is written after the content of the file.
+     *
+     * @param msg The message to write.
+     * @param promise The {@link ChannelPromise} of the write.
+     * @return {@code true} if the write has been deferred.
+     */
+    final boolean deferWrite(Object msg, ChannelPromise promise) {
+        if (!writingFileRegion) {
+            return false;
+        }
+        if (pendingWrites == null) {
+            pendingWrites = new ArrayDeque<>(4);
+        }
+        pendingWrites.add(msg);
+        pendingWrites.add(promise);
+        return true;
+    }
+
+    final void writeFileRegion(ChannelHandlerContext ctx, HttpFileRegion fileRegion, Executor executor,
+                               ChannelPromise promise) {
+        // HTTP/2 frames the content in DATA frames, so the file can not be transferred directly to the socket. Read it
+        // in bounded chunks on the executor, and only read the next chunk after the previous one has been written.
+        writingFileRegion = true;
+        new FileRegionWriter(ctx, fileRegion, executor, promise).readNextChunk();
+    }
+
+    private void fileRegionWritten(ChannelHandlerContext ctx) {
+        assert ctx.executor().inEventLoop();
+        writingFileRegion = false;
+        if (pendingWrites == null) {
+            return;
+        }
+        Object msg;
+        while (!writingFileRegion && (msg = pendingWrites.poll()) != null) {
+            final ChannelPromise promise = (ChannelPromise) pendingWrites.poll();
+            assert promise != null;
+            try {
+                write(ctx, msg, promise);
+            } catch (Throwable cause) {
+                promise.tryFailure(cause);
+            }
+        }
+        ctx.flush();
+    }
+
+    private final class FileRegionWriter implements Runnable, ChannelFutureListener {
+        private static final int CHUNK_SIZE = 8192;
+
+        private final ChannelHandlerContext ctx;
+        private final HttpFileRegion fileRegion;
+        private final Executor executor;
+        private final ChannelPromise promise;
+        private final long end;
+        private long position;
+
+        FileRegionWriter(ChannelHandlerContext ctx, HttpFileRegion fileRegion, Executor executor,
+                         ChannelPromise promise) {
+            this.ctx = ctx;
+            this.fileRegion = fileRegion;
+            this.executor = executor;
+            this.promise = promise;
+            position = fileRegion.position();
+            end = position + fileRegion.count();
+        }
+
+        void readNextChunk() {
+            if (position == end) {
+                closeQuietly(fileRegion.channel());
+                promise.trySuccess();
+                fileRegionWritten(ctx);
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (Throwable cause) {
+                fail(cause);
+            }
+        }
+
+        @Override
+        public void run() {
+            final FileChannel channel = fileRegion.channel();
+            final int chunkSize = (int) min(CHUNK_SIZE, end - position);
+            final ByteBuf byteBuf = ctx.alloc().directBuffer(chunkSize);
+            try {
+                while (byteBuf.writerIndex() < chunkSize) {
+                    final int read = byteBuf.writeBytes(channel, position, chunkSize - byteBuf.writerIndex());
+                    if (read < 0) {
+                        throw new EOFException("Unexpected end of " + fileRegion + " at position " + position);
+                    }
+                    position += read;
+                }
+            } catch (Throwable cause) {
+                byteBuf.release();
+                fail(cause);
+                return;
+            }
+            // Flush every chunk, the flush strategy of the connection has already been applied to the file region.
+            ctx.writeAndFlush(new DefaultHttp2DataFrame(byteBuf, false)).addListener(this);
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (future.isSuccess()) {
+                readNextChunk();
+            } else {
+                // The stream has been reset or closed, e.g. because the write was cancelled.
+                fail(future.cause());
+            }
+        }
+
+        private void fail(Throwable cause) {
+            closeQuietly(fileRegion.channel());
+            if (promise.tryFailure(cause)) {
+                ctx.close();
+            }
+            if (ctx.executor().inEventLoop()) {
+                fileRegionWritten(ctx);
+            } else {
+                ctx.executor().execute(() -> fileRegionWritten(ctx));
+            }
         }
     }
 
@@ -96,10 +235,11 @@ abstract class AbstractH2DuplexHandler extends ChannelDuplexHandler {
         try {
             Http2DataFrame dataFrame = (Http2DataFrame) msg;
             if (dataFrame.content().isReadable()) {
-                // Copy to unpooled memory before passing to the user
-                Buffer data = allocator.newBuffer(dataFrame.content().readableBytes());
-                ByteBuf nettyData = toByteBuf(data);
+                // Copy to unpooled memory before passing to the user. The BufferAllocator maybe pooled, so we use the
+                // unpooled ByteBufAllocator associated with it.
+                ByteBuf nettyData = getByteBufAllocator(allocator).buffer(dataFrame.content().readableBytes());
                 nettyData.writeBytes(dataFrame.content());
+                Buffer data = newBufferFrom(nettyData);
                 toRelease = release(dataFrame);
                 ctx.fireChannelRead(data);
             } else {
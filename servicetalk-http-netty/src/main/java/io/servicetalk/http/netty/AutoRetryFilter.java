@@ -28,6 +28,8 @@ import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpRequester;
 import io.servicetalk.http.api.StreamingHttpResponse;
 
+import static io.servicetalk.http.utils.RepeatablePayloadBody.withRepeatablePayloadBody;
+
 /**
  * A {@link StreamingHttpClient} filter that will account for transient failures introduced by a {@link LoadBalancer}
  * not being ready for {@link #request(HttpExecutionStrategy, StreamingHttpRequest)} and retry/delay requests until the
@@ -52,6 +54,7 @@ final class AutoRetryFilter extends StreamingHttpClientFilter {
     protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
                                                     final HttpExecutionStrategy strategy,
                                                     final StreamingHttpRequest request) {
-        return delegate.request(strategy, request).retryWhen(retryStrategy);
+        // Every retry writes the payload body again.
+        return withRepeatablePayloadBody(request, req -> delegate.request(strategy, req).retryWhen(retryStrategy));
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.Date;
+
+import static io.servicetalk.http.api.HttpHeaderNames.DATE;
+import static java.lang.System.arraycopy;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Encoded <a href="https://tools.ietf.org/html/rfc7231#section-7.1.1.2">Date</a> header field which is formatted at
+ * most once per second per thread (typically an event loop), rather than for every response.
+ */
+final class CachedDateHeader {
+    private static final FastThreadLocal<CachedDateHeader> CACHE = new FastThreadLocal<CachedDateHeader>() {
+        @Override
+        protected CachedDateHeader initialValue() {
+            return new CachedDateHeader();
+        }
+    };
+    private static final byte[] PREFIX = (DATE + ": ").getBytes(US_ASCII);
+    // IMF-fixdate has a fixed length, e.g. "Sun, 06 Nov 1994 08:49:37 GMT"
+    private static final int IMF_FIXDATE_LENGTH = 29;
+
+    private final byte[] encoded = new byte[PREFIX.length + IMF_FIXDATE_LENGTH + 2];
+    private long epochSecond = Long.MIN_VALUE;
+
+    private CachedDateHeader() {
+        arraycopy(PREFIX, 0, encoded, 0, PREFIX.length);
+        encoded[encoded.length - 2] = '\r';
+        encoded[encoded.length - 1] = '\n';
+    }
+
+    /**
+     * Write the {@code date} header field for the current second, including the trailing {@code CRLF}.
+     *
+     * @param byteBuf The {@link ByteBuf} to write to.
+     */
+    static void writeTo(final ByteBuf byteBuf) {
+        byteBuf.writeBytes(CACHE.get().encoded(currentTimeMillis()));
+    }
+
+    private byte[] encoded(final long nowMillis) {
+        final long nowSecond = MILLISECONDS.toSeconds(nowMillis);
+        if (nowSecond != epochSecond) {
+            epochSecond = nowSecond;
+            final String date = DateFormatter.format(new Date(SECONDS.toMillis(nowSecond)));
+            assert date.length() == IMF_FIXDATE_LENGTH;
+            for (int i = 0; i < IMF_FIXDATE_LENGTH; ++i) {
+                encoded[PREFIX.length + i] = (byte) date.charAt(i);
+            }
+        }
+        return encoded;
+    }
+}
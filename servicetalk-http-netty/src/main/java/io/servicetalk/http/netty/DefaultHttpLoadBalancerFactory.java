@@ -18,10 +18,12 @@ package io.servicetalk.http.netty;
 import io.servicetalk.client.api.ConnectionFactory;
 import io.servicetalk.client.api.LoadBalancer;
 import io.servicetalk.client.api.LoadBalancerFactory;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TerminalSignalConsumer;
 import io.servicetalk.http.api.FilterableStreamingHttpConnection;
 import io.servicetalk.http.api.FilterableStreamingHttpLoadBalancedConnection;
 import io.servicetalk.http.api.HttpConnectionContext;
@@ -34,9 +36,16 @@ import io.servicetalk.http.api.HttpRequestMethod;
 import io.servicetalk.http.api.StreamingHttpRequest;
 import io.servicetalk.http.api.StreamingHttpResponse;
 import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.utils.BeforeFinallyHttpOperator;
+import io.servicetalk.loadbalancer.EwmaScoreTracker;
+import io.servicetalk.loadbalancer.P2CLoadBalancer.P2CLoadBalancerFactory;
 import io.servicetalk.loadbalancer.RoundRobinLoadBalancer.RoundRobinLoadBalancerFactory;
 
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Single.defer;
 import static io.servicetalk.http.api.HttpExecutionStrategyInfluencer.defaultStreamingInfluencer;
+import static io.servicetalk.http.api.HttpResponseStatus.StatusClass.SERVER_ERROR_5XX;
 import static io.servicetalk.loadbalancer.RoundRobinLoadBalancer.newRoundRobinFactory;
 import static java.lang.Integer.MAX_VALUE;
 import static java.util.Objects.requireNonNull;
@@ -68,7 +77,10 @@ public final class DefaultHttpLoadBalancerFactory<ResolvedAddress>
     @Override
     public FilterableStreamingHttpLoadBalancedConnection toLoadBalancedConnection(
             final FilterableStreamingHttpConnection connection) {
-        return new DefaultFilterableStreamingHttpLoadBalancedConnection(connection);
+        // P2CLoadBalancer selects based on the score of connections, hence we track the load of every connection.
+        return rawFactory instanceof P2CLoadBalancerFactory ?
+                new DefaultFilterableStreamingHttpLoadBalancedConnection(connection, new EwmaScoreTracker()) :
+                new DefaultFilterableStreamingHttpLoadBalancedConnection(connection, null);
     }
 
     @Override
@@ -127,8 +139,10 @@ public final class DefaultHttpLoadBalancerFactory<ResolvedAddress>
             final HttpExecutionStrategyInfluencer strategyInfluencer;
             if (rawFactory instanceof HttpExecutionStrategyInfluencer) {
                 strategyInfluencer = (HttpExecutionStrategyInfluencer) rawFactory;
-            } else if (rawFactory instanceof RoundRobinLoadBalancerFactory) {
-                strategyInfluencer = strategy -> strategy; // RoundRobinLoadBalancer is non-blocking.
+            } else if (rawFactory instanceof RoundRobinLoadBalancerFactory ||
+                    rawFactory instanceof P2CLoadBalancerFactory) {
+                // RoundRobinLoadBalancer and P2CLoadBalancer are non-blocking.
+                strategyInfluencer = strategy -> strategy;
             } else {
                 // user provided load balancer assumed to be blocking unless it implements
                 // HttpExecutionStrategyInfluencer
@@ -139,17 +153,23 @@ public final class DefaultHttpLoadBalancerFactory<ResolvedAddress>
     }
 
     private static final class DefaultFilterableStreamingHttpLoadBalancedConnection
-            implements FilterableStreamingHttpLoadBalancedConnection {
+            implements FilterableStreamingHttpLoadBalancedConnection, RequestTrackingLoadBalancedConnection {
 
         private final FilterableStreamingHttpConnection delegate;
+        @Nullable
+        private final EwmaScoreTracker scoreTracker;
+        @Nullable
+        private volatile RequestOutcomeListener requestOutcomeListener;
 
-        DefaultFilterableStreamingHttpLoadBalancedConnection(final FilterableStreamingHttpConnection delegate) {
+        DefaultFilterableStreamingHttpLoadBalancedConnection(final FilterableStreamingHttpConnection delegate,
+                                                             @Nullable final EwmaScoreTracker scoreTracker) {
             this.delegate = requireNonNull(delegate);
+            this.scoreTracker = scoreTracker;
         }
 
         @Override
         public int score() {
-            return MAX_VALUE;
+            return scoreTracker == null ? MAX_VALUE : scoreTracker.score();
         }
 
         @Override
@@ -162,10 +182,55 @@ public final class DefaultHttpLoadBalancerFactory<ResolvedAddress>
             return delegate.transportEventStream(eventKey);
         }
 
+        @Override
+        public void requestOutcomeListener(final RequestOutcomeListener listener) {
+            requestOutcomeListener = requireNonNull(listener);
+        }
+
         @Override
         public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
                                                      final StreamingHttpRequest request) {
-            return delegate.request(strategy, request);
+            final EwmaScoreTracker scoreTracker = this.scoreTracker;
+            final Single<StreamingHttpResponse> response = scoreTracker == null ?
+                    delegate.request(strategy, request) : trackScore(scoreTracker, strategy, request);
+            final RequestOutcomeListener listener = requestOutcomeListener;
+            if (listener == null) {
+                return response;
+            }
+            // Errors and 5xx responses indicate an unhealthy address, the payload body is not considered.
+            return response.whenOnSuccess(resp -> {
+                if (resp.status().statusClass() == SERVER_ERROR_5XX) {
+                    listener.onFailure();
+                } else {
+                    listener.onSuccess();
+                }
+            }).whenOnError(__ -> listener.onFailure());
+        }
+
+        private Single<StreamingHttpResponse> trackScore(final EwmaScoreTracker scoreTracker,
+                                                         final HttpExecutionStrategy strategy,
+                                                         final StreamingHttpRequest request) {
+            return defer(() -> {
+                final long startTime = scoreTracker.onRequestStart();
+                return delegate.request(strategy, request)
+                        .liftSync(new BeforeFinallyHttpOperator(new TerminalSignalConsumer() {
+                            @Override
+                            public void onComplete() {
+                                scoreTracker.onRequestEnd(startTime);
+                            }
+
+                            @Override
+                            public void onError(final Throwable throwable) {
+                                scoreTracker.onRequestEnd(startTime);
+                            }
+
+                            @Override
+                            public void cancel() {
+                                scoreTracker.onRequestEnd(startTime);
+                            }
+                        }))
+                        .subscribeShareContext();
+            });
         }
 
         @Override
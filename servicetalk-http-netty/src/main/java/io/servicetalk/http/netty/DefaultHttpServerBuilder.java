@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,12 @@ final class DefaultHttpServerBuilder extends HttpServerBuilder {
         return this;
     }
 
+    @Override
+    public HttpServerBuilder reusePort(final boolean reusePort) {
+        config.tcpConfig().reusePort(reusePort);
+        return this;
+    }
+
     @Override
     public HttpServerSecurityConfigurator secure() {
         return new DefaultHttpServerSecurityConfigurator(securityConfig -> {
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.HttpHeaders;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Map;
+
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.http.api.HttpHeaderNames.CONNECTION;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.TRANSFER_ENCODING;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * An immutable block of <a href="https://tools.ietf.org/html/rfc7230#section-3.2">header fields</a> which is encoded
+ * once and then written to every HTTP/1.x message with a single memory copy.
+ */
+final class EncodedHeaderBlock {
+    private final CharSequence[] names;
+    /**
+     * {@code offsets[i]} is the index of the first byte of the i-th header field in {@link #encoded},
+     * {@code offsets[names.length]} is the length of {@link #encoded}.
+     */
+    private final int[] offsets;
+    private final byte[] encoded;
+
+    /**
+     * Create a new instance.
+     *
+     * @param headers The header fields to encode, a snapshot is taken so later modifications are not visible.
+     * @throws IllegalArgumentException if the header fields are not valid, see {@link #validate(HttpHeaders)}.
+     */
+    EncodedHeaderBlock(final HttpHeaders headers) {
+        validate(headers);
+        final int size = headers.size();
+        names = new CharSequence[size];
+        offsets = new int[size + 1];
+        final byte[][] fields = new byte[size][];
+        int i = 0;
+        int length = 0;
+        for (Map.Entry<CharSequence, CharSequence> header : headers) {
+            names[i] = header.getKey();
+            fields[i] = (header.getKey() + ": " + header.getValue() + "\r\n").getBytes(US_ASCII);
+            offsets[i] = length;
+            length += fields[i].length;
+            ++i;
+        }
+        offsets[size] = length;
+        encoded = new byte[length];
+        for (i = 0; i < size; ++i) {
+            System.arraycopy(fields[i], 0, encoded, offsets[i], fields[i].length);
+        }
+    }
+
+    /**
+     * Validate header fields before they are encoded as a block.
+     * <p>
+     * The block is written without the validation and escaping of regular header fields, so names and values must be
+     * printable ASCII without CR or LF, which would otherwise allow to inject header fields or split the response. The
+     * header fields which frame the message are derived from each response and can't be static.
+     *
+     * @param headers The header fields to validate.
+     * @throws IllegalArgumentException if a name or value contains a character which is not printable ASCII, or if a
+     * {@code content-length}, {@code transfer-encoding} or {@code connection} header field is present.
+     */
+    static void validate(final HttpHeaders headers) {
+        for (Map.Entry<CharSequence, CharSequence> header : headers) {
+            final CharSequence name = header.getKey();
+            if (contentEqualsIgnoreCase(name, CONTENT_LENGTH) || contentEqualsIgnoreCase(name, TRANSFER_ENCODING) ||
+                    contentEqualsIgnoreCase(name, CONNECTION)) {
+                throw new IllegalArgumentException("Static header field " + name +
+                        " is not allowed, it is derived from each message");
+            }
+            validateChars(name, name, false);
+            validateChars(name, header.getValue(), true);
+        }
+    }
+
+    private static void validateChars(final CharSequence name, final CharSequence value, final boolean allowBlank) {
+        if (!allowBlank && value.length() == 0) {
+            throw new IllegalArgumentException("Static header field name must not be empty");
+        }
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            // Visible ASCII, and for values also space and horizontal tab.
+            if ((c < 0x21 || c > 0x7e) && (!allowBlank || (c != ' ' && c != '\t'))) {
+                throw new IllegalArgumentException("Static header field " + name + " contains invalid character 0x" +
+                        Integer.toHexString(c) + " at index " + i + " of " + (allowBlank ? "its value" : "its name"));
+            }
+        }
+    }
+
+    /**
+     * Write the header fields of this block which are not present in {@code messageHeaders}.
+     *
+     * @param messageHeaders The {@link HttpHeaders} of the message being encoded. A header field of the message takes
+     * precedence over a header field with the same name in this block.
+     * @param byteBuf The {@link ByteBuf} to write to.
+     */
+    void writeTo(final HttpHeaders messageHeaders, final ByteBuf byteBuf) {
+        int i = 0;
+        while (i < names.length && !messageHeaders.contains(names[i])) {
+            ++i;
+        }
+        // Common case: nothing is overridden by the message and the whole block is written at once.
+        byteBuf.writeBytes(encoded, 0, offsets[i]);
+        for (++i; i < names.length; ++i) {
+            if (!messageHeaders.contains(names[i])) {
+                byteBuf.writeBytes(encoded, offsets[i], offsets[i + 1] - offsets[i]);
+            }
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,9 @@
  */
 package io.servicetalk.http.netty;
 
+import io.servicetalk.http.api.EmptyHttpHeaders;
 import io.servicetalk.http.api.HttpClient;
+import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpProtocolConfig;
 
 /**
@@ -87,4 +89,28 @@ public interface H1ProtocolConfig extends HttpProtocolConfig {
      * <a href="https://tools.ietf.org/html/rfc7230#section-4.1.2trailers">trailer fields</a>
      */
     int trailersEncodedSizeEstimate();
+
+    /**
+     * <a href="https://tools.ietf.org/html/rfc7230#section-3.2">Header fields</a> which a server adds to every
+     * response, unless the response already has a header field with the same name.
+     * <p>
+     * These header fields are encoded once and written with a single memory copy for each response.
+     *
+     * @return {@link HttpHeaders} which a server adds to every response
+     */
+    default HttpHeaders staticResponseHeaders() {
+        return EmptyHttpHeaders.INSTANCE;
+    }
+
+    /**
+     * Whether a server adds a <a href="https://tools.ietf.org/html/rfc7231#section-7.1.1.2">Date</a> header field to
+     * every response which does not have one.
+     * <p>
+     * The value is formatted at most once per second for each I/O thread.
+     *
+     * @return {@code true} if a server adds a {@code date} header field to every response which does not have one
+     */
+    default boolean dateResponseHeader() {
+        return false;
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package io.servicetalk.http.netty;
 
 import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.EmptyHttpHeaders;
 import io.servicetalk.http.api.HttpClient;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpHeadersFactory;
@@ -35,6 +36,8 @@ public final class H1ProtocolConfigBuilder {
     private HttpHeadersFactory headersFactory = DefaultHttpHeadersFactory.INSTANCE;
     private int headersEncodedSizeEstimate = 256;
     private int trailersEncodedSizeEstimate = 256;
+    private HttpHeaders staticResponseHeaders = EmptyHttpHeaders.INSTANCE;
+    private boolean dateResponseHeader;
 
     H1ProtocolConfigBuilder() {
     }
@@ -130,6 +133,41 @@ public final class H1ProtocolConfigBuilder {
         return this;
     }
 
+    /**
+     * Sets the <a href="https://tools.ietf.org/html/rfc7230#section-3.2">header fields</a> which a server adds to
+     * every response, unless the response already has a header field with the same name.
+     * <p>
+     * The header fields are copied and encoded once, so static values such as {@code server}, {@code content-type},
+     * CORS or caching header fields don't have to be added to and encoded for each response. Names and values must be
+     * printable ASCII, and the {@code content-length}, {@code transfer-encoding} and {@code connection} header fields
+     * are not allowed since they frame each individual response.
+     *
+     * @param staticResponseHeaders {@link HttpHeaders} which a server adds to every response
+     * @return {@code this}
+     * @throws IllegalArgumentException if a header field is not allowed or contains an invalid character
+     */
+    public H1ProtocolConfigBuilder staticResponseHeaders(final HttpHeaders staticResponseHeaders) {
+        EncodedHeaderBlock.validate(staticResponseHeaders);
+        this.staticResponseHeaders = staticResponseHeaders.isEmpty() ? EmptyHttpHeaders.INSTANCE :
+                DefaultHttpHeadersFactory.INSTANCE.newHeaders().add(staticResponseHeaders);
+        return this;
+    }
+
+    /**
+     * Sets whether a server adds a <a href="https://tools.ietf.org/html/rfc7231#section-7.1.1.2">Date</a> header
+     * field to every response which does not have one.
+     * <p>
+     * The value is formatted at most once per second for each I/O thread.
+     *
+     * @param dateResponseHeader {@code true} to add a {@code date} header field to every response which does not
+     * have one
+     * @return {@code this}
+     */
+    public H1ProtocolConfigBuilder dateResponseHeader(final boolean dateResponseHeader) {
+        this.dateResponseHeader = dateResponseHeader;
+        return this;
+    }
+
     /**
      * Builds {@link H1ProtocolConfig}.
      *
@@ -137,7 +175,8 @@ public final class H1ProtocolConfigBuilder {
      */
     public H1ProtocolConfig build() {
         return new DefaultH1ProtocolConfig(headersFactory, maxPipelinedRequests, maxStartLineLength,
-                maxHeaderFieldLength, headersEncodedSizeEstimate, trailersEncodedSizeEstimate);
+                maxHeaderFieldLength, headersEncodedSizeEstimate, trailersEncodedSizeEstimate, staticResponseHeaders,
+                dateResponseHeader);
     }
 
     private static final class DefaultH1ProtocolConfig implements H1ProtocolConfig {
@@ -148,16 +187,21 @@ public final class H1ProtocolConfigBuilder {
         private final int maxHeaderFieldLength;
         private final int headersEncodedSizeEstimate;
         private final int trailersEncodedSizeEstimate;
+        private final HttpHeaders staticResponseHeaders;
+        private final boolean dateResponseHeader;
 
         DefaultH1ProtocolConfig(final HttpHeadersFactory headersFactory, final int maxPipelinedRequests,
                                 final int maxStartLineLength, final int maxHeaderFieldLength,
-                                final int headersEncodedSizeEstimate, final int trailersEncodedSizeEstimate) {
+                                final int headersEncodedSizeEstimate, final int trailersEncodedSizeEstimate,
+                                final HttpHeaders staticResponseHeaders, final boolean dateResponseHeader) {
             this.headersFactory = headersFactory;
             this.maxPipelinedRequests = maxPipelinedRequests;
             this.maxStartLineLength = maxStartLineLength;
             this.maxHeaderFieldLength = maxHeaderFieldLength;
             this.headersEncodedSizeEstimate = headersEncodedSizeEstimate;
             this.trailersEncodedSizeEstimate = trailersEncodedSizeEstimate;
+            this.staticResponseHeaders = staticResponseHeaders;
+            this.dateResponseHeader = dateResponseHeader;
         }
 
         @Override
@@ -189,5 +233,15 @@ public final class H1ProtocolConfigBuilder {
         public int trailersEncodedSizeEstimate() {
             return trailersEncodedSizeEstimate;
         }
+
+        @Override
+        public HttpHeaders staticResponseHeaders() {
+            return staticResponseHeaders;
+        }
+
+        @Override
+        public boolean dateResponseHeader() {
+            return dateResponseHeader;
+        }
     }
 }
@@ -21,13 +21,17 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http2.DefaultHttp2GoAwayFrame;
+import io.netty.handler.codec.http2.Http2FrameCodec;
 import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
 import io.netty.handler.codec.http2.Http2FrameLogger;
 import io.netty.handler.codec.http2.Http2MultiplexHandler;
 
 import java.util.function.BiPredicate;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_TABLE_SIZE;
 import static io.netty.handler.codec.http2.Http2Error.PROTOCOL_ERROR;
 import static io.netty.handler.codec.http2.Http2FrameCodecBuilder.forClient;
 import static io.netty.handler.logging.LogLevel.TRACE;
@@ -60,6 +64,10 @@ final class H2ClientParentChannelInitializer implements ChannelInitializer {
                 config.headersSensitivityDetector();
         multiplexCodecBuilder.headerSensitivityDetector(headersSensitivityDetector::test);
 
+        if (config.decoderHeaderTableSize() != DEFAULT_HEADER_TABLE_SIZE) {
+            multiplexCodecBuilder.initialSettings().headerTableSize(config.decoderHeaderTableSize());
+        }
+
         final String frameLoggerName = config.frameLoggerName();
         if (frameLoggerName != null) {
             multiplexCodecBuilder.frameLogger(new Http2FrameLogger(TRACE, frameLoggerName));
@@ -67,8 +75,13 @@ final class H2ClientParentChannelInitializer implements ChannelInitializer {
 
         // TODO(scott): more configuration. header validation, settings stream, etc...
 
-        channel.pipeline().addLast(multiplexCodecBuilder.build(),
-                new Http2MultiplexHandler(H2PushStreamHandler.INSTANCE));
+        final Http2FrameCodec codec = multiplexCodecBuilder.build();
+        final ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addLast(codec);
+        if (config.encoderHeaderTableSize() < MAX_HEADER_TABLE_SIZE) {
+            pipeline.addLast(new H2EncoderHeaderTableSizeHandler(codec, config.encoderHeaderTableSize()));
+        }
+        pipeline.addLast(new Http2MultiplexHandler(H2PushStreamHandler.INSTANCE));
     }
 
     @ChannelHandler.Sharable
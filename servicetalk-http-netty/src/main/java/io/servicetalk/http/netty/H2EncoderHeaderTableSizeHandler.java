@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2SettingsAckFrame;
+import io.netty.handler.codec.http2.Http2SettingsFrame;
+
+/**
+ * Limits the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a> used by the encoder
+ * of a {@link Http2FrameCodec} to {@link H2ProtocolConfig#encoderHeaderTableSize()}.
+ * <p>
+ * The encoder adopts the peer's <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">
+ * SETTINGS_HEADER_TABLE_SIZE</a> when the peer's SETTINGS are applied. That happens before the
+ * {@link Http2SettingsFrame} is read if SETTINGS are acknowledged automatically, or when the
+ * {@link Http2SettingsAckFrame} is written otherwise, so the limit is re-applied after both. The encoder signals the
+ * reduced size to the peer at the start of the next header block.
+ */
+final class H2EncoderHeaderTableSizeHandler extends ChannelDuplexHandler {
+    private final Http2FrameCodec codec;
+    private final long maxHeaderTableSize;
+
+    H2EncoderHeaderTableSizeHandler(final Http2FrameCodec codec, final long maxHeaderTableSize) {
+        this.codec = codec;
+        this.maxHeaderTableSize = maxHeaderTableSize;
+    }
+
+    @Override
+    public void handlerAdded(final ChannelHandlerContext ctx) throws Http2Exception {
+        // The encoder starts with the default size until the peer's SETTINGS are received.
+        limitHeaderTableSize();
+    }
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Http2Exception {
+        if (msg instanceof Http2SettingsFrame && ((Http2SettingsFrame) msg).settings().headerTableSize() != null) {
+            limitHeaderTableSize();
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise)
+            throws Http2Exception {
+        ctx.write(msg, promise);
+        if (msg instanceof Http2SettingsAckFrame) {
+            limitHeaderTableSize();
+        }
+    }
+
+    private void limitHeaderTableSize() throws Http2Exception {
+        final Http2HeadersEncoder.Configuration config = codec.encoder().configuration().headersConfiguration();
+        if (config.maxHeaderTableSize() > maxHeaderTableSize) {
+            config.maxHeaderTableSize(maxHeaderTableSize);
+        }
+    }
+}
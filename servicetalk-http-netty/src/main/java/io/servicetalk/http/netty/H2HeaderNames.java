@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.HttpHeaderNames;
+
+import io.netty.util.AsciiString;
+
+import java.lang.reflect.Field;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Modifier.isStatic;
+
+/**
+ * Maps header names to the representation which is cheapest for HTTP/2 to process.
+ * <p>
+ * The {@link HttpHeaderNames} constants are mapped (by identity) to equivalent {@link AsciiString}s, which cache their
+ * hash code and are compared byte-wise. Netty's {@code Http2Headers} and its HPACK encoder hash every name they see
+ * (the latter to find the <a href="https://tools.ietf.org/html/rfc7541#appendix-A">static table</a> index, which
+ * covers most of the {@link HttpHeaderNames} constants), so using the {@link AsciiString} avoids re-hashing the same
+ * well-known names for every message.
+ */
+final class H2HeaderNames {
+    private static final Map<CharSequence, AsciiString> WELL_KNOWN_NAMES = wellKnownNames();
+
+    private H2HeaderNames() {
+        // no instances
+    }
+
+    /**
+     * Get the {@link AsciiString} equivalent of {@code name} if it is one of the {@link HttpHeaderNames} constants.
+     *
+     * @param name The header name.
+     * @return the {@link AsciiString} equivalent of {@code name}, or {@code name} if it is not well-known.
+     */
+    static CharSequence h2Name(final CharSequence name) {
+        final AsciiString wellKnown = WELL_KNOWN_NAMES.get(name);
+        return wellKnown != null ? wellKnown : name;
+    }
+
+    /**
+     * Convert {@code name} to lower case as required by
+     * <a href="https://tools.ietf.org/html/rfc7540#section-8.1.2">RFC 7540, 8.1.2</a>, without copying names which are
+     * already lower case.
+     *
+     * @param name The header name.
+     * @return the lower case representation of {@code name}.
+     */
+    static CharSequence h2LowerCaseName(final CharSequence name) {
+        final AsciiString wellKnown = WELL_KNOWN_NAMES.get(name);
+        if (wellKnown != null) {
+            return wellKnown;
+        }
+        if (name instanceof AsciiString) {
+            // Returns the same instance if there are no upper case characters.
+            return ((AsciiString) name).toLowerCase();
+        }
+        for (int i = 0; i < name.length(); ++i) {
+            final char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return new AsciiString(name).toLowerCase();
+            }
+        }
+        return name;
+    }
+
+    private static Map<CharSequence, AsciiString> wellKnownNames() {
+        final Map<CharSequence, AsciiString> names = new IdentityHashMap<>(128);
+        for (Field field : HttpHeaderNames.class.getFields()) {
+            if (!isStatic(field.getModifiers()) || !isPublic(field.getModifiers()) ||
+                    field.getType() != CharSequence.class) {
+                continue;
+            }
+            final CharSequence name;
+            try {
+                name = (CharSequence) field.get(null);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to access " + field, e);
+            }
+            names.put(name, AsciiString.cached(name.toString()));
+        }
+        return names;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,9 @@ import java.time.Duration;
 import java.util.function.BiPredicate;
 import javax.annotation.Nullable;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_TABLE_SIZE;
+
 /**
  * Configuration for <a href="https://tools.ietf.org/html/rfc7540">HTTP/2</a> protocol.
  *
@@ -45,6 +48,28 @@ public interface H2ProtocolConfig extends HttpProtocolConfig {
      */
     BiPredicate<CharSequence, CharSequence> headersSensitivityDetector();
 
+    /**
+     * Maximum size of the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a> used to
+     * decode header blocks received from the peer, advertised as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_HEADER_TABLE_SIZE</a>.
+     *
+     * @return maximum size in octets of the dynamic table used to decode headers
+     */
+    default long decoderHeaderTableSize() {
+        return DEFAULT_HEADER_TABLE_SIZE;
+    }
+
+    /**
+     * Maximum size of the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a> used to
+     * encode header blocks sent to the peer. The size actually used is the minimum of this value and the peer's
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_HEADER_TABLE_SIZE</a>.
+     *
+     * @return maximum size in octets of the dynamic table used to encode headers
+     */
+    default long encoderHeaderTableSize() {
+        return MAX_HEADER_TABLE_SIZE;
+    }
+
     /**
      * Logger name for HTTP/2 frames.
      * <p>
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,8 @@ import org.slf4j.event.Level;
 import java.util.function.BiPredicate;
 import javax.annotation.Nullable;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_TABLE_SIZE;
 import static io.servicetalk.http.netty.H2HeadersFactory.DEFAULT_SENSITIVITY_DETECTOR;
 import static io.servicetalk.http.netty.H2KeepAlivePolicies.DISABLE_KEEP_ALIVE;
 import static java.util.Objects.requireNonNull;
@@ -37,6 +39,8 @@ public final class H2ProtocolConfigBuilder {
 
     private HttpHeadersFactory headersFactory = H2HeadersFactory.INSTANCE;
     private BiPredicate<CharSequence, CharSequence> headersSensitivityDetector = DEFAULT_SENSITIVITY_DETECTOR;
+    private long decoderHeaderTableSize = DEFAULT_HEADER_TABLE_SIZE;
+    private long encoderHeaderTableSize = MAX_HEADER_TABLE_SIZE;
     @Nullable
     private String frameLoggerName;
     @Nullable
@@ -72,6 +76,39 @@ public final class H2ProtocolConfigBuilder {
         return this;
     }
 
+    /**
+     * Sets the maximum size of the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a>
+     * used to decode header blocks received from the peer. This is advertised to the peer as
+     * <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_HEADER_TABLE_SIZE</a>, which bounds the
+     * dynamic table the peer's encoder may use.
+     * <p>
+     * A larger table lets the peer send repeated non-static headers (e.g. {@code user-agent}, {@code authorization},
+     * custom metadata) as indices at the cost of memory per connection, {@code 0} disables the dynamic table.
+     *
+     * @param size maximum size in octets, between {@code 0} and {@code 2^32 - 1}. Defaults to {@code 4096}.
+     * @return {@code this}
+     */
+    public H2ProtocolConfigBuilder decoderHeaderTableSize(final long size) {
+        this.decoderHeaderTableSize = validateHeaderTableSize(size);
+        return this;
+    }
+
+    /**
+     * Sets the maximum size of the <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">HPACK dynamic table</a>
+     * used to encode header blocks sent to the peer. The size actually used is the minimum of this value and the
+     * peer's <a href="https://tools.ietf.org/html/rfc7540#section-6.5.2">SETTINGS_HEADER_TABLE_SIZE</a>.
+     * <p>
+     * Lowering the size reduces the memory used per connection and the work spent on maintaining the dynamic table,
+     * {@code 0} restricts the encoder to the static table and literals.
+     *
+     * @param size maximum size in octets, between {@code 0} and {@code 2^32 - 1}. Defaults to the peer's setting.
+     * @return {@code this}
+     */
+    public H2ProtocolConfigBuilder encoderHeaderTableSize(final long size) {
+        this.encoderHeaderTableSize = validateHeaderTableSize(size);
+        return this;
+    }
+
     /**
      * Enables a logger for HTTP/2 frames.
      * <p>
@@ -103,14 +140,24 @@ public final class H2ProtocolConfigBuilder {
      * @return {@link H2ProtocolConfig}
      */
     public H2ProtocolConfig build() {
-        return new DefaultH2ProtocolConfig(headersFactory, headersSensitivityDetector, frameLoggerName,
-                keepAlivePolicy);
+        return new DefaultH2ProtocolConfig(headersFactory, headersSensitivityDetector, decoderHeaderTableSize,
+                encoderHeaderTableSize, frameLoggerName, keepAlivePolicy);
+    }
+
+    private static long validateHeaderTableSize(final long size) {
+        if (size < 0 || size > MAX_HEADER_TABLE_SIZE) {
+            throw new IllegalArgumentException("headerTableSize: " + size + " (expected 0-" + MAX_HEADER_TABLE_SIZE +
+                    ")");
+        }
+        return size;
     }
 
     private static final class DefaultH2ProtocolConfig implements H2ProtocolConfig {
 
         private final HttpHeadersFactory headersFactory;
         private final BiPredicate<CharSequence, CharSequence> headersSensitivityDetector;
+        private final long decoderHeaderTableSize;
+        private final long encoderHeaderTableSize;
         @Nullable
         private final String frameLoggerName;
         @Nullable
@@ -118,9 +165,12 @@ public final class H2ProtocolConfigBuilder {
 
         DefaultH2ProtocolConfig(final HttpHeadersFactory headersFactory,
                                 final BiPredicate<CharSequence, CharSequence> headersSensitivityDetector,
+                                final long decoderHeaderTableSize, final long encoderHeaderTableSize,
                                 @Nullable final String frameLogger, @Nullable final KeepAlivePolicy keepAlivePolicy) {
             this.headersFactory = headersFactory;
             this.headersSensitivityDetector = headersSensitivityDetector;
+            this.decoderHeaderTableSize = decoderHeaderTableSize;
+            this.encoderHeaderTableSize = encoderHeaderTableSize;
             this.frameLoggerName = frameLogger;
             this.keepAlivePolicy = keepAlivePolicy;
         }
@@ -135,6 +185,16 @@ public final class H2ProtocolConfigBuilder {
             return headersSensitivityDetector;
         }
 
+        @Override
+        public long decoderHeaderTableSize() {
+            return decoderHeaderTableSize;
+        }
+
+        @Override
+        public long encoderHeaderTableSize() {
+            return encoderHeaderTableSize;
+        }
+
         @Nullable
         @Override
         public String frameLoggerName() {
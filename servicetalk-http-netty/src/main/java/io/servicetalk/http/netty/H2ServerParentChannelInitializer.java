@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,16 @@ package io.servicetalk.http.netty;
 import io.servicetalk.transport.netty.internal.ChannelInitializer;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http2.Http2FrameCodec;
 import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
 import io.netty.handler.codec.http2.Http2FrameLogger;
 import io.netty.handler.codec.http2.Http2MultiplexHandler;
 
 import java.util.function.BiPredicate;
 
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.MAX_HEADER_TABLE_SIZE;
 import static io.netty.handler.codec.http2.Http2FrameCodecBuilder.forServer;
 import static io.netty.handler.logging.LogLevel.TRACE;
 
@@ -51,6 +55,10 @@ final class H2ServerParentChannelInitializer implements ChannelInitializer {
                 config.headersSensitivityDetector();
         multiplexCodecBuilder.headerSensitivityDetector(headersSensitivityDetector::test);
 
+        if (config.decoderHeaderTableSize() != DEFAULT_HEADER_TABLE_SIZE) {
+            multiplexCodecBuilder.initialSettings().headerTableSize(config.decoderHeaderTableSize());
+        }
+
         final String frameLoggerName = config.frameLoggerName();
         if (frameLoggerName != null) {
             multiplexCodecBuilder.frameLogger(new Http2FrameLogger(TRACE, frameLoggerName));
@@ -58,6 +66,12 @@ final class H2ServerParentChannelInitializer implements ChannelInitializer {
 
         // TODO(scott): more configuration. header validation, settings stream, etc...
 
-        channel.pipeline().addLast(multiplexCodecBuilder.build(), new Http2MultiplexHandler(streamChannelInitializer));
+        final Http2FrameCodec codec = multiplexCodecBuilder.build();
+        final ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addLast(codec);
+        if (config.encoderHeaderTableSize() < MAX_HEADER_TABLE_SIZE) {
+            pipeline.addLast(new H2EncoderHeaderTableSizeHandler(codec, config.encoderHeaderTableSize()));
+        }
+        pipeline.addLast(new Http2MultiplexHandler(streamChannelInitializer));
     }
 }
@@ -138,6 +138,7 @@ final class H2ServerParentConnectionContext extends H2ParentConnectionContext im
                                 // Netty To ServiceTalk type conversion
                                 streamChannel.pipeline().addLast(new H2ToStH1ServerDuplexHandler(
                                         connection.executionContext().bufferAllocator(),
+                                        connection.executionContext().executor(),
                                         h2ServerConfig.headersFactory(),
                                         PROTOCOL_OUTBOUND_CLOSE_HANDLER));
 
@@ -17,6 +17,8 @@ package io.servicetalk.http.netty;
 
 import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpHeadersFactory;
 import io.servicetalk.http.api.HttpRequestMethod;
@@ -50,15 +52,20 @@ import static io.servicetalk.http.netty.HeaderUtils.clientMaySendPayloadBodyFor;
 import static io.servicetalk.http.netty.HeaderUtils.shouldAddZeroContentLength;
 
 final class H2ToStH1ServerDuplexHandler extends AbstractH2DuplexHandler {
+    private final Executor executor;
     private boolean readHeaders;
 
-    H2ToStH1ServerDuplexHandler(BufferAllocator allocator, HttpHeadersFactory headersFactory,
+    H2ToStH1ServerDuplexHandler(BufferAllocator allocator, Executor executor, HttpHeadersFactory headersFactory,
                                 CloseHandler closeHandler) {
         super(allocator, headersFactory, closeHandler);
+        this.executor = executor;
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (deferWrite(msg, promise)) {
+            return;
+        }
         if (msg instanceof HttpResponseMetaData) {
             HttpResponseMetaData metaData = (HttpResponseMetaData) msg;
             HttpHeaders h1Headers = metaData.headers();
@@ -67,6 +74,8 @@ final class H2ToStH1ServerDuplexHandler extends AbstractH2DuplexHandler {
             ctx.write(new DefaultHttp2HeadersFrame(h2Headers, false), promise);
         } else if (msg instanceof Buffer) {
             writeBuffer(ctx, msg, promise);
+        } else if (msg instanceof HttpFileRegion) {
+            writeFileRegion(ctx, (HttpFileRegion) msg, executor, promise);
         } else if (msg instanceof HttpHeaders) {
             writeTrailers(ctx, msg, promise);
         } else {
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import static io.servicetalk.http.api.HttpHeaderNames.COOKIE;
 import static io.servicetalk.http.api.HttpHeaderNames.TRANSFER_ENCODING;
 import static io.servicetalk.http.api.HttpHeaderNames.UPGRADE;
 import static io.servicetalk.http.api.HttpHeaderValues.KEEP_ALIVE;
+import static io.servicetalk.http.netty.H2HeaderNames.h2LowerCaseName;
 import static io.servicetalk.http.netty.HeaderUtils.indexOf;
 
 final class H2ToStH1Utils {
@@ -171,7 +172,7 @@ final class H2ToStH1Utils {
         for (Map.Entry<CharSequence, CharSequence> h1Entry : h1Headers) {
             // header field names MUST be converted to lowercase prior to their encoding in HTTP/2
             // https://tools.ietf.org/html/rfc7540#section-8.1.2
-            http2Headers.add(h1Entry.getKey().toString().toLowerCase(), h1Entry.getValue());
+            http2Headers.add(h2LowerCaseName(h1Entry.getKey()), h1Entry.getValue());
         }
         return http2Headers;
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import io.servicetalk.buffer.api.Buffer;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.http.api.CharSequences;
 import io.servicetalk.http.api.EmptyHttpHeaders;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpMetaData;
 import io.servicetalk.http.api.HttpRequestMethod;
@@ -125,15 +126,15 @@ final class HeaderUtils {
         return setContentLength(response, response.payloadBodyAndTrailers(), HeaderUtils::updateResponseContentLength);
     }
 
-    private static void updateRequestContentLengthNonZero(final int contentLength, final HttpHeaders headers) {
+    private static void updateRequestContentLengthNonZero(final long contentLength, final HttpHeaders headers) {
         if (contentLength > 0) {
-            headers.set(CONTENT_LENGTH, Integer.toString(contentLength));
+            headers.set(CONTENT_LENGTH, Long.toString(contentLength));
         }
     }
 
-    private static void updateRequestContentLength(final int contentLength, final HttpHeaders headers) {
+    private static void updateRequestContentLength(final long contentLength, final HttpHeaders headers) {
         assert contentLength >= 0;
-        headers.set(CONTENT_LENGTH, Integer.toString(contentLength));
+        headers.set(CONTENT_LENGTH, Long.toString(contentLength));
     }
 
     static boolean shouldAddZeroContentLength(final HttpRequestMethod requestMethod) {
@@ -152,13 +153,13 @@ final class HeaderUtils {
         return HEAD.equals(requestMethod);
     }
 
-    private static void updateResponseContentLength(final int contentLength, final HttpHeaders headers) {
-        headers.set(CONTENT_LENGTH, Integer.toString(contentLength));
+    private static void updateResponseContentLength(final long contentLength, final HttpHeaders headers) {
+        headers.set(CONTENT_LENGTH, Long.toString(contentLength));
     }
 
     private static Publisher<Object> setContentLength(final HttpMetaData metadata,
                                                       final Publisher<Object> originalPayloadAndTrailers,
-                                                      final BiIntConsumer<HttpHeaders> contentLengthUpdater) {
+                                                      final BiLongConsumer<HttpHeaders> contentLengthUpdater) {
         return originalPayloadAndTrailers.collect(() -> null, (reduction, item) -> {
             if (reduction == null) {
                 // avoid allocating a list if the Publisher emits only a single Buffer
@@ -176,7 +177,7 @@ final class HeaderUtils {
             items.add(item);
             return items;
         }).flatMapPublisher(reduction -> {
-            int contentLength = 0;
+            long contentLength = 0;
             final Publisher<Object> flatRequest;
             if (reduction == null) {
                 flatRequest = from(metadata, EmptyHttpHeaders.INSTANCE);
@@ -190,6 +191,9 @@ final class HeaderUtils {
                 final Buffer buffer = (Buffer) reduction;
                 contentLength = buffer.readableBytes();
                 flatRequest = from(metadata, buffer, EmptyHttpHeaders.INSTANCE);
+            } else if (reduction instanceof HttpFileRegion) {
+                contentLength = calculateContentLength(reduction);
+                flatRequest = from(metadata, reduction, EmptyHttpHeaders.INSTANCE);
             } else if (reduction instanceof HttpHeaders) {
                 flatRequest = from(metadata, reduction);
             } else {
@@ -200,11 +204,13 @@ final class HeaderUtils {
         });
     }
 
-    static int calculateContentLength(Object item) {
-        // TODO(scott): add support for file region
+    static long calculateContentLength(Object item) {
         if (item instanceof Buffer) {
             return calculateContentLength((Buffer) item);
         }
+        if (item instanceof HttpFileRegion) {
+            return ((HttpFileRegion) item).count();
+        }
         throw new IllegalArgumentException("Unknown object " + item + " found as payload");
     }
 
@@ -245,7 +251,7 @@ final class HeaderUtils {
     }
 
     @FunctionalInterface
-    private interface BiIntConsumer<T> {
-        void apply(int contentLength, T headers);
+    private interface BiLongConsumer<T> {
+        void apply(long contentLength, T headers);
     }
 }
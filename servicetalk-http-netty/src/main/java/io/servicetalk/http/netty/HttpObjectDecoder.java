@@ -58,7 +58,6 @@ import static io.netty.handler.codec.http.HttpConstants.CR;
 import static io.netty.handler.codec.http.HttpConstants.HT;
 import static io.netty.handler.codec.http.HttpConstants.LF;
 import static io.netty.handler.codec.http.HttpConstants.SP;
-import static io.netty.util.ByteProcessor.FIND_LF;
 import static io.servicetalk.buffer.netty.BufferUtils.newBufferFrom;
 import static io.servicetalk.http.api.CharSequences.emptyAsciiString;
 import static io.servicetalk.http.api.CharSequences.newAsciiString;
@@ -105,7 +104,6 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
         }
         throw newIllegalCharacter(value);
     };
-    private static final ByteProcessor FIND_COLON = value -> value != COLON;
     private static final ByteProcessor FIND_FIELD_VALUE = value -> {
         if (isWS(value)) {
             return true;
@@ -586,7 +584,7 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
         final int nonControlIndex = lfIndex - 2;
         final int nameStart = buffer.readerIndex();
         // Other checks will be done by header validator if enabled by users
-        final int nameEnd = buffer.forEachByte(nameStart, nonControlIndex - nameStart + 1, FIND_COLON);
+        final int nameEnd = indexOf(buffer, nameStart, nonControlIndex + 1, COLON);
         if (nameEnd < 0) {
             throw new IllegalArgumentException("Unable to find end of header name");
         }
@@ -594,8 +592,12 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
             throw new IllegalArgumentException("Empty header name");
         }
 
-        // We assume the allocator will not leak memory, and so we retain + slice to avoid copying data.
-        final CharSequence name = newAsciiString(newBufferFrom(buffer.retainedSlice(nameStart, nameEnd - nameStart)));
+        // Well-known names are shared constants, otherwise we assume the allocator will not leak memory, and so we
+        // retain + slice to avoid copying data.
+        CharSequence name = WellKnownHeaderNames.find(buffer, nameStart, nameEnd - nameStart);
+        if (name == null) {
+            name = newAsciiString(newBufferFrom(buffer.retainedSlice(nameStart, nameEnd - nameStart)));
+        }
         final int valueStart;
         if (nameEnd >= nonControlIndex || (valueStart =
                 buffer.forEachByte(nameEnd + 1, nonControlIndex - nameEnd, FIND_FIELD_VALUE)) < 0) {
@@ -748,10 +750,38 @@ abstract class HttpObjectDecoder<T extends HttpMetaData> extends ByteToMessageDe
     }
 
     private static int findLF(final ByteBuf buffer, final int fromIndex, final int toIndex) {
-        if (fromIndex >= toIndex) {
-            return -1;
+        return indexOf(buffer, fromIndex, toIndex, LF);
+    }
+
+    /**
+     * Find the first occurrence of {@code value} in {@code buffer}, reading 8 bytes at a time
+     * (<a href="https://en.wikipedia.org/wiki/SWAR">SWAR</a>) instead of visiting each byte.
+     *
+     * @param buffer The buffer to search.
+     * @param fromIndex The first index to search (inclusive).
+     * @param toIndex The last index to search (exclusive).
+     * @param value The byte to find.
+     * @return the index of the first occurrence of {@code value} or {@code -1} if not found.
+     */
+    static int indexOf(final ByteBuf buffer, final int fromIndex, final int toIndex, final byte value) {
+        final long pattern = (value & 0xFFL) * 0x0101010101010101L;
+        int i = fromIndex;
+        for (final int longEnd = toIndex - Long.BYTES; i <= longEnd; i += Long.BYTES) {
+            // ByteBuf#getLong is big endian, so the lowest index is the most significant byte. Bytes which match the
+            // pattern become 0x00, the high bit of each 0x00 byte is set in the mask without any false positives.
+            final long input = buffer.getLong(i) ^ pattern;
+            final long tmp = (input & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL;
+            final long mask = ~(tmp | input | 0x7F7F7F7F7F7F7F7FL);
+            if (mask != 0) {
+                return i + (Long.numberOfLeadingZeros(mask) >>> 3);
+            }
         }
-        return buffer.forEachByte(fromIndex, toIndex - fromIndex, FIND_LF);
+        for (; i < toIndex; ++i) {
+            if (buffer.getByte(i) == value) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     static void splitInitialLineError() {
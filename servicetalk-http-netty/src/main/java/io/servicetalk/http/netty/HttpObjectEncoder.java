@@ -31,17 +31,27 @@
 package io.servicetalk.http.netty;
 
 import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.http.api.HttpFileRegion;
 import io.servicetalk.http.api.HttpHeaders;
 import io.servicetalk.http.api.HttpMetaData;
 import io.servicetalk.transport.netty.internal.CloseHandler;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.concurrent.PromiseCombiner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Map;
 
 import static io.netty.buffer.ByteBufUtil.writeMediumBE;
@@ -56,6 +66,8 @@ import static io.netty.handler.codec.http.HttpConstants.LF;
 import static io.netty.handler.codec.http.HttpConstants.SP;
 import static io.netty.util.internal.StringUtil.simpleClassName;
 import static io.servicetalk.buffer.netty.BufferUtils.newBufferFrom;
+import static io.servicetalk.buffer.netty.BufferUtils.releaseIfPooled;
+import static io.servicetalk.buffer.netty.BufferUtils.retainForWrite;
 import static io.servicetalk.buffer.netty.BufferUtils.toByteBufNoThrow;
 import static io.servicetalk.http.api.CharSequences.unwrapBuffer;
 import static io.servicetalk.http.api.HeaderUtils.isTransferEncodingChunked;
@@ -66,6 +78,7 @@ import static java.lang.Math.max;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 
 abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutboundHandlerAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpObjectEncoder.class);
     static final int CRLF_SHORT = (CR << 8) | LF;
     private static final int ZERO_CRLF_MEDIUM = ('0' << 16) | CRLF_SHORT;
     private static final byte[] ZERO_CRLF_CRLF = {'0', CR, LF, CR, LF};
@@ -77,6 +90,7 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
     private static final float TRAILERS_WEIGHT_NEW = HEADERS_WEIGHT_NEW;
     private static final float TRAILERS_WEIGHT_HISTORICAL = HEADERS_WEIGHT_HISTORICAL;
     private static final int COLON_AND_SPACE_SHORT = (COLON << 8) | SP;
+    private static final int FILE_CHUNK_SIZE = 8192;
     private static final int ST_INIT = 0;
     private static final int ST_CONTENT_NON_CHUNK = 1;
     private static final int ST_CONTENT_CHUNK = 2;
@@ -135,6 +149,7 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
             sanitizeHeadersBeforeEncode(metaData, state == ST_CONTENT_ALWAYS_EMPTY);
 
             encodeHeaders(metaData.headers(), byteBuf, stBuf);
+            encodeAdditionalHeaders(metaData, byteBuf);
             writeShortBE(byteBuf, CRLF_SHORT);
             closeHandler.protocolPayloadBeginOutbound(ctx);
             if (shouldClose(metaData)) {
@@ -153,10 +168,12 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
                 // See https://github.com/netty/netty/issues/2983 for more information.
                 // We can directly write EMPTY_BUFFER here because there is no need to worry about the buffer being
                 // already released.
+                releaseIfPooled(stBuffer);
                 ctx.write(EMPTY_BUFFER, promise);
             } else {
                 switch (state) {
                     case ST_INIT:
+                        releaseIfPooled(stBuffer);
                         throw new IllegalStateException("unexpected message type: " + simpleClassName(msg));
                     case ST_CONTENT_NON_CHUNK:
                         final long contentLength = calculateContentLength(stBuffer);
@@ -165,17 +182,18 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
                             break;
                         }
 
-                        // fall-through!
+                        // fall through
                     case ST_CONTENT_ALWAYS_EMPTY:
                         // Need to produce some output otherwise an IllegalStateException will be thrown as we did
                         // not write anything Its ok to just write an EMPTY_BUFFER as if there are reference count
                         // issues these will be propagated as the caller of the encodeAndRetain(...) method will
                         // release the original buffer. Writing an empty buffer will not actually write anything on
                         // the wire, so if there is a user error with msg it will not be visible externally
+                        releaseIfPooled(stBuffer);
                         ctx.write(EMPTY_BUFFER, promise);
                         break;
                     case ST_CONTENT_CHUNK:
-                        PromiseCombiner promiseCombiner = new PromiseCombiner();
+                        PromiseCombiner promiseCombiner = new PromiseCombiner(ctx.executor());
                         encodeChunkedContent(ctx, stBuffer, calculateContentLength(stBuffer), promiseCombiner);
                         promiseCombiner.finish(promise);
                         break;
@@ -183,6 +201,39 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
                         throw new Error();
                 }
             }
+        } else if (msg instanceof HttpFileRegion) {
+            final HttpFileRegion fileRegion = (HttpFileRegion) msg;
+            switch (state) {
+                case ST_INIT:
+                    closeQuietly(fileRegion.channel());
+                    throw new IllegalStateException("unexpected message type: " + simpleClassName(msg));
+                case ST_CONTENT_NON_CHUNK:
+                    if (fileRegion.count() > 0) {
+                        writeFileRegion(ctx, fileRegion, promise);
+                    } else {
+                        closeQuietly(fileRegion.channel());
+                        ctx.write(EMPTY_BUFFER, promise);
+                    }
+                    break;
+                case ST_CONTENT_ALWAYS_EMPTY:
+                    closeQuietly(fileRegion.channel());
+                    ctx.write(EMPTY_BUFFER, promise);
+                    break;
+                case ST_CONTENT_CHUNK:
+                    if (fileRegion.count() > 0) {
+                        PromiseCombiner promiseCombiner = new PromiseCombiner(ctx.executor());
+                        promiseCombiner.add(ctx.write(encodeChunkHeader(ctx, fileRegion.count())));
+                        promiseCombiner.add(writeFileRegion(ctx, fileRegion, ctx.newPromise()));
+                        promiseCombiner.add(ctx.write(CRLF_BUF.duplicate()));
+                        promiseCombiner.finish(promise);
+                    } else {
+                        closeQuietly(fileRegion.channel());
+                        ctx.write(EMPTY_BUFFER, promise);
+                    }
+                    break;
+                default:
+                    throw new Error();
+            }
         } else if (msg instanceof HttpHeaders) {
             closeHandler.protocolPayloadEndOutbound(ctx);
             promise.addListener(f -> {
@@ -233,6 +284,15 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
      */
     protected abstract void encodeInitialLine(Buffer buf, T message);
 
+    /**
+     * Encode header fields which are not part of {@link HttpMetaData#headers()}, after the headers of the message.
+     * @param message The message being encoded.
+     * @param byteBuf The {@link ByteBuf} to encode to.
+     */
+    protected void encodeAdditionalHeaders(@SuppressWarnings("unused") T message,
+                                           @SuppressWarnings("unused") ByteBuf byteBuf) {
+    }
+
     /**
      * Encode the {@link HttpHeaders} into a {@link ByteBuf}.
      */
@@ -254,11 +314,7 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
     private static void encodeChunkedContent(ChannelHandlerContext ctx, Buffer msg, long contentLength,
                                              PromiseCombiner promiseCombiner) {
         if (contentLength > 0) {
-            String lengthHex = toHexString(contentLength);
-            ByteBuf buf = ctx.alloc().directBuffer(lengthHex.length() + 2);
-            buf.writeCharSequence(lengthHex, US_ASCII);
-            writeShortBE(buf, CRLF_SHORT);
-            promiseCombiner.add(ctx.write(buf));
+            promiseCombiner.add(ctx.write(encodeChunkHeader(ctx, contentLength)));
             promiseCombiner.add(ctx.write(encodeAndRetain(msg)));
             promiseCombiner.add(ctx.write(CRLF_BUF.duplicate()));
         } else {
@@ -269,6 +325,49 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
         }
     }
 
+    private static ByteBuf encodeChunkHeader(ChannelHandlerContext ctx, long contentLength) {
+        String lengthHex = toHexString(contentLength);
+        ByteBuf buf = ctx.alloc().directBuffer(lengthHex.length() + 2);
+        buf.writeCharSequence(lengthHex, US_ASCII);
+        writeShortBE(buf, CRLF_SHORT);
+        return buf;
+    }
+
+    private static ChannelFuture writeFileRegion(ChannelHandlerContext ctx, HttpFileRegion fileRegion,
+                                                 ChannelPromise promise) {
+        final FileChannel channel = fileRegion.channel();
+        if (ctx.pipeline().get(SslHandler.class) == null) {
+            // The content is written as-is, so the transport can use sendfile(2) or FileChannel#transferTo and avoid
+            // copying the file through user space. DefaultFileRegion closes the channel when it is released.
+            ctx.write(new DefaultFileRegion(channel, fileRegion.position(), fileRegion.count()), promise);
+            return promise;
+        }
+        // The content has to be encrypted by the SslHandler, so the file is read in chunks which are written as the
+        // Channel becomes writable.
+        final ChunkedNioFile chunkedFile;
+        try {
+            chunkedFile = new ChunkedNioFile(channel, fileRegion.position(), fileRegion.count(), FILE_CHUNK_SIZE);
+        } catch (Throwable cause) {
+            closeQuietly(channel);
+            promise.setFailure(cause);
+            return promise;
+        }
+        if (ctx.pipeline().get(ChunkedWriteHandler.class) == null) {
+            // Lazily add the handler between this encoder and the SslHandler, it is only required for file regions.
+            ctx.pipeline().addBefore(ctx.name(), null, new ChunkedWriteHandler());
+        }
+        ctx.write(chunkedFile, promise);
+        return promise;
+    }
+
+    static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close {}", channel, e);
+        }
+    }
+
     private void encodeAndWriteTrailers(ChannelHandlerContext ctx, HttpHeaders headers, ChannelPromise promise) {
         if (headers.isEmpty()) {
             ctx.write(ZERO_CRLF_CRLF_BUF.duplicate(), promise);
@@ -335,9 +434,9 @@ abstract class HttpObjectEncoder<T extends HttpMetaData> extends ChannelOutbound
 
     private static ByteBuf encodeAndRetain(Buffer msg) {
         // We still want to retain the objects we encode because otherwise folks may hold on to references of objects
-        // with a 0 reference count and get an IllegalReferenceCountException.
-        // TODO(scott): add support for file region
-        return toByteBuf(msg).retain();
+        // with a 0 reference count and get an IllegalReferenceCountException. Pooled buffers are the exception, their
+        // ownership is transferred to the transport.
+        return retainForWrite(toByteBuf(msg));
     }
 
     static ByteBuf toByteBuf(Buffer buffer) {
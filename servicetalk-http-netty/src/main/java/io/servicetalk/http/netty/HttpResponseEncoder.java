@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,10 +37,14 @@ import io.servicetalk.http.api.HttpResponseMetaData;
 import io.servicetalk.http.api.HttpResponseStatus;
 import io.servicetalk.transport.netty.internal.CloseHandler;
 
+import io.netty.buffer.ByteBuf;
+
 import java.util.Queue;
+import javax.annotation.Nullable;
 
 import static io.netty.handler.codec.http.HttpConstants.SP;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.DATE;
 import static io.servicetalk.http.api.HttpHeaderNames.SEC_WEBSOCKET_VERSION;
 import static io.servicetalk.http.api.HttpHeaderNames.TRANSFER_ENCODING;
 import static io.servicetalk.http.api.HttpRequestMethod.CONNECT;
@@ -54,6 +58,9 @@ import static java.util.Objects.requireNonNull;
 
 final class HttpResponseEncoder extends HttpObjectEncoder<HttpResponseMetaData> {
     private final Queue<HttpRequestMethod> methodQueue;
+    @Nullable
+    private final EncodedHeaderBlock staticHeaders;
+    private final boolean dateHeader;
 
     /**
      * Create a new instance.
@@ -66,8 +73,29 @@ final class HttpResponseEncoder extends HttpObjectEncoder<HttpResponseMetaData>
      */
     HttpResponseEncoder(Queue<HttpRequestMethod> methodQueue, int headersEncodedSizeAccumulator,
                         int trailersEncodedSizeAccumulator, final CloseHandler closeHandler) {
+        this(methodQueue, headersEncodedSizeAccumulator, trailersEncodedSizeAccumulator, null, false,
+                closeHandler);
+    }
+
+    /**
+     * Create a new instance.
+     * @param methodQueue A queue used to enforce HTTP protocol semantics related to request/response lengths.
+     * @param headersEncodedSizeAccumulator Used to calculate an exponential moving average of the encoded size of the
+     * initial line and the headers for a guess for future buffer allocations.
+     * @param trailersEncodedSizeAccumulator  Used to calculate an exponential moving average of the encoded size of
+     * the trailers for a guess for future buffer allocations.
+     * @param staticHeaders Header fields to add to every response, unless the response has a header with the same
+     * name, or {@code null} for none.
+     * @param dateHeader {@code true} to add a cached {@code date} header to every response which doesn't have one.
+     * @param closeHandler the {@link CloseHandler}
+     */
+    HttpResponseEncoder(Queue<HttpRequestMethod> methodQueue, int headersEncodedSizeAccumulator,
+                        int trailersEncodedSizeAccumulator, @Nullable final EncodedHeaderBlock staticHeaders,
+                        final boolean dateHeader, final CloseHandler closeHandler) {
         super(headersEncodedSizeAccumulator, trailersEncodedSizeAccumulator, closeHandler);
         this.methodQueue = requireNonNull(methodQueue);
+        this.staticHeaders = staticHeaders;
+        this.dateHeader = dateHeader;
     }
 
     /**
@@ -97,6 +125,16 @@ final class HttpResponseEncoder extends HttpObjectEncoder<HttpResponseMetaData>
         stBuffer.writeShort(CRLF_SHORT);
     }
 
+    @Override
+    protected void encodeAdditionalHeaders(HttpResponseMetaData message, ByteBuf byteBuf) {
+        if (staticHeaders != null) {
+            staticHeaders.writeTo(message.headers(), byteBuf);
+        }
+        if (dateHeader && !message.headers().contains(DATE)) {
+            CachedDateHeader.writeTo(byteBuf);
+        }
+    }
+
     @Override
     protected void sanitizeHeadersBeforeEncode(HttpResponseMetaData msg, boolean isAlwaysEmpty) {
         // This method has side effects on the methodQueue for the following reasons:
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 package io.servicetalk.http.netty;
 
 import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.MultiplexedLoadBalancedConnection;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection;
 import io.servicetalk.client.api.internal.ReservableRequestConcurrencyController;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.Publisher;
@@ -46,6 +48,13 @@ import static java.util.Objects.requireNonNull;
  */
 final class LoadBalancedStreamingHttpConnection implements FilterableStreamingHttpLoadBalancedConnection,
                    ReservedStreamingHttpConnection, ReservableRequestConcurrencyController,
+                   // Exposes the usage of the limiter, so the LoadBalancer can spread requests across multiplexed
+                   // connections and is notified when a bounded pool has capacity again. The LoadBalancer only
+                   // selects by usage if a connection allows more than one concurrent request, i.e. not for HTTP/1.x
+                   // without pipelining.
+                   MultiplexedLoadBalancedConnection,
+                   // Forwards the outcome of requests observed by the HttpLoadBalancerFactory to the LoadBalancer.
+                   RequestTrackingLoadBalancedConnection,
                    // Since we do not have filters for reserved connection, we rely on the original implementation to
                    // be an influencer hence we can try to correctly delegate when possible.
                    // Reserved connection given to the user will use the correct strategy and influencer chain since
@@ -55,6 +64,7 @@ final class LoadBalancedStreamingHttpConnection implements FilterableStreamingHt
     private final FilterableStreamingHttpLoadBalancedConnection filteredConnection;
     private final HttpExecutionStrategy streamingStrategy;
     private final HttpExecutionStrategyInfluencer strategyInfluencer;
+    private volatile Runnable capacityListener = () -> { };
 
     LoadBalancedStreamingHttpConnection(FilterableStreamingHttpLoadBalancedConnection filteredConnection,
                                         ReservableRequestConcurrencyController limiter,
@@ -79,11 +89,34 @@ final class LoadBalancedStreamingHttpConnection implements FilterableStreamingHt
     @Override
     public void requestFinished() {
         limiter.requestFinished();
+        capacityListener.run();
     }
 
     @Override
     public Completable releaseAsync() {
-        return limiter.releaseAsync();
+        return limiter.releaseAsync().afterOnComplete(() -> capacityListener.run());
+    }
+
+    @Override
+    public int activeRequests() {
+        return limiter.activeRequests();
+    }
+
+    @Override
+    public int maxConcurrentRequests() {
+        return limiter.maxConcurrentRequests();
+    }
+
+    @Override
+    public void capacityListener(final Runnable listener) {
+        capacityListener = requireNonNull(listener);
+    }
+
+    @Override
+    public void requestOutcomeListener(final RequestOutcomeListener listener) {
+        if (filteredConnection instanceof RequestTrackingLoadBalancedConnection) {
+            ((RequestTrackingLoadBalancedConnection) filteredConnection).requestOutcomeListener(listener);
+        }
     }
 
     @Override
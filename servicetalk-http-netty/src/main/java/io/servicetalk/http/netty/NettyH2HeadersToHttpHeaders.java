@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,7 @@ import static io.servicetalk.http.api.HeaderUtils.pathMatches;
 import static io.servicetalk.http.api.HeaderUtils.removeCookiePairs;
 import static io.servicetalk.http.api.HttpHeaderNames.COOKIE;
 import static io.servicetalk.http.api.HttpHeaderNames.SET_COOKIE;
+import static io.servicetalk.http.netty.H2HeaderNames.h2Name;
 import static java.util.Collections.emptyIterator;
 
 final class NettyH2HeadersToHttpHeaders implements HttpHeaders {
@@ -60,28 +61,28 @@ final class NettyH2HeadersToHttpHeaders implements HttpHeaders {
     @Nullable
     @Override
     public CharSequence get(final CharSequence name) {
-        return nettyHeaders.get(name);
+        return nettyHeaders.get(h2Name(name));
     }
 
     @Nullable
     @Override
     public CharSequence getAndRemove(final CharSequence name) {
-        return nettyHeaders.getAndRemove(name);
+        return nettyHeaders.getAndRemove(h2Name(name));
     }
 
     @Override
     public Iterator<? extends CharSequence> valuesIterator(final CharSequence name) {
-        return nettyHeaders.valueIterator(name);
+        return nettyHeaders.valueIterator(h2Name(name));
     }
 
     @Override
     public boolean contains(final CharSequence name, final CharSequence value) {
-        return nettyHeaders.contains(name, value);
+        return nettyHeaders.contains(h2Name(name), value);
     }
 
     @Override
     public boolean containsIgnoreCase(final CharSequence name, final CharSequence value) {
-        return nettyHeaders.contains(name, value, true);
+        return nettyHeaders.contains(h2Name(name), value, true);
     }
 
     @Override
@@ -101,57 +102,64 @@ final class NettyH2HeadersToHttpHeaders implements HttpHeaders {
 
     @Override
     public HttpHeaders add(final CharSequence name, final CharSequence value) {
-        nettyHeaders.add(name, value);
+        nettyHeaders.add(h2Name(name), value);
         return this;
     }
 
     @Override
     public HttpHeaders add(final CharSequence name, final Iterable<? extends CharSequence> values) {
-        nettyHeaders.add(name, values);
+        nettyHeaders.add(h2Name(name), values);
         return this;
     }
 
     @Override
     public HttpHeaders add(final CharSequence name, final CharSequence... values) {
-        nettyHeaders.add(name, values);
+        nettyHeaders.add(h2Name(name), values);
         return this;
     }
 
     @Override
     public HttpHeaders add(final HttpHeaders headers) {
+        if (headers instanceof NettyH2HeadersToHttpHeaders) {
+            final Http2Headers otherNettyHeaders = ((NettyH2HeadersToHttpHeaders) headers).nettyHeaders;
+            if (otherNettyHeaders != nettyHeaders) {
+                nettyHeaders.add(otherNettyHeaders);
+            }
+            return this;
+        }
         for (Entry<CharSequence, CharSequence> entry : headers) {
-            nettyHeaders.add(entry.getKey(), entry.getValue());
+            nettyHeaders.add(h2Name(entry.getKey()), entry.getValue());
         }
         return this;
     }
 
     @Override
     public HttpHeaders set(final CharSequence name, final CharSequence value) {
-        nettyHeaders.set(name, value);
+        nettyHeaders.set(h2Name(name), value);
         return this;
     }
 
     @Override
     public HttpHeaders set(final CharSequence name, final Iterable<? extends CharSequence> values) {
-        nettyHeaders.set(name, values);
+        nettyHeaders.set(h2Name(name), values);
         return this;
     }
 
     @Override
     public HttpHeaders set(final CharSequence name, final CharSequence... values) {
-        nettyHeaders.set(name, values);
+        nettyHeaders.set(h2Name(name), values);
         return this;
     }
 
     @Override
     public boolean remove(final CharSequence name) {
-        return nettyHeaders.remove(name);
+        return nettyHeaders.remove(h2Name(name));
     }
 
     @Override
     public boolean remove(final CharSequence name, final CharSequence value) {
         final int sizeBefore = size();
-        Iterator<? extends CharSequence> valuesItr = nettyHeaders.valueIterator(name);
+        Iterator<? extends CharSequence> valuesItr = nettyHeaders.valueIterator(h2Name(name));
         while (valuesItr.hasNext()) {
             CharSequence next = valuesItr.next();
             if (contentEquals(next, value)) {
@@ -164,7 +172,7 @@ final class NettyH2HeadersToHttpHeaders implements HttpHeaders {
     @Override
     public boolean removeIgnoreCase(final CharSequence name, final CharSequence value) {
         final int sizeBefore = size();
-        Iterator<? extends CharSequence> valuesItr = nettyHeaders.valueIterator(name);
+        Iterator<? extends CharSequence> valuesItr = nettyHeaders.valueIterator(h2Name(name));
         while (valuesItr.hasNext()) {
             CharSequence next = valuesItr.next();
             if (contentEqualsIgnoreCase(next, value)) {
@@ -156,12 +156,14 @@ final class NettyHttpServer {
                 httpExecutionContext.bufferAllocator(), httpExecutionContext.executor(), LAST_CHUNK_PREDICATE,
                 closeHandler, config.tcpConfig().flushStrategy(), config.tcpConfig().idleTimeoutMs(),
                 initializer.andThen(getChannelInitializer(getByteBufAllocator(httpExecutionContext.bufferAllocator()),
-                        h1Config, closeHandler)), httpExecutionContext.executionStrategy(), HTTP_1_1)
+                        h1Config, config.h1StaticResponseHeaders(), closeHandler)),
+                httpExecutionContext.executionStrategy(), HTTP_1_1)
                 .map(conn -> new NettyHttpServerConnection(conn, service, httpExecutionContext.executionStrategy(),
                         h1Config.headersFactory(), drainRequestPayloadBody)), HTTP_1_1, channel);
     }
 
     private static ChannelInitializer getChannelInitializer(final ByteBufAllocator alloc, final H1ProtocolConfig config,
+                                                            @Nullable final EncodedHeaderBlock staticResponseHeaders,
                                                             final CloseHandler closeHandler) {
         // H1 slices passed memory chunks into headers and payload body without copying and will emit them to the
         // user-code. Therefore, ByteBufs must be copied to unpooled memory before HttpObjectDecoder.
@@ -171,7 +173,8 @@ final class NettyHttpServer {
             pipeline.addLast(new HttpRequestDecoder(methodQueue, alloc, config.headersFactory(),
                     config.maxStartLineLength(), config.maxHeaderFieldLength(), closeHandler));
             pipeline.addLast(new HttpResponseEncoder(methodQueue, config.headersEncodedSizeEstimate(),
-                    config.trailersEncodedSizeEstimate(), closeHandler));
+                    config.trailersEncodedSizeEstimate(), staticResponseHeaders, config.dateResponseHeader(),
+                    closeHandler));
         });
     }
 
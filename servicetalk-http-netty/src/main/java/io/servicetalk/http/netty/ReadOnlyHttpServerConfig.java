@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,12 +26,17 @@ final class ReadOnlyHttpServerConfig {
     private final H1ProtocolConfig h1Config;
     @Nullable
     private final H2ProtocolConfig h2Config;
+    @Nullable
+    private final EncodedHeaderBlock h1StaticResponseHeaders;
 
     ReadOnlyHttpServerConfig(final HttpServerConfig from) {
         final HttpConfig configs = from.httpConfig();
         tcpConfig = from.tcpConfig().asReadOnly(configs.supportedAlpnProtocols());
         h1Config = configs.h1Config();
         h2Config = configs.h2Config();
+        // Encode once per server, all connections share the same encoded block.
+        h1StaticResponseHeaders = h1Config == null || h1Config.staticResponseHeaders().isEmpty() ? null :
+                new EncodedHeaderBlock(h1Config.staticResponseHeaders());
     }
 
     ReadOnlyTcpServerConfig tcpConfig() {
@@ -43,6 +48,11 @@ final class ReadOnlyHttpServerConfig {
         return h1Config;
     }
 
+    @Nullable
+    EncodedHeaderBlock h1StaticResponseHeaders() {
+        return h1StaticResponseHeaders;
+    }
+
     @Nullable
     H2ProtocolConfig h2Config() {
         return h2Config;
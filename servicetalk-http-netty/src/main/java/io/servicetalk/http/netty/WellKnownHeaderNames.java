@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.http.api.HttpHeaderNames;
+
+import io.netty.buffer.ByteBuf;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Modifier.isStatic;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Arrays.fill;
+
+/**
+ * Maps header names found on the wire to shared, immutable {@link CharSequence} constants so that decoding the same
+ * {@code Host}/{@code Content-Type}/{@code Accept} names on every message does not allocate.
+ * <p>
+ * Every name from {@link HttpHeaderNames} is known in its lower case form (which maps to the {@link HttpHeaderNames}
+ * constant itself) and in its canonical {@code Title-Case} form. The exact case of the wire bytes is preserved: a name
+ * is only interned if it matches a known spelling byte for byte. The lookup is a
+ * <a href="https://en.wikipedia.org/wiki/Perfect_hash_function">perfect hash</a> over the length and a few sampled
+ * bytes of the name, so at most one candidate is compared per lookup.
+ */
+final class WellKnownHeaderNames {
+    private static final int MAX_SEED_ATTEMPTS = 1 << 20;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private static final Entry[] TABLE;
+    private static final int SHIFT;
+    private static final int SEED;
+
+    static {
+        final List<Entry> entries = knownEntries();
+        // Sparse table (load factor <= 1/8) so a collision free seed is found after a few thousand attempts.
+        int bits = 32 - Integer.numberOfLeadingZeros(entries.size() * 8 - 1);
+        int seed;
+        Entry[] table;
+        for (;;) {
+            table = new Entry[1 << bits];
+            seed = findSeed(entries, table, 32 - bits);
+            if (seed != 0) {
+                break;
+            }
+            ++bits;
+        }
+        TABLE = table;
+        SHIFT = 32 - bits;
+        SEED = seed;
+    }
+
+    private WellKnownHeaderNames() {
+        // no instances
+    }
+
+    /**
+     * Find the well-known header name which matches exactly the bytes of {@code buffer} in
+     * {@code [startIndex, startIndex + length)}.
+     *
+     * @param buffer The buffer which contains the header name.
+     * @param startIndex The index of the first byte of the header name.
+     * @param length The number of bytes in the header name.
+     * @return the shared constant for the header name, or {@code null} if the name is not well-known.
+     */
+    @Nullable
+    static CharSequence find(final ByteBuf buffer, final int startIndex, final int length) {
+        final int key = key(length, buffer.getByte(startIndex), buffer.getByte(startIndex + (length >>> 1)),
+                buffer.getByte(startIndex + ((3 * length) >>> 2)), buffer.getByte(startIndex + length - 1));
+        final Entry entry = TABLE[slot(key, SEED, SHIFT)];
+        return entry != null && entry.matches(buffer, startIndex, length) ? entry.name : null;
+    }
+
+    private static int key(final int length, final byte first, final byte middle, final byte threeQuarters,
+                           final byte last) {
+        return ((first << 24) | ((middle & 0xFF) << 16) | ((threeQuarters & 0xFF) << 8) | (last & 0xFF)) +
+                length * GOLDEN_RATIO;
+    }
+
+    private static int slot(final int key, final int seed, final int shift) {
+        return (key * seed) >>> shift;
+    }
+
+    private static int findSeed(final List<Entry> entries, final Entry[] table, final int shift) {
+        outer:
+        for (int seed = 1; seed < MAX_SEED_ATTEMPTS; seed += 2) {
+            fill(table, null);
+            for (Entry entry : entries) {
+                final int slot = slot(entry.key, seed, shift);
+                final Entry existing = table[slot];
+                if (existing != null) {
+                    if (existing.key == entry.key) {
+                        // No seed can separate these, only the first one will be interned.
+                        continue;
+                    }
+                    continue outer;
+                }
+                table[slot] = entry;
+            }
+            return seed;
+        }
+        return 0;
+    }
+
+    private static List<Entry> knownEntries() {
+        final List<Entry> entries = new ArrayList<>(192);
+        for (Field field : HttpHeaderNames.class.getFields()) {
+            if (!isStatic(field.getModifiers()) || !isPublic(field.getModifiers()) ||
+                    field.getType() != CharSequence.class) {
+                continue;
+            }
+            final CharSequence name;
+            try {
+                name = (CharSequence) field.get(null);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to access " + field, e);
+            }
+            final String lowerCase = name.toString();
+            entries.add(new Entry(lowerCase, name));
+            final String titleCase = toTitleCase(lowerCase);
+            if (!titleCase.equals(lowerCase)) {
+                entries.add(new Entry(titleCase, newAsciiString(titleCase)));
+            }
+        }
+        return entries;
+    }
+
+    private static String toTitleCase(final String name) {
+        final char[] chars = name.toCharArray();
+        boolean upper = true;
+        for (int i = 0; i < chars.length; ++i) {
+            final char c = chars[i];
+            if (upper && c >= 'a' && c <= 'z') {
+                chars[i] = (char) (c - ('a' - 'A'));
+            }
+            upper = c == '-';
+        }
+        return new String(chars);
+    }
+
+    private static final class Entry {
+        final byte[] bytes;
+        final long[] words;
+        final CharSequence name;
+        final int key;
+
+        Entry(final String spelling, final CharSequence name) {
+            this.bytes = spelling.getBytes(US_ASCII);
+            this.name = name;
+            final int length = bytes.length;
+            this.key = key(length, bytes[0], bytes[length >>> 1], bytes[(3 * length) >>> 2], bytes[length - 1]);
+            words = new long[length / Long.BYTES];
+            for (int i = 0; i < words.length; ++i) {
+                words[i] = getLong(bytes, i * Long.BYTES);
+            }
+        }
+
+        boolean matches(final ByteBuf buffer, final int startIndex, final int length) {
+            if (length != bytes.length) {
+                return false;
+            }
+            // Compare 8 bytes at a time, ByteBuf#getLong is big endian.
+            for (int w = 0; w < words.length; ++w) {
+                if (buffer.getLong(startIndex + w * Long.BYTES) != words[w]) {
+                    return false;
+                }
+            }
+            for (int i = words.length * Long.BYTES; i < length; ++i) {
+                if (buffer.getByte(startIndex + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long getLong(final byte[] bytes, final int index) {
+            return ((long) bytes[index] << 56) |
+                    ((long) bytes[index + 1] & 0xFF) << 48 |
+                    ((long) bytes[index + 2] & 0xFF) << 40 |
+                    ((long) bytes[index + 3] & 0xFF) << 32 |
+                    ((long) bytes[index + 4] & 0xFF) << 24 |
+                    ((long) bytes[index + 5] & 0xFF) << 16 |
+                    ((long) bytes[index + 6] & 0xFF) << 8 |
+                    ((long) bytes[index + 7] & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.BlockingHttpClient;
+import io.servicetalk.http.api.HttpFileRegion;
+import io.servicetalk.http.api.HttpResponse;
+import io.servicetalk.http.api.HttpServerBuilder;
+import io.servicetalk.http.api.SingleAddressHttpClientBuilder;
+import io.servicetalk.http.api.StreamingHttpService;
+import io.servicetalk.test.resources.DefaultTestCerts;
+import io.servicetalk.transport.api.HostAndPort;
+import io.servicetalk.transport.api.ServerContext;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Collection;
+
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpFileRegion.newFileRegion;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h1Default;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
+import static io.servicetalk.transport.netty.internal.AddressUtils.localAddress;
+import static io.servicetalk.transport.netty.internal.AddressUtils.serverHostAndPort;
+import static java.lang.String.valueOf;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(Parameterized.class)
+public class FileRegionResponseTest {
+    private static final String CONTENT = newContent();
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final boolean secure;
+    private final boolean h2;
+
+    public FileRegionResponseTest(final boolean secure, final boolean h2) {
+        this.secure = secure;
+        this.h2 = h2;
+    }
+
+    @Parameterized.Parameters(name = "secure={0} h2={1}")
+    public static Collection<Object[]> params() {
+        return asList(new Object[]{false, false},
+                new Object[]{true, false},
+                new Object[]{false, true});
+    }
+
+    @Test
+    public void wholeFile() throws Exception {
+        final File file = newFile();
+        assertResponse(() -> newFileRegion(file.toPath()), CONTENT);
+    }
+
+    @Test
+    public void fileRegion() throws Exception {
+        final File file = newFile();
+        assertResponse(() -> newFileRegion(FileChannel.open(file.toPath(), READ), 10, 1000),
+                CONTENT.substring(10, 1010));
+    }
+
+    @Test
+    public void emptyFileRegion() throws Exception {
+        final File file = newFile();
+        assertResponse(() -> newFileRegion(FileChannel.open(file.toPath(), READ), 0, 0), "");
+    }
+
+    private File newFile() throws Exception {
+        final File file = tempFolder.newFile();
+        Files.write(file.toPath(), CONTENT.getBytes(US_ASCII));
+        return file;
+    }
+
+    private void assertResponse(final FileRegionSupplier fileRegionSupplier,
+                                final String expectedContent) throws Exception {
+        final StreamingHttpService service = (ctx, request, responseFactory) -> {
+            try {
+                return succeeded(responseFactory.ok().payloadBody(fileRegionSupplier.get()));
+            } catch (IOException e) {
+                return failed(e);
+            }
+        };
+        HttpServerBuilder serverBuilder = HttpServers.forAddress(localAddress(0))
+                .protocols(h2 ? h2Default() : h1Default());
+        if (secure) {
+            serverBuilder = serverBuilder.secure()
+                    .commit(DefaultTestCerts::loadServerPem, DefaultTestCerts::loadServerKey);
+        }
+        try (ServerContext serverContext = serverBuilder.listenStreamingAndAwait(service)) {
+            SingleAddressHttpClientBuilder<HostAndPort, InetSocketAddress> clientBuilder =
+                    HttpClients.forSingleAddress(serverHostAndPort(serverContext))
+                            .protocols(h2 ? h2Default() : h1Default());
+            if (secure) {
+                clientBuilder = clientBuilder.secure()
+                        .disableHostnameVerification()
+                        // required for generated test certificates
+                        .trustManager(DefaultTestCerts::loadMutualAuthCaPem)
+                        .commit();
+            }
+            try (BlockingHttpClient client = clientBuilder.buildBlocking()) {
+                HttpResponse response = client.request(client.get("/"));
+                assertThat(response.status(), is(OK));
+                assertThat(valueOf(response.headers().get(CONTENT_LENGTH)),
+                        equalTo(Integer.toString(expectedContent.length())));
+                assertThat(response.payloadBody().toString(US_ASCII), equalTo(expectedContent));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileRegionSupplier {
+        HttpFileRegion get() throws IOException;
+    }
+
+    private static String newContent() {
+        // Larger than the chunk size used to read files, so that multiple chunks are written with TLS.
+        final StringBuilder sb = new StringBuilder(64 * 1024);
+        for (int i = 0; sb.length() < 64 * 1024; ++i) {
+            sb.append(i).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.netty;
+
+import io.netty.util.AsciiString;
+import org.junit.Test;
+
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.netty.H2HeaderNames.h2LowerCaseName;
+import static io.servicetalk.http.netty.H2HeaderNames.h2Name;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class H2HeaderNamesTest {
+
+    @Test
+    public void wellKnownNamesAreMappedToAsciiString() {
+        final CharSequence name = h2Name(CONTENT_TYPE);
+        assertThat(name, is(instanceOf(AsciiString.class)));
+        assertThat(name.toString(), equalTo(CONTENT_TYPE.toString()));
+        assertThat(h2Name(CONTENT_TYPE), is(sameInstance(name)));
+        assertThat(h2LowerCaseName(CONTENT_TYPE), is(sameInstance(name)));
+    }
+
+    @Test
+    public void otherNamesAreNotMapped() {
+        final String name = "content-type";
+        assertThat(h2Name(name), is(sameInstance(name)));
+    }
+
+    @Test
+    public void lowerCaseNamesAreNotCopied() {
+        final String name = "x-custom";
+        assertThat(h2LowerCaseName(name), is(sameInstance(name)));
+        final AsciiString asciiName = AsciiString.of(name);
+        assertThat(h2LowerCaseName(asciiName), is(sameInstance(asciiName)));
+    }
+
+    @Test
+    public void upperCaseNamesAreConverted() {
+        assertThat(h2LowerCaseName("X-Custom").toString(), equalTo("x-custom"));
+        assertThat(h2LowerCaseName(AsciiString.of("X-Custom")).toString(), equalTo("x-custom"));
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2019-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -115,6 +115,7 @@ import static io.servicetalk.http.api.HttpEventKey.MAX_CONCURRENCY;
 import static io.servicetalk.http.api.HttpHeaderNames.COOKIE;
 import static io.servicetalk.http.api.HttpHeaderNames.EXPECT;
 import static io.servicetalk.http.api.HttpHeaderNames.SET_COOKIE;
+import static io.servicetalk.http.api.HttpHeaderNames.USER_AGENT;
 import static io.servicetalk.http.api.HttpHeaderValues.CONTINUE;
 import static io.servicetalk.http.api.HttpRequestMethod.GET;
 import static io.servicetalk.http.api.HttpRequestMethod.POST;
@@ -124,6 +125,7 @@ import static io.servicetalk.http.api.HttpSerializationProviders.textDeserialize
 import static io.servicetalk.http.api.HttpSerializationProviders.textSerializer;
 import static io.servicetalk.http.netty.HttpClients.forSingleAddress;
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h1Default;
+import static io.servicetalk.http.netty.HttpProtocolConfigs.h2;
 import static io.servicetalk.http.netty.HttpProtocolConfigs.h2Default;
 import static io.servicetalk.http.netty.HttpTestExecutionStrategy.CACHED;
 import static io.servicetalk.http.netty.HttpTestExecutionStrategy.NO_OFFLOAD;
@@ -279,6 +281,36 @@ public class H2PriorKnowledgeFeatureParityTest {
         }
     }
 
+    @Test
+    public void headersRoundTripWithCustomHeaderTableSizes() throws Exception {
+        assumeTrue(h2PriorKnowledge);   // only h2 uses HPACK
+        final String customHeader = "x-custom";
+        // The server disables the HPACK dynamic table in both directions, which must take precedence over the 256
+        // octets allowed by the client.
+        h1ServerContext = HttpServers.forAddress(localAddress(0))
+                .protocols(h2().decoderHeaderTableSize(0).encoderHeaderTableSize(0).build())
+                .listenStreaming((ctx, request, responseFactory) -> {
+                    final StreamingHttpResponse response = responseFactory.ok();
+                    final CharSequence value = request.headers().get(customHeader);
+                    if (value != null) {
+                        response.headers().set(customHeader, value);
+                    }
+                    return succeeded(response);
+                }).toFuture().get();
+        final InetSocketAddress serverAddress = (InetSocketAddress) h1ServerContext.listenAddress();
+        try (BlockingHttpClient client = forSingleAddress(HostAndPort.of(serverAddress))
+                .protocols(h2().decoderHeaderTableSize(256).encoderHeaderTableSize(256).build())
+                .executionStrategy(clientExecutionStrategy).buildBlocking()) {
+            for (int i = 0; i < 5; ++i) {
+                HttpResponse response = client.request(client.get("/" + i)
+                        .addHeader(USER_AGENT, "servicetalk-test")
+                        .addHeader(customHeader, "value" + i));
+                assertEquals(OK, response.status());
+                assertEquals("value" + i, String.valueOf(response.headers().get(customHeader)));
+            }
+        }
+    }
+
     @Test
     public void serverHeaderCookieRemovalAndIteration() throws Exception {
         InetSocketAddress serverAddress = bindHttpSynchronousResponseServer(
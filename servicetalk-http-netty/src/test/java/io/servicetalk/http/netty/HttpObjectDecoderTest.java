@@ -27,8 +27,10 @@ import org.junit.After;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nullable;
 
@@ -50,6 +52,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.Assert.assertFalse;
@@ -334,6 +337,34 @@ abstract class HttpObjectDecoderTest {
         assertEmptyTrailers(channel());
     }
 
+    @Test
+    public void wellKnownHeaderNamesAreShared() {
+        final Map<String, CharSequence> first = decodeHeaderNames();
+        final Map<String, CharSequence> second = decodeHeaderNames();
+        assertThat(first.keySet(), containsInAnyOrder("host", "Accept-Encoding", "ACCEPT-ENCODING", "X-Custom"));
+        assertThat(first.get("host"), is(sameInstance(HOST)));
+        assertThat(first.get("Accept-Encoding"), is(sameInstance(second.get("Accept-Encoding"))));
+        // Only the exact well-known spellings are shared, other names are preserved as-is.
+        assertThat(first.get("ACCEPT-ENCODING"), is(not(sameInstance(second.get("ACCEPT-ENCODING")))));
+        assertThat(first.get("X-Custom"), is(not(sameInstance(second.get("X-Custom")))));
+        assertFalse(channel().finishAndReleaseAll());
+    }
+
+    private Map<String, CharSequence> decodeHeaderNames() {
+        writeMsg(startLine() + "\r\n" +
+                "host: servicetalk.io" + "\r\n" +
+                "Accept-Encoding: gzip" + "\r\n" +
+                "ACCEPT-ENCODING: br" + "\r\n" +
+                "X-Custom: value" + "\r\n" + "\r\n");
+        HttpMetaData metaData = assertStartLine();
+        Map<String, CharSequence> names = new HashMap<>();
+        for (Map.Entry<CharSequence, CharSequence> header : metaData.headers()) {
+            names.put(header.getKey().toString(), header.getKey());
+        }
+        assertEmptyTrailers(channel());
+        return names;
+    }
+
     @Test
     public void multipleHeaderFiledValues() {
         writeMsg(startLine() + "\r\n" +
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import io.servicetalk.http.api.HttpProtocolVersion;
 import io.servicetalk.http.api.HttpRequestMetaData;
 import io.servicetalk.http.api.HttpRequestMethod;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.DecoderException;
 import org.junit.Test;
@@ -29,6 +30,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
+import static io.netty.buffer.Unpooled.wrappedBuffer;
 import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
 import static io.servicetalk.buffer.netty.BufferUtils.getByteBufAllocator;
 import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
@@ -36,6 +38,7 @@ import static io.servicetalk.http.api.HttpRequestMethod.GET;
 import static io.servicetalk.http.api.HttpRequestMethod.POST;
 import static io.servicetalk.http.api.HttpRequestMethod.Properties.NONE;
 import static java.lang.Integer.toHexString;
+import static java.util.Arrays.fill;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
@@ -192,6 +195,28 @@ public class HttpRequestDecoderTest extends HttpObjectDecoderTest {
         assertFalse(channel.finishAndReleaseAll());
     }
 
+    @Test
+    public void indexOfFindsFirstOccurrenceAtAnyOffset() {
+        // Cover both the 8 bytes at a time loop and the remainder loop.
+        for (int length = 0; length <= 20; ++length) {
+            for (int position = 0; position < length; ++position) {
+                final byte[] bytes = new byte[length];
+                fill(bytes, (byte) 'a');
+                bytes[position] = ':';
+                if (position + 1 < length) {
+                    bytes[length - 1] = ':';
+                }
+                final ByteBuf buffer = wrappedBuffer(bytes);
+                assertThat(HttpObjectDecoder.indexOf(buffer, 0, length, (byte) ':'), is(position));
+                assertThat(HttpObjectDecoder.indexOf(buffer, 0, position, (byte) ':'), is(-1));
+            }
+            // Bytes with the high bit set must not be reported as matches.
+            final byte[] bytes = new byte[length];
+            fill(bytes, (byte) 0xBA);
+            assertThat(HttpObjectDecoder.indexOf(wrappedBuffer(bytes), 0, length, (byte) ':'), is(-1));
+        }
+    }
+
     @Test
     public void chunkedWithTrailersSplitOnNetwork() {
         int chunkLength = 128;
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,15 +31,21 @@ import java.util.concurrent.ThreadLocalRandom;
 import static io.servicetalk.buffer.api.EmptyBuffer.EMPTY_BUFFER;
 import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
 import static io.servicetalk.http.api.DefaultHttpHeadersFactory.INSTANCE;
+import static io.servicetalk.http.api.HttpHeaderNames.CACHE_CONTROL;
 import static io.servicetalk.http.api.HttpHeaderNames.CONNECTION;
 import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.DATE;
 import static io.servicetalk.http.api.HttpHeaderNames.SERVER;
 import static io.servicetalk.http.api.HttpHeaderNames.TRANSFER_ENCODING;
 import static io.servicetalk.http.api.HttpHeaderValues.CHUNKED;
 import static io.servicetalk.http.api.HttpHeaderValues.KEEP_ALIVE;
+import static io.servicetalk.http.api.HttpHeaderValues.TEXT_PLAIN;
+import static io.servicetalk.http.api.HttpHeaderValues.ZERO;
 import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
 import static io.servicetalk.http.api.HttpResponseMetaDataFactory.newResponseMetaData;
 import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.transport.netty.internal.CloseHandler.UNSUPPORTED_PROTOCOL_CLOSE_HANDLER;
 import static java.lang.Integer.toHexString;
 import static java.lang.String.valueOf;
 import static java.nio.charset.StandardCharsets.US_ASCII;
@@ -119,6 +125,87 @@ public class HttpResponseEncoderTest {
         assertFalse(channel.finishAndReleaseAll());
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void staticHeadersRejectCrLf() {
+        new EncodedHeaderBlock(INSTANCE.newHeaders().add(SERVER, "static-server\r\nset-cookie: injected"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void staticHeadersRejectNonAscii() {
+        new EncodedHeaderBlock(INSTANCE.newHeaders().add(SERVER, "stat\u00efc-server"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void staticHeadersRejectFramingHeaders() {
+        new EncodedHeaderBlock(INSTANCE.newHeaders().add("Transfer-Encoding", CHUNKED));
+    }
+
+    @Test
+    public void staticHeadersAreAddedUnlessOverridden() {
+        EncodedHeaderBlock staticHeaders = new EncodedHeaderBlock(INSTANCE.newHeaders()
+                .add(SERVER, "static-server")
+                .add(CONTENT_TYPE, TEXT_PLAIN)
+                .add(CACHE_CONTROL, "no-cache"));
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(new ArrayDeque<>(), 256, 256,
+                staticHeaders, false, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER));
+        for (String server : new String[] {null, "unit-test"}) {
+            HttpResponseMetaData response = newResponseMetaData(HTTP_1_1, OK, INSTANCE.newHeaders());
+            response.headers().add(CONTENT_LENGTH, ZERO);
+            if (server != null) {
+                response.headers().add(SERVER, server);
+            }
+            channel.writeOutbound(response);
+            channel.writeOutbound(EmptyHttpHeaders.INSTANCE);
+
+            ByteBuf byteBuf = channel.readOutbound();
+            String actualMetaData = byteBuf.toString(US_ASCII);
+            byteBuf.release();
+            assertTrue("unexpected metadata: " + actualMetaData, actualMetaData.startsWith("HTTP/1.1 200 OK" + "\r\n"));
+            assertTrue("unexpected metadata: " + actualMetaData,
+                    actualMetaData.contains(CONTENT_LENGTH + ": " + ZERO + "\r\n"));
+            assertTrue("unexpected metadata: " + actualMetaData,
+                    actualMetaData.contains(SERVER + ": " + (server == null ? "static-server" : server) + "\r\n"));
+            assertEquals("unexpected metadata: " + actualMetaData, 1,
+                    actualMetaData.split(SERVER + ": ", -1).length - 1);
+            assertTrue("unexpected metadata: " + actualMetaData,
+                    actualMetaData.contains(CONTENT_TYPE + ": " + TEXT_PLAIN + "\r\n"));
+            assertTrue("unexpected metadata: " + actualMetaData,
+                    actualMetaData.contains(CACHE_CONTROL + ": no-cache" + "\r\n"));
+            assertTrue("unexpected metadata: " + actualMetaData, actualMetaData.endsWith("\r\n" + "\r\n"));
+            consumeEmptyBufferFromTrailers(channel);
+        }
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    @Test
+    public void dateHeaderIsAddedIfMissing() {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(new ArrayDeque<>(), 256, 256,
+                null, true, UNSUPPORTED_PROTOCOL_CLOSE_HANDLER));
+        HttpResponseMetaData response = newResponseMetaData(HTTP_1_1, OK, INSTANCE.newHeaders());
+        response.headers().add(CONTENT_LENGTH, ZERO);
+        channel.writeOutbound(response);
+        channel.writeOutbound(EmptyHttpHeaders.INSTANCE);
+
+        ByteBuf byteBuf = channel.readOutbound();
+        String actualMetaData = byteBuf.toString(US_ASCII);
+        byteBuf.release();
+        assertTrue("unexpected metadata: " + actualMetaData, actualMetaData.matches(
+                "(?s).*\r\n" + DATE + ": \\w{3}, \\d{2} \\w{3} \\d{4} \\d{2}:\\d{2}:\\d{2} GMT\r\n\r\n"));
+        consumeEmptyBufferFromTrailers(channel);
+
+        response = newResponseMetaData(HTTP_1_1, OK, INSTANCE.newHeaders());
+        response.headers().add(CONTENT_LENGTH, ZERO).add(DATE, "Sun, 06 Nov 1994 08:49:37 GMT");
+        channel.writeOutbound(response);
+        channel.writeOutbound(EmptyHttpHeaders.INSTANCE);
+
+        byteBuf = channel.readOutbound();
+        actualMetaData = byteBuf.toString(US_ASCII);
+        byteBuf.release();
+        assertEquals("unexpected metadata: " + actualMetaData, 1, actualMetaData.split(DATE + ": ", -1).length - 1);
+        consumeEmptyBufferFromTrailers(channel);
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
     @Test
     public void chunkedNoTrailers() {
         EmbeddedChannel channel = newEmbeddedChannel();
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -72,6 +72,10 @@ public final class HttpPredicateRouterBuilder implements RouteStarter {
     private final RouteContinuationImpl continuation = new RouteContinuationImpl();
     @Nullable
     private BiPredicate<ConnectionContext, StreamingHttpRequest> predicate;
+    @Nullable
+    private String[] exactPaths;
+    @Nullable
+    private String pathPrefix;
 
     @Override
     public RouteContinuation whenMethod(final HttpRequestMethod method) {
@@ -88,18 +92,21 @@ public final class HttpPredicateRouterBuilder implements RouteStarter {
     @Override
     public RouteContinuation whenPathEquals(final String path) {
         andPredicate(pathEquals(path));
+        indexPath(new String[] {path}, null);
         return continuation;
     }
 
     @Override
     public RouteContinuation whenPathIsOneOf(final String... paths) {
         andPredicate(pathIsOneOf(paths));
+        indexPath(paths.clone(), null);
         return continuation;
     }
 
     @Override
     public RouteContinuation whenPathStartsWith(final String pathPrefix) {
         andPredicate(pathStartsWith(pathPrefix));
+        indexPath(null, pathPrefix);
         return continuation;
     }
 
@@ -171,6 +178,14 @@ public final class HttpPredicateRouterBuilder implements RouteStarter {
         }
     }
 
+    private void indexPath(@Nullable final String[] newExactPaths, @Nullable final String newPathPrefix) {
+        // Path predicates are always combined with "and", so any one of them can be used to index the route.
+        if (exactPaths == null && pathPrefix == null) {
+            exactPaths = newExactPaths;
+            pathPrefix = newPathPrefix;
+        }
+    }
+
     private class RouteContinuationImpl implements RouteContinuation {
 
         private StrategyInfluencerChainBuilder influencerChainBuilder = new StrategyInfluencerChainBuilder();
@@ -290,9 +305,11 @@ public final class HttpPredicateRouterBuilder implements RouteStarter {
         private RouteStarter thenRouteTo0(final StreamingHttpService route,
                                           @Nullable final HttpExecutionStrategy routeStrategy) {
             assert predicate != null;
-            routes.add(new Route(predicate, route, routeStrategy));
+            routes.add(new Route(predicate, route, routeStrategy, exactPaths, pathPrefix));
             // Reset shared state since we have finished current route construction
             predicate = null;
+            exactPaths = null;
+            pathPrefix = null;
             influencerChainBuilder = new StrategyInfluencerChainBuilder();
             strategy = null;
             return HttpPredicateRouterBuilder.this;
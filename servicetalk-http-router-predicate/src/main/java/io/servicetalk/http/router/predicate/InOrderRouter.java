@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,11 +38,15 @@ import static java.util.stream.Collectors.toList;
  * The predicates from the specified {@link Route}s are evaluated in order, and the service from the
  * first one which returns {@code true} is used to handle the request. If no predicates match, the fallback service
  * specified is used.
+ * <p>
+ * Only the predicates of {@link Route}s which are candidates for the request path according to a
+ * {@link RoutePathIndex} are evaluated, which yields the same result as evaluating all predicates in order.
  */
 final class InOrderRouter implements StreamingHttpService {
 
     private final StreamingHttpService fallbackService;
     private final Route[] routes;
+    private final RoutePathIndex pathIndex;
     private final AsyncCloseable closeable;
 
     /**
@@ -53,6 +57,7 @@ final class InOrderRouter implements StreamingHttpService {
     InOrderRouter(final StreamingHttpService fallbackService, final List<Route> routes) {
         this.fallbackService = requireNonNull(fallbackService);
         this.routes = routes.toArray(new Route[0]);
+        this.pathIndex = new RoutePathIndex(routes);
         this.closeable = newCompositeCloseable()
                 .mergeAll(fallbackService)
                 .mergeAll(routes.stream().map(Route::service).collect(toList()));
@@ -62,7 +67,8 @@ final class InOrderRouter implements StreamingHttpService {
     public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
                                                 final StreamingHttpRequest request,
                                                 final StreamingHttpResponseFactory factory) {
-        for (final Route pair : routes) {
+        for (final int i : pathIndex.candidates(request)) {
+            final Route pair = routes[i];
             if (pair.predicate().test(ctx, request)) {
                 StreamingHttpService service = pair.service();
                 final HttpExecutionStrategy strategy = pair.routeStrategy();
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,12 +31,28 @@ final class Route {
     private final StreamingHttpService service;
     @Nullable
     private final HttpExecutionStrategy routeStrategy;
+    @Nullable
+    private final String[] exactPaths;
+    @Nullable
+    private final String pathPrefix;
 
+    /**
+     * Create a new instance.
+     * @param predicate the predicate which must match for the route to be selected.
+     * @param service the service to route to.
+     * @param strategy the {@link HttpExecutionStrategy} for the route, or {@code null}.
+     * @param exactPaths paths one of which is required by {@code predicate}, or {@code null} if unknown.
+     * @param pathPrefix a path prefix required by {@code predicate}, or {@code null} if unknown.
+     */
     Route(final BiPredicate<ConnectionContext, StreamingHttpRequest> predicate,
-          final StreamingHttpService service, @Nullable final HttpExecutionStrategy strategy) {
+          final StreamingHttpService service, @Nullable final HttpExecutionStrategy strategy,
+          @Nullable final String[] exactPaths, @Nullable final String pathPrefix) {
+        assert exactPaths == null || pathPrefix == null;
         this.predicate = requireNonNull(predicate);
         this.service = requireNonNull(service);
         routeStrategy = strategy;
+        this.exactPaths = exactPaths;
+        this.pathPrefix = pathPrefix;
     }
 
     BiPredicate<ConnectionContext, StreamingHttpRequest> predicate() {
@@ -51,4 +67,14 @@ final class Route {
     HttpExecutionStrategy routeStrategy() {
         return routeStrategy;
     }
+
+    @Nullable
+    String[] exactPaths() {
+        return exactPaths;
+    }
+
+    @Nullable
+    String pathPrefix() {
+        return pathPrefix;
+    }
 }
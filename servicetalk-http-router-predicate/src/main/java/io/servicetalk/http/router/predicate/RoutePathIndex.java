@@ -0,0 +1,227 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.router.predicate;
+
+import io.servicetalk.http.api.StreamingHttpRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A radix tree over the exact paths and path prefixes required by {@link Route}s, used to narrow down the
+ * {@link Route}s which may match a request without evaluating their predicates.
+ * <p>
+ * The candidates for a path are the {@link Route}s which require that exact path, require a prefix of that path, or
+ * do not declare a path requirement which can be indexed (e.g. regular expressions or arbitrary predicates).
+ * Candidates are returned as indexes into the original {@link Route} list in ascending order, so evaluating their
+ * predicates in that order selects the same {@link Route} as evaluating all predicates in declared order.
+ */
+final class RoutePathIndex {
+    private static final int[] EMPTY_INTS = new int[0];
+
+    private final int[] allRoutes;
+    @Nullable
+    private final Node root;
+
+    RoutePathIndex(final List<Route> routes) {
+        allRoutes = new int[routes.size()];
+        final List<Integer> unindexed = new ArrayList<>();
+        Node root = null;
+        for (int i = 0; i < allRoutes.length; ++i) {
+            allRoutes[i] = i;
+            final Route route = routes.get(i);
+            final String[] exactPaths = route.exactPaths();
+            final String pathPrefix = route.pathPrefix();
+            if (exactPaths != null && exactPaths.length > 0) {
+                if (root == null) {
+                    root = new Node("");
+                }
+                for (String path : exactPaths) {
+                    root.insert(path).exactRoutes.add(i);
+                }
+            } else if (pathPrefix != null) {
+                if (root == null) {
+                    root = new Node("");
+                }
+                root.insert(pathPrefix).prefixRoutes.add(i);
+            } else {
+                unindexed.add(i);
+            }
+        }
+        if (root != null) {
+            root.freeze(toSortedUniqueArray(unindexed));
+        }
+        this.root = root;
+    }
+
+    /**
+     * Get the indexes of the {@link Route}s which may match the {@code request}.
+     * @param request the request to route.
+     * @return the indexes of the candidate {@link Route}s, in ascending order. The returned array must not be modified.
+     */
+    int[] candidates(final StreamingHttpRequest request) {
+        if (root == null) {
+            // No path requirements were indexed, avoid computing the path.
+            return allRoutes;
+        }
+        final String path = request.path();
+        Node node = root;
+        int i = 0;
+        for (;;) {
+            if (i == path.length()) {
+                return node.exactCandidates;
+            }
+            final Node child = node.child(path.charAt(i));
+            if (child == null || !path.regionMatches(i, child.label, 0, child.label.length())) {
+                return node.prefixCandidates;
+            }
+            i += child.label.length();
+            node = child;
+        }
+    }
+
+    private static int[] toSortedUniqueArray(final List<Integer> values) {
+        final int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = values.get(i);
+        }
+        Arrays.sort(array);
+        return merge(array, EMPTY_INTS);
+    }
+
+    /**
+     * Merge two ascending arrays into a single ascending array without duplicates.
+     */
+    private static int[] merge(final int[] a, final int[] b) {
+        final int[] result = new int[a.length + b.length];
+        int ai = 0;
+        int bi = 0;
+        int size = 0;
+        while (ai < a.length || bi < b.length) {
+            final int next;
+            if (bi == b.length || (ai < a.length && a[ai] <= b[bi])) {
+                next = a[ai++];
+            } else {
+                next = b[bi++];
+            }
+            if (size == 0 || result[size - 1] != next) {
+                result[size++] = next;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static final class Node {
+        private static final char[] EMPTY_CHARS = new char[0];
+        private static final Node[] EMPTY_NODES = new Node[0];
+
+        /**
+         * The characters of the edge from the parent to this node.
+         */
+        String label;
+        /**
+         * The first character of each child's {@link #label}, sorted, and the children in the same order.
+         */
+        char[] childChars = EMPTY_CHARS;
+        Node[] children = EMPTY_NODES;
+        // Only used while building the tree.
+        final List<Integer> exactRoutes = new ArrayList<>(1);
+        final List<Integer> prefixRoutes = new ArrayList<>(1);
+        // Computed by freeze(int[]).
+        int[] exactCandidates = EMPTY_INTS;
+        int[] prefixCandidates = EMPTY_INTS;
+
+        Node(final String label) {
+            this.label = label;
+        }
+
+        @Nullable
+        Node child(final char c) {
+            final int i = Arrays.binarySearch(childChars, c);
+            return i < 0 ? null : children[i];
+        }
+
+        /**
+         * Get the node for {@code key} relative to this node, creating and splitting nodes as necessary.
+         */
+        Node insert(final String key) {
+            Node node = this;
+            int i = 0;
+            while (i < key.length()) {
+                final char c = key.charAt(i);
+                Node child = node.child(c);
+                if (child == null) {
+                    child = new Node(key.substring(i));
+                    node.addChild(child);
+                    return child;
+                }
+                final int common = commonPrefixLength(child.label, key, i);
+                if (common < child.label.length()) {
+                    final Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.addChild(child);
+                    node.children[Arrays.binarySearch(node.childChars, c)] = split;
+                    child = split;
+                }
+                node = child;
+                i += common;
+            }
+            return node;
+        }
+
+        /**
+         * Compute the candidates for this node and its children.
+         * @param parentPrefixCandidates the candidates for paths which pass through this node's parent.
+         */
+        void freeze(final int[] parentPrefixCandidates) {
+            prefixCandidates = prefixRoutes.isEmpty() ? parentPrefixCandidates :
+                    merge(parentPrefixCandidates, toSortedUniqueArray(prefixRoutes));
+            exactCandidates = exactRoutes.isEmpty() ? prefixCandidates :
+                    merge(prefixCandidates, toSortedUniqueArray(exactRoutes));
+            for (Node child : children) {
+                child.freeze(prefixCandidates);
+            }
+        }
+
+        private void addChild(final Node child) {
+            final char c = child.label.charAt(0);
+            int i = Arrays.binarySearch(childChars, c);
+            assert i < 0;
+            i = -(i + 1);
+            final char[] newChars = new char[childChars.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(childChars, 0, newChars, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newChars[i] = c;
+            newChildren[i] = child;
+            System.arraycopy(childChars, i, newChars, i + 1, childChars.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            childChars = newChars;
+            children = newChildren;
+        }
+
+        private static int commonPrefixLength(final String label, final String key, final int keyOffset) {
+            final int max = Math.min(label.length(), key.length() - keyOffset);
+            int i = 0;
+            while (i < max && label.charAt(i) == key.charAt(keyOffset + i)) {
+                ++i;
+            }
+            return i;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -186,6 +186,54 @@ public class HttpPredicateRouterBuilderTest extends BaseHttpPredicateRouterBuild
         assertSame(fallbackResponse, service.handle(ctx, request, reqRespFactory));
     }
 
+    @Test
+    public void testPathRoutesPreserveDeclaredOrder() {
+        final StreamingHttpService service = new HttpPredicateRouterBuilder()
+                .whenPathStartsWith("/a").andMethod(POST).thenRouteTo(serviceA)
+                .whenPathMatches("/a/.*").thenRouteTo(serviceB)
+                .whenPathEquals("/a/b").thenRouteTo(serviceC)
+                .whenPathStartsWith("/a/b").thenRouteTo(serviceD)
+                .whenPathIsOneOf("/a/b", "/a/bc").andPathStartsWith("/a").thenRouteTo(serviceE)
+                .when((ctx, req) -> true).thenRouteTo(fallbackService)
+                .buildStreaming();
+
+        when(request.method()).thenReturn(POST);
+        when(request.path()).thenReturn("/a/b");
+        assertSame(responseA, service.handle(ctx, request, reqRespFactory));
+
+        when(request.method()).thenReturn(GET);
+        assertSame(responseB, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/a/bc");
+        assertSame(responseB, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/ab");
+        assertSame(fallbackResponse, service.handle(ctx, request, reqRespFactory));
+    }
+
+    @Test
+    public void testPathRoutesAfterUnindexedRoutes() {
+        final StreamingHttpService service = new HttpPredicateRouterBuilder()
+                .whenMethod(GET).thenRouteTo(serviceA)
+                .whenPathEquals("/abc").thenRouteTo(serviceB)
+                .whenPathStartsWith("/ab").thenRouteTo(serviceC)
+                .whenPathStartsWith("").thenRouteTo(serviceD)
+                .buildStreaming();
+
+        when(request.method()).thenReturn(GET);
+        when(request.path()).thenReturn("/abc");
+        assertSame(responseA, service.handle(ctx, request, reqRespFactory));
+
+        when(request.method()).thenReturn(POST);
+        assertSame(responseB, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/abcd");
+        assertSame(responseC, service.handle(ctx, request, reqRespFactory));
+
+        when(request.path()).thenReturn("/a");
+        assertSame(responseD, service.handle(ctx, request, reqRespFactory));
+    }
+
     @Test
     public void testWhenIsSsl() {
         final StreamingHttpService service = new HttpPredicateRouterBuilder()
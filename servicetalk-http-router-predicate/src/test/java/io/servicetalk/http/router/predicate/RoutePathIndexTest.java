@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.router.predicate;
+
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpService;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RoutePathIndexTest {
+    private final List<Route> routes = new ArrayList<>();
+    private final StreamingHttpRequest request = mock(StreamingHttpRequest.class);
+
+    @Test
+    public void noIndexedRoutesDoesNotComputePath() {
+        addRoute(null, null);
+        addRoute(null, null);
+        assertThat(new RoutePathIndex(routes).candidates(request), equalTo(new int[] {0, 1}));
+        verify(request, never()).path();
+    }
+
+    @Test
+    public void exactPaths() {
+        addRoute(new String[] {"/abc", "/abd"}, null);
+        addRoute(new String[] {"/ab"}, null);
+        addRoute(new String[] {"/abc", "/abc"}, null);
+        final RoutePathIndex index = new RoutePathIndex(routes);
+        assertCandidates(index, "/abc", 0, 2);
+        assertCandidates(index, "/abd", 0);
+        assertCandidates(index, "/ab", 1);
+        assertCandidates(index, "/a");
+        assertCandidates(index, "/abcd");
+        assertCandidates(index, "");
+    }
+
+    @Test
+    public void pathPrefixes() {
+        addRoute(null, "/a/b/");
+        addRoute(null, "/a/");
+        addRoute(null, "/a/c");
+        addRoute(null, "");
+        final RoutePathIndex index = new RoutePathIndex(routes);
+        assertCandidates(index, "/a/b/c", 0, 1, 3);
+        assertCandidates(index, "/a/b", 1, 3);
+        assertCandidates(index, "/a/cd", 1, 2, 3);
+        assertCandidates(index, "/a", 3);
+        assertCandidates(index, "/b", 3);
+    }
+
+    @Test
+    public void mixedRoutesKeepDeclaredOrder() {
+        addRoute(null, null);
+        addRoute(new String[] {"/users"}, null);
+        addRoute(null, "/users/");
+        addRoute(null, null);
+        addRoute(new String[] {"/users/me"}, null);
+        addRoute(null, "/u");
+        final RoutePathIndex index = new RoutePathIndex(routes);
+        assertCandidates(index, "/users", 0, 1, 3, 5);
+        assertCandidates(index, "/users/me", 0, 2, 3, 4, 5);
+        assertCandidates(index, "/users/you", 0, 2, 3, 5);
+        assertCandidates(index, "/other", 0, 3);
+    }
+
+    @Test
+    public void emptyExactPathsAreNotIndexed() {
+        addRoute(new String[0], null);
+        addRoute(new String[] {"/a"}, null);
+        final RoutePathIndex index = new RoutePathIndex(routes);
+        assertCandidates(index, "/a", 0, 1);
+        assertCandidates(index, "/b", 0);
+    }
+
+    private void addRoute(@Nullable final String[] exactPaths, @Nullable final String pathPrefix) {
+        routes.add(new Route((ctx, req) -> true, mock(StreamingHttpService.class), null, exactPaths, pathPrefix));
+    }
+
+    private void assertCandidates(final RoutePathIndex index, final String path, final int... expected) {
+        when(request.path()).thenReturn(path);
+        assertThat("Unexpected candidates for path: " + path, index.candidates(request), equalTo(expected));
+    }
+}
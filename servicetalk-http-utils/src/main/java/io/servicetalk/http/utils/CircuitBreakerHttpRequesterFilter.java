@@ -0,0 +1,473 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.SingleTerminalSignalConsumer;
+import io.servicetalk.http.api.FilterableStreamingHttpClient;
+import io.servicetalk.http.api.FilterableStreamingHttpConnection;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpResponseMetaData;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpConnectionFilter;
+import io.servicetalk.http.api.StreamingHttpConnectionFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.http.api.HttpResponseStatus.StatusClass.SERVER_ERROR_5XX;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * A filter which stops sending requests to a backend which fails, to give it time to recover.
+ * <p>
+ * The circuit is initially {@link State#CLOSED closed} and records the outcome of the most recent requests in a
+ * sliding window. Once the rate of failed requests or the rate of slow requests in the window exceeds a threshold,
+ * the circuit {@link State#OPEN opens} and all requests fail with {@link CircuitBreakerOpenException} without being
+ * sent. After a configured duration the circuit becomes {@link State#HALF_OPEN half-open} and permits a limited number
+ * of trial requests: if all of them succeed the circuit closes, otherwise it opens again.
+ * <p>
+ * A request fails if it terminates with an error, or if its response matches the
+ * {@link Builder#failureResponsePredicate(Predicate) failure predicate}. If this filter is applied to connections, all
+ * connections share the circuit of the filter. To suppress retries while the circuit is open, this filter should be
+ * applied after {@link RetryingHttpRequesterFilter}, which does not retry {@link CircuitBreakerOpenException}s.
+ */
+public final class CircuitBreakerHttpRequesterFilter implements StreamingHttpClientFilterFactory,
+                                                                StreamingHttpConnectionFilterFactory,
+                                                                HttpExecutionStrategyInfluencer {
+    /**
+     * The state of a circuit.
+     */
+    public enum State {
+        /**
+         * Requests are sent and their outcome is recorded.
+         */
+        CLOSED,
+        /**
+         * Requests are rejected.
+         */
+        OPEN,
+        /**
+         * A limited number of trial requests are sent to decide whether the circuit closes or opens again.
+         */
+        HALF_OPEN
+    }
+
+    private static final AtomicReferenceFieldUpdater<CircuitBreakerHttpRequesterFilter, CircuitState> stateUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(CircuitBreakerHttpRequesterFilter.class, CircuitState.class,
+                    "state");
+
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final Predicate<HttpResponseMetaData> failureResponsePredicate;
+
+    private volatile CircuitState state;
+
+    private CircuitBreakerHttpRequesterFilter(final Builder builder) {
+        slidingWindowSize = builder.slidingWindowSize;
+        minimumNumberOfCalls = builder.minimumNumberOfCalls;
+        failureRateThreshold = builder.failureRateThreshold;
+        slowCallRateThreshold = builder.slowCallRateThreshold;
+        slowCallDurationNanos = builder.slowCallDuration.toNanos();
+        openDurationNanos = builder.openDuration.toNanos();
+        permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+        failureResponsePredicate = builder.failureResponsePredicate;
+        state = new ClosedState(slidingWindowSize);
+    }
+
+    /**
+     * Get the current {@link State} of the circuit.
+     *
+     * @return the current {@link State} of the circuit.
+     */
+    public State state() {
+        final CircuitState current = state;
+        // An open circuit becomes half-open lazily when the next request is attempted.
+        return current instanceof OpenState && nanoTime() - ((OpenState) current).openedAtNanos >= openDurationNanos ?
+                State.HALF_OPEN : current.state();
+    }
+
+    private Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                  final HttpExecutionStrategy strategy,
+                                                  final StreamingHttpRequest request) {
+        return defer(() -> {
+            final CircuitState permittedState = tryAcquire();
+            if (permittedState == null) {
+                return failed(new CircuitBreakerOpenException("Circuit breaker is open, request rejected: " +
+                        request.method() + ' ' + request.requestTarget()));
+            }
+            final long startNanos = nanoTime();
+            return delegate.request(strategy, request).beforeFinally(
+                    new SingleTerminalSignalConsumer<StreamingHttpResponse>() {
+                        @Override
+                        public void onSuccess(@Nullable final StreamingHttpResponse response) {
+                            onResult(permittedState, response == null || failureResponsePredicate.test(response),
+                                    startNanos);
+                        }
+
+                        @Override
+                        public void onError(final Throwable throwable) {
+                            onResult(permittedState, true, startNanos);
+                        }
+
+                        @Override
+                        public void cancel() {
+                            permittedState.onCancel();
+                        }
+                    });
+        });
+    }
+
+    @Nullable
+    private CircuitState tryAcquire() {
+        for (;;) {
+            final CircuitState current = state;
+            if (current instanceof OpenState) {
+                if (nanoTime() - ((OpenState) current).openedAtNanos < openDurationNanos) {
+                    return null;
+                }
+                stateUpdater.compareAndSet(this, current, new HalfOpenState(permittedCallsInHalfOpenState));
+            } else {
+                return current.tryAcquire() ? current : null;
+            }
+        }
+    }
+
+    private void onResult(final CircuitState permittedState, final boolean failed, final long startNanos) {
+        final boolean slow = nanoTime() - startNanos >= slowCallDurationNanos;
+        if (permittedState instanceof ClosedState) {
+            final SlidingWindow window = ((ClosedState) permittedState).window;
+            window.record(failed, slow);
+            if (window.calls() >= minimumNumberOfCalls &&
+                    (window.failures() >= failureRateThreshold * window.calls() ||
+                            window.slowCalls() >= slowCallRateThreshold * window.calls())) {
+                stateUpdater.compareAndSet(this, permittedState, new OpenState(nanoTime()));
+            }
+        } else if (permittedState instanceof HalfOpenState) {
+            if (failed || slow) {
+                stateUpdater.compareAndSet(this, permittedState, new OpenState(nanoTime()));
+            } else if (((HalfOpenState) permittedState).onSuccess() >= permittedCallsInHalfOpenState) {
+                stateUpdater.compareAndSet(this, permittedState, new ClosedState(slidingWindowSize));
+            }
+        }
+        // Requests which were permitted before the circuit opened don't change the state.
+    }
+
+    @Override
+    public StreamingHttpClientFilter create(final FilterableStreamingHttpClient client) {
+        return new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return CircuitBreakerHttpRequesterFilter.this.request(delegate, strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public StreamingHttpConnectionFilter create(final FilterableStreamingHttpConnection connection) {
+        return new StreamingHttpConnectionFilter(connection) {
+            @Override
+            public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
+                                                         final StreamingHttpRequest request) {
+                return CircuitBreakerHttpRequesterFilter.this.request(delegate(), strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+
+    private abstract static class CircuitState {
+        abstract State state();
+
+        abstract boolean tryAcquire();
+
+        void onCancel() {
+        }
+    }
+
+    private static final class ClosedState extends CircuitState {
+        final SlidingWindow window;
+
+        ClosedState(final int slidingWindowSize) {
+            window = new SlidingWindow(slidingWindowSize);
+        }
+
+        @Override
+        State state() {
+            return State.CLOSED;
+        }
+
+        @Override
+        boolean tryAcquire() {
+            return true;
+        }
+    }
+
+    private static final class OpenState extends CircuitState {
+        final long openedAtNanos;
+
+        OpenState(final long openedAtNanos) {
+            this.openedAtNanos = openedAtNanos;
+        }
+
+        @Override
+        State state() {
+            return State.OPEN;
+        }
+
+        @Override
+        boolean tryAcquire() {
+            return false;
+        }
+    }
+
+    private static final class HalfOpenState extends CircuitState {
+        private static final AtomicIntegerFieldUpdater<HalfOpenState> permitsUpdater =
+                newUpdater(HalfOpenState.class, "permits");
+        private static final AtomicIntegerFieldUpdater<HalfOpenState> successesUpdater =
+                newUpdater(HalfOpenState.class, "successes");
+
+        private volatile int permits;
+        private volatile int successes;
+
+        HalfOpenState(final int permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        State state() {
+            return State.HALF_OPEN;
+        }
+
+        @Override
+        boolean tryAcquire() {
+            for (;;) {
+                final int current = permits;
+                if (current <= 0) {
+                    return false;
+                }
+                if (permitsUpdater.compareAndSet(this, current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        int onSuccess() {
+            return successesUpdater.incrementAndGet(this);
+        }
+
+        @Override
+        void onCancel() {
+            // A cancelled trial request does not tell anything about the backend, let another request try.
+            permitsUpdater.incrementAndGet(this);
+        }
+    }
+
+    /**
+     * Records the outcome of the most recent calls in a ring, without locking.
+     */
+    private static final class SlidingWindow {
+        private static final int RECORDED = 1;
+        private static final int FAILED = 2;
+        private static final int SLOW = 4;
+        private static final AtomicLongFieldUpdater<SlidingWindow> indexUpdater =
+                AtomicLongFieldUpdater.newUpdater(SlidingWindow.class, "index");
+        private static final AtomicIntegerFieldUpdater<SlidingWindow> callsUpdater =
+                newUpdater(SlidingWindow.class, "calls");
+        private static final AtomicIntegerFieldUpdater<SlidingWindow> failuresUpdater =
+                newUpdater(SlidingWindow.class, "failures");
+        private static final AtomicIntegerFieldUpdater<SlidingWindow> slowCallsUpdater =
+                newUpdater(SlidingWindow.class, "slowCalls");
+
+        private final AtomicIntegerArray outcomes;
+        private volatile long index;
+        private volatile int calls;
+        private volatile int failures;
+        private volatile int slowCalls;
+
+        SlidingWindow(final int size) {
+            outcomes = new AtomicIntegerArray(size);
+        }
+
+        void record(final boolean failed, final boolean slow) {
+            final int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+            final int slot = (int) (indexUpdater.getAndIncrement(this) % outcomes.length());
+            final int evicted = outcomes.getAndSet(slot, outcome);
+            if ((evicted & RECORDED) == 0) {
+                callsUpdater.incrementAndGet(this);
+            }
+            final int failuresDelta = (failed ? 1 : 0) - ((evicted & FAILED) == 0 ? 0 : 1);
+            if (failuresDelta != 0) {
+                failuresUpdater.addAndGet(this, failuresDelta);
+            }
+            final int slowCallsDelta = (slow ? 1 : 0) - ((evicted & SLOW) == 0 ? 0 : 1);
+            if (slowCallsDelta != 0) {
+                slowCallsUpdater.addAndGet(this, slowCallsDelta);
+            }
+        }
+
+        int calls() {
+            return calls;
+        }
+
+        int failures() {
+            return failures;
+        }
+
+        int slowCalls() {
+            return slowCalls;
+        }
+    }
+
+    /**
+     * A builder for {@link CircuitBreakerHttpRequesterFilter}.
+     */
+    public static final class Builder {
+        private int slidingWindowSize = 100;
+        private int minimumNumberOfCalls = 20;
+        private float failureRateThreshold = 0.5f;
+        private float slowCallRateThreshold = 1f;
+        private Duration slowCallDuration = Duration.ofSeconds(60);
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 5;
+        private Predicate<HttpResponseMetaData> failureResponsePredicate =
+                response -> SERVER_ERROR_5XX.contains(response.status());
+
+        /**
+         * Sets the number of most recent calls whose outcome decides whether the circuit opens.
+         *
+         * @param slidingWindowSize the number of most recent calls whose outcome is recorded.
+         * @param minimumNumberOfCalls the minimum number of recorded calls before the circuit can open.
+         * @return {@code this}.
+         */
+        public Builder slidingWindow(final int slidingWindowSize, final int minimumNumberOfCalls) {
+            if (slidingWindowSize <= 0) {
+                throw new IllegalArgumentException("slidingWindowSize: " + slidingWindowSize + " (expected >0)");
+            }
+            if (minimumNumberOfCalls <= 0 || minimumNumberOfCalls > slidingWindowSize) {
+                throw new IllegalArgumentException("minimumNumberOfCalls: " + minimumNumberOfCalls +
+                        " (expected (0, " + slidingWindowSize + "])");
+            }
+            this.slidingWindowSize = slidingWindowSize;
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+
+        /**
+         * Sets the rate of failed calls in the sliding window at which the circuit opens.
+         *
+         * @param failureRateThreshold the rate of failed calls at which the circuit opens.
+         * @return {@code this}.
+         */
+        public Builder failureRateThreshold(final float failureRateThreshold) {
+            this.failureRateThreshold = checkRate("failureRateThreshold", failureRateThreshold);
+            return this;
+        }
+
+        /**
+         * Sets the rate of slow calls in the sliding window at which the circuit opens.
+         *
+         * @param slowCallRateThreshold the rate of slow calls at which the circuit opens.
+         * @param slowCallDuration the minimum duration of a call to be considered slow.
+         * @return {@code this}.
+         */
+        public Builder slowCallRateThreshold(final float slowCallRateThreshold, final Duration slowCallDuration) {
+            this.slowCallRateThreshold = checkRate("slowCallRateThreshold", slowCallRateThreshold);
+            this.slowCallDuration = requireNonNull(slowCallDuration);
+            return this;
+        }
+
+        /**
+         * Sets the duration for which the circuit stays open before trial requests are permitted.
+         *
+         * @param openDuration the duration for which the circuit stays open.
+         * @return {@code this}.
+         */
+        public Builder openDuration(final Duration openDuration) {
+            this.openDuration = requireNonNull(openDuration);
+            return this;
+        }
+
+        /**
+         * Sets the number of trial requests which are permitted while the circuit is half-open.
+         *
+         * @param permittedCallsInHalfOpenState the number of trial requests permitted while the circuit is
+         * half-open.
+         * @return {@code this}.
+         */
+        public Builder permittedCallsInHalfOpenState(final int permittedCallsInHalfOpenState) {
+            if (permittedCallsInHalfOpenState <= 0) {
+                throw new IllegalArgumentException("permittedCallsInHalfOpenState: " + permittedCallsInHalfOpenState +
+                        " (expected >0)");
+            }
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Predicate} which decides whether a response is a failure. By default, responses with a
+         * {@link io.servicetalk.http.api.HttpResponseStatus.StatusClass#SERVER_ERROR_5XX 5xx} status are failures.
+         *
+         * @param failureResponsePredicate {@link Predicate} which returns {@code true} for failed responses.
+         * @return {@code this}.
+         */
+        public Builder failureResponsePredicate(final Predicate<HttpResponseMetaData> failureResponsePredicate) {
+            this.failureResponsePredicate = requireNonNull(failureResponsePredicate);
+            return this;
+        }
+
+        /**
+         * Builds a new {@link CircuitBreakerHttpRequesterFilter}.
+         *
+         * @return a new {@link CircuitBreakerHttpRequesterFilter}.
+         */
+        public CircuitBreakerHttpRequesterFilter build() {
+            return new CircuitBreakerHttpRequesterFilter(this);
+        }
+
+        private static float checkRate(final String name, final float rate) {
+            if (rate <= 0 || rate > 1) {
+                throw new IllegalArgumentException(name + ": " + rate + " (expected (0, 1])");
+            }
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+/**
+ * Thrown when a request is rejected because the circuit of a {@link CircuitBreakerHttpRequesterFilter} is open.
+ * <p>
+ * {@link RetryingHttpRequesterFilter} never retries requests which failed with this exception.
+ */
+public final class CircuitBreakerOpenException extends RuntimeException {
+    private static final long serialVersionUID = -1733581406932440584L;
+
+    /**
+     * Create a new instance.
+     *
+     * @param message The detail message.
+     */
+    CircuitBreakerOpenException(final String message) {
+        // Requests are rejected on the hot path while the circuit is open, avoid capturing the stack trace.
+        super(message, null, false, false);
+    }
+}
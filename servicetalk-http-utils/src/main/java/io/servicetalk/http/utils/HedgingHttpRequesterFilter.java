@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.FilterableStreamingHttpClient;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.utils.RepeatablePayloadBody.withRepeatablePayloadBody;
+import static io.servicetalk.http.utils.RetryBudget.newRetryBudget;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A filter which hedges requests: if no response arrived after a delay, the request is sent again and the first
+ * response is used, while the other attempts are cancelled. This reduces the tail latency caused by a single slow
+ * backend, at the cost of additional load.
+ * <p>
+ * The delay is either fixed or a percentile of the latencies of recent responses. Every hedged attempt withdraws from a
+ * {@link RetryBudget} which is replenished by completed requests, which bounds the additional load. Failed attempts
+ * are not hedged, use {@link RetryingHttpRequesterFilter} to retry failures.
+ * <p>
+ * Only {@link Builder#hedgeFor(Predicate) requests} which are safe to send multiple times are hedged, by default those
+ * with an <a href="https://tools.ietf.org/html/rfc7231#section-4.2.2">idempotent</a> method. gRPC calls always use
+ * {@code POST}, so hedging idempotent gRPC methods requires a predicate which matches their path.
+ * <p>
+ * <b>Note:</b> Hedged {@link StreamingHttpRequest requests} need a {@link StreamingHttpRequest#payloadBody() payload
+ * body} that is replayable, i.e. multiple subscribes to the payload {@link Publisher} emit the same data. Pooled
+ * {@link io.servicetalk.buffer.api.Buffer}s are supported, see {@link RepeatablePayloadBody}.
+ * <p>
+ * This filter can only be applied to clients: all attempts of a request on the same connection would be served by the
+ * same backend.
+ */
+public final class HedgingHttpRequesterFilter implements StreamingHttpClientFilterFactory,
+                                                         HttpExecutionStrategyInfluencer {
+    private static final int LATENCY_WINDOW_SIZE = 1024;
+
+    private final int maxAttempts;
+    private final Duration hedgeDelay;
+    private final double hedgeDelayPercentile;
+    private final Predicate<HttpRequestMetaData> hedgeForPredicate;
+    private final RetryBudget hedgingBudget;
+    @Nullable
+    private final Executor executor;
+
+    private HedgingHttpRequesterFilter(final Builder builder) {
+        maxAttempts = builder.maxAttempts;
+        hedgeDelay = builder.hedgeDelay;
+        hedgeDelayPercentile = builder.hedgeDelayPercentile;
+        hedgeForPredicate = builder.hedgeForPredicate;
+        hedgingBudget = builder.hedgingBudget;
+        executor = builder.executor;
+    }
+
+    @Override
+    public StreamingHttpClientFilter create(final FilterableStreamingHttpClient client) {
+        return new StreamingHttpClientFilter(client) {
+            private final Executor hedgeExecutor = executor != null ? executor : client.executionContext().executor();
+            @Nullable
+            private final LatencyPercentileTracker latencyTracker = hedgeDelayPercentile > 0 ?
+                    new LatencyPercentileTracker(hedgeDelayPercentile, LATENCY_WINDOW_SIZE, hedgeDelay.toNanos()) :
+                    null;
+
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                if (!hedgeForPredicate.test(request)) {
+                    return delegate.request(strategy, request);
+                }
+                // Every hedged attempt writes the payload body again.
+                return withRepeatablePayloadBody(request, req -> new HedgingSingle(delegate.request(strategy, req),
+                        hedgeExecutor, maxAttempts,
+                        latencyTracker != null ? latencyTracker.percentileNanos() : hedgeDelay.toNanos(),
+                        hedgingBudget, latencyTracker, System::nanoTime));
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+
+    /**
+     * A builder for {@link HedgingHttpRequesterFilter}.
+     */
+    public static final class Builder {
+        private int maxAttempts = 2;
+        private Duration hedgeDelay = Duration.ofMillis(100);
+        private double hedgeDelayPercentile;
+        private Predicate<HttpRequestMetaData> hedgeForPredicate = meta -> meta.method().properties().isIdempotent();
+        private RetryBudget hedgingBudget = newRetryBudget(0.1, 10);
+        @Nullable
+        private Executor executor;
+
+        /**
+         * Sets the maximum number of attempts of a request, including the original one.
+         *
+         * @param maxAttempts the maximum number of attempts of a request, including the original one.
+         * @return {@code this}.
+         */
+        public Builder maxAttempts(final int maxAttempts) {
+            if (maxAttempts < 2) {
+                throw new IllegalArgumentException("maxAttempts: " + maxAttempts + " (expected >=2)");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sends another attempt if no response arrived after a fixed delay.
+         *
+         * @param hedgeDelay the delay after which another attempt is sent.
+         * @return {@code this}.
+         */
+        public Builder hedgeDelay(final Duration hedgeDelay) {
+            this.hedgeDelay = requireNonNull(hedgeDelay);
+            hedgeDelayPercentile = 0;
+            return this;
+        }
+
+        /**
+         * Sends another attempt if no response arrived after a percentile of the latencies of recent responses,
+         * e.g. {@code 95} sends another attempt for the slowest 5% of requests. The latency of a response is measured
+         * from the start of the request, also if a hedged attempt responded first.
+         *
+         * @param percentile the percentile of the latencies of recent responses after which another attempt is sent.
+         * @param initialHedgeDelay the delay to use until enough latencies have been recorded.
+         * @return {@code this}.
+         */
+        public Builder hedgeDelayPercentile(final double percentile, final Duration initialHedgeDelay) {
+            if (percentile <= 0 || percentile >= 100) {
+                throw new IllegalArgumentException("percentile: " + percentile + " (expected (0, 100))");
+            }
+            hedgeDelayPercentile = percentile;
+            hedgeDelay = requireNonNull(initialHedgeDelay);
+            return this;
+        }
+
+        /**
+         * Sets the {@link Predicate} which decides whether a request is hedged. By default, requests with an
+         * idempotent method are hedged.
+         *
+         * @param hedgeForPredicate {@link Predicate} which returns {@code true} for requests which are hedged.
+         * @return {@code this}.
+         */
+        public Builder hedgeFor(final Predicate<HttpRequestMetaData> hedgeForPredicate) {
+            this.hedgeForPredicate = requireNonNull(hedgeForPredicate);
+            return this;
+        }
+
+        /**
+         * Sets the {@link RetryBudget} to withdraw from for each hedged attempt. By default, hedged attempts are
+         * limited to 10% of the completed requests.
+         *
+         * @param hedgingBudget the {@link RetryBudget} to withdraw from for each hedged attempt.
+         * @return {@code this}.
+         */
+        public Builder hedgingBudget(final RetryBudget hedgingBudget) {
+            this.hedgingBudget = requireNonNull(hedgingBudget);
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} to schedule hedged attempts. By default, the {@link Executor} of the client is
+         * used.
+         *
+         * @param executor the {@link Executor} to schedule hedged attempts.
+         * @return {@code this}.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Builds a new {@link HedgingHttpRequesterFilter}.
+         *
+         * @return a new {@link HedgingHttpRequesterFilter}.
+         */
+        public HedgingHttpRequesterFilter build() {
+            return new HedgingHttpRequesterFilter(this);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.SingleSource;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.internal.SubscribableSingle;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.util.function.LongSupplier;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * An operator, which subscribes to additional attempts of a request if no response arrived after a delay, and
+ * completes with the first response.
+ */
+final class HedgingSingle extends SubscribableSingle<StreamingHttpResponse> {
+
+    private final SingleSource<StreamingHttpResponse> attempt;
+    private final Executor executor;
+    private final int maxAttempts;
+    private final long hedgeDelayNanos;
+    private final RetryBudget hedgingBudget;
+    @Nullable
+    private final LatencyPercentileTracker latencyTracker;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Create a new {@link Single}&lt;{@link StreamingHttpResponse}&gt; which hedges the request.
+     *
+     * @param attempt The {@link Single}&lt;{@link StreamingHttpResponse}&gt; which sends the request when subscribed.
+     * @param executor The {@link Executor} to schedule hedged attempts.
+     * @param maxAttempts The maximum number of attempts, including the original one.
+     * @param hedgeDelayNanos The delay after which another attempt is subscribed if no response arrived.
+     * @param hedgingBudget The {@link RetryBudget} to withdraw from for each hedged attempt.
+     * @param latencyTracker The {@link LatencyPercentileTracker} to record the latency of responses, if any. The
+     * latency is measured from the start of the request rather than of the winning attempt, otherwise hedges which win
+     * would bias the percentile, and so the hedge delay, towards ever smaller values.
+     * @param nanoClock The clock which measures the latency, in nanoseconds.
+     */
+    HedgingSingle(final Single<StreamingHttpResponse> attempt, final Executor executor, final int maxAttempts,
+                  final long hedgeDelayNanos, final RetryBudget hedgingBudget,
+                  @Nullable final LatencyPercentileTracker latencyTracker, final LongSupplier nanoClock) {
+        this.attempt = toSource(attempt);
+        this.executor = executor;
+        this.maxAttempts = maxAttempts;
+        this.hedgeDelayNanos = hedgeDelayNanos;
+        this.hedgingBudget = hedgingBudget;
+        this.latencyTracker = latencyTracker;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected void handleSubscribe(final Subscriber<? super StreamingHttpResponse> subscriber) {
+        final HedgingCancellable hedging = new HedgingCancellable(subscriber, this);
+        subscriber.onSubscribe(hedging);
+        hedging.subscribeAttempt(0);
+    }
+
+    /**
+     * Coordinates the attempts of one request. All state is guarded by {@code this}, signals are delivered and
+     * {@link Cancellable}s are cancelled outside of the lock.
+     */
+    private static final class HedgingCancellable implements Cancellable {
+        private final Subscriber<? super StreamingHttpResponse> target;
+        private final HedgingSingle hedgingSingle;
+        private final Cancellable[] attemptCancellables;
+        private final long startNanos;
+        @Nullable
+        private Cancellable hedgeTimer;
+        private int attempts = 1;
+        private int inFlight = 1;
+        private boolean terminated;
+
+        HedgingCancellable(final Subscriber<? super StreamingHttpResponse> target,
+                           final HedgingSingle hedgingSingle) {
+            this.target = target;
+            this.hedgingSingle = hedgingSingle;
+            attemptCancellables = new Cancellable[hedgingSingle.maxAttempts];
+            startNanos = hedgingSingle.nanoClock.getAsLong();
+        }
+
+        void subscribeAttempt(final int index) {
+            hedgingSingle.attempt.subscribe(new AttemptSubscriber(this, index));
+            if (index + 1 < hedgingSingle.maxAttempts) {
+                final Cancellable timer = hedgingSingle.executor.schedule(this::onHedgeDelay,
+                        hedgingSingle.hedgeDelayNanos, NANOSECONDS);
+                final boolean cancelTimer;
+                synchronized (this) {
+                    cancelTimer = terminated;
+                    if (!cancelTimer) {
+                        hedgeTimer = timer;
+                    }
+                }
+                if (cancelTimer) {
+                    timer.cancel();
+                }
+            }
+        }
+
+        private void onHedgeDelay() {
+            final int index;
+            synchronized (this) {
+                if (terminated || attempts >= hedgingSingle.maxAttempts || !hedgingSingle.hedgingBudget.tryRetry()) {
+                    return;
+                }
+                index = attempts++;
+                ++inFlight;
+            }
+            subscribeAttempt(index);
+        }
+
+        void onAttemptSubscribe(final int index, final Cancellable cancellable) {
+            final boolean cancel;
+            synchronized (this) {
+                cancel = terminated;
+                if (!cancel) {
+                    attemptCancellables[index] = cancellable;
+                }
+            }
+            if (cancel) {
+                cancellable.cancel();
+            }
+        }
+
+        void onAttemptSuccess(final int index, @Nullable final StreamingHttpResponse response) {
+            final boolean lost;
+            synchronized (this) {
+                lost = terminated;
+                terminated = true;
+                attemptCancellables[index] = null;
+            }
+            if (lost) {
+                // Another attempt won the race, consume the payload to release the connection of this one.
+                if (response != null) {
+                    response.payloadBodyAndTrailers().ignoreElements().subscribe();
+                }
+                return;
+            }
+            cancelAll();
+            hedgingSingle.hedgingBudget.onSuccess();
+            if (hedgingSingle.latencyTracker != null) {
+                hedgingSingle.latencyTracker.record(hedgingSingle.nanoClock.getAsLong() - startNanos);
+            }
+            target.onSuccess(response);
+        }
+
+        void onAttemptError(final int index, final Throwable cause) {
+            synchronized (this) {
+                attemptCancellables[index] = null;
+                // Failures are not hedged, the request fails once no other attempt can succeed.
+                if (terminated || --inFlight > 0) {
+                    return;
+                }
+                terminated = true;
+            }
+            cancelAll();
+            target.onError(cause);
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                terminated = true;
+            }
+            cancelAll();
+        }
+
+        private void cancelAll() {
+            final Cancellable timer;
+            final Cancellable[] cancellables;
+            synchronized (this) {
+                timer = hedgeTimer;
+                hedgeTimer = null;
+                cancellables = attemptCancellables.clone();
+                for (int i = 0; i < attemptCancellables.length; ++i) {
+                    attemptCancellables[i] = null;
+                }
+            }
+            if (timer != null) {
+                timer.cancel();
+            }
+            for (Cancellable cancellable : cancellables) {
+                if (cancellable != null) {
+                    cancellable.cancel();
+                }
+            }
+        }
+    }
+
+    private static final class AttemptSubscriber implements Subscriber<StreamingHttpResponse> {
+        private final HedgingCancellable hedging;
+        private final int index;
+
+        AttemptSubscriber(final HedgingCancellable hedging, final int index) {
+            this.hedging = hedging;
+            this.index = index;
+        }
+
+        @Override
+        public void onSubscribe(final Cancellable cancellable) {
+            hedging.onAttemptSubscribe(index, cancellable);
+        }
+
+        @Override
+        public void onSuccess(@Nullable final StreamingHttpResponse result) {
+            hedging.onAttemptSuccess(index, result);
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            hedging.onAttemptError(index, t);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.lang.Math.min;
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
+
+/**
+ * Tracks a percentile of the most recent latencies.
+ * <p>
+ * Latencies are recorded in a ring without locking. The percentile is recomputed from a snapshot of the ring after a
+ * quarter of the ring has been overwritten, which amortizes the cost of sorting over the recorded latencies.
+ */
+final class LatencyPercentileTracker {
+    private static final AtomicLongFieldUpdater<LatencyPercentileTracker> countUpdater =
+            newUpdater(LatencyPercentileTracker.class, "count");
+
+    private final AtomicLongArray latencies;
+    private final double percentile;
+    private final int recomputeInterval;
+    private volatile long count;
+    private volatile long percentileNanos;
+
+    LatencyPercentileTracker(final double percentile, final int windowSize, final long initialNanos) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected (0, 100))");
+        }
+        if (windowSize < 4) {
+            throw new IllegalArgumentException("windowSize: " + windowSize + " (expected >=4)");
+        }
+        latencies = new AtomicLongArray(windowSize);
+        this.percentile = percentile;
+        recomputeInterval = windowSize / 4;
+        percentileNanos = initialNanos;
+    }
+
+    /**
+     * Get the percentile of the recorded latencies, or the initial value until the ring has been filled once.
+     *
+     * @return the percentile of the recorded latencies in nanoseconds.
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    void record(final long latencyNanos) {
+        final long index = countUpdater.getAndIncrement(this);
+        latencies.set((int) (index % latencies.length()), latencyNanos);
+        final long recorded = index + 1;
+        if (recorded >= latencies.length() && recorded % recomputeInterval == 0) {
+            percentileNanos = computePercentile();
+        }
+    }
+
+    private long computePercentile() {
+        final long[] snapshot = new long[latencies.length()];
+        for (int i = 0; i < snapshot.length; ++i) {
+            snapshot[i] = latencies.get(i);
+        }
+        Arrays.sort(snapshot);
+        return snapshot[min(snapshot.length - 1, (int) (snapshot.length * percentile / 100))];
+    }
+}
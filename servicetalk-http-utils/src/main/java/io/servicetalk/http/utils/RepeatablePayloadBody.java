@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.buffer.netty.BufferUtils.retainedDuplicateIfPooled;
+import static java.util.Collections.newSetFromMap;
+
+/**
+ * Allows the payload body of a {@link StreamingHttpRequest} to be written more than once by filters which retry or
+ * hedge requests.
+ * <p>
+ * {@link Buffer}s allocated by a pooled {@link BufferAllocator} are released by the transport once written, so writing
+ * the same {@link Buffer} again would access released memory. Every attempt therefore writes a retained duplicate of
+ * such {@link Buffer}s, and the original {@link Buffer}s are released once the response arrived or the request failed,
+ * at which point no further attempt is made. Other {@link Buffer}s are written as-is.
+ */
+public final class RepeatablePayloadBody {
+
+    private RepeatablePayloadBody() {
+        // no instances
+    }
+
+    /**
+     * Sends a {@link StreamingHttpRequest} whose payload body may be written by multiple attempts.
+     *
+     * @param request the {@link StreamingHttpRequest} to send.
+     * @param attempts a {@link Function} which sends the passed {@link StreamingHttpRequest}, and may subscribe to the
+     * returned {@link Single} and hence write the payload body multiple times.
+     * @return the response of the {@link Single} returned by {@code attempts}.
+     */
+    public static Single<StreamingHttpResponse> withRepeatablePayloadBody(
+            final StreamingHttpRequest request,
+            final Function<StreamingHttpRequest, Single<StreamingHttpResponse>> attempts) {
+        final PooledBuffers pooledBuffers = new PooledBuffers();
+        return attempts.apply(request.transformRawPayloadBody(payload -> payload.map(pooledBuffers::duplicate)))
+                .whenFinally(pooledBuffers::releaseAll);
+    }
+
+    private static final class PooledBuffers {
+        /**
+         * The original {@link Buffer}s which have been duplicated, or {@code null} once they have been released.
+         */
+        @Nullable
+        private Set<Buffer> originals = newSetFromMap(new IdentityHashMap<>());
+
+        Object duplicate(final Object item) {
+            if (!(item instanceof Buffer)) {
+                return item;
+            }
+            final Buffer duplicate = retainedDuplicateIfPooled((Buffer) item);
+            if (duplicate == null) {
+                return item;
+            }
+            synchronized (this) {
+                if (originals != null) {
+                    originals.add((Buffer) item);
+                    return duplicate;
+                }
+            }
+            // No further attempt is made, the ownership of the original is transferred to the transport as usual.
+            duplicate.release();
+            return item;
+        }
+
+        void releaseAll() {
+            final Set<Buffer> originals;
+            synchronized (this) {
+                originals = this.originals;
+                this.originals = null;
+            }
+            if (originals != null) {
+                for (Buffer original : originals) {
+                    original.release();
+                }
+            }
+        }
+    }
+}
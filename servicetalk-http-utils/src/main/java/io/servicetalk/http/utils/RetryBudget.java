@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
+
+/**
+ * A budget which caps the number of retries relative to the number of successful requests.
+ * <p>
+ * The budget is a token bucket: every successful request deposits {@code retryRatio} tokens and every retry withdraws
+ * one token. The bucket holds at most {@code maxRetries} tokens and starts full, so a burst of failures can only be
+ * retried {@code maxRetries} times before retries are limited to {@code retryRatio} of the successful requests.
+ *
+ * @see RetryingHttpRequesterFilter.Builder#retryBudget(RetryBudget)
+ */
+public final class RetryBudget {
+    private static final long TOKEN = 1000;
+    private static final AtomicLongFieldUpdater<RetryBudget> balanceUpdater = newUpdater(RetryBudget.class, "balance");
+
+    private final long deposit;
+    private final long maxBalance;
+    private volatile long balance;
+
+    private RetryBudget(final double retryRatio, final int maxRetries) {
+        if (retryRatio <= 0 || retryRatio > 1) {
+            throw new IllegalArgumentException("retryRatio: " + retryRatio + " (expected (0, 1])");
+        }
+        if (maxRetries <= 0) {
+            throw new IllegalArgumentException("maxRetries: " + maxRetries + " (expected >0)");
+        }
+        deposit = (long) (retryRatio * TOKEN);
+        maxBalance = maxRetries * TOKEN;
+        balance = maxBalance;
+    }
+
+    /**
+     * Creates a new {@link RetryBudget}.
+     *
+     * @param retryRatio the number of retries permitted for every successful request, e.g. {@code 0.1} permits one
+     * retry for every ten successful requests.
+     * @param maxRetries the maximum number of retries which can be accumulated.
+     * @return a new {@link RetryBudget}.
+     */
+    public static RetryBudget newRetryBudget(final double retryRatio, final int maxRetries) {
+        return new RetryBudget(retryRatio, maxRetries);
+    }
+
+    /**
+     * Records a successful request, which deposits tokens for future retries.
+     */
+    public void onSuccess() {
+        for (;;) {
+            final long current = balance;
+            if (current >= maxBalance ||
+                    balanceUpdater.compareAndSet(this, current, Math.min(maxBalance, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Try to withdraw the tokens for a retry.
+     *
+     * @return {@code true} if the retry is permitted, {@code false} if the budget is exhausted.
+     */
+    public boolean tryRetry() {
+        for (;;) {
+            final long current = balance;
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balanceUpdater.compareAndSet(this, current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Get the number of retries which are currently permitted.
+     *
+     * @return the number of retries which are currently permitted.
+     */
+    public int availableRetries() {
+        return (int) (balance / TOKEN);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{availableRetries=" + availableRetries() + '}';
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,8 +37,12 @@ import io.servicetalk.http.api.StreamingHttpResponse;
 
 import java.io.IOException;
 import java.util.function.BiPredicate;
+import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.Completable.failed;
+import static io.servicetalk.http.api.HttpResponseStatus.StatusClass.SERVER_ERROR_5XX;
+import static io.servicetalk.http.utils.RepeatablePayloadBody.withRepeatablePayloadBody;
+import static java.util.Objects.requireNonNull;
 
 /**
  * A filter to enable retries for HTTP requests.
@@ -50,20 +54,42 @@ public final class RetryingHttpRequesterFilter implements StreamingHttpClientFil
                                                           HttpExecutionStrategyInfluencer {
 
     private final ReadOnlyRetryableSettings<HttpRequestMetaData> settings;
+    @Nullable
+    private final RetryBudget retryBudget;
 
-    private RetryingHttpRequesterFilter(final ReadOnlyRetryableSettings<HttpRequestMetaData> settings) {
+    private RetryingHttpRequesterFilter(final ReadOnlyRetryableSettings<HttpRequestMetaData> settings,
+                                        @Nullable final RetryBudget retryBudget) {
         this.settings = settings;
+        this.retryBudget = retryBudget;
     }
 
     private Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
                                                   final HttpExecutionStrategy strategy,
                                                   final StreamingHttpRequest request,
                                                   final BiIntFunction<Throwable, Completable> retryStrategy) {
-        return delegate.request(strategy, request).retryWhen((count, t) -> {
-            if (settings.isRetryable(request, t)) {
-                return retryStrategy.apply(count, t);
+        final RetryBudget retryBudget = this.retryBudget;
+        // Every retry writes the payload body again.
+        return withRepeatablePayloadBody(request, req -> {
+            Single<StreamingHttpResponse> response = delegate.request(strategy, req);
+            if (retryBudget != null) {
+                // Only successful responses replenish the budget, a backend which responds with server errors must not
+                // earn retries for the requests which fail with exceptions.
+                response = response.beforeOnSuccess(resp -> {
+                    if (!SERVER_ERROR_5XX.contains(resp.status())) {
+                        retryBudget.onSuccess();
+                    }
+                });
             }
-            return failed(t);
+            return response.retryWhen((count, t) -> {
+                // Retrying while a circuit breaker is open would only add load to a backend which is trying to
+                // recover. The budget is consulted last, so that no token is withdrawn for a retry which is not
+                // attempted.
+                if (!(t instanceof CircuitBreakerOpenException) && count <= settings.maxRetries() &&
+                        settings.isRetryable(req, t) && (retryBudget == null || retryBudget.tryRetry())) {
+                    return retryStrategy.apply(count, t);
+                }
+                return failed(t);
+            });
         });
     }
 
@@ -107,14 +133,36 @@ public final class RetryingHttpRequesterFilter implements StreamingHttpClientFil
     /**
      * A builder for {@link RetryingHttpRequesterFilter}, which puts an upper bound on retry attempts.
      * To configure the maximum number of retry attempts see {@link #maxRetries(int)}.
+     * <p>
+     * {@link CircuitBreakerOpenException}s are never retried.
      */
     public static final class Builder
             extends AbstractRetryingFilterBuilder<Builder, RetryingHttpRequesterFilter, HttpRequestMetaData> {
 
+        @Nullable
+        private RetryBudget retryBudget;
+
+        /**
+         * Limits the retries of all requests to a budget which is replenished by successful requests, to prevent
+         * retries from amplifying the load on a failing backend. By default, retries are not limited by a budget.
+         * <p>
+         * Responses with a {@link io.servicetalk.http.api.HttpResponseStatus.StatusClass#SERVER_ERROR_5XX 5xx}
+         * status do not replenish the budget.
+         * <p>
+         * The same {@link RetryBudget} may be shared by multiple filters.
+         *
+         * @param retryBudget the {@link RetryBudget} to withdraw from for each retry.
+         * @return {@code this}.
+         */
+        public Builder retryBudget(final RetryBudget retryBudget) {
+            this.retryBudget = requireNonNull(retryBudget);
+            return this;
+        }
+
         @Override
         protected RetryingHttpRequesterFilter build(
                 final ReadOnlyRetryableSettings<HttpRequestMetaData> readOnlySettings) {
-            return new RetryingHttpRequesterFilter(readOnlySettings);
+            return new RetryingHttpRequesterFilter(readOnlySettings, retryBudget);
         }
 
         /**
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Publisher;
+
+/**
+ * A <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2.1">content coding</a> which transforms a streaming
+ * HTTP payload body.
+ * <p>
+ * Implementations are expected to encode and decode incrementally, as {@link Buffer}s arrive, without aggregating the
+ * payload body.
+ *
+ * @see ContentCodings
+ */
+public interface ContentCodec {
+
+    /**
+     * The name of this content coding, as used in {@code Content-Encoding} and {@code Accept-Encoding} headers.
+     *
+     * @return the name of this content coding.
+     */
+    CharSequence name();
+
+    /**
+     * Encodes the passed payload body.
+     *
+     * @param from the payload body to encode.
+     * @param allocator {@link BufferAllocator} to allocate the encoded {@link Buffer}s.
+     * @return the encoded payload body.
+     */
+    Publisher<Buffer> encode(Publisher<Buffer> from, BufferAllocator allocator);
+
+    /**
+     * Decodes the passed payload body.
+     *
+     * @param from the payload body to decode.
+     * @param allocator {@link BufferAllocator} to allocate the decoded {@link Buffer}s.
+     * @return the decoded payload body. The returned {@link Publisher} terminates with a
+     * {@link ContentCodingException} if {@code from} is not a valid encoding.
+     */
+    Publisher<Buffer> decode(Publisher<Buffer> from, BufferAllocator allocator);
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.FilterableStreamingHttpClient;
+import io.servicetalk.http.api.FilterableStreamingHttpConnection;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpConnectionFilter;
+import io.servicetalk.http.api.StreamingHttpConnectionFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.utils.encoding.ContentCodings.deflateDefault;
+import static io.servicetalk.http.utils.encoding.ContentCodings.gzipDefault;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.acceptEncodingValue;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.findCodec;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.isIdentity;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.mayHavePayloadBody;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.removeContentHeaders;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A filter which advertises the supported codings with the {@code Accept-Encoding} request header, and decodes
+ * response payload bodies according to their {@code Content-Encoding}. Optionally request payload bodies are encoded,
+ * except for requests which do not carry a payload body, like {@code GET} and {@code HEAD} requests.
+ * <p>
+ * Payload bodies are encoded and decoded incrementally. Responses with a coding which is not supported are passed
+ * through unchanged.
+ */
+public final class ContentCodingHttpRequesterFilter implements StreamingHttpClientFilterFactory,
+                                                               StreamingHttpConnectionFilterFactory,
+                                                               HttpExecutionStrategyInfluencer {
+    private final List<ContentCodec> codecs;
+    private final CharSequence acceptEncoding;
+    @Nullable
+    private final ContentCodec requestEncoder;
+
+    /**
+     * Creates a new instance which supports {@link ContentCodings#gzipDefault() gzip} and
+     * {@link ContentCodings#deflateDefault() deflate} encoded responses, and does not encode requests.
+     */
+    public ContentCodingHttpRequesterFilter() {
+        this(asList(gzipDefault(), deflateDefault()), null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param codecs the {@link ContentCodec}s supported to decode responses, in order of preference.
+     * @param requestEncoder the {@link ContentCodec} to encode request payload bodies with, or {@code null} to send
+     * requests without encoding. Only use a coding which is known to be supported by the server.
+     */
+    public ContentCodingHttpRequesterFilter(final List<ContentCodec> codecs,
+                                            @Nullable final ContentCodec requestEncoder) {
+        this.codecs = unmodifiableList(new ArrayList<>(codecs));
+        acceptEncoding = acceptEncodingValue(this.codecs);
+        this.requestEncoder = requestEncoder;
+    }
+
+    private Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                  final HttpExecutionStrategy strategy,
+                                                  final StreamingHttpRequest request) {
+        final BufferAllocator allocator = delegate.executionContext().bufferAllocator();
+        final HttpHeaders headers = request.headers();
+        if (!codecs.isEmpty() && !headers.contains(ACCEPT_ENCODING)) {
+            headers.set(ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (requestEncoder != null && !headers.contains(CONTENT_ENCODING) && mayHavePayloadBody(request)) {
+            removeContentHeaders(headers);
+            headers.set(CONTENT_ENCODING, requestEncoder.name());
+            request.transformPayloadBody(payload -> requestEncoder.encode(payload, allocator));
+        }
+        return delegate.request(strategy, request).map(response -> decode(response, allocator));
+    }
+
+    private StreamingHttpResponse decode(final StreamingHttpResponse response, final BufferAllocator allocator) {
+        final CharSequence contentEncoding = response.headers().get(CONTENT_ENCODING);
+        if (isIdentity(contentEncoding)) {
+            return response;
+        }
+        assert contentEncoding != null;
+        final ContentCodec decoder = findCodec(codecs, contentEncoding);
+        if (decoder == null) {
+            return response;
+        }
+        removeContentHeaders(response.headers());
+        return response.transformPayloadBody(payload -> decoder.decode(payload, allocator));
+    }
+
+    @Override
+    public StreamingHttpClientFilter create(final FilterableStreamingHttpClient client) {
+        return new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return ContentCodingHttpRequesterFilter.this.request(delegate, strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public StreamingHttpConnectionFilter create(final FilterableStreamingHttpConnection connection) {
+        return new StreamingHttpConnectionFilter(connection) {
+            @Override
+            public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
+                                                         final StreamingHttpRequest request) {
+                return ContentCodingHttpRequesterFilter.this.request(delegate(), strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpService;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+import io.servicetalk.http.api.StreamingHttpServiceFilterFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.VARY;
+import static io.servicetalk.http.api.HttpRequestMethod.HEAD;
+import static io.servicetalk.http.api.HttpResponseStatus.NOT_MODIFIED;
+import static io.servicetalk.http.api.HttpResponseStatus.NO_CONTENT;
+import static io.servicetalk.http.api.HttpResponseStatus.UNSUPPORTED_MEDIA_TYPE;
+import static io.servicetalk.http.utils.encoding.ContentCodings.deflateDefault;
+import static io.servicetalk.http.utils.encoding.ContentCodings.gzipDefault;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.acceptEncodingValue;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.findCodec;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.isIdentity;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.negotiate;
+import static io.servicetalk.http.utils.encoding.ContentCodingUtils.removeContentHeaders;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A filter which decodes request payload bodies according to their {@code Content-Encoding}, and encodes response
+ * payload bodies with a coding negotiated from the {@code Accept-Encoding} request header.
+ * <p>
+ * Payload bodies are encoded and decoded incrementally. Responses are not encoded if they already have a
+ * {@code Content-Encoding}, if their {@code Content-Length} is below the configured threshold, or if their
+ * {@code Content-Type} denotes an already compressed format (e.g. images, audio, video and archives).
+ */
+public final class ContentCodingHttpServiceFilter implements StreamingHttpServiceFilterFactory,
+                                                             HttpExecutionStrategyInfluencer {
+    /**
+     * Default minimum {@code Content-Length} of a response payload body to be encoded.
+     */
+    public static final int DEFAULT_MIN_ENCODING_SIZE = 1024;
+
+    private static final String[] ENCODED_CONTENT_TYPE_PREFIXES = {"image/", "audio/", "video/", "font/woff",
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2",
+            "application/x-7z-compressed", "application/x-rar-compressed", "application/zstd"};
+    private static final String COMPRESSIBLE_IMAGE_CONTENT_TYPE = "image/svg+xml";
+
+    private final List<ContentCodec> codecs;
+    private final CharSequence acceptEncoding;
+    private final int minEncodingSize;
+
+    /**
+     * Creates a new instance which supports {@link ContentCodings#gzipDefault() gzip} and
+     * {@link ContentCodings#deflateDefault() deflate}, and encodes responses of at least
+     * {@link #DEFAULT_MIN_ENCODING_SIZE} bytes.
+     */
+    public ContentCodingHttpServiceFilter() {
+        this(asList(gzipDefault(), deflateDefault()), DEFAULT_MIN_ENCODING_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param codecs the supported {@link ContentCodec}s, in order of preference for encoding responses.
+     * @param minEncodingSize minimum {@code Content-Length} of a response payload body to be encoded. Responses
+     * without a {@code Content-Length} are always encoded if a coding was negotiated.
+     */
+    public ContentCodingHttpServiceFilter(final List<ContentCodec> codecs, final int minEncodingSize) {
+        if (minEncodingSize < 0) {
+            throw new IllegalArgumentException("minEncodingSize: " + minEncodingSize + " (expected >=0)");
+        }
+        this.codecs = unmodifiableList(new ArrayList<>(codecs));
+        acceptEncoding = acceptEncodingValue(this.codecs);
+        this.minEncodingSize = minEncodingSize;
+    }
+
+    @Override
+    public StreamingHttpServiceFilter create(final StreamingHttpService service) {
+        return new StreamingHttpServiceFilter(service) {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory responseFactory) {
+                final BufferAllocator allocator = ctx.executionContext().bufferAllocator();
+                final CharSequence contentEncoding = request.headers().get(CONTENT_ENCODING);
+                if (!isIdentity(contentEncoding)) {
+                    assert contentEncoding != null;
+                    final ContentCodec decoder = findCodec(codecs, contentEncoding);
+                    if (decoder == null) {
+                        // https://tools.ietf.org/html/rfc7694#section-3
+                        return succeeded(responseFactory.newResponse(UNSUPPORTED_MEDIA_TYPE)
+                                .setHeader(ACCEPT_ENCODING, acceptEncoding));
+                    }
+                    removeContentHeaders(request.headers());
+                    request.transformPayloadBody(payload -> decoder.decode(payload, allocator));
+                }
+
+                @Nullable
+                final ContentCodec encoder = HEAD.equals(request.method()) ? null :
+                        negotiate(codecs, request.headers());
+                final Single<StreamingHttpResponse> response = delegate().handle(ctx, request, responseFactory);
+                return encoder == null ? response : response.map(resp -> encode(resp, encoder, allocator));
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+
+    private StreamingHttpResponse encode(final StreamingHttpResponse response, final ContentCodec encoder,
+                                         final BufferAllocator allocator) {
+        final HttpHeaders headers = response.headers();
+        final int statusCode = response.status().code();
+        if (statusCode == NO_CONTENT.code() || statusCode == NOT_MODIFIED.code() ||
+                headers.contains(CONTENT_ENCODING) || !isEncodable(headers)) {
+            return response;
+        }
+        removeContentHeaders(headers);
+        headers.set(CONTENT_ENCODING, encoder.name());
+        headers.add(VARY, ACCEPT_ENCODING);
+        return response.transformPayloadBody(payload -> encoder.encode(payload, allocator));
+    }
+
+    private boolean isEncodable(final HttpHeaders headers) {
+        final CharSequence contentLength = headers.get(CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.toString()) < minEncodingSize) {
+                    return false;
+                }
+            } catch (NumberFormatException ignored) {
+                // Invalid lengths are handled by the transport, the payload body is still eligible for encoding.
+            }
+        }
+        final CharSequence contentType = headers.get(CONTENT_TYPE);
+        if (contentType == null) {
+            return true;
+        }
+        final String type = contentType.toString();
+        if (type.regionMatches(true, 0, COMPRESSIBLE_IMAGE_CONTENT_TYPE, 0,
+                COMPRESSIBLE_IMAGE_CONTENT_TYPE.length())) {
+            return true;
+        }
+        for (String prefix : ENCODED_CONTENT_TYPE_PREFIXES) {
+            if (type.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
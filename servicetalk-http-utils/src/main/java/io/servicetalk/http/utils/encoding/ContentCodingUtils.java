@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.http.api.HttpHeaders;
+import io.servicetalk.http.api.HttpRequestMethod;
+import io.servicetalk.http.api.StreamingHttpRequest;
+
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.CharSequences.contentEquals;
+import static io.servicetalk.http.api.CharSequences.contentEqualsIgnoreCase;
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderValues.IDENTITY;
+import static io.servicetalk.http.api.HttpHeaderValues.ZERO;
+import static io.servicetalk.http.api.HttpRequestMethod.GET;
+import static io.servicetalk.http.api.HttpRequestMethod.HEAD;
+import static io.servicetalk.http.api.HttpRequestMethod.TRACE;
+import static java.util.stream.Collectors.joining;
+
+final class ContentCodingUtils {
+    private static final String ANY_CODING = "*";
+
+    private ContentCodingUtils() {
+        // no instances
+    }
+
+    static CharSequence acceptEncodingValue(final List<ContentCodec> codecs) {
+        return newAsciiString(codecs.stream().map(ContentCodec::name).collect(joining(", ")));
+    }
+
+    static boolean isIdentity(@Nullable final CharSequence contentEncoding) {
+        return contentEncoding == null || contentEqualsIgnoreCase(contentEncoding, IDENTITY);
+    }
+
+    @Nullable
+    static ContentCodec findCodec(final List<ContentCodec> codecs, final CharSequence name) {
+        for (ContentCodec codec : codecs) {
+            if (contentEqualsIgnoreCase(codec.name(), name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns {@code false} if {@code request} is known to not carry a payload body, so encoding it would only add
+     * the coding overhead and a {@code Content-Encoding} header.
+     */
+    static boolean mayHavePayloadBody(final StreamingHttpRequest request) {
+        final HttpRequestMethod method = request.method();
+        if (GET.equals(method) || HEAD.equals(method) || TRACE.equals(method)) {
+            return false;
+        }
+        final CharSequence contentLength = request.headers().get(CONTENT_LENGTH);
+        return contentLength == null || !contentEquals(contentLength, ZERO);
+    }
+
+    /**
+     * Removes the headers which describe the encoded payload body, after the payload body is transformed.
+     */
+    static void removeContentHeaders(final HttpHeaders headers) {
+        headers.remove(CONTENT_ENCODING);
+        headers.remove(CONTENT_LENGTH);
+    }
+
+    /**
+     * Selects the first of {@code codecs} (in order of preference) which is acceptable according to the
+     * <a href="https://tools.ietf.org/html/rfc7231#section-5.3.4">Accept-Encoding</a> headers.
+     *
+     * @param codecs the supported {@link ContentCodec}s, in order of preference.
+     * @param headers the request headers.
+     * @return the negotiated {@link ContentCodec}, or {@code null} if the payload body should not be encoded.
+     */
+    @Nullable
+    static ContentCodec negotiate(final List<ContentCodec> codecs, final HttpHeaders headers) {
+        if (codecs.isEmpty()) {
+            return null;
+        }
+        final Iterator<? extends CharSequence> values = headers.valuesIterator(ACCEPT_ENCODING);
+        if (!values.hasNext()) {
+            return null;
+        }
+        // Weights are in the range [0, 1], -1 represents a coding which is not mentioned.
+        final float[] weights = new float[codecs.size()];
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = -1;
+        }
+        float anyWeight = -1;
+        while (values.hasNext()) {
+            for (String coding : values.next().toString().split(",")) {
+                final int paramIdx = coding.indexOf(';');
+                final String name = (paramIdx < 0 ? coding : coding.substring(0, paramIdx)).trim();
+                final float weight = paramIdx < 0 ? 1 : parseWeight(coding.substring(paramIdx + 1));
+                if (name.equals(ANY_CODING)) {
+                    anyWeight = weight;
+                    continue;
+                }
+                for (int i = 0; i < weights.length; ++i) {
+                    if (contentEqualsIgnoreCase(codecs.get(i).name(), name)) {
+                        weights[i] = weight;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < weights.length; ++i) {
+            final float weight = weights[i] < 0 ? anyWeight : weights[i];
+            if (weight > 0) {
+                return codecs.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static float parseWeight(final String params) {
+        final String trimmed = params.trim();
+        if (trimmed.length() < 2 || (trimmed.charAt(0) != 'q' && trimmed.charAt(0) != 'Q') ||
+                trimmed.charAt(1) != '=') {
+            return 1;
+        }
+        try {
+            return Float.parseFloat(trimmed.substring(2).trim());
+        } catch (NumberFormatException e) {
+            // Ignore codings with an invalid weight.
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import static io.servicetalk.http.api.HttpHeaderValues.DEFLATE;
+import static io.servicetalk.http.api.HttpHeaderValues.GZIP;
+
+/**
+ * Factory methods for common {@link ContentCodec}s.
+ */
+public final class ContentCodings {
+    private static final ContentCodec GZIP_DEFAULT = new ZipContentCodec(GZIP, true, Long.MAX_VALUE);
+    private static final ContentCodec DEFLATE_DEFAULT = new ZipContentCodec(DEFLATE, false, Long.MAX_VALUE);
+
+    private ContentCodings() {
+        // no instances
+    }
+
+    /**
+     * Returns the {@code gzip} {@link ContentCodec} with the default compression level.
+     * <p>
+     * The size of decoded payload bodies is not limited, use {@link #gzip(long)} to decode untrusted payload bodies.
+     *
+     * @return the {@code gzip} {@link ContentCodec} with the default compression level.
+     */
+    public static ContentCodec gzipDefault() {
+        return GZIP_DEFAULT;
+    }
+
+    /**
+     * Returns a {@code gzip} {@link ContentCodec} with the default compression level, which fails decoding of a
+     * payload body once it decodes to more than {@code maxDecodedBytes}.
+     *
+     * @param maxDecodedBytes the maximum number of bytes a payload body can decode to.
+     * @return a {@code gzip} {@link ContentCodec} with the default compression level.
+     */
+    public static ContentCodec gzip(final long maxDecodedBytes) {
+        return new ZipContentCodec(GZIP, true, maxDecodedBytes);
+    }
+
+    /**
+     * Returns the {@code deflate} (zlib) {@link ContentCodec} with the default compression level.
+     * <p>
+     * The size of decoded payload bodies is not limited, use {@link #deflate(long)} to decode untrusted payload bodies.
+     *
+     * @return the {@code deflate} (zlib) {@link ContentCodec} with the default compression level.
+     */
+    public static ContentCodec deflateDefault() {
+        return DEFLATE_DEFAULT;
+    }
+
+    /**
+     * Returns a {@code deflate} (zlib) {@link ContentCodec} with the default compression level, which fails decoding
+     * of a payload body once it decodes to more than {@code maxDecodedBytes}.
+     *
+     * @param maxDecodedBytes the maximum number of bytes a payload body can decode to.
+     * @return a {@code deflate} (zlib) {@link ContentCodec} with the default compression level.
+     */
+    public static ContentCodec deflate(final long maxDecodedBytes) {
+        return new ZipContentCodec(DEFLATE, false, maxDecodedBytes);
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.TerminalSignalConsumer;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.buffer.api.EmptyBuffer.EMPTY_BUFFER;
+import static io.servicetalk.concurrent.api.Completable.fromRunnable;
+import static io.servicetalk.concurrent.api.Publisher.defer;
+import static java.lang.Math.max;
+import static java.lang.Thread.currentThread;
+import static java.util.zip.Deflater.DEFAULT_COMPRESSION;
+import static java.util.zip.Deflater.SYNC_FLUSH;
+
+/**
+ * {@link ContentCodec} for the {@code gzip} and {@code deflate} (zlib) codings, based on {@link Deflater} and
+ * {@link Inflater}.
+ * <p>
+ * Each thread keeps one idle {@link Deflater} and {@link Inflater} per format, which a payload body takes when it is
+ * subscribed. When the payload body terminates it is {@link Deflater#reset() reset} and returned to the pool of the
+ * thread that took it, as long as it terminates on that thread and the pool has no idle instance yet. Otherwise, and
+ * if the payload body is cancelled, it is {@link Deflater#end() ended} to release its native memory right away rather
+ * than when it is garbage collected.
+ */
+final class ZipContentCodec implements ContentCodec {
+    private static final int SCRATCH_SIZE = 8192;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+    // Magic, compression method (deflate), no flags, no modification time, no extra flags, unknown OS.
+    private static final byte[] GZIP_HEADER = {(byte) GZIP_MAGIC_1, (byte) GZIP_MAGIC_2, Deflater.DEFLATED,
+            0, 0, 0, 0, 0, 0, (byte) 0xff};
+    // The gzip header and trailer are written and read by the codec, so the gzip pools must not use the zlib wrapper.
+    private static final ZipPool<Deflater> GZIP_DEFLATERS = new DeflaterPool(true);
+    private static final ZipPool<Deflater> ZLIB_DEFLATERS = new DeflaterPool(false);
+    private static final ZipPool<Inflater> GZIP_INFLATERS = new InflaterPool(true);
+    private static final ZipPool<Inflater> ZLIB_INFLATERS = new InflaterPool(false);
+
+    private final CharSequence name;
+    private final boolean gzip;
+    private final long maxDecodedBytes;
+
+    ZipContentCodec(final CharSequence name, final boolean gzip, final long maxDecodedBytes) {
+        if (maxDecodedBytes <= 0) {
+            throw new IllegalArgumentException("maxDecodedBytes: " + maxDecodedBytes + " (expected >0)");
+        }
+        this.name = name;
+        this.gzip = gzip;
+        this.maxDecodedBytes = maxDecodedBytes;
+    }
+
+    @Override
+    public CharSequence name() {
+        return name;
+    }
+
+    @Override
+    public Publisher<Buffer> encode(final Publisher<Buffer> from, final BufferAllocator allocator) {
+        return defer(() -> {
+            final Encoder encoder = new Encoder(allocator);
+            return from.map(encoder::encode)
+                    .concat(defer(() -> Publisher.from(encoder.finish())))
+                    .whenFinally(encoder);
+        });
+    }
+
+    @Override
+    public Publisher<Buffer> decode(final Publisher<Buffer> from, final BufferAllocator allocator) {
+        return defer(() -> {
+            final Decoder decoder = new Decoder(allocator);
+            return from.map(decoder::decode)
+                    .filter(buffer -> buffer.readableBytes() > 0)
+                    .concat(fromRunnable(decoder::finish))
+                    .whenFinally(decoder);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return name.toString();
+    }
+
+    /**
+     * Returns the {@link Deflater} which is idle in the pool of the current thread, or {@code null} if there is none.
+     */
+    @Nullable
+    static Deflater idleDeflater(final boolean gzip) {
+        final Pooled<Deflater> idle = (gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS).getIfExists();
+        return idle == null ? null : idle.zip;
+    }
+
+    /**
+     * Returns the {@link Inflater} which is idle in the pool of the current thread, or {@code null} if there is none.
+     */
+    @Nullable
+    static Inflater idleInflater(final boolean gzip) {
+        final Pooled<Inflater> idle = (gzip ? GZIP_INFLATERS : ZLIB_INFLATERS).getIfExists();
+        return idle == null ? null : idle.zip;
+    }
+
+    /**
+     * Returns the input bytes of {@code buffer}, either as its backing array or copied into {@code scratch}. The
+     * offset of the bytes in the returned array is {@code buffer.arrayOffset() + buffer.readerIndex()} if the buffer
+     * has an array, and {@code 0} otherwise.
+     */
+    private static byte[] inputArray(final Buffer buffer, final byte[] scratch) {
+        if (buffer.hasArray()) {
+            return buffer.array();
+        }
+        final byte[] input = scratch.length >= buffer.readableBytes() ? scratch : new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), input, 0, buffer.readableBytes());
+        return input;
+    }
+
+    private static int inputOffset(final Buffer buffer) {
+        return buffer.hasArray() ? buffer.arrayOffset() + buffer.readerIndex() : 0;
+    }
+
+    /**
+     * Returns the length of the gzip header at the beginning of {@code buffer}, or {@code -1} if more bytes are
+     * required to read the complete header.
+     */
+    private static int gzipHeaderLength(final Buffer buffer) {
+        if (buffer.readableBytes() < GZIP_HEADER_SIZE) {
+            return -1;
+        }
+        final int start = buffer.readerIndex();
+        final int end = buffer.writerIndex();
+        if (buffer.getUnsignedByte(start) != GZIP_MAGIC_1 || buffer.getUnsignedByte(start + 1) != GZIP_MAGIC_2) {
+            throw new ContentCodingException("Invalid gzip header");
+        }
+        if (buffer.getByte(start + 2) != Deflater.DEFLATED) {
+            throw new ContentCodingException("Unsupported gzip compression method: " + buffer.getByte(start + 2));
+        }
+        final int flags = buffer.getUnsignedByte(start + 3);
+        int idx = start + GZIP_HEADER_SIZE;
+        if ((flags & FEXTRA) != 0) {
+            if (end - idx < 2) {
+                return -1;
+            }
+            idx += 2 + buffer.getUnsignedShortLE(idx);
+        }
+        if ((flags & FNAME) != 0) {
+            idx = skipZeroTerminated(buffer, idx, end);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            idx = skipZeroTerminated(buffer, idx, end);
+        }
+        if ((flags & FHCRC) != 0) {
+            idx += 2;
+        }
+        return idx < 0 || idx > end ? -1 : idx - start;
+    }
+
+    private static int skipZeroTerminated(final Buffer buffer, final int idx, final int end) {
+        if (idx < 0 || idx >= end) {
+            return -1;
+        }
+        final int zeroIdx = buffer.indexOf(idx, end, (byte) 0);
+        return zeroIdx < 0 ? -1 : zeroIdx + 1;
+    }
+
+    private final class Encoder implements TerminalSignalConsumer {
+        private final BufferAllocator allocator;
+        private final ZipPool<Deflater> pool;
+        private final Thread owner;
+        private final Pooled<Deflater> pooled;
+        private final Deflater deflater;
+        @Nullable
+        private final CRC32 crc;
+        private final byte[] inputScratch;
+        private final byte[] outputScratch;
+        private boolean headerWritten;
+
+        Encoder(final BufferAllocator allocator) {
+            this.allocator = allocator;
+            pool = gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS;
+            owner = currentThread();
+            pooled = pool.take();
+            deflater = pooled.zip;
+            inputScratch = pooled.inputScratch;
+            outputScratch = pooled.outputScratch;
+            crc = gzip ? new CRC32() : null;
+        }
+
+        Buffer encode(final Buffer buffer) {
+            final int length = buffer.readableBytes();
+            final Buffer out = allocator.newBuffer(max(GZIP_HEADER_SIZE, length / 2));
+            writeHeaderIfRequired(out);
+            if (length > 0) {
+                final byte[] input = inputArray(buffer, inputScratch);
+                final int offset = inputOffset(buffer);
+                if (crc != null) {
+                    crc.update(input, offset, length);
+                }
+                deflater.setInput(input, offset, length);
+                // Flush every chunk to preserve the streaming semantics of the payload body, the deflate stream
+                // would otherwise keep arbitrary amounts of the data buffered until the payload body completes.
+                int written;
+                do {
+                    written = deflater.deflate(outputScratch, 0, outputScratch.length, SYNC_FLUSH);
+                    out.writeBytes(outputScratch, 0, written);
+                } while (written == outputScratch.length);
+                buffer.skipBytes(length);
+            }
+            return out;
+        }
+
+        Buffer finish() {
+            final Buffer out = allocator.newBuffer(GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE);
+            writeHeaderIfRequired(out);
+            deflater.finish();
+            while (!deflater.finished()) {
+                out.writeBytes(outputScratch, 0, deflater.deflate(outputScratch));
+            }
+            if (crc != null) {
+                out.writeIntLE((int) crc.getValue());
+                // ISIZE is the size of the original input modulo 2^32.
+                out.writeIntLE((int) deflater.getBytesRead());
+            }
+            return out;
+        }
+
+        private void writeHeaderIfRequired(final Buffer out) {
+            if (!headerWritten) {
+                headerWritten = true;
+                if (gzip) {
+                    out.writeBytes(GZIP_HEADER);
+                }
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            pool.release(pooled, owner);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            pool.release(pooled, owner);
+        }
+
+        @Override
+        public void cancel() {
+            // A concurrent encode may still use the Deflater, so it can not be reused. Deflater methods are
+            // synchronized, so a concurrent encode either completes before the Deflater is ended or fails afterwards.
+            deflater.end();
+        }
+    }
+
+    private final class Decoder implements TerminalSignalConsumer {
+        private final BufferAllocator allocator;
+        private final ZipPool<Inflater> pool;
+        private final Thread owner;
+        private final Pooled<Inflater> pooled;
+        private final Inflater inflater;
+        @Nullable
+        private final CRC32 crc;
+        private final byte[] inputScratch;
+        private final byte[] outputScratch;
+        /**
+         * Accumulates the gzip header until it is complete, and the gzip trailer after the deflate stream finished.
+         */
+        @Nullable
+        private Buffer accumulated;
+        private boolean headerRead;
+        private boolean started;
+
+        Decoder(final BufferAllocator allocator) {
+            this.allocator = allocator;
+            pool = gzip ? GZIP_INFLATERS : ZLIB_INFLATERS;
+            owner = currentThread();
+            pooled = pool.take();
+            inflater = pooled.zip;
+            inputScratch = pooled.inputScratch;
+            outputScratch = pooled.outputScratch;
+            crc = gzip ? new CRC32() : null;
+            headerRead = !gzip;
+        }
+
+        Buffer decode(Buffer buffer) {
+            if (buffer.readableBytes() == 0) {
+                return EMPTY_BUFFER;
+            }
+            started = true;
+            if (!headerRead) {
+                if (accumulated == null) {
+                    accumulated = allocator.newBuffer(max(GZIP_HEADER_SIZE, buffer.readableBytes()));
+                }
+                accumulated.writeBytes(buffer);
+                final int headerLength = gzipHeaderLength(accumulated);
+                if (headerLength < 0) {
+                    return EMPTY_BUFFER;
+                }
+                headerRead = true;
+                buffer = accumulated.skipBytes(headerLength);
+                accumulated = null;
+            }
+            if (inflater.finished()) {
+                accumulateTrailer(buffer);
+                return EMPTY_BUFFER;
+            }
+
+            final int length = buffer.readableBytes();
+            final byte[] input = inputArray(buffer, inputScratch);
+            final int offset = inputOffset(buffer);
+            inflater.setInput(input, offset, length);
+            final Buffer out = allocator.newBuffer(length * 2);
+            try {
+                for (;;) {
+                    final int read = inflater.inflate(outputScratch);
+                    if (read > 0) {
+                        if (inflater.getBytesWritten() > maxDecodedBytes) {
+                            throw new ContentCodingException("Decoded " + name +
+                                    " payload body exceeds the maximum of " + maxDecodedBytes + " bytes");
+                        }
+                        if (crc != null) {
+                            crc.update(outputScratch, 0, read);
+                        }
+                        out.writeBytes(outputScratch, 0, read);
+                    } else if (inflater.finished()) {
+                        final int remaining = inflater.getRemaining();
+                        buffer.skipBytes(length - remaining);
+                        accumulateTrailer(buffer);
+                        return out;
+                    } else if (inflater.needsDictionary()) {
+                        throw new ContentCodingException("Preset dictionaries are not supported by " + name);
+                    } else {
+                        // No progress without a finished stream means all input is consumed.
+                        break;
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new ContentCodingException("Invalid " + name + " encoding", e);
+            }
+            buffer.skipBytes(length);
+            return out;
+        }
+
+        void finish() {
+            if (!started) {
+                // Responses to HEAD requests and some status codes are encoded but have no payload body.
+                return;
+            }
+            if (!inflater.finished()) {
+                throw new ContentCodingException("Truncated " + name + " encoding");
+            }
+            if (crc != null) {
+                if (accumulated == null || accumulated.readableBytes() < GZIP_TRAILER_SIZE) {
+                    throw new ContentCodingException("Truncated gzip trailer");
+                }
+                final int idx = accumulated.readerIndex();
+                if (accumulated.getIntLE(idx) != (int) crc.getValue() ||
+                        accumulated.getIntLE(idx + 4) != (int) inflater.getBytesWritten()) {
+                    throw new ContentCodingException("Invalid gzip trailer, CRC32 or size mismatch");
+                }
+            }
+        }
+
+        private void accumulateTrailer(final Buffer buffer) {
+            if (crc == null || buffer.readableBytes() == 0) {
+                // zlib streams are self-terminating, ignore any data after the end of the stream.
+                return;
+            }
+            if (accumulated == null) {
+                accumulated = allocator.newBuffer(GZIP_TRAILER_SIZE);
+            }
+            accumulated.writeBytes(buffer);
+        }
+
+        @Override
+        public void onComplete() {
+            pool.release(pooled, owner);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            pool.release(pooled, owner);
+        }
+
+        @Override
+        public void cancel() {
+            // A concurrent decode may still use the Inflater, so it can not be reused. Inflater methods are
+            // synchronized, so a concurrent decode either completes before the Inflater is ended or fails afterwards.
+            inflater.end();
+        }
+    }
+
+    /**
+     * A {@link Deflater} or {@link Inflater} together with the scratch arrays used to feed it.
+     */
+    private static final class Pooled<Z> {
+        final Z zip;
+        final byte[] inputScratch = new byte[SCRATCH_SIZE];
+        final byte[] outputScratch = new byte[SCRATCH_SIZE];
+
+        Pooled(final Z zip) {
+            this.zip = zip;
+        }
+    }
+
+    /**
+     * Keeps at most one idle {@link Pooled} instance per thread.
+     */
+    private abstract static class ZipPool<Z> extends FastThreadLocal<Pooled<Z>> {
+        Pooled<Z> take() {
+            final Pooled<Z> idle = getIfExists();
+            if (idle == null) {
+                return new Pooled<>(newZip());
+            }
+            set(null);
+            return idle;
+        }
+
+        void release(final Pooled<Z> pooled, final Thread owner) {
+            if (owner == currentThread() && getIfExists() == null) {
+                reset(pooled.zip);
+                set(pooled);
+            } else {
+                end(pooled.zip);
+            }
+        }
+
+        @Override
+        protected final void onRemoval(@Nullable final Pooled<Z> idle) {
+            if (idle != null) {
+                end(idle.zip);
+            }
+        }
+
+        abstract Z newZip();
+
+        abstract void reset(Z zip);
+
+        abstract void end(Z zip);
+    }
+
+    private static final class DeflaterPool extends ZipPool<Deflater> {
+        private final boolean nowrap;
+
+        DeflaterPool(final boolean nowrap) {
+            this.nowrap = nowrap;
+        }
+
+        @Override
+        Deflater newZip() {
+            return new Deflater(DEFAULT_COMPRESSION, nowrap);
+        }
+
+        @Override
+        void reset(final Deflater deflater) {
+            deflater.reset();
+        }
+
+        @Override
+        void end(final Deflater deflater) {
+            deflater.end();
+        }
+    }
+
+    private static final class InflaterPool extends ZipPool<Inflater> {
+        private final boolean nowrap;
+
+        InflaterPool(final boolean nowrap) {
+            this.nowrap = nowrap;
+        }
+
+        @Override
+        Inflater newZip() {
+            return new Inflater(nowrap);
+        }
+
+        @Override
+        void reset(final Inflater inflater) {
+            inflater.reset();
+        }
+
+        @Override
+        void end(final Inflater inflater) {
+            inflater.end();
+        }
+    }
+}
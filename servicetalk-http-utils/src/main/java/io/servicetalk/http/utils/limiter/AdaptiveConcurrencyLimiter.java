@@ -0,0 +1,483 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.http.api.HttpRequestMetaData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * A concurrency limit which adapts to the observed latency of requests.
+ * <p>
+ * The limit is derived from the gradient between the long term average latency and the short term average latency.
+ * While the short term latency does not exceed the long term latency (multiplied by a tolerance), the limit grows by
+ * roughly the square root of the limit for every sample. An increase of the latency, e.g. because requests start
+ * queueing, shrinks the limit proportionally. Requests which are dropped (e.g. timeouts or rejections by the peer)
+ * decrease the limit multiplicatively.
+ * <p>
+ * Requests can be assigned to partitions which are guaranteed a fraction of the limit. Once the limit is reached,
+ * requests are only admitted for partitions which did not yet use their share, so traffic of partitions with a small
+ * share is shed first. The shares are reserved on top of the limit: requests admitted by their partition's share are
+ * counted in {@link #inFlight()} but do not take capacity from other requests, so the number of requests in flight may
+ * exceed the limit by at most the sum of the shares. As the sum of the fractions is at most {@code 1} this is bounded
+ * by roughly twice the limit.
+ * <p>
+ * An instance is safe to be shared across multiple filters, e.g. to apply a single limit to all connections of a
+ * client.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private static final AtomicIntegerFieldUpdater<AdaptiveConcurrencyLimiter> inFlightUpdater =
+            newUpdater(AdaptiveConcurrencyLimiter.class, "inFlight");
+    private static final AtomicReferenceFieldUpdater<AdaptiveConcurrencyLimiter, LimitState> stateUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(AdaptiveConcurrencyLimiter.class, LimitState.class, "state");
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final double smoothing;
+    private final int shortWindow;
+    private final int longWindow;
+    private final Map<String, Partition> partitions;
+    @Nullable
+    private final Function<HttpRequestMetaData, String> partitionResolver;
+
+    private volatile LimitState state;
+    private volatile int inFlight;
+
+    private AdaptiveConcurrencyLimiter(final Builder builder) {
+        minLimit = builder.minLimit;
+        maxLimit = builder.maxLimit;
+        rttTolerance = builder.rttTolerance;
+        backoffRatio = builder.backoffRatio;
+        smoothing = builder.smoothing;
+        shortWindow = builder.shortWindow;
+        longWindow = builder.longWindow;
+        final Map<String, Partition> partitions = new HashMap<>(builder.partitions.size());
+        for (Map.Entry<String, Double> entry : builder.partitions.entrySet()) {
+            partitions.put(entry.getKey(), new Partition(entry.getKey(), entry.getValue()));
+        }
+        this.partitions = unmodifiableMap(partitions);
+        partitionResolver = builder.partitionResolver;
+        state = new LimitState(min(maxLimit, max(minLimit, builder.initialLimit)), 0, 0, 0);
+    }
+
+    /**
+     * Try to acquire a {@link Permit} to process the passed request.
+     *
+     * @param request the request to process.
+     * @return a {@link Permit} which must be released once the request has been processed, or {@code null} if the
+     * request must be rejected.
+     */
+    @Nullable
+    public Permit tryAcquire(final HttpRequestMetaData request) {
+        final Partition partition = partitionResolver == null ? null :
+                partitions.get(partitionResolver.apply(request));
+        for (;;) {
+            final int currentInFlight = inFlight;
+            final int currentLimit = state.limit;
+            if (currentInFlight < currentLimit) {
+                if (inFlightUpdater.compareAndSet(this, currentInFlight, currentInFlight + 1)) {
+                    if (partition != null) {
+                        Partition.inFlightUpdater.incrementAndGet(partition);
+                    }
+                    return new DefaultPermit(this, partition, currentInFlight + 1);
+                }
+                continue;
+            }
+            if (partition == null) {
+                return null;
+            }
+            // The limit is reached, admit the request only if its partition did not yet use its share. The share is
+            // reserved with a CAS on the partition, so concurrent requests can not overshoot it.
+            final int currentPartitionInFlight = partition.inFlight;
+            if (currentPartitionInFlight >= partition.share(currentLimit)) {
+                return null;
+            }
+            if (Partition.inFlightUpdater.compareAndSet(partition, currentPartitionInFlight,
+                    currentPartitionInFlight + 1)) {
+                return new DefaultPermit(this, partition, inFlightUpdater.incrementAndGet(this));
+            }
+        }
+    }
+
+    /**
+     * Get the current concurrency limit.
+     *
+     * @return the current concurrency limit.
+     */
+    public int limit() {
+        return state.limit;
+    }
+
+    /**
+     * Get the number of requests which are currently processed.
+     *
+     * @return the number of requests which are currently processed.
+     */
+    public int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Get the number of requests of a partition which are currently processed.
+     *
+     * @param partition the name of the partition.
+     * @return the number of requests of the partition which are currently processed, or {@code 0} if the partition is
+     * unknown.
+     */
+    public int inFlight(final String partition) {
+        final Partition p = partitions.get(partition);
+        return p == null ? 0 : p.inFlight;
+    }
+
+    private void release(@Nullable final Partition partition) {
+        inFlightUpdater.decrementAndGet(this);
+        if (partition != null) {
+            Partition.inFlightUpdater.decrementAndGet(partition);
+        }
+    }
+
+    void onSample(final long rttNanos, final int inFlightAtStart, final boolean dropped) {
+        // Samples are recorded concurrently by all requests, a lock would serialize their completion.
+        for (;;) {
+            final LimitState current = state;
+            final LimitState next = nextState(current, rttNanos, inFlightAtStart, dropped);
+            if (next == current || stateUpdater.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private LimitState nextState(final LimitState current, final long rttNanos, final int inFlightAtStart,
+                                 final boolean dropped) {
+        if (dropped) {
+            return new LimitState(max(minLimit, current.estimatedLimit * backoffRatio), current.shortRttNanos,
+                    current.longRttNanos, current.samples);
+        }
+        if (rttNanos <= 0) {
+            return current;
+        }
+        double shortRttNanos;
+        double longRttNanos;
+        final int samples = current.samples;
+        if (samples == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        } else {
+            shortRttNanos = current.shortRttNanos + (rttNanos - current.shortRttNanos) / min(samples + 1, shortWindow);
+            longRttNanos = current.longRttNanos + (rttNanos - current.longRttNanos) / min(samples + 1, longWindow);
+        }
+
+        // Let the long term latency drift towards the short term latency if the latency improved significantly, e.g.
+        // after the load decreased, so that the limit can grow again.
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double estimatedLimit = current.estimatedLimit;
+        // Only grow the limit if it is actually exercised, otherwise the limit grows unbounded for light loads.
+        if (inFlightAtStart >= estimatedLimit / 2) {
+            final double gradient = max(0.5, min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+            final double newLimit = estimatedLimit * gradient + sqrt(estimatedLimit);
+            estimatedLimit = min(maxLimit, max(minLimit, estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+        }
+        return new LimitState(estimatedLimit, shortRttNanos, longRttNanos,
+                samples < longWindow ? samples + 1 : samples);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "limit=" + state.limit +
+                ", inFlight=" + inFlight +
+                ", partitions=" + partitions.values() +
+                '}';
+    }
+
+    /**
+     * A permit to process a request, which must be released exactly once by calling one of its methods.
+     */
+    public interface Permit {
+        /**
+         * Releases the permit after the request has been processed successfully, and uses its latency to adapt the
+         * limit.
+         */
+        void onSuccess();
+
+        /**
+         * Releases the permit after the request has been dropped, e.g. because it timed out or was rejected due to
+         * overload, which decreases the limit.
+         */
+        void onDropped();
+
+        /**
+         * Releases the permit without adapting the limit, e.g. because the request failed or was cancelled.
+         */
+        void onIgnore();
+    }
+
+    private static final class DefaultPermit implements Permit {
+        private final AdaptiveConcurrencyLimiter limiter;
+        @Nullable
+        private final Partition partition;
+        private final int inFlightAtStart;
+        private final long startTime;
+
+        DefaultPermit(final AdaptiveConcurrencyLimiter limiter, @Nullable final Partition partition,
+                      final int inFlightAtStart) {
+            this.limiter = limiter;
+            this.partition = partition;
+            this.inFlightAtStart = inFlightAtStart;
+            startTime = nanoTime();
+        }
+
+        @Override
+        public void onSuccess() {
+            limiter.release(partition);
+            limiter.onSample(nanoTime() - startTime, inFlightAtStart, false);
+        }
+
+        @Override
+        public void onDropped() {
+            limiter.release(partition);
+            limiter.onSample(nanoTime() - startTime, inFlightAtStart, true);
+        }
+
+        @Override
+        public void onIgnore() {
+            limiter.release(partition);
+        }
+    }
+
+    /**
+     * An immutable snapshot of the limit and the latency averages it is derived from, which is replaced atomically for
+     * every sample.
+     */
+    private static final class LimitState {
+        final double estimatedLimit;
+        final int limit;
+        final double shortRttNanos;
+        final double longRttNanos;
+        final int samples;
+
+        LimitState(final double estimatedLimit, final double shortRttNanos, final double longRttNanos,
+                   final int samples) {
+            this.estimatedLimit = estimatedLimit;
+            this.limit = (int) estimatedLimit;
+            this.shortRttNanos = shortRttNanos;
+            this.longRttNanos = longRttNanos;
+            this.samples = samples;
+        }
+    }
+
+    private static final class Partition {
+        static final AtomicIntegerFieldUpdater<Partition> inFlightUpdater = newUpdater(Partition.class, "inFlight");
+
+        private final String name;
+        private final double fraction;
+        volatile int inFlight;
+
+        Partition(final String name, final double fraction) {
+            this.name = name;
+            this.fraction = fraction;
+        }
+
+        int share(final int limit) {
+            return max(1, (int) ceil(limit * fraction));
+        }
+
+        @Override
+        public String toString() {
+            return name + "{fraction=" + fraction + ", inFlight=" + inFlight + '}';
+        }
+    }
+
+    /**
+     * A builder of {@link AdaptiveConcurrencyLimiter}.
+     */
+    public static final class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+        private double rttTolerance = 1.5;
+        private double backoffRatio = 0.9;
+        private double smoothing = 0.2;
+        private int shortWindow = 10;
+        private int longWindow = 600;
+        private final Map<String, Double> partitions = new HashMap<>();
+        @Nullable
+        private Function<HttpRequestMetaData, String> partitionResolver;
+
+        /**
+         * Sets the initial concurrency limit.
+         *
+         * @param initialLimit the initial concurrency limit.
+         * @return {@code this}.
+         */
+        public Builder initialLimit(final int initialLimit) {
+            if (initialLimit <= 0) {
+                throw new IllegalArgumentException("initialLimit: " + initialLimit + " (expected >0)");
+            }
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the lower and upper bound of the concurrency limit.
+         *
+         * @param minLimit the minimum concurrency limit.
+         * @param maxLimit the maximum concurrency limit.
+         * @return {@code this}.
+         */
+        public Builder limitBounds(final int minLimit, final int maxLimit) {
+            if (minLimit <= 0) {
+                throw new IllegalArgumentException("minLimit: " + minLimit + " (expected >0)");
+            }
+            if (maxLimit < minLimit) {
+                throw new IllegalArgumentException("maxLimit: " + maxLimit + " (expected >=" + minLimit + ")");
+            }
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets the factor by which the short term latency may exceed the long term latency before the limit is
+         * decreased.
+         *
+         * @param rttTolerance the tolerated ratio between the short term and the long term latency.
+         * @return {@code this}.
+         */
+        public Builder rttTolerance(final double rttTolerance) {
+            if (rttTolerance < 1) {
+                throw new IllegalArgumentException("rttTolerance: " + rttTolerance + " (expected >=1)");
+            }
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        /**
+         * Sets the factor by which the limit is multiplied when a request is dropped.
+         *
+         * @param backoffRatio the factor by which the limit is multiplied when a request is dropped.
+         * @return {@code this}.
+         */
+        public Builder backoffRatio(final double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio: " + backoffRatio + " (expected (0, 1))");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Sets the weight of a new limit estimate relative to the current limit.
+         *
+         * @param smoothing the weight of a new limit estimate, {@code 1} disables smoothing.
+         * @return {@code this}.
+         */
+        public Builder smoothing(final double smoothing) {
+            if (smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("smoothing: " + smoothing + " (expected (0, 1])");
+            }
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * Sets the number of samples which are averaged for the short term and the long term latency.
+         *
+         * @param shortWindow the number of samples averaged for the short term latency.
+         * @param longWindow the number of samples averaged for the long term latency.
+         * @return {@code this}.
+         */
+        public Builder rttWindows(final int shortWindow, final int longWindow) {
+            if (shortWindow <= 0) {
+                throw new IllegalArgumentException("shortWindow: " + shortWindow + " (expected >0)");
+            }
+            if (longWindow < shortWindow) {
+                throw new IllegalArgumentException("longWindow: " + longWindow + " (expected >=" + shortWindow + ")");
+            }
+            this.shortWindow = shortWindow;
+            this.longWindow = longWindow;
+            return this;
+        }
+
+        /**
+         * Adds a partition which is guaranteed a fraction of the limit. Requests of the partition are admitted while
+         * the limit is not reached, or while fewer than its share of the limit are in flight. The sum of the fractions
+         * of all partitions must not exceed {@code 1}.
+         *
+         * @param name the name of the partition, as returned by the {@link #partitionResolver(Function)}.
+         * @param fraction the fraction of the limit which is guaranteed to the partition.
+         * @return {@code this}.
+         */
+        public Builder partition(final String name, final double fraction) {
+            if (fraction <= 0 || fraction > 1) {
+                throw new IllegalArgumentException("fraction: " + fraction + " (expected (0, 1])");
+            }
+            partitions.put(requireNonNull(name), fraction);
+            return this;
+        }
+
+        /**
+         * Sets the {@link Function} which resolves the name of the partition of a request. Requests which resolve to
+         * an unknown partition are only admitted while the limit is not reached.
+         *
+         * @param partitionResolver {@link Function} which resolves the name of the partition of a request.
+         * @return {@code this}.
+         */
+        public Builder partitionResolver(final Function<HttpRequestMetaData, String> partitionResolver) {
+            this.partitionResolver = requireNonNull(partitionResolver);
+            return this;
+        }
+
+        /**
+         * Builds a new {@link AdaptiveConcurrencyLimiter}.
+         *
+         * @return a new {@link AdaptiveConcurrencyLimiter}.
+         */
+        public AdaptiveConcurrencyLimiter build() {
+            double totalFraction = 0;
+            for (double fraction : partitions.values()) {
+                totalFraction += fraction;
+            }
+            if (totalFraction > 1) {
+                throw new IllegalArgumentException("Sum of partition fractions: " + totalFraction +
+                        " (expected <=1)");
+            }
+            if (!partitions.isEmpty() && partitionResolver == null) {
+                throw new IllegalStateException("partitionResolver is required if partitions are configured");
+            }
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.client.api.MaxRequestLimitExceededException;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.FilterableStreamingHttpClient;
+import io.servicetalk.http.api.FilterableStreamingHttpConnection;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpConnectionFilter;
+import io.servicetalk.http.api.StreamingHttpConnectionFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.utils.BeforeFinallyHttpOperator;
+import io.servicetalk.http.utils.limiter.AdaptiveConcurrencyLimiter.Permit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A filter which limits the number of concurrent requests with an {@link AdaptiveConcurrencyLimiter}, and fails
+ * requests which exceed the limit with a {@link MaxRequestLimitExceededException} without sending them.
+ * <p>
+ * Responses with status {@code 503 Service Unavailable}, {@code 429 Too Many Requests} or {@code 504 Gateway Timeout}
+ * and requests which exceed the timeout of this filter are considered to be dropped, and decrease the limit.
+ * {@link TimeoutException}s of other filters or of the transport, e.g. a connect timeout, are not considered drops. If
+ * this filter is applied to connections, all connections share the {@link AdaptiveConcurrencyLimiter} of the filter.
+ */
+public final class ConcurrencyLimitingHttpRequesterFilter implements StreamingHttpClientFilterFactory,
+                                                                     StreamingHttpConnectionFilterFactory,
+                                                                     HttpExecutionStrategyInfluencer {
+    private final AdaptiveConcurrencyLimiter limiter;
+    @Nullable
+    private final Duration timeout;
+    @Nullable
+    private final Executor timeoutExecutor;
+
+    /**
+     * Creates a new instance with a default {@link AdaptiveConcurrencyLimiter}.
+     */
+    public ConcurrencyLimitingHttpRequesterFilter() {
+        this(new AdaptiveConcurrencyLimiter.Builder().build());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param limiter the {@link AdaptiveConcurrencyLimiter} which limits the number of concurrent requests.
+     */
+    public ConcurrencyLimitingHttpRequesterFilter(final AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = requireNonNull(limiter);
+        this.timeout = null;
+        this.timeoutExecutor = null;
+    }
+
+    /**
+     * Creates a new instance, which fails requests whose response does not arrive within {@code timeout} with a
+     * {@link TimeoutException} and considers them to be dropped.
+     *
+     * @param limiter the {@link AdaptiveConcurrencyLimiter} which limits the number of concurrent requests.
+     * @param timeout the maximum {@link Duration} until the response arrives.
+     * @param timeoutExecutor the {@link Executor} to use for managing the timer notifications.
+     */
+    public ConcurrencyLimitingHttpRequesterFilter(final AdaptiveConcurrencyLimiter limiter, final Duration timeout,
+                                                  final Executor timeoutExecutor) {
+        this.limiter = requireNonNull(limiter);
+        this.timeout = requireNonNull(timeout);
+        this.timeoutExecutor = requireNonNull(timeoutExecutor);
+    }
+
+    /**
+     * Get the {@link AdaptiveConcurrencyLimiter} used by this filter, e.g. to observe the current limit.
+     *
+     * @return the {@link AdaptiveConcurrencyLimiter} used by this filter.
+     */
+    public AdaptiveConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    private Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                  final HttpExecutionStrategy strategy,
+                                                  final StreamingHttpRequest request) {
+        return defer(() -> {
+            final Permit permit = limiter.tryAcquire(request);
+            if (permit == null) {
+                return failed(new MaxRequestLimitExceededException("Concurrency limit exceeded: " + limiter));
+            }
+            final PermitSignalConsumer signalConsumer = new PermitSignalConsumer(permit);
+            Single<StreamingHttpResponse> response = delegate.request(strategy, request);
+            if (timeout != null && timeoutExecutor != null) {
+                response = response.ambWith(timeoutExecutor.timer(timeout).concat(defer(() -> failed(
+                        signalConsumer.newTimeoutException("No response within " + timeout + ": " + limiter)))));
+            }
+            return response.map(signalConsumer::onResponse).liftSync(new BeforeFinallyHttpOperator(signalConsumer));
+        });
+    }
+
+    @Override
+    public StreamingHttpClientFilter create(final FilterableStreamingHttpClient client) {
+        return new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return ConcurrencyLimitingHttpRequesterFilter.this.request(delegate, strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public StreamingHttpConnectionFilter create(final FilterableStreamingHttpConnection connection) {
+        return new StreamingHttpConnectionFilter(connection) {
+            @Override
+            public Single<StreamingHttpResponse> request(final HttpExecutionStrategy strategy,
+                                                         final StreamingHttpRequest request) {
+                return ConcurrencyLimitingHttpRequesterFilter.this.request(delegate(), strategy, request);
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpExecutionStrategyInfluencer;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpResponseFactory;
+import io.servicetalk.http.api.StreamingHttpService;
+import io.servicetalk.http.api.StreamingHttpServiceFilter;
+import io.servicetalk.http.api.StreamingHttpServiceFilterFactory;
+import io.servicetalk.http.utils.BeforeFinallyHttpOperator;
+import io.servicetalk.http.utils.limiter.AdaptiveConcurrencyLimiter.Permit;
+
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A filter which limits the number of concurrently processed requests with an {@link AdaptiveConcurrencyLimiter}, and
+ * responds with {@code 503 Service Unavailable} to requests which exceed the limit.
+ * <p>
+ * A request is considered to be processed until the response payload body terminated. If the
+ * {@link AdaptiveConcurrencyLimiter} has partitions, requests within the share of their partition are admitted even if
+ * the limit is reached, so the number of concurrently processed requests may exceed the limit by the sum of the shares.
+ */
+public final class ConcurrencyLimitingHttpServiceFilter implements StreamingHttpServiceFilterFactory,
+                                                                   HttpExecutionStrategyInfluencer {
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    /**
+     * Creates a new instance with a default {@link AdaptiveConcurrencyLimiter}.
+     */
+    public ConcurrencyLimitingHttpServiceFilter() {
+        this(new AdaptiveConcurrencyLimiter.Builder().build());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param limiter the {@link AdaptiveConcurrencyLimiter} which limits the number of concurrent requests.
+     */
+    public ConcurrencyLimitingHttpServiceFilter(final AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = requireNonNull(limiter);
+    }
+
+    /**
+     * Get the {@link AdaptiveConcurrencyLimiter} used by this filter, e.g. to observe the current limit.
+     *
+     * @return the {@link AdaptiveConcurrencyLimiter} used by this filter.
+     */
+    public AdaptiveConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    @Override
+    public StreamingHttpServiceFilter create(final StreamingHttpService service) {
+        return new StreamingHttpServiceFilter(service) {
+            @Override
+            public Single<StreamingHttpResponse> handle(final HttpServiceContext ctx,
+                                                        final StreamingHttpRequest request,
+                                                        final StreamingHttpResponseFactory responseFactory) {
+                final Permit permit = limiter.tryAcquire(request);
+                if (permit == null) {
+                    return succeeded(responseFactory.serviceUnavailable());
+                }
+                final PermitSignalConsumer signalConsumer = new PermitSignalConsumer(permit);
+                final Single<StreamingHttpResponse> response;
+                try {
+                    response = delegate().handle(ctx, request, responseFactory);
+                } catch (Throwable cause) {
+                    permit.onIgnore();
+                    return failed(cause);
+                }
+                return response.map(signalConsumer::onResponse)
+                        .liftSync(new BeforeFinallyHttpOperator(signalConsumer));
+            }
+        };
+    }
+
+    @Override
+    public HttpExecutionStrategy influenceStrategy(final HttpExecutionStrategy strategy) {
+        // No influence since we do not block.
+        return strategy;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.concurrent.api.TerminalSignalConsumer;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.utils.limiter.AdaptiveConcurrencyLimiter.Permit;
+
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.http.api.HttpResponseStatus.GATEWAY_TIMEOUT;
+import static io.servicetalk.http.api.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static io.servicetalk.http.api.HttpResponseStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Releases a {@link Permit} when the request/response cycle terminates.
+ * <p>
+ * Only responses of the peer which signal overload or a timeout, and the timeout of the limiting filter itself are
+ * considered drops. Other {@link TimeoutException}s, e.g. of a connect or of a caller's deadline, are not necessarily
+ * caused by the load of the peer and therefore do not decrease the limit.
+ */
+final class PermitSignalConsumer implements TerminalSignalConsumer {
+    private final Permit permit;
+    // Written before the response is emitted, and read after the response payload terminated.
+    private int statusCode;
+    @Nullable
+    private volatile TimeoutException timeoutException;
+
+    PermitSignalConsumer(final Permit permit) {
+        this.permit = permit;
+    }
+
+    StreamingHttpResponse onResponse(final StreamingHttpResponse response) {
+        statusCode = response.status().code();
+        return response;
+    }
+
+    /**
+     * Creates the {@link TimeoutException} of the limiting filter, which is the only exception considered a drop.
+     *
+     * @param message the message of the exception.
+     * @return the {@link TimeoutException} to fail the request with.
+     */
+    TimeoutException newTimeoutException(final String message) {
+        final TimeoutException cause = new TimeoutException(message);
+        timeoutException = cause;
+        return cause;
+    }
+
+    @Override
+    public void onComplete() {
+        if (statusCode == SERVICE_UNAVAILABLE.code() || statusCode == TOO_MANY_REQUESTS.code() ||
+                statusCode == GATEWAY_TIMEOUT.code()) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (throwable == timeoutException) {
+            permit.onDropped();
+        } else {
+            permit.onIgnore();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        permit.onIgnore();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.HttpResponseStatus;
+import io.servicetalk.http.api.StreamingHttpClient;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.TestStreamingHttpClient.from;
+import static io.servicetalk.http.utils.CircuitBreakerHttpRequesterFilter.State.CLOSED;
+import static io.servicetalk.http.utils.CircuitBreakerHttpRequesterFilter.State.HALF_OPEN;
+import static io.servicetalk.http.utils.CircuitBreakerHttpRequesterFilter.State.OPEN;
+import static io.servicetalk.http.utils.RetryBudget.newRetryBudget;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class CircuitBreakerHttpRequesterFilterTest {
+
+    private static final StreamingHttpRequestResponseFactory reqRespFactory =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final ServiceTalkTestTimeout timeout = new ServiceTalkTestTimeout();
+
+    private final AtomicInteger requestsSent = new AtomicInteger();
+    private volatile HttpResponseStatus nextStatus = OK;
+    private volatile boolean nextFails;
+
+    private StreamingHttpClient newClient(StreamingHttpClientFilterFactory filter) {
+        StreamingHttpClientFilterFactory mockResponse = client -> new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                // Retries resubscribe to the returned Single, count subscriptions.
+                return defer(() -> {
+                    requestsSent.incrementAndGet();
+                    return nextFails ? failed(new IOException("deliberate exception")) :
+                            succeeded(reqRespFactory.newResponse(nextStatus));
+                });
+            }
+        };
+        return from(reqRespFactory, mock(HttpExecutionContext.class), filter.append(mockResponse));
+    }
+
+    private static CircuitBreakerHttpRequesterFilter.Builder newBuilder() {
+        return new CircuitBreakerHttpRequesterFilter.Builder()
+                .slidingWindow(10, 5)
+                .failureRateThreshold(0.5f)
+                .permittedCallsInHalfOpenState(2);
+    }
+
+    @Test
+    public void opensWhenFailureRateExceedsThreshold() throws Exception {
+        CircuitBreakerHttpRequesterFilter filter = newBuilder().openDuration(Duration.ofDays(1)).build();
+        StreamingHttpClient client = newClient(filter);
+        for (int i = 0; i < 3; ++i) {
+            assertStatus(client, OK);
+        }
+        nextStatus = INTERNAL_SERVER_ERROR;
+        assertStatus(client, INTERNAL_SERVER_ERROR);
+        assertThat(filter.state(), is(CLOSED));
+        assertStatus(client, INTERNAL_SERVER_ERROR);
+        assertThat(filter.state(), is(CLOSED));
+        nextFails = true;
+        assertFailure(client, IOException.class);
+        assertThat(filter.state(), is(OPEN));
+
+        assertFailure(client, CircuitBreakerOpenException.class);
+        assertThat(requestsSent.get(), is(6));
+    }
+
+    @Test
+    public void doesNotOpenBeforeMinimumNumberOfCalls() throws Exception {
+        CircuitBreakerHttpRequesterFilter filter = newBuilder().openDuration(Duration.ofDays(1)).build();
+        StreamingHttpClient client = newClient(filter);
+        nextStatus = INTERNAL_SERVER_ERROR;
+        for (int i = 0; i < 4; ++i) {
+            assertStatus(client, INTERNAL_SERVER_ERROR);
+        }
+        assertThat(filter.state(), is(CLOSED));
+        assertStatus(client, INTERNAL_SERVER_ERROR);
+        assertThat(filter.state(), is(OPEN));
+    }
+
+    @Test
+    public void opensWhenSlowCallRateExceedsThreshold() throws Exception {
+        CircuitBreakerHttpRequesterFilter filter = newBuilder().openDuration(Duration.ofDays(1))
+                .slowCallRateThreshold(0.5f, Duration.ZERO).build();
+        StreamingHttpClient client = newClient(filter);
+        for (int i = 0; i < 5; ++i) {
+            assertStatus(client, OK);
+        }
+        assertThat(filter.state(), is(OPEN));
+    }
+
+    @Test
+    public void halfOpenClosesAfterSuccessfulTrialRequests() throws Exception {
+        CircuitBreakerHttpRequesterFilter filter = newBuilder().openDuration(Duration.ZERO).build();
+        StreamingHttpClient client = newClient(filter);
+        openCircuit(client, filter);
+        assertThat(filter.state(), is(HALF_OPEN));
+
+        nextStatus = OK;
+        assertStatus(client, OK);
+        assertThat(filter.state(), is(HALF_OPEN));
+        assertStatus(client, OK);
+        assertThat(filter.state(), is(CLOSED));
+    }
+
+    @Test
+    public void halfOpenReopensAfterFailedTrialRequest() throws Exception {
+        CircuitBreakerHttpRequesterFilter filter = newBuilder().openDuration(Duration.ZERO).build();
+        StreamingHttpClient client = newClient(filter);
+        openCircuit(client, filter);
+
+        assertStatus(client, INTERNAL_SERVER_ERROR);
+        // The circuit is opened again, but becomes half-open immediately.
+        assertThat(filter.state(), is(HALF_OPEN));
+        nextStatus = OK;
+        assertStatus(client, OK);
+        assertStatus(client, OK);
+        assertThat(filter.state(), is(CLOSED));
+    }
+
+    @Test
+    public void retryingFilterDoesNotRetryOpenCircuit() throws Exception {
+        CircuitBreakerHttpRequesterFilter circuitBreaker = newBuilder().openDuration(Duration.ofDays(1)).build();
+        StreamingHttpClientFilterFactory retrying = new RetryingHttpRequesterFilter.Builder()
+                .retryFor((meta, t) -> true).maxRetries(Integer.MAX_VALUE).buildWithImmediateRetries();
+        StreamingHttpClient client = newClient(retrying.append(circuitBreaker));
+        nextFails = true;
+        assertFailure(client, CircuitBreakerOpenException.class);
+        assertThat(circuitBreaker.state(), is(OPEN));
+        assertThat(requestsSent.get(), is(5));
+    }
+
+    @Test
+    public void retryBudgetLimitsRetries() throws Exception {
+        RetryBudget budget = newRetryBudget(0.5, 2);
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .retryFor((meta, t) -> true).maxRetries(Integer.MAX_VALUE).retryBudget(budget)
+                .buildWithImmediateRetries());
+        nextFails = true;
+        assertFailure(client, IOException.class);
+        assertThat(requestsSent.get(), is(3));
+        assertThat(budget.availableRetries(), is(0));
+
+        nextFails = false;
+        assertStatus(client, OK);
+        assertStatus(client, OK);
+        assertThat(budget.availableRetries(), is(1));
+        nextFails = true;
+        requestsSent.set(0);
+        assertFailure(client, IOException.class);
+        assertThat(requestsSent.get(), is(2));
+    }
+
+    @Test
+    public void rejectedRetryDoesNotWithdrawFromRetryBudget() throws Exception {
+        RetryBudget budget = newRetryBudget(0.5, 2);
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .retryFor((meta, t) -> true).maxRetries(1).retryBudget(budget).buildWithImmediateRetries());
+        nextFails = true;
+        assertFailure(client, IOException.class);
+        assertThat(requestsSent.get(), is(2));
+        assertThat(budget.availableRetries(), is(1));
+    }
+
+    @Test
+    public void serverErrorsDoNotReplenishRetryBudget() throws Exception {
+        RetryBudget budget = newRetryBudget(0.5, 2);
+        StreamingHttpClient client = newClient(new RetryingHttpRequesterFilter.Builder()
+                .retryFor((meta, t) -> true).maxRetries(Integer.MAX_VALUE).retryBudget(budget)
+                .buildWithImmediateRetries());
+        nextFails = true;
+        assertFailure(client, IOException.class);
+        assertThat(budget.availableRetries(), is(0));
+
+        nextFails = false;
+        nextStatus = INTERNAL_SERVER_ERROR;
+        for (int i = 0; i < 4; ++i) {
+            assertStatus(client, INTERNAL_SERVER_ERROR);
+        }
+        assertThat(budget.availableRetries(), is(0));
+        nextStatus = OK;
+        assertStatus(client, OK);
+        assertStatus(client, OK);
+        assertThat(budget.availableRetries(), is(1));
+    }
+
+    private void openCircuit(StreamingHttpClient client, CircuitBreakerHttpRequesterFilter filter) throws Exception {
+        nextStatus = INTERNAL_SERVER_ERROR;
+        for (int i = 0; i < 5; ++i) {
+            assertStatus(client, INTERNAL_SERVER_ERROR);
+        }
+        assertThat(filter.state(), is(HALF_OPEN));
+    }
+
+    private static void assertStatus(StreamingHttpClient client, HttpResponseStatus status) throws Exception {
+        assertThat(client.request(client.get("/")).toFuture().get().status(), is(status));
+    }
+
+    private static void assertFailure(StreamingHttpClient client, Class<? extends Throwable> causeType)
+            throws Exception {
+        try {
+            client.request(client.get("/")).toFuture().get();
+            fail("Expected " + causeType.getSimpleName());
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(causeType));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.concurrent.SingleSource.Processor;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestExecutor;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.StreamingHttpClient;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Processors.newSingleProcessor;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.ACCEPTED;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.TestStreamingHttpClient.from;
+import static io.servicetalk.http.utils.RetryBudget.newRetryBudget;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class HedgingHttpRequesterFilterTest {
+
+    private static final StreamingHttpRequestResponseFactory reqRespFactory =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final ServiceTalkTestTimeout timeout = new ServiceTalkTestTimeout();
+
+    private final TestExecutor executor = new TestExecutor();
+    private final List<Processor<StreamingHttpResponse, StreamingHttpResponse>> attempts =
+            new CopyOnWriteArrayList<>();
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    private StreamingHttpClient newClient(HedgingHttpRequesterFilter.Builder builder) {
+        StreamingHttpClientFilterFactory mockResponse = client -> new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return defer(() -> {
+                    Processor<StreamingHttpResponse, StreamingHttpResponse> attempt = newSingleProcessor();
+                    attempts.add(attempt);
+                    return fromSource(attempt).beforeCancel(cancelled::incrementAndGet);
+                });
+            }
+        };
+        return from(reqRespFactory, mock(HttpExecutionContext.class),
+                builder.executor(executor).build().append(mockResponse));
+    }
+
+    private static HedgingHttpRequesterFilter.Builder newBuilder() {
+        return new HedgingHttpRequesterFilter.Builder().hedgeDelay(Duration.ofMillis(100));
+    }
+
+    @Test
+    public void noHedgeForFastResponse() throws Exception {
+        StreamingHttpClient client = newClient(newBuilder());
+        Future<StreamingHttpResponse> response = client.request(client.get("/")).toFuture();
+        assertThat(attempts.size(), is(1));
+        attempts.get(0).onSuccess(reqRespFactory.ok());
+        assertThat(response.get().status(), is(OK));
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts.size(), is(1));
+        assertThat(executor.scheduledTasksPending(), is(0));
+    }
+
+    @Test
+    public void hedgeWinsAndOriginalIsCancelled() throws Exception {
+        StreamingHttpClient client = newClient(newBuilder());
+        Future<StreamingHttpResponse> response = client.request(client.get("/")).toFuture();
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts.size(), is(2));
+        attempts.get(1).onSuccess(reqRespFactory.newResponse(ACCEPTED));
+        assertThat(response.get().status(), is(ACCEPTED));
+        assertThat(cancelled.get(), is(1));
+    }
+
+    @Test
+    public void maxAttemptsLimitsHedges() throws Exception {
+        StreamingHttpClient client = newClient(newBuilder().maxAttempts(3));
+        Future<StreamingHttpResponse> response = client.request(client.get("/")).toFuture();
+        for (int i = 0; i < 5; ++i) {
+            executor.advanceTimeBy(100, MILLISECONDS);
+        }
+        assertThat(attempts.size(), is(3));
+        attempts.get(0).onSuccess(reqRespFactory.ok());
+        assertThat(response.get().status(), is(OK));
+        assertThat(cancelled.get(), is(2));
+    }
+
+    @Test
+    public void nonIdempotentRequestIsNotHedged() throws Exception {
+        StreamingHttpClient client = newClient(newBuilder());
+        Future<StreamingHttpResponse> response = client.request(client.post("/")).toFuture();
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts.size(), is(1));
+        attempts.get(0).onSuccess(reqRespFactory.ok());
+        assertThat(response.get().status(), is(OK));
+    }
+
+    @Test
+    public void budgetLimitsHedges() throws Exception {
+        StreamingHttpClient client = newClient(newBuilder().hedgingBudget(newRetryBudget(0.5, 1)));
+        Future<StreamingHttpResponse> first = client.request(client.get("/")).toFuture();
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts.size(), is(2));
+        attempts.get(0).onSuccess(reqRespFactory.ok());
+        assertThat(first.get().status(), is(OK));
+
+        // The budget is exhausted, the completed request only deposited half a hedge.
+        Future<StreamingHttpResponse> second = client.request(client.get("/")).toFuture();
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts.size(), is(3));
+        attempts.get(2).onSuccess(reqRespFactory.ok());
+        assertThat(second.get().status(), is(OK));
+    }
+
+    @Test
+    public void hedgeDelayDoesNotCollapseWhenHedgesWin() throws Exception {
+        // The original attempts never respond and every hedged attempt responds after a constant 50ms. Recording the
+        // latency of the winning attempt only would shrink the hedge delay to 50ms.
+        final LatencyPercentileTracker tracker = new LatencyPercentileTracker(50, 4, MILLISECONDS.toNanos(100));
+        final Single<StreamingHttpResponse> attempt = defer(() -> {
+            Processor<StreamingHttpResponse, StreamingHttpResponse> processor = newSingleProcessor();
+            attempts.add(processor);
+            return fromSource(processor);
+        });
+        for (int i = 0; i < 8; ++i) {
+            final long hedgeDelayNanos = tracker.percentileNanos();
+            assertThat(hedgeDelayNanos, is(greaterThanOrEqualTo(MILLISECONDS.toNanos(100))));
+            attempts.clear();
+            Future<StreamingHttpResponse> response = new HedgingSingle(attempt, executor, 2, hedgeDelayNanos,
+                    newRetryBudget(1, 100), tracker, executor::currentNanos).toFuture();
+            executor.advanceTimeBy(hedgeDelayNanos, NANOSECONDS);
+            assertThat(attempts.size(), is(2));
+            executor.advanceTimeBy(50, MILLISECONDS);
+            attempts.get(1).onSuccess(reqRespFactory.ok());
+            assertThat(response.get().status(), is(OK));
+        }
+        assertThat(tracker.percentileNanos(), is(greaterThanOrEqualTo(MILLISECONDS.toNanos(150))));
+    }
+
+    @Test
+    public void failsWhenAllAttemptsFail() throws Exception {
+        StreamingHttpClient client = newClient(newBuilder());
+        Future<StreamingHttpResponse> response = client.request(client.get("/")).toFuture();
+        executor.advanceTimeBy(100, MILLISECONDS);
+        assertThat(attempts.size(), is(2));
+        attempts.get(0).onError(new IOException("first"));
+        assertThat(response.isDone(), is(false));
+        attempts.get(1).onError(new IOException("second"));
+        try {
+            response.get();
+            fail("Expected IOException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    @Test
+    public void cancelCancelsAllAttempts() {
+        StreamingHttpClient client = newClient(newBuilder());
+        Future<StreamingHttpResponse> response = client.request(client.get("/")).toFuture();
+        executor.advanceTimeBy(100, MILLISECONDS);
+        response.cancel(true);
+        assertThat(cancelled.get(), is(2));
+        assertThat(executor.scheduledTasksPending(), is(0));
+    }
+}
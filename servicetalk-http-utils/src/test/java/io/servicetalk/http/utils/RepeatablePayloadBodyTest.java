@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.buffer.api.BufferAllocator;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.buffer.netty.BufferAllocators.newPooledAllocator;
+import static io.servicetalk.buffer.netty.BufferUtils.toByteBuf;
+import static io.servicetalk.concurrent.api.Publisher.from;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.concurrent.internal.DeliberateException.DELIBERATE_EXCEPTION;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.utils.RepeatablePayloadBody.withRepeatablePayloadBody;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RepeatablePayloadBodyTest {
+
+    private static final StreamingHttpRequestResponseFactory reqRespFactory =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final ServiceTalkTestTimeout timeout = new ServiceTalkTestTimeout();
+
+    private final BufferAllocator pooledAllocator = newPooledAllocator(false, 1);
+
+    @Test
+    public void retriedAttemptsWritePooledBuffers() throws Exception {
+        final Buffer pooled = pooledAllocator.fromAscii("payload");
+        final StreamingHttpRequest request = reqRespFactory.post("/").payloadBody(from(pooled));
+        final List<String> written = new ArrayList<>();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        withRepeatablePayloadBody(request, req -> defer(() -> writePayload(req, written)
+                .concat(attempts.incrementAndGet() < 3 ? Single.<StreamingHttpResponse>failed(DELIBERATE_EXCEPTION) :
+                        succeeded(reqRespFactory.ok()))).retry((count, t) -> true)).toFuture().get();
+
+        assertThat(written, contains("payload", "payload", "payload"));
+        assertThat("Original buffer not released", toByteBuf(pooled).refCnt(), is(0));
+    }
+
+    @Test
+    public void unpooledBuffersAreWrittenAsIs() throws Exception {
+        final Buffer unpooled = DEFAULT_ALLOCATOR.fromAscii("payload");
+        final StreamingHttpRequest request = reqRespFactory.post("/").payloadBody(from(unpooled));
+        final List<Buffer> written = new ArrayList<>();
+
+        withRepeatablePayloadBody(request, req -> req.payloadBody().whenOnNext(written::add).ignoreElements()
+                .concat(succeeded(reqRespFactory.ok()))).toFuture().get();
+        assertThat(written, contains(sameInstance(unpooled)));
+    }
+
+    @Test
+    public void writeAfterResponseReleasesOriginal() throws Exception {
+        final Buffer pooled = pooledAllocator.fromAscii("payload");
+        final StreamingHttpRequest request = reqRespFactory.post("/").payloadBody(from(pooled));
+        final AtomicReference<StreamingHttpRequest> sent = new AtomicReference<>();
+
+        withRepeatablePayloadBody(request, req -> {
+            sent.set(req);
+            return succeeded(reqRespFactory.ok());
+        }).toFuture().get();
+        // The payload is written after the response arrived, e.g. by a full duplex exchange.
+        final List<String> written = new ArrayList<>();
+        writePayload(sent.get(), written).toFuture().get();
+        assertThat(written, contains("payload"));
+        assertThat("Original buffer not released by the write", toByteBuf(pooled).refCnt(), is(0));
+    }
+
+    private static Completable writePayload(final StreamingHttpRequest request, final List<String> written) {
+        // Simulates the transport, which releases pooled buffers once written.
+        return request.payloadBody().whenOnNext(buffer -> {
+            written.add(buffer.toString(US_ASCII));
+            buffer.release();
+        }).ignoreElements();
+    }
+}
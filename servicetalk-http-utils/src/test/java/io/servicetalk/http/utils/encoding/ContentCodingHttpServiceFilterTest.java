@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpService;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Publisher.from;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.CharSequences.newAsciiString;
+import static io.servicetalk.http.api.HttpHeaderNames.ACCEPT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_ENCODING;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_LENGTH;
+import static io.servicetalk.http.api.HttpHeaderNames.CONTENT_TYPE;
+import static io.servicetalk.http.api.HttpHeaderNames.VARY;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.UNSUPPORTED_MEDIA_TYPE;
+import static io.servicetalk.http.utils.encoding.ContentCodings.deflateDefault;
+import static io.servicetalk.http.utils.encoding.ContentCodings.gzipDefault;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContentCodingHttpServiceFilterTest {
+    private static final StreamingHttpRequestResponseFactory REQ_RES_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+    private static final CharSequence RESPONSE_CONTENT_TYPE = newAsciiString("x-response-content-type");
+    private static final CharSequence RESPONSE_CONTENT_LENGTH = newAsciiString("x-response-content-length");
+    private static final String PAYLOAD = "Hello ServiceTalk! Hello ServiceTalk! Hello ServiceTalk!";
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final HttpServiceContext ctx = mock(HttpServiceContext.class);
+    private final StreamingHttpService service = new ContentCodingHttpServiceFilter().create(
+            (serviceCtx, request, factory) -> {
+                // Echo the request payload body, with the response headers requested by the test.
+                final StreamingHttpResponse response = factory.ok().payloadBody(request.payloadBody());
+                final CharSequence contentType = request.headers().get(RESPONSE_CONTENT_TYPE);
+                if (contentType != null) {
+                    response.headers().set(CONTENT_TYPE, contentType);
+                }
+                final CharSequence contentLength = request.headers().get(RESPONSE_CONTENT_LENGTH);
+                if (contentLength != null) {
+                    response.headers().set(CONTENT_LENGTH, contentLength);
+                }
+                return succeeded(response);
+            });
+
+    @Before
+    public void setUp() {
+        final HttpExecutionContext executionContext = mock(HttpExecutionContext.class);
+        when(executionContext.bufferAllocator()).thenReturn(DEFAULT_ALLOCATOR);
+        when(ctx.executionContext()).thenReturn(executionContext);
+    }
+
+    @Test
+    public void noAcceptEncoding() throws Exception {
+        final StreamingHttpResponse response = handle(newRequest());
+        assertThat(response.headers().get(CONTENT_ENCODING), is(nullValue()));
+        assertThat(payload(response.payloadBody()), is(PAYLOAD));
+    }
+
+    @Test
+    public void encodesWithPreferredAcceptedCoding() throws Exception {
+        final StreamingHttpResponse response = handle(newRequest()
+                .setHeader(ACCEPT_ENCODING, "deflate, gzip;q=0.5")
+                .setHeader(RESPONSE_CONTENT_LENGTH, "1048576"));
+        assertEncoded(response, gzipDefault());
+    }
+
+    @Test
+    public void excludedCodingIsNotSelected() throws Exception {
+        final StreamingHttpResponse response = handle(newRequest().setHeader(ACCEPT_ENCODING, "gzip;q=0, *"));
+        assertEncoded(response, deflateDefault());
+    }
+
+    @Test
+    public void smallPayloadIsNotEncoded() throws Exception {
+        final StreamingHttpResponse response = handle(newRequest()
+                .setHeader(ACCEPT_ENCODING, "gzip")
+                .setHeader(RESPONSE_CONTENT_LENGTH, String.valueOf(PAYLOAD.length())));
+        assertThat(response.headers().get(CONTENT_ENCODING), is(nullValue()));
+        assertThat(payload(response.payloadBody()), is(PAYLOAD));
+    }
+
+    @Test
+    public void compressedContentTypeIsNotEncoded() throws Exception {
+        final StreamingHttpResponse response = handle(newRequest()
+                .setHeader(ACCEPT_ENCODING, "gzip")
+                .setHeader(RESPONSE_CONTENT_TYPE, "image/png"));
+        assertThat(response.headers().get(CONTENT_ENCODING), is(nullValue()));
+        assertThat(payload(response.payloadBody()), is(PAYLOAD));
+
+        assertEncoded(handle(newRequest()
+                .setHeader(ACCEPT_ENCODING, "gzip")
+                .setHeader(RESPONSE_CONTENT_TYPE, "image/svg+xml")), gzipDefault());
+    }
+
+    @Test
+    public void decodesRequestPayload() throws Exception {
+        final StreamingHttpRequest request = REQ_RES_FACTORY.post("/")
+                .setHeader(CONTENT_ENCODING, "gzip")
+                .payloadBody(gzipDefault().encode(from(DEFAULT_ALLOCATOR.fromAscii(PAYLOAD)), DEFAULT_ALLOCATOR));
+        final StreamingHttpResponse response = handle(request);
+        assertThat(response.status(), is(OK));
+        assertThat(payload(response.payloadBody()), is(PAYLOAD));
+    }
+
+    @Test
+    public void unsupportedRequestEncoding() throws Exception {
+        final StreamingHttpResponse response = handle(newRequest().setHeader(CONTENT_ENCODING, "br"));
+        assertThat(response.status(), is(UNSUPPORTED_MEDIA_TYPE));
+        assertThat(response.headers().get(ACCEPT_ENCODING).toString(), is("gzip, deflate"));
+    }
+
+    private StreamingHttpResponse handle(final StreamingHttpRequest request) throws Exception {
+        return service.handle(ctx, request, REQ_RES_FACTORY).toFuture().get();
+    }
+
+    private static StreamingHttpRequest newRequest() {
+        return REQ_RES_FACTORY.post("/").payloadBody(from(DEFAULT_ALLOCATOR.fromAscii(PAYLOAD)));
+    }
+
+    private static void assertEncoded(final StreamingHttpResponse response, final ContentCodec codec)
+            throws Exception {
+        assertThat(response.headers().get(CONTENT_ENCODING).toString(), is(codec.name().toString()));
+        assertThat(response.headers().get(VARY).toString(), is(ACCEPT_ENCODING.toString()));
+        assertThat(response.headers().get(CONTENT_LENGTH), is(nullValue()));
+        assertThat(payload(codec.decode(response.payloadBody(), DEFAULT_ALLOCATOR)), is(PAYLOAD));
+    }
+
+    private static String payload(final Publisher<Buffer> payload) throws Exception {
+        return payload.collect(DEFAULT_ALLOCATOR::newCompositeBuffer, (composite, buffer) ->
+                composite.addBuffer(buffer)).toFuture().get().toString(US_ASCII);
+    }
+}
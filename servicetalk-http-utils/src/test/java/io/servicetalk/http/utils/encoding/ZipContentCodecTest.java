@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.encoding;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Publisher.empty;
+import static io.servicetalk.concurrent.api.Publisher.from;
+import static io.servicetalk.concurrent.api.Publisher.fromIterable;
+import static io.servicetalk.http.utils.encoding.ContentCodings.deflate;
+import static io.servicetalk.http.utils.encoding.ContentCodings.deflateDefault;
+import static io.servicetalk.http.utils.encoding.ContentCodings.gzip;
+import static io.servicetalk.http.utils.encoding.ContentCodings.gzipDefault;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+public class ZipContentCodecTest {
+    private static final String PAYLOAD = repeat("Hello ServiceTalk! ", 1000);
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    @Test
+    public void gzipRoundTrip() throws Exception {
+        assertRoundTrip(gzipDefault());
+    }
+
+    @Test
+    public void deflateRoundTrip() throws Exception {
+        assertRoundTrip(deflateDefault());
+    }
+
+    @Test
+    public void subsequentPayloadsReuseCodec() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            assertRoundTrip(gzipDefault());
+            assertRoundTrip(deflateDefault());
+        }
+    }
+
+    @Test
+    public void deflaterIsReusedOnTheSameThread() throws Exception {
+        assertRoundTrip(gzipDefault());
+        final Deflater idle = ZipContentCodec.idleDeflater(true);
+        assertThat(idle, is(notNullValue()));
+
+        final AtomicReference<Deflater> idleDuringBody = new AtomicReference<>(idle);
+        final Collection<Buffer> encoded = gzipDefault().encode(fromIterable(chunks(PAYLOAD, 1000))
+                .beforeOnNext(__ -> idleDuringBody.set(ZipContentCodec.idleDeflater(true))), DEFAULT_ALLOCATOR)
+                .toFuture().get();
+        assertThat("Deflater not taken from the pool", idleDuringBody.get(), is(nullValue()));
+        assertThat("Deflater not returned to the pool", ZipContentCodec.idleDeflater(true), is(sameInstance(idle)));
+
+        final Collection<Buffer> decoded = gzipDefault().decode(fromIterable(encoded), DEFAULT_ALLOCATOR)
+                .toFuture().get();
+        assertThat(new String(toBytes(decoded), US_ASCII), is(PAYLOAD));
+    }
+
+    @Test
+    public void gzipEncodingIsReadableByJdk() throws Exception {
+        final byte[] encoded = toBytes(gzipDefault().encode(fromIterable(chunks(PAYLOAD, 1000)), DEFAULT_ALLOCATOR)
+                .toFuture().get());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[1024];
+            int read;
+            while ((read = in.read(buf)) >= 0) {
+                out.write(buf, 0, read);
+            }
+            assertThat(new String(out.toByteArray(), US_ASCII), is(PAYLOAD));
+        }
+    }
+
+    @Test
+    public void jdkGzipEncodingDecodedByteByByte() throws Exception {
+        final byte[] encoded = jdkGzip(PAYLOAD);
+        final List<Buffer> chunks = new ArrayList<>(encoded.length);
+        for (byte b : encoded) {
+            chunks.add(DEFAULT_ALLOCATOR.newBuffer(1).writeByte(b));
+        }
+        final Collection<Buffer> decoded = gzipDefault().decode(fromIterable(chunks), DEFAULT_ALLOCATOR)
+                .toFuture().get();
+        assertThat(new String(toBytes(decoded), US_ASCII), is(PAYLOAD));
+    }
+
+    @Test
+    public void emptyPayload() throws Exception {
+        assertThat(toBytes(gzipDefault().decode(empty(), DEFAULT_ALLOCATOR).toFuture().get()).length, is(0));
+        final Collection<Buffer> encoded = gzipDefault().encode(empty(), DEFAULT_ALLOCATOR).toFuture().get();
+        final Collection<Buffer> decoded = gzipDefault().decode(fromIterable(encoded), DEFAULT_ALLOCATOR)
+                .toFuture().get();
+        assertThat(toBytes(decoded).length, is(0));
+    }
+
+    @Test
+    public void truncatedGzip() throws Exception {
+        final byte[] encoded = jdkGzip(PAYLOAD);
+        assertDecodeFails(DEFAULT_ALLOCATOR.wrap(encoded).writerIndex(encoded.length - 4));
+    }
+
+    @Test
+    public void corruptGzipTrailer() throws Exception {
+        final byte[] encoded = jdkGzip(PAYLOAD);
+        encoded[encoded.length - 5] ^= 1;
+        assertDecodeFails(DEFAULT_ALLOCATOR.wrap(encoded));
+    }
+
+    @Test
+    public void invalidGzipHeader() throws Exception {
+        assertDecodeFails(DEFAULT_ALLOCATOR.fromAscii(PAYLOAD));
+    }
+
+    @Test
+    public void decodedPayloadWithinLimit() throws Exception {
+        assertRoundTrip(gzip(PAYLOAD.length()));
+        assertRoundTrip(deflate(PAYLOAD.length()));
+    }
+
+    @Test
+    public void gzipDecodedPayloadExceedsLimit() throws Exception {
+        assertDecodeFails(gzip(PAYLOAD.length() - 1), DEFAULT_ALLOCATOR.wrap(jdkGzip(PAYLOAD)));
+    }
+
+    @Test
+    public void deflateDecodedPayloadExceedsLimit() throws Exception {
+        final Collection<Buffer> encoded = deflateDefault().encode(from(DEFAULT_ALLOCATOR.fromAscii(PAYLOAD)),
+                DEFAULT_ALLOCATOR).toFuture().get();
+        try {
+            deflate(1024).decode(fromIterable(encoded), DEFAULT_ALLOCATOR).toFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ContentCodingException.class));
+        }
+    }
+
+    private static void assertRoundTrip(final ContentCodec codec) throws Exception {
+        final Collection<Buffer> encoded = codec.encode(fromIterable(chunks(PAYLOAD, 1000)), DEFAULT_ALLOCATOR)
+                .toFuture().get();
+        final int encodedSize = encoded.stream().mapToInt(Buffer::readableBytes).sum();
+        assertThat(encodedSize, is(lessThan(PAYLOAD.length() / 10)));
+
+        final List<Buffer> split = new ArrayList<>();
+        for (Buffer buffer : encoded) {
+            while (buffer.readableBytes() > 0) {
+                split.add(buffer.readSlice(Math.min(7, buffer.readableBytes())));
+            }
+        }
+        final Collection<Buffer> decoded = codec.decode(fromIterable(split), DEFAULT_ALLOCATOR).toFuture().get();
+        assertThat(new String(toBytes(decoded), US_ASCII), is(PAYLOAD));
+    }
+
+    private static void assertDecodeFails(final Buffer encoded) throws InterruptedException {
+        assertDecodeFails(gzipDefault(), encoded);
+    }
+
+    private static void assertDecodeFails(final ContentCodec codec, final Buffer encoded)
+            throws InterruptedException {
+        try {
+            codec.decode(from(encoded), DEFAULT_ALLOCATOR).toFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ContentCodingException.class));
+        }
+    }
+
+    private static List<Buffer> chunks(final String payload, final int chunkSize) {
+        final List<Buffer> chunks = new ArrayList<>();
+        for (int i = 0; i < payload.length(); i += chunkSize) {
+            chunks.add(DEFAULT_ALLOCATOR.fromAscii(payload.substring(i, Math.min(payload.length(), i + chunkSize))));
+        }
+        return chunks;
+    }
+
+    private static byte[] toBytes(final Collection<Buffer> buffers) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Buffer buffer : buffers) {
+            final byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.readBytes(bytes);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] jdkGzip(final String payload) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(payload.getBytes(US_ASCII));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String repeat(final String value, final int times) {
+        final StringBuilder sb = new StringBuilder(value.length() * times);
+        for (int i = 0; i < times; ++i) {
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.http.api.HttpRequestMetaData;
+import io.servicetalk.http.utils.limiter.AdaptiveConcurrencyLimiter.Permit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.servicetalk.http.api.DefaultHttpHeadersFactory.INSTANCE;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpRequestMetaDataFactory.newRequestMetaData;
+import static io.servicetalk.http.api.HttpRequestMethod.GET;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long RTT = MILLISECONDS.toNanos(10);
+
+    @Test
+    public void rejectsRequestsAboveLimit() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(2).build();
+        final Permit first = limiter.tryAcquire(newRequest("/"));
+        final Permit second = limiter.tryAcquire(newRequest("/"));
+        assertThat(first, is(notNullValue()));
+        assertThat(second, is(notNullValue()));
+        assertThat(limiter.inFlight(), is(2));
+        assertThat(limiter.tryAcquire(newRequest("/")), is(nullValue()));
+
+        first.onIgnore();
+        assertThat(limiter.inFlight(), is(1));
+        final Permit third = limiter.tryAcquire(newRequest("/"));
+        assertThat(third, is(notNullValue()));
+        second.onIgnore();
+        third.onIgnore();
+        assertThat(limiter.inFlight(), is(0));
+    }
+
+    @Test
+    public void limitGrowsWithStableLatency() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(10).build();
+        for (int i = 0; i < 100; ++i) {
+            limiter.onSample(RTT, limiter.limit(), false);
+        }
+        assertThat(limiter.limit(), is(greaterThan(10)));
+    }
+
+    @Test
+    public void limitDoesNotGrowIfNotUsed() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(10).build();
+        for (int i = 0; i < 100; ++i) {
+            limiter.onSample(RTT, 1, false);
+        }
+        assertThat(limiter.limit(), is(10));
+    }
+
+    @Test
+    public void limitShrinksWithIncreasingLatency() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(100).build();
+        for (int i = 0; i < 100; ++i) {
+            limiter.onSample(RTT, limiter.limit(), false);
+        }
+        final int stableLimit = limiter.limit();
+        for (int i = 0; i < 100; ++i) {
+            limiter.onSample(RTT * 10, limiter.limit(), false);
+        }
+        assertThat(limiter.limit(), is(lessThan(stableLimit)));
+    }
+
+    @Test
+    public void droppedRequestsDecreaseLimit() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(100)
+                .backoffRatio(0.5).build();
+        limiter.onSample(RTT, 100, true);
+        assertThat(limiter.limit(), is(50));
+        for (int i = 0; i < 100; ++i) {
+            limiter.onSample(RTT, 100, true);
+        }
+        assertThat(limiter.limit(), is(1));
+    }
+
+    @Test
+    public void concurrentSamplesAreNotLost() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(1024)
+                .limitBounds(1, 1024).backoffRatio(0.5).build();
+        final CyclicBarrier barrier = new CyclicBarrier(10);
+        final ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; ++i) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    limiter.onSample(RTT, 1024, true);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(limiter.limit(), is(1));
+    }
+
+    @Test
+    public void lowPriorityPartitionIsShedFirst() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(10)
+                .partition("high", 0.8)
+                .partition("low", 0.2)
+                .partitionResolver(request -> request.path().substring(1))
+                .build();
+        final List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            final Permit permit = limiter.tryAcquire(newRequest("/low"));
+            assertThat(permit, is(notNullValue()));
+            permits.add(permit);
+        }
+        // The limit is reached, "low" exceeds its share but "high" did not use its share yet.
+        assertThat(limiter.tryAcquire(newRequest("/low")), is(nullValue()));
+        assertThat(limiter.tryAcquire(newRequest("/unknown")), is(nullValue()));
+        for (int i = 0; i < 8; ++i) {
+            final Permit permit = limiter.tryAcquire(newRequest("/high"));
+            assertThat(permit, is(notNullValue()));
+            permits.add(permit);
+        }
+        assertThat(limiter.tryAcquire(newRequest("/high")), is(nullValue()));
+        assertThat(limiter.inFlight(), is(18));
+        assertThat(limiter.inFlight("high"), is(8));
+        assertThat(limiter.inFlight("low"), is(10));
+
+        permits.forEach(Permit::onIgnore);
+        assertThat(limiter.inFlight(), is(0));
+        assertThat(limiter.inFlight("high"), is(0));
+        assertThat(limiter.inFlight("low"), is(0));
+    }
+
+    @Test
+    public void concurrentRequestsDoNotOvershootPartitionShare() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(10)
+                .partition("high", 0.5)
+                .partitionResolver(request -> request.path().substring(1))
+                .build();
+        final List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            permits.add(limiter.tryAcquire(newRequest("/other")));
+        }
+        final int threads = 20;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Permit>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return limiter.tryAcquire(newRequest("/high"));
+                }));
+            }
+            for (Future<Permit> future : futures) {
+                final Permit permit = future.get();
+                if (permit != null) {
+                    permits.add(permit);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(limiter.inFlight("high"), is(5));
+        assertThat(limiter.inFlight(), is(15));
+        assertThat(permits.size(), is(15));
+
+        permits.forEach(Permit::onIgnore);
+        assertThat(limiter.inFlight(), is(0));
+        assertThat(limiter.inFlight("high"), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void partitionFractionsExceedLimit() {
+        new AdaptiveConcurrencyLimiter.Builder()
+                .partition("a", 0.6)
+                .partition("b", 0.6)
+                .partitionResolver(HttpRequestMetaData::path)
+                .build();
+    }
+
+    private static HttpRequestMetaData newRequest(final String path) {
+        return newRequestMetaData(HTTP_1_1, GET, path, INSTANCE.newHeaders());
+    }
+}
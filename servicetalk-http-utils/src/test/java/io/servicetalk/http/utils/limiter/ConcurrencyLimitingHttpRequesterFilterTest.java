@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.concurrent.SingleSource.Processor;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestExecutor;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpExecutionContext;
+import io.servicetalk.http.api.HttpExecutionStrategy;
+import io.servicetalk.http.api.StreamingHttpClient;
+import io.servicetalk.http.api.StreamingHttpClientFilter;
+import io.servicetalk.http.api.StreamingHttpClientFilterFactory;
+import io.servicetalk.http.api.StreamingHttpRequest;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpRequester;
+import io.servicetalk.http.api.StreamingHttpResponse;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Processors.newSingleProcessor;
+import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.GATEWAY_TIMEOUT;
+import static io.servicetalk.http.api.TestStreamingHttpClient.from;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class ConcurrencyLimitingHttpRequesterFilterTest {
+    private static final StreamingHttpRequestResponseFactory REQ_RES_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final ServiceTalkTestTimeout timeout = new ServiceTalkTestTimeout();
+
+    private final TestExecutor executor = new TestExecutor();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(100)
+            .backoffRatio(0.5).build();
+    private final Processor<StreamingHttpResponse, StreamingHttpResponse> response = newSingleProcessor();
+    private final StreamingHttpClient client = from(REQ_RES_FACTORY, mock(HttpExecutionContext.class),
+            new ConcurrencyLimitingHttpRequesterFilter(limiter, Duration.ofSeconds(1), executor)
+                    .append(mockResponse()));
+
+    @Test
+    public void ownTimeoutDecreasesLimit() throws Exception {
+        final Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        executor.advanceTimeBy(1, SECONDS);
+        assertTimeout(future);
+        assertThat(limiter.limit(), is(50));
+        assertThat(limiter.inFlight(), is(0));
+    }
+
+    @Test
+    public void otherTimeoutsDoNotDecreaseLimit() throws Exception {
+        final Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        response.onError(new TimeoutException("connect timeout"));
+        assertTimeout(future);
+        assertThat(limiter.limit(), is(100));
+        assertThat(limiter.inFlight(), is(0));
+    }
+
+    @Test
+    public void gatewayTimeoutDecreasesLimit() throws Exception {
+        final Future<StreamingHttpResponse> future = client.request(client.get("/")).toFuture();
+        response.onSuccess(REQ_RES_FACTORY.newResponse(GATEWAY_TIMEOUT));
+        future.get().payloadBody().ignoreElements().toFuture().get();
+        assertThat(limiter.limit(), is(50));
+        assertThat(limiter.inFlight(), is(0));
+    }
+
+    private StreamingHttpClientFilterFactory mockResponse() {
+        return client -> new StreamingHttpClientFilter(client) {
+            @Override
+            protected Single<StreamingHttpResponse> request(final StreamingHttpRequester delegate,
+                                                            final HttpExecutionStrategy strategy,
+                                                            final StreamingHttpRequest request) {
+                return fromSource(response);
+            }
+        };
+    }
+
+    private static void assertTimeout(final Future<StreamingHttpResponse> future) throws Exception {
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+    }
+}
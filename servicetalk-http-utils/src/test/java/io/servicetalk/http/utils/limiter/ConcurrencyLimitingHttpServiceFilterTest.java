@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.http.utils.limiter;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.TestPublisher;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.http.api.DefaultHttpHeadersFactory;
+import io.servicetalk.http.api.DefaultStreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.HttpServiceContext;
+import io.servicetalk.http.api.StreamingHttpRequestResponseFactory;
+import io.servicetalk.http.api.StreamingHttpResponse;
+import io.servicetalk.http.api.StreamingHttpService;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.http.api.HttpProtocolVersion.HTTP_1_1;
+import static io.servicetalk.http.api.HttpResponseStatus.OK;
+import static io.servicetalk.http.api.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class ConcurrencyLimitingHttpServiceFilterTest {
+    private static final StreamingHttpRequestResponseFactory REQ_RES_FACTORY =
+            new DefaultStreamingHttpRequestResponseFactory(DEFAULT_ALLOCATOR, DefaultHttpHeadersFactory.INSTANCE,
+                    HTTP_1_1);
+
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final HttpServiceContext ctx = mock(HttpServiceContext.class);
+    private final TestPublisher<Buffer> payload = new TestPublisher<>();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().initialLimit(1).build();
+    private final StreamingHttpService service = new ConcurrencyLimitingHttpServiceFilter(limiter).create(
+            (serviceCtx, request, factory) -> succeeded(factory.ok().payloadBody(payload)));
+
+    @Test
+    public void rejectsRequestsAboveLimitUntilPayloadCompletes() throws Exception {
+        final StreamingHttpResponse first = handle();
+        assertThat(first.status(), is(OK));
+        assertThat(limiter.inFlight(), is(1));
+
+        assertThat(handle().status(), is(SERVICE_UNAVAILABLE));
+
+        first.payloadBody().ignoreElements().subscribe();
+        payload.onComplete();
+        assertThat(limiter.inFlight(), is(0));
+        assertThat(handle().status(), is(OK));
+    }
+
+    private StreamingHttpResponse handle() throws Exception {
+        return service.handle(ctx, REQ_RES_FACTORY.get("/"), REQ_RES_FACTORY).toFuture().get();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.concurrent.api.Executor;
+
+/**
+ * Configuration of the connection pool of {@link Host}s.
+ *
+ * @param <Addr> The resolved address type.
+ */
+final class ConnectionPoolConfig<Addr> {
+    /**
+     * Maximum number of connections, including connection attempts, per host, or {@code 0} for no limit.
+     */
+    final int maxConnections;
+    /**
+     * Maximum duration a selection waits for a connection when the pool of a host is exhausted.
+     */
+    final long acquireTimeoutNanos;
+    /**
+     * Maximum lifetime of a connection, or {@code 0} for no limit.
+     */
+    final long maxLifetimeNanos;
+    /**
+     * {@link Executor} used for timers of the pool.
+     */
+    final Executor executor;
+    final ConnectionPoolObserver<Addr> observer;
+
+    ConnectionPoolConfig(final int maxConnections, final long acquireTimeoutNanos, final long maxLifetimeNanos,
+                         final Executor executor, final ConnectionPoolObserver<Addr> observer) {
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutNanos = acquireTimeoutNanos;
+        this.maxLifetimeNanos = maxLifetimeNanos;
+        this.executor = executor;
+        this.observer = observer;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolConfig{" +
+                "maxConnections=" + maxConnections +
+                ", acquireTimeoutNanos=" + acquireTimeoutNanos +
+                ", maxLifetimeNanos=" + maxLifetimeNanos +
+                ", executor=" + executor +
+                '}';
+    }
+}
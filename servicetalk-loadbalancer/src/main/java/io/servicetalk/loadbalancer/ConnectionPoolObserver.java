@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+/**
+ * An observer of the connection pool of a {@link RoundRobinLoadBalancer}, which can be used to track the utilization
+ * of the pool for every address.
+ * <p>
+ * Callbacks are invoked on the thread which triggers the respective state change, hence implementations should not
+ * block.
+ *
+ * @param <ResolvedAddress> The resolved address type.
+ * @see RoundRobinLoadBalancer.RoundRobinLoadBalancerFactory.Builder#connectionPoolObserver(ConnectionPoolObserver)
+ */
+public interface ConnectionPoolObserver<ResolvedAddress> {
+
+    /**
+     * Invoked when a connection is added to the pool of an address.
+     *
+     * @param address the address of the connection.
+     * @param connections the number of connections to {@code address} after adding the connection.
+     */
+    default void onConnectionAdded(ResolvedAddress address, int connections) {
+    }
+
+    /**
+     * Invoked when a closed connection is removed from the pool of an address.
+     *
+     * @param address the address of the connection.
+     * @param connections the number of connections to {@code address} after removing the connection.
+     */
+    default void onConnectionRemoved(ResolvedAddress address, int connections) {
+    }
+
+    /**
+     * Invoked when the pool of an address is exhausted and a selection has to wait for a connection.
+     *
+     * @param address the address of the exhausted pool.
+     */
+    default void onAcquireQueued(ResolvedAddress address) {
+    }
+
+    /**
+     * Invoked when a selection times out while waiting for a connection.
+     *
+     * @param address the address of the exhausted pool.
+     */
+    default void onAcquireTimeout(ResolvedAddress address) {
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.ScoreSupplier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.exp;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+
+/**
+ * A {@link ScoreSupplier} which tracks the number of outstanding requests and an exponentially weighted moving average
+ * (EWMA) of the latency of completed requests for a {@link LoadBalancedConnection}.
+ * <p>
+ * The cost of a new request is estimated as the average latency multiplied by the number of outstanding requests (plus
+ * one for the new request). The {@link #score()} decreases as the cost increases. The average is peak sensitive: an
+ * increase in latency is reflected immediately, while a decrease in latency decays into the average over time.
+ * <p>
+ * Updates are lock free. Concurrent updates of the average may race and lose a sample, which is acceptable for the
+ * purpose of load balancing.
+ */
+public final class EwmaScoreTracker implements ScoreSupplier {
+    private static final AtomicIntegerFieldUpdater<EwmaScoreTracker> pendingUpdater =
+            newUpdater(EwmaScoreTracker.class, "pending");
+    private static final Duration DEFAULT_DECAY_TIME = Duration.ofSeconds(10);
+
+    private final double decayNanos;
+    private volatile int pending;
+    private volatile long ewmaNanos;
+    private volatile long lastUpdateNanos = nanoTime();
+
+    /**
+     * Creates a new instance with a default decay time.
+     */
+    public EwmaScoreTracker() {
+        this(DEFAULT_DECAY_TIME);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param decayTime the time after which a latency sample has a weight of {@code 1/e} in the average.
+     */
+    public EwmaScoreTracker(final Duration decayTime) {
+        if (decayTime.isNegative() || decayTime.isZero()) {
+            throw new IllegalArgumentException("decayTime: " + decayTime + " (expected >0)");
+        }
+        this.decayNanos = decayTime.toNanos();
+    }
+
+    /**
+     * Records the start of a request.
+     *
+     * @return the start time of the request which must be passed to {@link #onRequestEnd(long)}.
+     */
+    public long onRequestStart() {
+        pendingUpdater.incrementAndGet(this);
+        return nanoTime();
+    }
+
+    /**
+     * Records the end of a request which started with {@link #onRequestStart()}.
+     *
+     * @param startTimeNanos the value returned from {@link #onRequestStart()}.
+     */
+    public void onRequestEnd(final long startTimeNanos) {
+        pendingUpdater.decrementAndGet(this);
+        final long now = nanoTime();
+        final long latency = max(0, now - startTimeNanos);
+        final long elapsed = max(0, now - lastUpdateNanos);
+        lastUpdateNanos = now;
+        final long current = ewmaNanos;
+        if (latency > current) {
+            ewmaNanos = latency;
+        } else {
+            final double weight = exp(-elapsed / decayNanos);
+            ewmaNanos = (long) (current * weight + latency * (1 - weight));
+        }
+    }
+
+    /**
+     * Returns the number of outstanding requests.
+     *
+     * @return the number of outstanding requests.
+     */
+    public int pending() {
+        return pending;
+    }
+
+    /**
+     * Returns the current average latency in nanoseconds.
+     *
+     * @return the current average latency in nanoseconds.
+     */
+    public long latencyNanos() {
+        return ewmaNanos;
+    }
+
+    @Override
+    public int score() {
+        // Use microseconds to keep the score resolution meaningful in the int range. Add 1 so that pending requests
+        // still influence the cost before any latency has been observed.
+        final double cost = (ewmaNanos / 1000.0 + 1) * (max(0, pending) + 1);
+        return cost >= MAX_VALUE ? 0 : MAX_VALUE - (int) cost;
+    }
+
+    @Override
+    public String toString() {
+        return EwmaScoreTracker.class.getSimpleName() + "{pending=" + pending + ", latencyNanos=" + ewmaNanos + '}';
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.concurrent.api.Executor;
+
+import javax.annotation.Nullable;
+
+/**
+ * Configuration of the health checking of {@link Host}s.
+ */
+final class HealthCheckConfig {
+    /**
+     * Number of consecutive connection or request failures after which a host is ejected from the selection.
+     */
+    final int failedThreshold;
+    /**
+     * Duration of the first ejection of a host, consecutive ejections double this duration.
+     */
+    final long ejectionIntervalNanos;
+    /**
+     * Upper bound for the ejection duration.
+     */
+    final long maxEjectionIntervalNanos;
+    /**
+     * {@link Executor} used to actively probe ejected hosts, or {@code null} to re-admit ejected hosts on the next
+     * selection after the ejection duration elapsed.
+     */
+    @Nullable
+    final Executor executor;
+
+    HealthCheckConfig(final int failedThreshold, final long ejectionIntervalNanos,
+                      final long maxEjectionIntervalNanos, @Nullable final Executor executor) {
+        this.failedThreshold = failedThreshold;
+        this.ejectionIntervalNanos = ejectionIntervalNanos;
+        this.maxEjectionIntervalNanos = maxEjectionIntervalNanos;
+        this.executor = executor;
+    }
+
+    long ejectionIntervalNanos(final int ejections) {
+        // Exponential back-off, avoid overflow of the shift for large number of ejections.
+        final int shift = Math.min(ejections - 1, 30);
+        final long interval = ejectionIntervalNanos << shift;
+        return interval <= 0 || interval > maxEjectionIntervalNanos ? maxEjectionIntervalNanos : interval;
+    }
+
+    @Override
+    public String toString() {
+        return "HealthCheckConfig{" +
+                "failedThreshold=" + failedThreshold +
+                ", ejectionIntervalNanos=" + ejectionIntervalNanos +
+                ", maxEjectionIntervalNanos=" + maxEjectionIntervalNanos +
+                ", executor=" + executor +
+                '}';
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.MultiplexedLoadBalancedConnection;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection.RequestOutcomeListener;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.api.AsyncCloseable;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.Executor;
+import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.SequentialCancellable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.concurrent.Cancellable.IGNORE_CANCEL;
+import static io.servicetalk.concurrent.api.Completable.mergeAllDelayError;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * An address known to a load balancer and the connections which have been established to it.
+ * <p>
+ * If a {@link HealthCheckConfig} is provided, the host is ejected after a number of consecutive connection or request
+ * failures. Request failures are reported by {@link RequestTrackingLoadBalancedConnection}s. An ejected host is
+ * re-admitted after an exponentially increasing ejection duration, either by a background probe which successfully
+ * establishes a connection, or by a single trial selection which establishes a connection or completes a request.
+ * <p>
+ * If a {@link ConnectionPoolConfig} is provided, selections which can not be served because the pool of this host is
+ * exhausted are queued as {@link Waiter}s, which are woken up in FIFO order whenever capacity becomes available.
+ *
+ * @param <Addr> The resolved address type.
+ * @param <C> The type of connection.
+ */
+class Host<Addr, C extends ListenableAsyncCloseable> implements AsyncCloseable {
+    static final List<?> CLOSED_LIST = new ArrayList<>(0);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Host.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Host, List> connectionsUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(Host.class, List.class, "connections");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Host> consecutiveFailuresUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(Host.class, "consecutiveFailures");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Host, Ejection> ejectionUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(Host.class, Ejection.class, "ejection");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Host> pendingConnectsUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(Host.class, "pendingConnects");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Host> capacityVersionUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(Host.class, "capacityVersion");
+
+    final Addr address;
+    volatile List<C> connections = emptyList();
+    @Nullable
+    private final HealthCheckConfig healthCheckConfig;
+    @Nullable
+    private final ConnectionFactory<Addr, ? extends C> connectionFactory;
+    @Nullable
+    private final RequestOutcomeListener requestOutcomeListener;
+    @Nullable
+    private final SequentialCancellable probeCancellable;
+    @Nullable
+    private final ConnectionPoolConfig<Addr> poolConfig;
+    private final Deque<Waiter> waiters = new ConcurrentLinkedDeque<>();
+    private volatile int consecutiveFailures;
+    @Nullable
+    private volatile Ejection ejection;
+    private volatile int pendingConnects;
+    private volatile int capacityVersion;
+
+    Host(Addr address) {
+        this(address, null, null, null);
+    }
+
+    Host(Addr address, @Nullable HealthCheckConfig healthCheckConfig,
+         @Nullable ConnectionPoolConfig<Addr> poolConfig,
+         @Nullable ConnectionFactory<Addr, ? extends C> connectionFactory) {
+        this.address = requireNonNull(address);
+        this.healthCheckConfig = healthCheckConfig;
+        this.poolConfig = poolConfig;
+        if (healthCheckConfig == null) {
+            this.connectionFactory = null;
+            requestOutcomeListener = null;
+            probeCancellable = null;
+        } else {
+            this.connectionFactory = requireNonNull(connectionFactory);
+            requestOutcomeListener = new RequestOutcomeListener() {
+                @Override
+                public void onSuccess() {
+                    onRequestSuccess();
+                }
+
+                @Override
+                public void onFailure() {
+                    Host.this.onFailure();
+                }
+            };
+            probeCancellable = healthCheckConfig.executor == null ? null : new SequentialCancellable();
+        }
+    }
+
+    /**
+     * Computes the list of hosts after applying a {@link ServiceDiscovererEvent}. Hosts which are removed are marked
+     * inactive.
+     *
+     * @param oldHosts the current list of hosts, must not be {@link #CLOSED_LIST}.
+     * @param event the {@link ServiceDiscovererEvent} to apply.
+     * @param <Addr> The resolved address type.
+     * @param <C> The type of connection.
+     * @return the new list of hosts.
+     */
+    static <Addr, C extends ListenableAsyncCloseable> List<Host<Addr, C>> applyEvent(
+            final List<Host<Addr, C>> oldHosts, final ServiceDiscovererEvent<Addr> event) {
+        return applyEvent(oldHosts, event, null, null, null);
+    }
+
+    /**
+     * Computes the list of hosts after applying a {@link ServiceDiscovererEvent}. Hosts which are removed are marked
+     * inactive.
+     *
+     * @param oldHosts the current list of hosts, must not be {@link #CLOSED_LIST}.
+     * @param event the {@link ServiceDiscovererEvent} to apply.
+     * @param healthCheckConfig the {@link HealthCheckConfig} for new hosts, or {@code null} to disable health checking.
+     * @param poolConfig the {@link ConnectionPoolConfig} for new hosts, or {@code null} to not limit the connections.
+     * @param connectionFactory the {@link ConnectionFactory} used to probe ejected hosts, required if
+     * {@code healthCheckConfig} is not {@code null}.
+     * @param <Addr> The resolved address type.
+     * @param <C> The type of connection.
+     * @return the new list of hosts.
+     */
+    static <Addr, C extends ListenableAsyncCloseable> List<Host<Addr, C>> applyEvent(
+            final List<Host<Addr, C>> oldHosts, final ServiceDiscovererEvent<Addr> event,
+            @Nullable final HealthCheckConfig healthCheckConfig,
+            @Nullable final ConnectionPoolConfig<Addr> poolConfig,
+            @Nullable final ConnectionFactory<Addr, ? extends C> connectionFactory) {
+        final Addr addr = requireNonNull(event.address());
+        if (event.isAvailable()) {
+            if (oldHosts.isEmpty()) {
+                return singletonList(new Host<>(addr, healthCheckConfig, poolConfig, connectionFactory));
+            }
+            final List<Host<Addr, C>> newHosts = new ArrayList<>(oldHosts.size() + 1);
+            newHosts.addAll(oldHosts);
+            newHosts.add(new Host<>(addr, healthCheckConfig, poolConfig, connectionFactory));
+            return newHosts;
+        } else if (oldHosts.isEmpty()) {
+            return emptyList();
+        } else {
+            final List<Host<Addr, C>> newHosts = new ArrayList<>(oldHosts.size() - 1);
+            for (int i = 0; i < oldHosts.size(); ++i) {
+                final Host<Addr, C> host = oldHosts.get(i);
+                if (host.address.equals(addr)) {
+                    host.markInactive();
+                    for (int x = i + 1; x < oldHosts.size(); ++x) {
+                        newHosts.add(oldHosts.get(x));
+                    }
+                    return newHosts.isEmpty() ? emptyList() : newHosts;
+                } else {
+                    newHosts.add(host);
+                }
+            }
+            return newHosts;
+        }
+    }
+
+    void markInactive() {
+        cancelProbe();
+        @SuppressWarnings("unchecked")
+        final List<C> toRemove = connectionsUpdater.getAndSet(this, CLOSED_LIST);
+        wakeAllWaiters();
+        for (C conn : toRemove) {
+            conn.closeAsyncGracefully().subscribe();
+        }
+    }
+
+    boolean isInactive() {
+        return connections == CLOSED_LIST;
+    }
+
+    /**
+     * Tries to reserve one of {@code maxPendingConnects} slots for establishing a connection to this host. A successful
+     * reservation must be followed by {@link #releaseConnect()}.
+     *
+     * @param maxPendingConnects the maximum number of concurrent connection attempts.
+     * @return {@code true} if a connection can be established.
+     */
+    boolean tryAcquireConnect(final int maxPendingConnects) {
+        for (;;) {
+            final int pending = pendingConnects;
+            if (pending >= maxPendingConnects) {
+                return false;
+            }
+            if (pendingConnectsUpdater.compareAndSet(this, pending, pending + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Tries to reserve one of {@code maxPendingConnects} slots for establishing a connection to this host, while the
+     * number of connections and connection attempts stays below {@code maxConnections}. A successful reservation must
+     * be followed by {@link #releaseConnect()}.
+     *
+     * @param maxPendingConnects the maximum number of concurrent connection attempts.
+     * @param maxConnections the maximum number of connections, including connection attempts.
+     * @return {@code true} if a connection can be established.
+     */
+    boolean tryAcquireConnect(final int maxPendingConnects, final int maxConnections) {
+        for (;;) {
+            final int pending = pendingConnects;
+            if (pending >= maxPendingConnects || pending + connections.size() >= maxConnections) {
+                return false;
+            }
+            if (pendingConnectsUpdater.compareAndSet(this, pending, pending + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a reservation acquired by {@link #tryAcquireConnect(int)} and wakes up a {@link Waiter}.
+     */
+    void releaseConnect() {
+        pendingConnectsUpdater.decrementAndGet(this);
+        if (!isInactive()) {
+            signalCapacity();
+        }
+    }
+
+    /**
+     * Returns the current version of the capacity of this host, which changes every time capacity becomes available.
+     * Must be obtained before trying to select a connection, to not miss capacity which becomes available before a
+     * {@link Waiter} is queued by {@link #await(Waiter, int, boolean)}.
+     *
+     * @return the current version of the capacity of this host.
+     */
+    int capacityVersion() {
+        return capacityVersion;
+    }
+
+    /**
+     * Queues a {@link Waiter} until capacity becomes available. If capacity became available since {@code version}
+     * was obtained, a waiter is woken up immediately.
+     *
+     * @param waiter the {@link Waiter} to queue.
+     * @param version the {@link #capacityVersion()} obtained before the selection which failed.
+     * @param first {@code true} to queue the waiter in front of all other waiters, e.g. when it has been woken up
+     * before but capacity was taken concurrently.
+     */
+    void await(final Waiter waiter, final int version, final boolean first) {
+        if (first) {
+            waiters.offerFirst(waiter);
+        } else {
+            waiters.offerLast(waiter);
+        }
+        if (capacityVersion != version || isInactive()) {
+            wakeWaiter();
+        }
+    }
+
+    /**
+     * Removes a {@link Waiter} which no longer waits, e.g. because it has been cancelled.
+     *
+     * @param waiter the {@link Waiter} to remove.
+     */
+    void removeWaiter(final Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    private void signalCapacity() {
+        capacityVersionUpdater.incrementAndGet(this);
+        wakeWaiter();
+    }
+
+    private void wakeWaiter() {
+        Waiter waiter;
+        while ((waiter = waiters.pollFirst()) != null) {
+            if (waiter.tryWake()) {
+                return;
+            }
+        }
+    }
+
+    private void wakeAllWaiters() {
+        Waiter waiter;
+        while ((waiter = waiters.pollFirst()) != null) {
+            waiter.tryWake();
+        }
+    }
+
+    /**
+     * Determines if this host is currently ejected from the selection because of connection or request failures.
+     * <p>
+     * Without active probing, the first invocation after the ejection duration elapsed starts a trial and returns
+     * {@code false}, while all other invocations return {@code true} until the trial either re-admits the host or
+     * ejects it again. A trial which does not report an outcome expires after another ejection duration.
+     *
+     * @return {@code true} if this host should not be selected.
+     */
+    boolean isEjected() {
+        final Ejection ejection = this.ejection;
+        if (ejection == null) {
+            return false;
+        }
+        assert healthCheckConfig != null;
+        if (healthCheckConfig.executor != null) {
+            // With active probing, the probe re-admits the host.
+            return true;
+        }
+        final long now = nanoTime();
+        if (now - ejection.untilNanos < 0) {
+            return true;
+        }
+        // Only a single selection may win the trial, concurrent selections keep considering the host ejected.
+        return !ejectionUpdater.compareAndSet(this, ejection, new Ejection(ejection.count,
+                now + healthCheckConfig.ejectionIntervalNanos(ejection.count), true));
+    }
+
+    /**
+     * Records a successful connection establishment, which re-admits this host if it was ejected.
+     */
+    void onConnectSuccess() {
+        if (consecutiveFailures != 0) {
+            consecutiveFailures = 0;
+        }
+        final Ejection ejection = this.ejection;
+        if (ejection != null) {
+            readmit(ejection);
+        }
+    }
+
+    /**
+     * Records a failed connection establishment, which may eject this host.
+     */
+    void onConnectFailure() {
+        onFailure();
+    }
+
+    private void onRequestSuccess() {
+        if (consecutiveFailures != 0) {
+            consecutiveFailures = 0;
+        }
+        // Requests which were in-flight before the ejection must not re-admit the host, only the trial may.
+        final Ejection ejection = this.ejection;
+        if (ejection != null && ejection.trial) {
+            readmit(ejection);
+        }
+    }
+
+    private void readmit(final Ejection ejection) {
+        if (ejectionUpdater.compareAndSet(this, ejection, null)) {
+            LOGGER.info("Host {} re-admitted after {} ejection(s).", this, ejection.count);
+        }
+    }
+
+    private void onFailure() {
+        final HealthCheckConfig healthCheckConfig = this.healthCheckConfig;
+        if (healthCheckConfig == null ||
+                consecutiveFailuresUpdater.incrementAndGet(this) < healthCheckConfig.failedThreshold) {
+            return;
+        }
+        final Ejection current = ejection;
+        if (current != null && !current.trial &&
+                (healthCheckConfig.executor != null || nanoTime() - current.untilNanos < 0)) {
+            // Already ejected, failures of concurrent selections, of requests which were in-flight before the
+            // ejection, or of selections when all hosts are ejected do not extend the ejection.
+            return;
+        }
+        eject(current, healthCheckConfig);
+    }
+
+    private void eject(@Nullable final Ejection current, final HealthCheckConfig healthCheckConfig) {
+        if (isInactive()) {
+            return;
+        }
+        final int count = current == null ? 1 : current.count + 1;
+        final long intervalNanos = healthCheckConfig.ejectionIntervalNanos(count);
+        if (!ejectionUpdater.compareAndSet(this, current, new Ejection(count, nanoTime() + intervalNanos, false))) {
+            return;
+        }
+        LOGGER.info("Host {} ejected for {}ms after {} consecutive failure(s), ejection count {}.",
+                this, NANOSECONDS.toMillis(intervalNanos), consecutiveFailures, count);
+        final Executor executor = healthCheckConfig.executor;
+        if (executor != null) {
+            assert probeCancellable != null;
+            final ConnectionFactory<Addr, ? extends C> connectionFactory = this.connectionFactory;
+            assert connectionFactory != null;
+            final Single<C> probe = defer(() -> connectionFactory.newConnection(address));
+            probeCancellable.nextCancellable(executor.timer(intervalNanos, NANOSECONDS).concat(probe)
+                    .whenOnError(t -> {
+                        LOGGER.debug("Host {} failed to be probed.", this, t);
+                        final Ejection probed = ejection;
+                        if (probed != null) {
+                            eject(probed, healthCheckConfig);
+                        }
+                    })
+                    .subscribe(newCnx -> {
+                        if (addConnection(newCnx)) {
+                            onConnectSuccess();
+                        } else {
+                            newCnx.closeAsync().subscribe();
+                        }
+                    }));
+        }
+    }
+
+    private void cancelProbe() {
+        if (probeCancellable != null) {
+            probeCancellable.cancel();
+        }
+    }
+
+    boolean addConnection(C connection) {
+        int size;
+        for (;;) {
+            List<C> existing = this.connections;
+            if (existing == CLOSED_LIST) {
+                return false;
+            }
+            ArrayList<C> connectionAdded = new ArrayList<>(existing);
+            connectionAdded.add(connection);
+            if (connectionsUpdater.compareAndSet(this, existing, connectionAdded)) {
+                size = connectionAdded.size();
+                break;
+            }
+        }
+
+        if (requestOutcomeListener != null && connection instanceof RequestTrackingLoadBalancedConnection) {
+            ((RequestTrackingLoadBalancedConnection) connection).requestOutcomeListener(requestOutcomeListener);
+        }
+
+        final ConnectionPoolConfig<Addr> poolConfig = this.poolConfig;
+        final Cancellable lifetimeCancellable;
+        if (poolConfig == null) {
+            lifetimeCancellable = IGNORE_CANCEL;
+        } else {
+            poolConfig.observer.onConnectionAdded(address, size);
+            if (poolConfig.maxConnections > 0 && connection instanceof MultiplexedLoadBalancedConnection) {
+                ((MultiplexedLoadBalancedConnection) connection).capacityListener(this::signalCapacity);
+            }
+            lifetimeCancellable = poolConfig.maxLifetimeNanos <= 0 ? IGNORE_CANCEL :
+                    poolConfig.executor.schedule(() -> connection.closeAsyncGracefully().subscribe(),
+                            lifetimeNanos(poolConfig.maxLifetimeNanos), NANOSECONDS);
+        }
+
+        // Instrument the new connection so we prune it on close
+        connection.onClose().beforeFinally(() -> {
+            lifetimeCancellable.cancel();
+            for (;;) {
+                final List<C> existing = connections;
+                if (existing == CLOSED_LIST) {
+                    break;
+                }
+                ArrayList<C> connectionRemoved = new ArrayList<>(existing);
+                if (!connectionRemoved.remove(connection)) {
+                    break;
+                }
+                if (connectionsUpdater.compareAndSet(this, existing, connectionRemoved)) {
+                    if (poolConfig != null) {
+                        poolConfig.observer.onConnectionRemoved(address, connectionRemoved.size());
+                        signalCapacity();
+                    }
+                    break;
+                }
+            }
+        }).subscribe();
+        return true;
+    }
+
+    private static long lifetimeNanos(final long maxLifetimeNanos) {
+        // Spread the expiration of connections which were established at the same time (e.g. after a deployment) by
+        // up to 10% of the maximum lifetime, to avoid reconnect storms.
+        return maxLifetimeNanos - ThreadLocalRandom.current().nextLong(maxLifetimeNanos / 10 + 1);
+    }
+
+    // Used for testing only
+    Entry<Addr, List<C>> asEntry() {
+        return new SimpleImmutableEntry<>(address, new ArrayList<>(connections));
+    }
+
+    @Override
+    public Completable closeAsync() {
+        return doClose(AsyncCloseable::closeAsync);
+    }
+
+    @Override
+    public Completable closeAsyncGracefully() {
+        return doClose(AsyncCloseable::closeAsyncGracefully);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Completable doClose(final Function<? super C, Completable> closeFunction) {
+        return defer(() -> {
+            cancelProbe();
+            final List<C> toClose = connectionsUpdater.getAndSet(this, CLOSED_LIST);
+            wakeAllWaiters();
+            return succeeded(toClose);
+        })
+                .flatMapCompletable(list -> mergeAllDelayError(list.stream().map(closeFunction)::iterator));
+    }
+
+    @Override
+    public String toString() {
+        return "Host{" +
+                "address=" + address +
+                ", removed=" + (connections == CLOSED_LIST) +
+                ", ejected=" + (ejection != null) +
+                '}';
+    }
+
+    /**
+     * A selection which waits for capacity to become available on a {@link Host} with an exhausted pool, or for a
+     * connection attempt to terminate when the number of concurrent connection attempts is limited.
+     * <p>
+     * Waiters are woken up one at a time, the next waiter is only woken up if the previous one did not consume the
+     * capacity, e.g. because it selected an existing connection which may accept more requests.
+     */
+    interface Waiter {
+        /**
+         * Wakes up this waiter, which retries its selection. If the selection fails again, the waiter is queued again
+         * via {@link Host#await(Waiter, int, boolean)}.
+         *
+         * @return {@code true} if this waiter consumed the capacity or was queued again, {@code false} if it does not
+         * wait anymore or selected an existing connection, in which case the next waiter is woken up.
+         */
+        boolean tryWake();
+    }
+
+    private static final class Ejection {
+        final int count;
+        /**
+         * End of the ejection duration, or of the trial if {@link #trial} is {@code true}.
+         */
+        final long untilNanos;
+        final boolean trial;
+
+        Ejection(final int count, final long untilNanos, final boolean trial) {
+            this.count = count;
+            this.untilNanos = untilNanos;
+            this.trial = trial;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.ConnectionRejectedException;
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.LoadBalancer;
+import io.servicetalk.client.api.LoadBalancerFactory;
+import io.servicetalk.client.api.ScoreSupplier;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.PublisherSource.Processor;
+import io.servicetalk.concurrent.PublisherSource.Subscriber;
+import io.servicetalk.concurrent.PublisherSource.Subscription;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.internal.SequentialCancellable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_NOT_READY_EVENT;
+import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_READY_EVENT;
+import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
+import static io.servicetalk.concurrent.api.AsyncCloseables.toAsyncCloseable;
+import static io.servicetalk.concurrent.api.Processors.newPublisherProcessorDropHeadOnOverflow;
+import static io.servicetalk.concurrent.api.Single.defer;
+import static io.servicetalk.concurrent.api.Single.failed;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
+import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static io.servicetalk.loadbalancer.Host.CLOSED_LIST;
+import static io.servicetalk.loadbalancer.Host.applyEvent;
+import static java.lang.Integer.MAX_VALUE;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A {@link LoadBalancer} that uses the power of two choices (P2C) strategy for selecting addresses. It has the
+ * following behaviour:
+ * <ul>
+ * <li>For every selection two distinct addresses are picked at random, and the address whose best connection has the
+ * higher {@link ScoreSupplier#score() score} is used. An address without connections has the highest possible score,
+ * so new addresses are explored.</li>
+ * <li>Connection scores are expected to reflect the load of a connection, for example by using an
+ * {@link EwmaScoreTracker} which tracks the outstanding requests and the latency of completed requests. A slow or
+ * overloaded address therefore receives a smaller share of the traffic.</li>
+ * <li>Within the selected address, the connection with the highest score is tried first, then connections are tried in
+ * random order. If no connection is accepted by the selector passed to {@link #selectConnection(Predicate)} a new
+ * connection is created.</li>
+ * <li>Selection is lock free, it only reads volatile copy-on-write lists.</li>
+ * <li>Closed connections are automatically pruned.</li>
+ * </ul>
+ *
+ * @param <ResolvedAddress> The resolved address type.
+ * @param <C> The type of connection.
+ */
+public final class P2CLoadBalancer<ResolvedAddress, C extends LoadBalancedConnection> implements LoadBalancer<C> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(P2CLoadBalancer.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<P2CLoadBalancer, List> activeHostsUpdater =
+            newUpdater(P2CLoadBalancer.class, List.class, "activeHosts");
+
+    /**
+     * Maximum number of random selection attempts after the connection with the highest score was rejected, see
+     * {@link RoundRobinLoadBalancer} for the rationale of limiting the search space.
+     */
+    private static final int MAX_RANDOM_SEARCH_SPACE = 64;
+
+    private volatile List<Host<ResolvedAddress, C>> activeHosts = emptyList();
+
+    private final Publisher<Object> eventStream;
+    private final SequentialCancellable discoveryCancellable = new SequentialCancellable();
+    private final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory;
+    private final ListenableAsyncCloseable asyncCloseable;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param eventPublisher    provides a stream of addresses to connect to.
+     * @param connectionFactory a function which creates new connections.
+     */
+    public P2CLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                           final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory) {
+        Processor<Object, Object> eventStreamProcessor = newPublisherProcessorDropHeadOnOverflow(32);
+        this.eventStream = fromSource(eventStreamProcessor);
+        this.connectionFactory = requireNonNull(connectionFactory);
+
+        toSource(eventPublisher).subscribe(new Subscriber<ServiceDiscovererEvent<ResolvedAddress>>() {
+
+            @Override
+            public void onSubscribe(final Subscription s) {
+                // See RoundRobinLoadBalancer, we synchronously process onNexts and do not need flow control.
+                s.request(Long.MAX_VALUE);
+                discoveryCancellable.nextCancellable(s);
+            }
+
+            @Override
+            public void onNext(final ServiceDiscovererEvent<ResolvedAddress> event) {
+                LOGGER.debug("Load balancer {}, received new ServiceDiscoverer event {}.", P2CLoadBalancer.this,
+                        event);
+                @SuppressWarnings("unchecked")
+                final List<Host<ResolvedAddress, C>> activeAddresses =
+                        activeHostsUpdater.updateAndGet(P2CLoadBalancer.this, oldHosts -> {
+                            if (oldHosts == CLOSED_LIST) {
+                                return CLOSED_LIST;
+                            }
+                            @SuppressWarnings("unchecked")
+                            final List<Host<ResolvedAddress, C>> oldHostsTyped =
+                                    (List<Host<ResolvedAddress, C>>) oldHosts;
+                            return applyEvent(oldHostsTyped, event);
+                        });
+
+                LOGGER.debug("Load balancer {} now using {} addresses: {}", P2CLoadBalancer.this,
+                        activeAddresses.size(), activeAddresses);
+
+                if (event.isAvailable()) {
+                    if (activeAddresses.size() == 1) {
+                        eventStreamProcessor.onNext(LOAD_BALANCER_READY_EVENT);
+                    }
+                } else if (activeAddresses.isEmpty()) {
+                    eventStreamProcessor.onNext(LOAD_BALANCER_NOT_READY_EVENT);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+                List<Host<ResolvedAddress, C>> hosts = activeHosts;
+                eventStreamProcessor.onError(t);
+                LOGGER.error(
+                        "Load balancer {}. Service discoverer {} emitted an error. Last seen addresses (size {}) {}",
+                        P2CLoadBalancer.this, eventPublisher, hosts.size(), hosts, t);
+            }
+
+            @Override
+            public void onComplete() {
+                List<Host<ResolvedAddress, C>> hosts = activeHosts;
+                eventStreamProcessor.onComplete();
+                LOGGER.error("Load balancer {}. Service discoverer {} completed. Last seen addresses (size {}) {}",
+                        P2CLoadBalancer.this, eventPublisher, hosts.size(), hosts);
+            }
+        });
+        asyncCloseable = toAsyncCloseable(graceful -> {
+            @SuppressWarnings("unchecked")
+            List<Host<ResolvedAddress, C>> currentList = activeHostsUpdater.getAndSet(this, CLOSED_LIST);
+            discoveryCancellable.cancel();
+            eventStreamProcessor.onComplete();
+            CompositeCloseable cc = newCompositeCloseable().appendAll(currentList).appendAll(connectionFactory);
+            return graceful ? cc.closeAsyncGracefully() : cc.closeAsync();
+        });
+    }
+
+    /**
+     * Create a {@link LoadBalancerFactory} that creates instances of {@link P2CLoadBalancer}.
+     * @param <ResolvedAddress> The resolved address type.
+     * @param <C> The type of connection.
+     * @return a {@link LoadBalancerFactory} that creates instances of {@link P2CLoadBalancer}.
+     */
+    public static <ResolvedAddress, C extends LoadBalancedConnection>
+    P2CLoadBalancerFactory<ResolvedAddress, C> newP2CFactory() {
+        return new P2CLoadBalancerFactory<>();
+    }
+
+    @Override
+    public Single<C> selectConnection(Predicate<C> selector) {
+        return defer(() -> selectConnection0(selector).subscribeShareContext());
+    }
+
+    @Override
+    public Publisher<Object> eventStream() {
+        return eventStream;
+    }
+
+    private Single<C> selectConnection0(Predicate<C> selector) {
+        final List<Host<ResolvedAddress, C>> activeHosts = this.activeHosts;
+        if (activeHosts.isEmpty()) {
+            return activeHosts == CLOSED_LIST ? failedLBClosed() :
+                    // This is the case when SD has emitted some items but none of the hosts are active.
+                    failed(StacklessNoAvailableHostException.newInstance(
+                            "No hosts are available to connect.", P2CLoadBalancer.class, "selectConnection0(...)"));
+        }
+
+        final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        final Host<ResolvedAddress, C> host;
+        final C bestConnection;
+        if (activeHosts.size() == 1) {
+            host = activeHosts.get(0);
+            bestConnection = bestConnection(host.connections);
+        } else {
+            // Pick two distinct hosts at random.
+            final int firstIndex = rnd.nextInt(activeHosts.size());
+            int secondIndex = rnd.nextInt(activeHosts.size() - 1);
+            if (secondIndex >= firstIndex) {
+                ++secondIndex;
+            }
+            final Host<ResolvedAddress, C> first = activeHosts.get(firstIndex);
+            final Host<ResolvedAddress, C> second = activeHosts.get(secondIndex);
+            final C firstBest = bestConnection(first.connections);
+            final C secondBest = bestConnection(second.connections);
+            if (score(firstBest) >= score(secondBest)) {
+                host = first;
+                bestConnection = firstBest;
+            } else {
+                host = second;
+                bestConnection = secondBest;
+            }
+        }
+        assert host != null : "Host can't be null.";
+
+        // Try first to see if an existing connection can be used
+        if (bestConnection != null) {
+            if (selector.test(bestConnection)) {
+                return succeeded(bestConnection);
+            }
+            final List<C> connections = host.connections;
+            final int size = connections.size();
+            final int attempts = Math.min(size, MAX_RANDOM_SEARCH_SPACE);
+            for (int i = 0; i < attempts; i++) {
+                final C connection = connections.get(rnd.nextInt(size));
+                if (connection != bestConnection && selector.test(connection)) {
+                    return succeeded(connection);
+                }
+            }
+        }
+
+        // No connection was selected: create a new one
+        return connectionFactory.newConnection(host.address)
+                .flatMap(newCnx -> {
+                    // Invoke the selector before adding the connection to the pool, otherwise, connection can be used
+                    // concurrently and hence a new connection can be rejected by the selector.
+                    if (!selector.test(newCnx)) {
+                        return newCnx.closeAsync().concat(failed(new ConnectionRejectedException(
+                                "Newly created connection " + newCnx + " rejected by the selection filter.")));
+                    }
+                    if (host.addConnection(newCnx)) {
+                        return succeeded(newCnx);
+                    }
+                    return newCnx.closeAsync().concat(this.activeHosts == CLOSED_LIST ? failedLBClosed() :
+                            failed(new ConnectionRejectedException("Failed to add newly created connection for host: " +
+                                    host.address + ", host inactive? " + host.isInactive())));
+                });
+    }
+
+    @Nullable
+    private static <C extends ScoreSupplier> C bestConnection(final List<C> connections) {
+        C best = null;
+        int bestScore = -1;
+        for (int i = 0; i < connections.size(); ++i) {
+            final C connection = connections.get(i);
+            final int score = connection.score();
+            if (score > bestScore) {
+                best = connection;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static int score(@Nullable final ScoreSupplier connection) {
+        // An address without connections is preferred, this explores new addresses and creates connections for
+        // addresses whose connections are all closed.
+        return connection == null ? MAX_VALUE : connection.score();
+    }
+
+    @Override
+    public Completable onClose() {
+        return asyncCloseable.onClose();
+    }
+
+    @Override
+    public Completable closeAsync() {
+        return asyncCloseable.closeAsync();
+    }
+
+    @Override
+    public Completable closeAsyncGracefully() {
+        return asyncCloseable.closeAsyncGracefully();
+    }
+
+    /**
+     * {@link LoadBalancerFactory} for {@link P2CLoadBalancer}.
+     *
+     * @param <ResolvedAddress> The resolved address type.
+     * @param <C> The type of connection.
+     */
+    public static final class P2CLoadBalancerFactory<ResolvedAddress, C extends LoadBalancedConnection>
+            implements LoadBalancerFactory<ResolvedAddress, C> {
+
+        @Override
+        public LoadBalancer<? extends C> newLoadBalancer(
+                final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory) {
+            return new P2CLoadBalancer<>(eventPublisher, connectionFactory);
+        }
+    }
+
+    // Visible for testing
+    List<Entry<ResolvedAddress, List<C>>> activeAddresses() {
+        return activeHosts.stream().map(Host::asEntry).collect(toList());
+    }
+
+    private static <T> Single<T> failedLBClosed() {
+        return failed(new IllegalStateException("LoadBalancer has closed"));
+    }
+}
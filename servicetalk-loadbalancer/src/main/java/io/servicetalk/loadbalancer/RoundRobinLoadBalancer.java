@@ -20,47 +20,55 @@ import io.servicetalk.client.api.ConnectionRejectedException;
 import io.servicetalk.client.api.LoadBalancedConnection;
 import io.servicetalk.client.api.LoadBalancer;
 import io.servicetalk.client.api.LoadBalancerFactory;
-import io.servicetalk.client.api.NoAvailableHostException;
+import io.servicetalk.client.api.MultiplexedLoadBalancedConnection;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.Cancellable;
 import io.servicetalk.concurrent.PublisherSource.Processor;
 import io.servicetalk.concurrent.PublisherSource.Subscriber;
 import io.servicetalk.concurrent.PublisherSource.Subscription;
-import io.servicetalk.concurrent.api.AsyncCloseable;
+import io.servicetalk.concurrent.SingleSource;
 import io.servicetalk.concurrent.api.Completable;
 import io.servicetalk.concurrent.api.CompositeCloseable;
+import io.servicetalk.concurrent.api.Executor;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.internal.SubscribableSingle;
 import io.servicetalk.concurrent.internal.SequentialCancellable;
-import io.servicetalk.concurrent.internal.ThrowableUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
-import java.util.function.Function;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_NOT_READY_EVENT;
 import static io.servicetalk.client.api.LoadBalancerReadyEvent.LOAD_BALANCER_READY_EVENT;
 import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
 import static io.servicetalk.concurrent.api.AsyncCloseables.toAsyncCloseable;
-import static io.servicetalk.concurrent.api.Completable.mergeAllDelayError;
+import static io.servicetalk.concurrent.api.Executors.immediate;
 import static io.servicetalk.concurrent.api.Processors.newPublisherProcessorDropHeadOnOverflow;
 import static io.servicetalk.concurrent.api.Single.defer;
 import static io.servicetalk.concurrent.api.Single.failed;
 import static io.servicetalk.concurrent.api.Single.succeeded;
 import static io.servicetalk.concurrent.api.SourceAdapters.fromSource;
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
+import static io.servicetalk.concurrent.internal.SubscriberUtils.handleExceptionFromOnSubscribe;
+import static io.servicetalk.loadbalancer.Host.CLOSED_LIST;
+import static io.servicetalk.loadbalancer.Host.applyEvent;
+import static java.lang.Integer.MAX_VALUE;
+import static java.time.Duration.ofSeconds;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
 import static java.util.concurrent.atomic.AtomicReferenceFieldUpdater.newUpdater;
 import static java.util.stream.Collectors.toList;
@@ -69,13 +77,31 @@ import static java.util.stream.Collectors.toList;
  * A {@link LoadBalancer} that uses a round robin strategy for selecting addresses. It has the following behaviour:
  * <ul>
  * <li>Round robining is done at address level.</li>
- * <li>Connections are created lazily, without any concurrency control on their creation.
- * This can lead to over-provisioning connections when dealing with a requests surge.</li>
+ * <li>Connections are created lazily, by default without any concurrency control on their creation.
+ * This can lead to over-provisioning connections when dealing with a requests surge. The number of concurrent
+ * connection attempts per address can be limited, in which case selections wait in FIFO order for in-flight connection
+ * attempts, up to an acquire timeout, instead of creating more connections. Connections can also be established
+ * eagerly when an address becomes available. See {@link RoundRobinLoadBalancerFactory.Builder}.</li>
  * <li>Existing connections are reused unless a selector passed to {@link #selectConnection(Predicate)} suggests
  * otherwise.
  * This can lead to situations where connections will be used to their maximum capacity (for example in the context of
  * pipelining) before new connections are created.</li>
+ * <li>{@link MultiplexedLoadBalancedConnection}s which allow more than one concurrent request (e.g. HTTP/2) are
+ * selected by their usage, the connection with the lowest ratio of active to maximum concurrent requests is preferred.
+ * When all connections to an address are close to saturation, an additional connection is established in the
+ * background. Connections which do not accept new requests anymore (e.g. after receiving a GOAWAY) are not selected,
+ * and are pruned once their in-flight requests complete. Connections which allow a single request at a time (e.g.
+ * HTTP/1.x without pipelining) are selected randomly.</li>
  * <li>Closed connections are automatically pruned.</li>
+ * <li>Optionally, an address is ejected from the rotation after a number of consecutive connection failures, or
+ * request failures reported by {@link RequestTrackingLoadBalancedConnection}s, and re-admitted after an exponentially
+ * increasing duration once a connection can be established again or a trial request succeeds. If all addresses are
+ * ejected, addresses are selected regardless of their health. See
+ * {@link RoundRobinLoadBalancerFactory.Builder#healthCheckFailureThreshold(int)}.</li>
+ * <li>Optionally, the number of connections per address can be bounded. When the pool of an address is exhausted,
+ * selections wait in FIFO order for a connection to become available, up to an acquire timeout. Connections can also
+ * be closed gracefully after a maximum lifetime, which rebalances connections after addresses changed. See
+ * {@link RoundRobinLoadBalancerFactory.Builder}.</li>
  * </ul>
  *
  * @param <ResolvedAddress> The resolved address type.
@@ -85,7 +111,6 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
         implements LoadBalancer<C> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RoundRobinLoadBalancer.class);
-    private static final List<?> CLOSED_LIST = new ArrayList<>(0);
 
     @SuppressWarnings("rawtypes")
     private static final AtomicReferenceFieldUpdater<RoundRobinLoadBalancer, List> activeHostsUpdater =
@@ -111,6 +136,18 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
      */
     private static final float SEARCH_FACTOR = 0.75f;
 
+    /**
+     * When the least loaded {@link MultiplexedLoadBalancedConnection} of an address uses at least this ratio of its
+     * maximum concurrent requests, a new connection is established in the background. This allows new requests to be
+     * spread to the new connection before all existing connections are saturated and selections would have to wait for
+     * a connection to be established.
+     */
+    private static final float SATURATION_FACTOR = 0.75f;
+
+    static final Duration DEFAULT_HEALTH_CHECK_INTERVAL = ofSeconds(1);
+    static final Duration DEFAULT_HEALTH_CHECK_MAX_INTERVAL = ofSeconds(30);
+    static final Duration DEFAULT_CONNECTION_ACQUIRE_TIMEOUT = ofSeconds(10);
+
     @SuppressWarnings("unused")
     private volatile int index;
     private volatile List<Host<ResolvedAddress, C>> activeHosts = emptyList();
@@ -118,16 +155,57 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
     private final Publisher<Object> eventStream;
     private final SequentialCancellable discoveryCancellable = new SequentialCancellable();
     private final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory;
+    @Nullable
+    private final HealthCheckConfig healthCheckConfig;
+    private final int maxConcurrentConnects;
+    private final int warmUpConnections;
+    @Nullable
+    private final ConnectionPoolConfig<ResolvedAddress> poolConfig;
+    private final int maxConnections;
     private final ListenableAsyncCloseable asyncCloseable;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance, which does not eject unhealthy addresses. Use {@link RoundRobinLoadBalancerFactory} to
+     * configure health checking.
      *
      * @param eventPublisher    provides a stream of addresses to connect to.
      * @param connectionFactory a function which creates new connections.
      */
     public RoundRobinLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
                                   final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory) {
+        this(eventPublisher, connectionFactory, null, 0, 0);
+    }
+
+    RoundRobinLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                           final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory,
+                           @Nullable final HealthCheckConfig healthCheckConfig) {
+        this(eventPublisher, connectionFactory, healthCheckConfig, 0, 0);
+    }
+
+    RoundRobinLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                           final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory,
+                           @Nullable final HealthCheckConfig healthCheckConfig,
+                           final int maxConcurrentConnects, final int warmUpConnections) {
+        this(eventPublisher, connectionFactory, healthCheckConfig, maxConcurrentConnects, warmUpConnections, null);
+    }
+
+    RoundRobinLoadBalancer(final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
+                           final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory,
+                           @Nullable final HealthCheckConfig healthCheckConfig,
+                           final int maxConcurrentConnects, final int warmUpConnections,
+                           @Nullable final ConnectionPoolConfig<ResolvedAddress> poolConfig) {
+        this.healthCheckConfig = healthCheckConfig;
+        // Selections which wait for connection attempts are bounded by the acquire timeout of the pool.
+        this.poolConfig = poolConfig != null || maxConcurrentConnects <= 0 ? poolConfig :
+                new ConnectionPoolConfig<>(0, DEFAULT_CONNECTION_ACQUIRE_TIMEOUT.toNanos(), 0, immediate(),
+                        new ConnectionPoolObserver<ResolvedAddress>() { });
+        this.maxConnections = poolConfig == null ? 0 : poolConfig.maxConnections;
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        this.warmUpConnections = warmUpConnections;
+        if (maxConcurrentConnects > 0 && warmUpConnections > maxConcurrentConnects) {
+            LOGGER.warn("Warm-up is limited to {} connections per address by maxConcurrentConnects, instead of the " +
+                    "configured {} warm-up connections.", maxConcurrentConnects, warmUpConnections);
+        }
         Processor<Object, Object> eventStreamProcessor = newPublisherProcessorDropHeadOnOverflow(32);
         this.eventStream = fromSource(eventStreamProcessor);
         this.connectionFactory = requireNonNull(connectionFactory);
@@ -154,41 +232,20 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
                         if (oldHosts == CLOSED_LIST) {
                             return CLOSED_LIST;
                         }
-                        final ResolvedAddress addr = requireNonNull(event.address());
                         @SuppressWarnings("unchecked")
                         final List<Host<ResolvedAddress, C>> oldHostsTyped = (List<Host<ResolvedAddress, C>>) oldHosts;
-                        if (event.isAvailable()) {
-                            if (oldHostsTyped.isEmpty()) {
-                                return singletonList(new Host<>(addr));
-                            }
-                            final List<Host<ResolvedAddress, C>> newHosts = new ArrayList<>(oldHostsTyped.size() + 1);
-                            newHosts.addAll(oldHostsTyped);
-                            newHosts.add(new Host<>(addr));
-                            return newHosts;
-                        } else if (oldHostsTyped.isEmpty()) {
-                            return emptyList();
-                        } else {
-                            final List<Host<ResolvedAddress, C>> newHosts = new ArrayList<>(oldHostsTyped.size() - 1);
-                            for (int i = 0; i < oldHostsTyped.size(); ++i) {
-                                final Host<ResolvedAddress, C> host = oldHostsTyped.get(i);
-                                if (host.address.equals(addr)) {
-                                    host.markInactive();
-                                    for (int x = i + 1; x < oldHostsTyped.size(); ++x) {
-                                        newHosts.add(oldHostsTyped.get(x));
-                                    }
-                                    return newHosts.isEmpty() ? emptyList() : newHosts;
-                                } else {
-                                    newHosts.add(host);
-                                }
-                            }
-                            return newHosts;
-                        }
+                        return applyEvent(oldHostsTyped, event, healthCheckConfig, poolConfig,
+                                connectionFactory);
                     });
 
                 LOGGER.debug("Load balancer {} now using {} addresses: {}", RoundRobinLoadBalancer.this,
                         activeAddresses.size(), activeAddresses);
 
                 if (event.isAvailable()) {
+                    if (warmUpConnections > 0 && !activeAddresses.isEmpty()) {
+                        // New hosts are appended to the list, and onNext is not invoked concurrently.
+                        warmUp(activeAddresses.get(activeAddresses.size() - 1));
+                    }
                     if (activeAddresses.size() == 1) {
                         eventStreamProcessor.onNext(LOAD_BALANCER_READY_EVENT);
                     }
@@ -255,26 +312,152 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
         }
 
         final int cursor = (indexUpdater.getAndIncrement(this) & Integer.MAX_VALUE) % activeHosts.size();
-        final Host<ResolvedAddress, C> host = activeHosts.get(cursor);
+        final Host<ResolvedAddress, C> host = nextHealthyHost(activeHosts, cursor);
         assert host != null : "Host can't be null.";
-        final ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        if (maxConnections > 0 || maxConcurrentConnects > 0) {
+            // The version must be obtained before trying to select, otherwise the waiter may miss capacity which
+            // becomes available concurrently.
+            final int version = host.capacityVersion();
+            final Single<C> selection = selectOrConnect(host, selector);
+            // Wait for capacity of the pool or for an in-flight connection attempt, which likely adds a connection
+            // that can be selected, instead of creating more connections to this host.
+            return selection != null ? selection : awaitCapacity(host, selector, version);
+        }
 
         // Try first to see if an existing connection can be used
+        final C connection = selectExisting(host, selector);
+        if (connection != null) {
+            return succeeded(connection);
+        }
+
+        // No connection was selected: create a new one
+        return newConnection(host, selector);
+    }
+
+    @Nullable
+    private C selectExisting(final Host<ResolvedAddress, C> host, final Predicate<C> selector) {
+        final ThreadLocalRandom rnd = ThreadLocalRandom.current();
         final List<C> connections = host.connections;
         final int size = connections.size();
+        if (size != 0 && connections.get(0) instanceof MultiplexedLoadBalancedConnection) {
+            final C connection = selectLeastLoaded(host, connections, selector, rnd);
+            if (connection != null) {
+                return connection;
+            }
+        }
         // With small enough search space, attempt all connections.
         // Back off after exploring most of the search space, it gives diminishing returns.
         final int attempts = size < MIN_SEARCH_SPACE ? size : (int) (size * SEARCH_FACTOR);
         for (int i = 0; i < attempts; i++) {
             final C connection = connections.get(rnd.nextInt(size));
             if (selector.test(connection)) {
-                return succeeded(connection);
+                return connection;
             }
         }
+        return null;
+    }
+
+    /**
+     * Selects an existing connection or establishes a new connection if the pool of the {@code host} is not exhausted
+     * and the number of concurrent connection attempts is below the limit.
+     *
+     * @return the selection, or {@code null} if no connection can be established to the {@code host}.
+     */
+    @Nullable
+    private Single<C> selectOrConnect(final Host<ResolvedAddress, C> host, final Predicate<C> selector) {
+        final C connection = selectExisting(host, selector);
+        if (connection != null) {
+            return succeeded(connection);
+        }
+        if (!tryAcquireConnect(host, maxConcurrentConnects)) {
+            return null;
+        }
+        return newConnection(host, selector).whenFinally(host::releaseConnect);
+    }
 
-        // No connection was selected: create a new one
+    private Single<C> awaitCapacity(final Host<ResolvedAddress, C> host, final Predicate<C> selector,
+                                    final int version) {
+        final ConnectionPoolConfig<ResolvedAddress> poolConfig = this.poolConfig;
+        assert poolConfig != null;
+        return new SubscribableSingle<C>() {
+            @Override
+            protected void handleSubscribe(final SingleSource.Subscriber<? super C> subscriber) {
+                final PoolWaiter<ResolvedAddress, C> waiter =
+                        new PoolWaiter<>(RoundRobinLoadBalancer.this, host, selector, subscriber);
+                try {
+                    subscriber.onSubscribe(waiter);
+                } catch (Throwable cause) {
+                    handleExceptionFromOnSubscribe(subscriber, cause);
+                    return;
+                }
+                poolConfig.observer.onAcquireQueued(host.address);
+                host.await(waiter, version, false);
+            }
+        }.idleTimeout(poolConfig.acquireTimeoutNanos, NANOSECONDS, poolConfig.executor)
+                .whenOnError(cause -> {
+                    if (cause instanceof TimeoutException) {
+                        poolConfig.observer.onAcquireTimeout(host.address);
+                    }
+                });
+    }
+
+    private boolean tryAcquireConnect(final Host<ResolvedAddress, C> host, final int maxPendingConnects) {
+        return maxConnections > 0 ?
+                host.tryAcquireConnect(maxPendingConnects > 0 ? maxPendingConnects : MAX_VALUE, maxConnections) :
+                host.tryAcquireConnect(maxPendingConnects);
+    }
+
+    @Nullable
+    private C selectLeastLoaded(final Host<ResolvedAddress, C> host, final List<C> connections,
+                                final Predicate<C> selector, final ThreadLocalRandom rnd) {
+        final int size = connections.size();
+        final int attempts = size < MIN_SEARCH_SPACE ? size : (int) (size * SEARCH_FACTOR);
+        final int offset = rnd.nextInt(size);
+        C leastLoaded = null;
+        float minLoad = 1f;
+        for (int i = 0; i < attempts; i++) {
+            final C connection = connections.get((offset + i) % size);
+            if (!(connection instanceof MultiplexedLoadBalancedConnection)) {
+                return null;
+            }
+            final MultiplexedLoadBalancedConnection multiplexed = (MultiplexedLoadBalancedConnection) connection;
+            final int max = multiplexed.maxConcurrentRequests();
+            if (max <= 1) {
+                // Usage of a connection which processes a single request at a time (e.g. HTTP/1.x) does not spread
+                // requests any better than the selector, so scanning for the least loaded connection is not worth it.
+                return null;
+            }
+            final int active = multiplexed.activeRequests();
+            if (active < 0 || active >= max) {
+                // Reserved, not accepting new requests anymore (e.g. closing after a GOAWAY), or saturated.
+                continue;
+            }
+            final float load = (float) active / max;
+            if (load < minLoad) {
+                leastLoaded = connection;
+                minLoad = load;
+                if (active == 0) {
+                    break;
+                }
+            }
+        }
+        if (leastLoaded == null) {
+            return null;
+        }
+        if (minLoad >= SATURATION_FACTOR) {
+            // All connections are close to saturation, establish a connection before selections start to wait for one.
+            // Without a limit on concurrent connection attempts, allow only a single attempt at a time per host.
+            connectInBackground(host, maxConcurrentConnects > 0 ? maxConcurrentConnects : 1);
+        }
+        // The usage may have changed concurrently, the selector has the final say.
+        return selector.test(leastLoaded) ? leastLoaded : null;
+    }
+
+    private Single<C> newConnection(final Host<ResolvedAddress, C> host, final Predicate<C> selector) {
         return connectionFactory.newConnection(host.address)
+                .whenOnError(cause -> host.onConnectFailure())
                 .flatMap(newCnx -> {
+                    host.onConnectSuccess();
                     // Invoke the selector before adding the connection to the pool, otherwise, connection can be used
                     // concurrently and hence a new connection can be rejected by the selector.
                     if (!selector.test(newCnx)) {
@@ -292,6 +475,59 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
                 });
     }
 
+    private void warmUp(final Host<ResolvedAddress, C> host) {
+        for (int i = 0; i < warmUpConnections; ++i) {
+            if (!connectInBackground(host, maxConcurrentConnects)) {
+                LOGGER.debug("Load balancer {}, warm-up for host {} truncated to {} of {} connections.", this, host,
+                        i, warmUpConnections);
+                break;
+            }
+        }
+    }
+
+    private boolean connectInBackground(final Host<ResolvedAddress, C> host, final int maxPendingConnects) {
+        final boolean limited = maxPendingConnects > 0 || maxConnections > 0;
+        if (limited && !tryAcquireConnect(host, maxPendingConnects)) {
+            return false;
+        }
+        Single<? extends C> newConnection = connectionFactory.newConnection(host.address)
+                .whenOnError(cause -> {
+                    LOGGER.debug("Load balancer {}, failed to establish a background connection for host {}.",
+                            this, host, cause);
+                    host.onConnectFailure();
+                })
+                .whenOnSuccess(newCnx -> {
+                    host.onConnectSuccess();
+                    if (!host.addConnection(newCnx)) {
+                        newCnx.closeAsync().subscribe();
+                    }
+                });
+        if (limited) {
+            // Release after the connection has been added, so that the connection count of the host is not
+            // underestimated in the meantime.
+            newConnection = newConnection.whenFinally(host::releaseConnect);
+        }
+        newConnection.toCompletable().subscribe();
+        return true;
+    }
+
+    private static <R, C extends LoadBalancedConnection> Host<R, C> nextHealthyHost(final List<Host<R, C>> activeHosts,
+                                                                                 final int cursor) {
+        final Host<R, C> host = activeHosts.get(cursor);
+        if (!host.isEjected()) {
+            return host;
+        }
+        final int size = activeHosts.size();
+        for (int i = 1; i < size; ++i) {
+            final Host<R, C> next = activeHosts.get((cursor + i) % size);
+            if (!next.isEjected()) {
+                return next;
+            }
+        }
+        // All hosts are ejected, failing all selections would turn a partial outage into a full outage.
+        return host;
+    }
+
     @Override
     public Completable onClose() {
         return asyncCloseable.onClose();
@@ -316,115 +552,339 @@ public final class RoundRobinLoadBalancer<ResolvedAddress, C extends LoadBalance
     public static final class RoundRobinLoadBalancerFactory<ResolvedAddress, C extends LoadBalancedConnection>
             implements LoadBalancerFactory<ResolvedAddress, C> {
 
+        @Nullable
+        private final HealthCheckConfig healthCheckConfig;
+        private final int maxConcurrentConnects;
+        private final int warmUpConnections;
+        @Nullable
+        private final ConnectionPoolConfig<ResolvedAddress> poolConfig;
+
+        /**
+         * Creates a new instance with the default configuration, see {@link Builder} for a custom configuration.
+         */
+        public RoundRobinLoadBalancerFactory() {
+            this(new Builder<>());
+        }
+
+        private RoundRobinLoadBalancerFactory(final Builder<ResolvedAddress, C> builder) {
+            healthCheckConfig = builder.healthCheckFailureThreshold <= 0 ? null :
+                    new HealthCheckConfig(builder.healthCheckFailureThreshold,
+                            builder.healthCheckInterval.toNanos(), builder.healthCheckMaxInterval.toNanos(),
+                            builder.backgroundExecutor);
+            maxConcurrentConnects = builder.maxConcurrentConnectsPerHost;
+            warmUpConnections = builder.warmUpConnectionsPerHost;
+            poolConfig = builder.maxConnectionsPerHost <= 0 && builder.maxConcurrentConnectsPerHost <= 0 &&
+                    builder.maxConnectionLifetime == null && builder.connectionPoolObserver == null ? null :
+                    new ConnectionPoolConfig<>(Math.max(builder.maxConnectionsPerHost, 0),
+                            builder.connectionAcquireTimeout.toNanos(),
+                            builder.maxConnectionLifetime == null ? 0 : builder.maxConnectionLifetime.toNanos(),
+                            // Without bounds nor lifetime the pool does not schedule timers, see build().
+                            builder.backgroundExecutor == null ? immediate() : builder.backgroundExecutor,
+                            builder.connectionPoolObserver == null ? new ConnectionPoolObserver<ResolvedAddress>() { } :
+                                    builder.connectionPoolObserver);
+        }
+
         @Override
         public LoadBalancer<? extends C> newLoadBalancer(
                 final Publisher<? extends ServiceDiscovererEvent<ResolvedAddress>> eventPublisher,
                 final ConnectionFactory<ResolvedAddress, ? extends C> connectionFactory) {
-            return new RoundRobinLoadBalancer<>(eventPublisher, connectionFactory);
+            return new RoundRobinLoadBalancer<>(eventPublisher, connectionFactory, healthCheckConfig,
+                    maxConcurrentConnects, warmUpConnections, poolConfig);
         }
-    }
 
-    // Visible for testing
-    List<Entry<ResolvedAddress, List<C>>> activeAddresses() {
-        return activeHosts.stream().map(Host::asEntry).collect(toList());
-    }
+        /**
+         * Builder for {@link RoundRobinLoadBalancerFactory}.
+         *
+         * @param <ResolvedAddress> The resolved address type.
+         * @param <C> The type of connection.
+         */
+        public static final class Builder<ResolvedAddress, C extends LoadBalancedConnection> {
+            private int healthCheckFailureThreshold;
+            private Duration healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+            private Duration healthCheckMaxInterval = DEFAULT_HEALTH_CHECK_MAX_INTERVAL;
+            @Nullable
+            private Executor backgroundExecutor;
+            private int maxConcurrentConnectsPerHost;
+            private int warmUpConnectionsPerHost;
+            private int maxConnectionsPerHost;
+            private Duration connectionAcquireTimeout = DEFAULT_CONNECTION_ACQUIRE_TIMEOUT;
+            @Nullable
+            private Duration maxConnectionLifetime;
+            @Nullable
+            private ConnectionPoolObserver<ResolvedAddress> connectionPoolObserver;
+
+            /**
+             * Configure the maximum number of concurrent connection attempts per address. If the limit is reached,
+             * selections wait in FIFO order for an in-flight connection attempt to the same address to terminate and
+             * then retry, instead of creating more connections. Waiting selections are woken up one at a time and
+             * fail with a {@link TimeoutException} after the {@link #connectionAcquireTimeout(Duration)}. Requires a
+             * {@link #backgroundExecutor(Executor)} for the acquire timeout.
+             *
+             * @param maxConcurrentConnects the maximum number of concurrent connection attempts per address, or a
+             * value {@code <= 0} for no limit (the default).
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> maxConcurrentConnectsPerHost(final int maxConcurrentConnects) {
+                this.maxConcurrentConnectsPerHost = maxConcurrentConnects;
+                return this;
+            }
 
-    private static class Host<Addr, C extends ListenableAsyncCloseable> implements AsyncCloseable {
-        @SuppressWarnings("rawtypes")
-        private static final AtomicReferenceFieldUpdater<Host, List> connectionsUpdater =
-                AtomicReferenceFieldUpdater.newUpdater(Host.class, List.class, "connections");
+            /**
+             * Configure the number of connections which are eagerly established to an address when it becomes
+             * available. Warm-up connections count towards {@link #maxConcurrentConnectsPerHost(int)} and
+             * {@link #maxConnectionsPerHost(int)}, hence warm-up is truncated to these limits. Remaining connections
+             * are established on demand.
+             *
+             * @param warmUpConnections the number of connections to establish eagerly per address, or {@code 0} to
+             * create connections lazily (the default).
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> warmUpConnectionsPerHost(final int warmUpConnections) {
+                if (warmUpConnections < 0) {
+                    throw new IllegalArgumentException("warmUpConnections: " + warmUpConnections + " (expected >=0)");
+                }
+                this.warmUpConnectionsPerHost = warmUpConnections;
+                return this;
+            }
 
-        final Addr address;
-        private volatile List<C> connections = emptyList();
+            /**
+             * Configure the maximum number of connections per address, including connection attempts. If the limit is
+             * reached and no existing connection can be selected, selections wait in FIFO order for a connection to
+             * become available, see {@link #connectionAcquireTimeout(Duration)}. Requires a
+             * {@link #backgroundExecutor(Executor)} for the acquire timeout.
+             * <p>
+             * Connections which are idle are closed by the transport, if an idle timeout is configured for the
+             * connections.
+             *
+             * @param maxConnections the maximum number of connections per address, or a value {@code <= 0} for no
+             * limit (the default).
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> maxConnectionsPerHost(final int maxConnections) {
+                this.maxConnectionsPerHost = maxConnections;
+                return this;
+            }
 
-        Host(Addr address) {
-            this.address = requireNonNull(address);
-        }
+            /**
+             * Configure the maximum duration a selection waits for a connection to become available when the number of
+             * connections to an address has reached {@link #maxConnectionsPerHost(int)}, or the number of connection
+             * attempts has reached {@link #maxConcurrentConnectsPerHost(int)}. Selections which time out fail with a
+             * {@link TimeoutException}.
+             *
+             * @param acquireTimeout the maximum duration a selection waits for a connection.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> connectionAcquireTimeout(final Duration acquireTimeout) {
+                this.connectionAcquireTimeout = requirePositive(acquireTimeout, "acquireTimeout");
+                return this;
+            }
 
-        void markInactive() {
-            @SuppressWarnings("unchecked")
-            final List<C> toRemove = connectionsUpdater.getAndSet(this, CLOSED_LIST);
-            for (C conn : toRemove) {
-                conn.closeAsyncGracefully().subscribe();
+            /**
+             * Configure the maximum lifetime of connections. Connections are closed gracefully once their lifetime,
+             * reduced by a random jitter of up to 10%, elapsed. New connections are then created on demand, which
+             * spreads connections across addresses which became available after the connection was established.
+             * Requires a {@link #backgroundExecutor(Executor)} for the lifetime timers.
+             *
+             * @param maxLifetime the maximum lifetime of connections.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> maxConnectionLifetime(final Duration maxLifetime) {
+                this.maxConnectionLifetime = requirePositive(maxLifetime, "maxLifetime");
+                return this;
             }
-        }
 
-        boolean isInactive() {
-            return connections == CLOSED_LIST;
-        }
+            /**
+             * Configure a {@link ConnectionPoolObserver} which is notified about changes of the connection pools.
+             *
+             * @param observer the {@link ConnectionPoolObserver} to notify.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> connectionPoolObserver(
+                    final ConnectionPoolObserver<ResolvedAddress> observer) {
+                this.connectionPoolObserver = requireNonNull(observer);
+                return this;
+            }
 
-        boolean addConnection(C connection) {
-            for (;;) {
-                List<C> existing = this.connections;
-                if (existing == CLOSED_LIST) {
-                    return false;
+            /**
+             * Configure the number of consecutive failures after which an address is ejected from the rotation.
+             * Failures are failed connection attempts, and failed requests on connections which implement
+             * {@link RequestTrackingLoadBalancedConnection}. What a failed request is depends on the connection, for
+             * HTTP these are requests which fail or receive a {@code 5xx} response.
+             * <p>
+             * Health checking is disabled by default.
+             *
+             * @param threshold the number of consecutive failures, or a value {@code <= 0} to disable health checking
+             * (the default).
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> healthCheckFailureThreshold(final int threshold) {
+                this.healthCheckFailureThreshold = threshold;
+                return this;
+            }
+
+            /**
+             * Configure the duration of the first ejection of an address. Every consecutive ejection of the same
+             * address doubles the duration, up to {@link #healthCheckMaxInterval(Duration)}.
+             *
+             * @param interval the duration of the first ejection.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> healthCheckInterval(final Duration interval) {
+                this.healthCheckInterval = requirePositive(interval, "interval");
+                return this;
+            }
+
+            /**
+             * Configure the maximum duration of an ejection.
+             *
+             * @param maxInterval the maximum duration of an ejection.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> healthCheckMaxInterval(final Duration maxInterval) {
+                this.healthCheckMaxInterval = requirePositive(maxInterval, "maxInterval");
+                return this;
+            }
+
+            /**
+             * Configure an {@link Executor} which is used to probe ejected addresses by trying to establish a
+             * connection in the background after the ejection duration. An ejected address is only re-admitted to the
+             * rotation once a probe succeeded.
+             * <p>
+             * Without an {@link Executor}, a single selection after the ejection duration is a trial for an ejected
+             * address. The address is re-admitted to the rotation if the trial establishes a connection or its request
+             * succeeds, and is ejected again if it fails.
+             * <p>
+             * This {@link Executor} is also used for the timers of the connection pool, see
+             * {@link #connectionAcquireTimeout(Duration)} and {@link #maxConnectionLifetime(Duration)}, and is
+             * therefore required if {@link #maxConnectionsPerHost(int)}, {@link #maxConcurrentConnectsPerHost(int)} or
+             * {@link #maxConnectionLifetime(Duration)} is configured.
+             *
+             * @param backgroundExecutor {@link Executor} used to probe ejected addresses.
+             * @return {@code this}.
+             */
+            public Builder<ResolvedAddress, C> backgroundExecutor(final Executor backgroundExecutor) {
+                this.backgroundExecutor = requireNonNull(backgroundExecutor);
+                return this;
+            }
+
+            /**
+             * Builds the {@link RoundRobinLoadBalancerFactory} configured by this builder.
+             *
+             * @return a new {@link RoundRobinLoadBalancerFactory}.
+             */
+            public RoundRobinLoadBalancerFactory<ResolvedAddress, C> build() {
+                if (healthCheckMaxInterval.compareTo(healthCheckInterval) < 0) {
+                    throw new IllegalArgumentException("healthCheckMaxInterval: " + healthCheckMaxInterval +
+                            " (expected >= healthCheckInterval: " + healthCheckInterval + ')');
                 }
-                ArrayList<C> connectionAdded = new ArrayList<>(existing);
-                connectionAdded.add(connection);
-                if (connectionsUpdater.compareAndSet(this, existing, connectionAdded)) {
-                    break;
+                if (backgroundExecutor == null && (maxConnectionsPerHost > 0 || maxConcurrentConnectsPerHost > 0 ||
+                        maxConnectionLifetime != null)) {
+                    throw new IllegalStateException("backgroundExecutor is required for the timers of " +
+                            "maxConnectionsPerHost, maxConcurrentConnectsPerHost and maxConnectionLifetime");
                 }
+                return new RoundRobinLoadBalancerFactory<>(this);
             }
 
-            // Instrument the new connection so we prune it on close
-            connection.onClose().beforeFinally(() -> {
-                for (;;) {
-                    final List<C> existing = connections;
-                    if (existing == CLOSED_LIST) {
-                        break;
-                    }
-                    ArrayList<C> connectionRemoved = new ArrayList<>(existing);
-                    if (!connectionRemoved.remove(connection) ||
-                            connectionsUpdater.compareAndSet(this, existing, connectionRemoved)) {
-                        break;
-                    }
+            private static Duration requirePositive(final Duration duration, final String name) {
+                if (duration.isNegative() || duration.isZero()) {
+                    throw new IllegalArgumentException(name + ": " + duration + " (expected >0)");
                 }
-            }).subscribe();
-            return true;
+                return duration;
+            }
         }
+    }
 
-        // Used for testing only
-        Entry<Addr, List<C>> asEntry() {
-            return new SimpleImmutableEntry<>(address, new ArrayList<>(connections));
-        }
+    // Visible for testing
+    List<Entry<ResolvedAddress, List<C>>> activeAddresses() {
+        return activeHosts.stream().map(Host::asEntry).collect(toList());
+    }
 
-        @Override
-        public Completable closeAsync() {
-            return doClose(AsyncCloseable::closeAsync);
+    /**
+     * A selection which waits for capacity of an exhausted {@link Host}, or for a connection attempt to a {@link Host}
+     * which reached the limit of concurrent connection attempts. When woken up, the selection is retried on the same
+     * {@link Host} and the result is forwarded to the waiting {@link SingleSource.Subscriber}.
+     */
+    private static final class PoolWaiter<R, C extends LoadBalancedConnection>
+            implements Host.Waiter, Cancellable, SingleSource.Subscriber<C> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<PoolWaiter> stateUpdater =
+                newUpdater(PoolWaiter.class, "state");
+
+        private static final int STATE_WAITING = 0;
+        private static final int STATE_WOKEN = 1;
+        private static final int STATE_DONE = 2;
+
+        private final RoundRobinLoadBalancer<R, C> lb;
+        private final Host<R, C> host;
+        private final Predicate<C> selector;
+        private final SingleSource.Subscriber<? super C> subscriber;
+        private final SequentialCancellable selectionCancellable = new SequentialCancellable();
+        private volatile int state;
+
+        PoolWaiter(final RoundRobinLoadBalancer<R, C> lb, final Host<R, C> host, final Predicate<C> selector,
+                   final SingleSource.Subscriber<? super C> subscriber) {
+            this.lb = lb;
+            this.host = host;
+            this.selector = selector;
+            this.subscriber = subscriber;
         }
 
         @Override
-        public Completable closeAsyncGracefully() {
-            return doClose(AsyncCloseable::closeAsyncGracefully);
-        }
-
-        @SuppressWarnings("unchecked")
-        private Completable doClose(final Function<? super C, Completable> closeFunction) {
-            return defer(() -> succeeded((List<C>) connectionsUpdater.getAndSet(this, CLOSED_LIST)))
-                    .flatMapCompletable(list -> mergeAllDelayError(list.stream().map(closeFunction)::iterator));
+        public boolean tryWake() {
+            if (!stateUpdater.compareAndSet(this, STATE_WAITING, STATE_WOKEN)) {
+                return false;
+            }
+            final Single<C> selection;
+            if (host.isInactive()) {
+                // The host has been removed or the load balancer has been closed. A retry selects from the remaining
+                // hosts.
+                selection = lb.activeHosts == CLOSED_LIST ? failedLBClosed() :
+                        failed(new ConnectionRejectedException("Host " + host.address +
+                                " became inactive while waiting for a connection."));
+            } else {
+                final int version = host.capacityVersion();
+                final C existing = lb.selectExisting(host, selector);
+                if (existing != null) {
+                    state = STATE_DONE;
+                    subscriber.onSuccess(existing);
+                    // The capacity may not have been consumed, e.g. a new connection may accept more requests.
+                    return false;
+                }
+                if (!lb.tryAcquireConnect(host, lb.maxConcurrentConnects)) {
+                    // The capacity has been taken concurrently, wait again without losing the position in the queue.
+                    if (stateUpdater.compareAndSet(this, STATE_WOKEN, STATE_WAITING)) {
+                        host.await(this, version, true);
+                    }
+                    return true;
+                }
+                selection = lb.newConnection(host, selector).whenFinally(host::releaseConnect);
+            }
+            state = STATE_DONE;
+            toSource(selection).subscribe(this);
+            return true;
         }
 
         @Override
-        public String toString() {
-            return "Host{" +
-                    "address=" + address +
-                    ", removed=" + (connections == CLOSED_LIST) +
-                    '}';
+        public void cancel() {
+            if (stateUpdater.getAndSet(this, STATE_DONE) == STATE_WAITING) {
+                host.removeWaiter(this);
+            }
+            selectionCancellable.cancel();
         }
-    }
 
-    private static final class StacklessNoAvailableHostException extends NoAvailableHostException {
-        private StacklessNoAvailableHostException(final String message) {
-            super(message);
+        @Override
+        public void onSubscribe(final Cancellable cancellable) {
+            selectionCancellable.nextCancellable(cancellable);
         }
 
         @Override
-        public Throwable fillInStackTrace() {
-            return this;
+        public void onSuccess(@Nullable final C result) {
+            subscriber.onSuccess(result);
         }
 
-        public static StacklessNoAvailableHostException newInstance(String message, Class<?> clazz, String method) {
-            return ThrowableUtils.unknownStackTrace(new StacklessNoAvailableHostException(message), clazz, method);
+        @Override
+        public void onError(final Throwable t) {
+            subscriber.onError(t);
         }
     }
 
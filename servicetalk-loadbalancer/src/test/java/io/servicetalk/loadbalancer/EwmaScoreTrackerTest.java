@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static java.lang.Integer.MAX_VALUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class EwmaScoreTrackerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDecayTime() {
+        new EwmaScoreTracker(Duration.ZERO);
+    }
+
+    @Test
+    public void initialScore() {
+        EwmaScoreTracker tracker = new EwmaScoreTracker();
+        assertThat(tracker.pending(), is(0));
+        assertThat(tracker.score(), is(MAX_VALUE - 1));
+    }
+
+    @Test
+    public void pendingRequestsDecreaseScore() {
+        EwmaScoreTracker tracker = new EwmaScoreTracker();
+        final int idleScore = tracker.score();
+        final long start1 = tracker.onRequestStart();
+        final long start2 = tracker.onRequestStart();
+        assertThat(tracker.pending(), is(2));
+        assertThat(tracker.score(), is(lessThan(idleScore)));
+
+        tracker.onRequestEnd(start1);
+        tracker.onRequestEnd(start2);
+        assertThat(tracker.pending(), is(0));
+    }
+
+    @Test
+    public void latencyIsPeakSensitive() {
+        EwmaScoreTracker tracker = new EwmaScoreTracker();
+        final long slowLatency = Duration.ofSeconds(1).toNanos();
+        tracker.onRequestStart();
+        tracker.onRequestEnd(System.nanoTime() - slowLatency);
+        assertThat(tracker.latencyNanos(), is(greaterThanOrEqualTo(slowLatency)));
+
+        final int slowScore = tracker.score();
+        // A fast request right after a slow request decays into the average slowly.
+        tracker.onRequestEnd(tracker.onRequestStart());
+        assertThat(tracker.latencyNanos(), is(greaterThan(slowLatency / 2)));
+        assertThat(tracker.score(), is(greaterThanOrEqualTo(slowScore)));
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.loadbalancer;
+
+import io.servicetalk.client.api.ConnectionFactory;
+import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
+import io.servicetalk.client.api.LoadBalancedConnection;
+import io.servicetalk.client.api.NoAvailableHostException;
+import io.servicetalk.client.api.ServiceDiscovererEvent;
+import io.servicetalk.concurrent.api.Completable;
+import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
+import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestPublisher;
+import io.servicetalk.concurrent.api.TestSubscription;
+import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+import static io.servicetalk.concurrent.api.AsyncCloseables.emptyAsyncCloseable;
+import static io.servicetalk.concurrent.api.BlockingTestUtils.awaitIndefinitely;
+import static io.servicetalk.concurrent.api.Single.succeeded;
+import static java.lang.Integer.MAX_VALUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class P2CLoadBalancerTest {
+    @Rule
+    public final Timeout timeout = new ServiceTalkTestTimeout();
+
+    private final List<TestLoadBalancedConnection> connectionsCreated = new CopyOnWriteArrayList<>();
+    private final Map<String, ScoreSupplierHolder> scores = new ConcurrentHashMap<>();
+    private final TestPublisher<ServiceDiscovererEvent<String>> serviceDiscoveryPublisher = new TestPublisher<>();
+    private P2CLoadBalancer<String, TestLoadBalancedConnection> lb;
+
+    @Before
+    public void initialize() {
+        lb = new P2CLoadBalancer<>(serviceDiscoveryPublisher, new TestConnectionFactory());
+    }
+
+    @After
+    public void closeLoadBalancer() throws Exception {
+        awaitIndefinitely(lb.closeAsync());
+        awaitIndefinitely(lb.onClose());
+
+        TestSubscription subscription = new TestSubscription();
+        serviceDiscoveryPublisher.onSubscribe(subscription);
+        assertTrue(subscription.isCancelled());
+    }
+
+    @Test
+    public void handleDiscoveryEvents() {
+        assertThat(lb.activeAddresses(), is(empty()));
+
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+        assertThat(lb.activeAddresses(), hasSize(2));
+
+        sendServiceDiscoveryEvents(downEvent("address-1"));
+        assertThat(lb.activeAddresses(), hasSize(1));
+        assertThat(lb.activeAddresses().get(0).getKey(), is("address-2"));
+    }
+
+    @Test
+    public void noServiceDiscoveryEvent() throws Exception {
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(NoAvailableHostException.class));
+        }
+    }
+
+    @Test
+    public void selectAfterClose() throws Exception {
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        awaitIndefinitely(lb.closeAsync());
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+    }
+
+    @Test
+    public void reuseConnectionForSingleHost() throws Exception {
+        scores.put("address-1", new ScoreSupplierHolder(MAX_VALUE));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        TestLoadBalancedConnection first = awaitIndefinitely(lb.selectConnection(any()));
+        TestLoadBalancedConnection second = awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(second, is(sameInstance(first)));
+        assertThat(connectionsCreated, hasSize(1));
+    }
+
+    @Test
+    public void rejectedConnectionCreatesNewConnection() throws Exception {
+        scores.put("address-1", new ScoreSupplierHolder(MAX_VALUE));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        TestLoadBalancedConnection first = awaitIndefinitely(lb.selectConnection(any()));
+        TestLoadBalancedConnection second = awaitIndefinitely(lb.selectConnection(c -> c != first));
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(lb.activeAddresses().get(0).getValue(), contains(first, second));
+    }
+
+    @Test
+    public void prefersHostWithHigherScore() throws Exception {
+        scores.put("fast-1", new ScoreSupplierHolder(MAX_VALUE - 10));
+        scores.put("fast-2", new ScoreSupplierHolder(MAX_VALUE - 10));
+        scores.put("slow", new ScoreSupplierHolder(MAX_VALUE - 1000));
+        sendServiceDiscoveryEvents(upEvent("fast-1"), upEvent("fast-2"), upEvent("slow"));
+
+        // Addresses without connections are preferred, so every address will eventually get a connection.
+        for (int i = 0; i < 1000 && connectionsCreated.size() < 3; ++i) {
+            awaitIndefinitely(lb.selectConnection(any()));
+        }
+        assertThat(connectionsCreated, hasSize(3));
+
+        final Map<String, Integer> selections = new ConcurrentHashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            TestLoadBalancedConnection cnx = awaitIndefinitely(lb.selectConnection(any()));
+            assert cnx != null;
+            selections.merge(cnx.address(), 1, Integer::sum);
+        }
+        // The slow address always loses the comparison against one of the fast addresses.
+        assertThat(selections.getOrDefault("slow", 0), is(0));
+        assertThat(selections.getOrDefault("fast-1", 0), is(greaterThan(0)));
+        assertThat(selections.getOrDefault("fast-2", 0), is(greaterThan(0)));
+        assertThat(connectionsCreated, hasSize(3));
+    }
+
+    @Test
+    public void heterogeneousLatencySimulation() throws Exception {
+        // Each address has a fixed latency (in simulated time units). Requests are started on the selected connection
+        // and complete after the address latency elapsed, the score is derived from the outstanding requests.
+        final Map<String, Integer> latencies = new ConcurrentHashMap<>();
+        latencies.put("address-1", 1);
+        latencies.put("address-2", 1);
+        latencies.put("address-3", 1);
+        latencies.put("address-4", 10);
+        for (String address : latencies.keySet()) {
+            scores.put(address, new ScoreSupplierHolder(MAX_VALUE));
+        }
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"), upEvent("address-3"),
+                upEvent("address-4"));
+
+        final Map<String, Integer> selections = new ConcurrentHashMap<>();
+        final List<InflightRequest> inflight = new CopyOnWriteArrayList<>();
+        final int requestsPerTick = 4;
+        for (int tick = 0; tick < 1000; ++tick) {
+            for (int r = 0; r < requestsPerTick; ++r) {
+                TestLoadBalancedConnection cnx = awaitIndefinitely(lb.selectConnection(any()));
+                assert cnx != null;
+                final String address = cnx.address();
+                selections.merge(address, 1, Integer::sum);
+                final ScoreSupplierHolder score = scores.get(address);
+                score.pending++;
+                inflight.add(new InflightRequest(tick + latencies.get(address), score));
+            }
+            for (InflightRequest request : inflight) {
+                if (request.completeAt <= tick) {
+                    inflight.remove(request);
+                    request.score.pending--;
+                }
+            }
+        }
+
+        final int total = 1000 * requestsPerTick;
+        // A round robin strategy would send 25% of the requests to the slow address.
+        assertThat(selections.getOrDefault("address-4", 0), is(lessThan(total / 8)));
+        assertThat(selections.getOrDefault("address-1", 0), is(greaterThan(total / 5)));
+    }
+
+    private static <T> Predicate<T> any() {
+        return __ -> true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sendServiceDiscoveryEvents(final ServiceDiscovererEvent... events) {
+        serviceDiscoveryPublisher.onNext((ServiceDiscovererEvent<String>[]) events);
+    }
+
+    private static ServiceDiscovererEvent upEvent(final String address) {
+        return new DefaultServiceDiscovererEvent<>(address, true);
+    }
+
+    private static ServiceDiscovererEvent downEvent(final String address) {
+        return new DefaultServiceDiscovererEvent<>(address, false);
+    }
+
+    private TestLoadBalancedConnection newConnection(final String address) {
+        final TestLoadBalancedConnection cnx = mock(TestLoadBalancedConnection.class);
+        final ListenableAsyncCloseable closeable = emptyAsyncCloseable();
+        final ScoreSupplierHolder score = scores.computeIfAbsent(address, __ -> new ScoreSupplierHolder(MAX_VALUE));
+        when(cnx.closeAsync()).thenReturn(closeable.closeAsync());
+        when(cnx.closeAsyncGracefully()).thenReturn(closeable.closeAsyncGracefully());
+        when(cnx.onClose()).thenReturn(closeable.onClose());
+        when(cnx.address()).thenReturn(address);
+        when(cnx.score()).then(__ -> score.score());
+        when(cnx.toString()).thenReturn(address + '@' + cnx.hashCode());
+
+        connectionsCreated.add(cnx);
+        return cnx;
+    }
+
+    private static final class ScoreSupplierHolder {
+        private final int baseScore;
+        int pending;
+
+        ScoreSupplierHolder(final int baseScore) {
+            this.baseScore = baseScore;
+        }
+
+        int score() {
+            return baseScore - pending;
+        }
+    }
+
+    private static final class InflightRequest {
+        final int completeAt;
+        final ScoreSupplierHolder score;
+
+        InflightRequest(final int completeAt, final ScoreSupplierHolder score) {
+            this.completeAt = completeAt;
+            this.score = score;
+        }
+    }
+
+    private interface TestLoadBalancedConnection extends ListenableAsyncCloseable, LoadBalancedConnection {
+        String address();
+    }
+
+    private final class TestConnectionFactory implements ConnectionFactory<String, TestLoadBalancedConnection> {
+        @Override
+        public Single<TestLoadBalancedConnection> newConnection(final String address) {
+            return succeeded(P2CLoadBalancerTest.this.newConnection(address));
+        }
+
+        @Override
+        public Completable onClose() {
+            return Completable.completed();
+        }
+
+        @Override
+        public Completable closeAsync() {
+            return Completable.completed();
+        }
+    }
+}
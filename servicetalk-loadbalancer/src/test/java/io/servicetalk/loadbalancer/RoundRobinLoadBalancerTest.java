@@ -20,7 +20,10 @@ import io.servicetalk.client.api.ConnectionRejectedException;
 import io.servicetalk.client.api.DefaultServiceDiscovererEvent;
 import io.servicetalk.client.api.LoadBalancedConnection;
 import io.servicetalk.client.api.LoadBalancerReadyEvent;
+import io.servicetalk.client.api.MultiplexedLoadBalancedConnection;
 import io.servicetalk.client.api.NoAvailableHostException;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection;
+import io.servicetalk.client.api.RequestTrackingLoadBalancedConnection.RequestOutcomeListener;
 import io.servicetalk.client.api.ServiceDiscovererEvent;
 import io.servicetalk.concurrent.PublisherSource.Subscriber;
 import io.servicetalk.concurrent.PublisherSource.Subscription;
@@ -30,10 +33,12 @@ import io.servicetalk.concurrent.api.LegacyTestSingle;
 import io.servicetalk.concurrent.api.ListenableAsyncCloseable;
 import io.servicetalk.concurrent.api.Publisher;
 import io.servicetalk.concurrent.api.Single;
+import io.servicetalk.concurrent.api.TestExecutor;
 import io.servicetalk.concurrent.api.TestPublisher;
 import io.servicetalk.concurrent.api.TestSubscription;
 import io.servicetalk.concurrent.internal.DeliberateException;
 import io.servicetalk.concurrent.internal.ServiceTalkTestTimeout;
+import io.servicetalk.loadbalancer.RoundRobinLoadBalancer.RoundRobinLoadBalancerFactory;
 
 import org.junit.After;
 import org.junit.Before;
@@ -41,7 +46,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -55,6 +63,8 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -63,6 +73,7 @@ import java.util.function.Predicate;
 
 import static io.servicetalk.concurrent.api.AsyncCloseables.emptyAsyncCloseable;
 import static io.servicetalk.concurrent.api.BlockingTestUtils.awaitIndefinitely;
+import static io.servicetalk.concurrent.api.Executors.immediate;
 import static io.servicetalk.concurrent.api.Single.failed;
 import static io.servicetalk.concurrent.api.Single.succeeded;
 import static io.servicetalk.concurrent.api.SourceAdapters.toSource;
@@ -84,6 +95,7 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -91,8 +103,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class RoundRobinLoadBalancerTest {
+    private static final int FAILURE_THRESHOLD = 5;
+
     @Rule
     public final Timeout timeout = new ServiceTalkTestTimeout();
 
@@ -428,6 +443,454 @@ public class RoundRobinLoadBalancerTest {
         awaitIndefinitely(connection.onClose());
     }
 
+    @Test
+    public void unhealthyHostIsEjected() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(address -> "address-2".equals(address) ?
+                failed(DELIBERATE_EXCEPTION) : newRealizedConnectionSingle(address));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, newHealthCheckConfig());
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+
+        int failures = 0;
+        for (int i = 0; i < 2 * FAILURE_THRESHOLD; ++i) {
+            try {
+                awaitIndefinitely(lb.selectConnection(any()));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(DeliberateException.class)));
+                ++failures;
+            }
+        }
+        assertThat(failures, is(FAILURE_THRESHOLD));
+
+        final List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            final TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+            assert connection != null;
+            addresses.add(connection.address());
+        }
+        assertThat(addresses.stream().collect(toSet()), contains("address-1"));
+    }
+
+    @Test
+    public void allHostsEjectedStillSelected() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(__ -> failed(DELIBERATE_EXCEPTION));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, newHealthCheckConfig());
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        for (int i = 0; i <= FAILURE_THRESHOLD; ++i) {
+            try {
+                awaitIndefinitely(lb.selectConnection(any()));
+                fail();
+            } catch (ExecutionException e) {
+                // Selection must still reach the connection factory, rather than fail with NoAvailableHostException.
+                assertThat(e.getCause(), is(instanceOf(DeliberateException.class)));
+            }
+        }
+    }
+
+    @Test
+    public void defaultConstructorDoesNotEjectHosts() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        final AtomicInteger failedConnects = new AtomicInteger();
+        assertNoEjection(newTestLoadBalancer(failingAddress2ConnectionFactory(failedConnects)), failedConnects);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void defaultFactoryDoesNotEjectHosts() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        final AtomicInteger failedConnects = new AtomicInteger();
+        assertNoEjection((RoundRobinLoadBalancer<String, TestLoadBalancedConnection>)
+                new RoundRobinLoadBalancerFactory<String, TestLoadBalancedConnection>().newLoadBalancer(
+                        serviceDiscoveryPublisher, failingAddress2ConnectionFactory(failedConnects)), failedConnects);
+    }
+
+    private DelegatingConnectionFactory failingAddress2ConnectionFactory(final AtomicInteger failedConnects) {
+        return new DelegatingConnectionFactory(address -> {
+            if ("address-2".equals(address)) {
+                failedConnects.incrementAndGet();
+                return failed(DELIBERATE_EXCEPTION);
+            }
+            return newRealizedConnectionSingle(address);
+        });
+    }
+
+    private void assertNoEjection(final RoundRobinLoadBalancer<String, TestLoadBalancedConnection> loadBalancer,
+                                  final AtomicInteger failedConnects) throws Exception {
+        lb = loadBalancer;
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+
+        for (int i = 0; i < 4 * FAILURE_THRESHOLD; ++i) {
+            try {
+                awaitIndefinitely(lb.selectConnection(any()));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(DeliberateException.class)));
+            }
+        }
+        assertThat(failedConnects.get(), is(2 * FAILURE_THRESHOLD));
+    }
+
+    @Test
+    public void requestFailuresEjectHost() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory,
+                new HealthCheckConfig(2, SECONDS.toNanos(10), SECONDS.toNanos(10), null));
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+
+        assertThat(selectAddresses(2), hasItems("address-1", "address-2"));
+        final RequestOutcomeListener listener = requestOutcomeListener("address-2");
+        listener.onFailure();
+        listener.onSuccess();
+        listener.onFailure();
+        // A success resets the consecutive failures.
+        assertThat(selectAddresses(4), hasItems("address-1", "address-2"));
+
+        listener.onFailure();
+        assertThat(selectAddresses(4).stream().collect(toSet()), contains("address-1"));
+    }
+
+    @Test
+    public void passiveReadmissionAllowsSingleTrial() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory,
+                new HealthCheckConfig(1, MILLISECONDS.toNanos(500), SECONDS.toNanos(10), null));
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+
+        assertThat(selectAddresses(2), hasItems("address-1", "address-2"));
+        final RequestOutcomeListener listener = requestOutcomeListener("address-2");
+        listener.onFailure();
+        assertThat(selectAddresses(4).stream().collect(toSet()), contains("address-1"));
+
+        // Once the ejection elapsed, only a single selection is a trial until it reports its outcome.
+        Thread.sleep(600);
+        final List<String> addresses = selectAddresses(10);
+        assertThat(addresses.stream().filter("address-2"::equals).count(), is(1L));
+
+        listener.onSuccess();
+        assertThat(selectAddresses(4), hasItems("address-1", "address-2"));
+    }
+
+    @Test
+    public void ejectedHostIsProbedAndReadmitted() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        final TestExecutor executor = new TestExecutor();
+        final AtomicBoolean failConnect = new AtomicBoolean(true);
+        connectionFactory = new DelegatingConnectionFactory(address -> failConnect.get() ?
+                failed(DELIBERATE_EXCEPTION) : newRealizedConnectionSingle(address));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory,
+                new HealthCheckConfig(1, SECONDS.toNanos(1), SECONDS.toNanos(4), executor));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        try {
+            awaitIndefinitely(lb.selectConnection(any()));
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(DeliberateException.class)));
+        }
+
+        // The first probe fails, which doubles the ejection duration.
+        executor.advanceTimeBy(1, SECONDS);
+        assertThat(executor.scheduledTasksPending(), is(1));
+        failConnect.set(false);
+        executor.advanceTimeBy(1, SECONDS);
+        assertThat(connectionsCreated, is(empty()));
+        executor.advanceTimeBy(1, SECONDS);
+        assertThat(connectionsCreated, hasSize(1));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-1"))).and(hasProperty("value", hasSize(1)))));
+
+        final TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(connection, is(connectionsCreated.get(0)));
+    }
+
+    @Test
+    public void concurrentConnectsAreLimited() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(this::newUnrealizedConnectionSingle);
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 1, 0);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        final List<Future<TestLoadBalancedConnection>> selections = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            selections.add(lb.selectConnection(any()).toFuture());
+        }
+        assertThat(connectionRealizers, hasSize(1));
+
+        final Runnable realizer = connectionRealizers.poll();
+        assert realizer != null;
+        realizer.run();
+        for (Future<TestLoadBalancedConnection> selection : selections) {
+            assertThat(selection.get(), is(connectionsCreated.get(0)));
+        }
+        assertThat(connectionsCreated, hasSize(1));
+        assertThat(connectionRealizers, is(empty()));
+    }
+
+    @Test
+    public void failedConnectWakesSingleWaiter() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        final LegacyTestSingle<TestLoadBalancedConnection> failingConnect = new LegacyTestSingle<>();
+        final AtomicInteger connects = new AtomicInteger();
+        connectionFactory = new DelegatingConnectionFactory(address -> connects.getAndIncrement() == 0 ?
+                failingConnect : newUnrealizedConnectionSingle(address));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 1, 0);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        final Future<TestLoadBalancedConnection> first = lb.selectConnection(any()).toFuture();
+        final Future<TestLoadBalancedConnection> second = lb.selectConnection(any()).toFuture();
+        final Future<TestLoadBalancedConnection> third = lb.selectConnection(any()).toFuture();
+        assertThat(connectionRealizers, is(empty()));
+
+        failingConnect.onError(DELIBERATE_EXCEPTION);
+        try {
+            first.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(DELIBERATE_EXCEPTION));
+        }
+        // Only the head of the queue is woken up and connects, the other selection keeps waiting.
+        assertThat(connectionRealizers, hasSize(1));
+        assertThat(third.isDone(), is(false));
+
+        final Runnable realizer = connectionRealizers.poll();
+        assert realizer != null;
+        realizer.run();
+        assertThat(second.get(), is(connectionsCreated.get(0)));
+        assertThat(third.get(), is(connectionsCreated.get(0)));
+        assertThat(connectionRealizers, is(empty()));
+    }
+
+    @Test
+    public void connectWaitTimesOut() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(this::newUnrealizedConnectionSingle);
+        final TestExecutor executor = new TestExecutor();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 1, 0,
+                new ConnectionPoolConfig<>(0, SECONDS.toNanos(1), 0, executor,
+                        new ConnectionPoolObserver<String>() { }));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        lb.selectConnection(any()).toFuture();
+        final Future<TestLoadBalancedConnection> waiting = lb.selectConnection(any()).toFuture();
+        executor.advanceTimeBy(1, SECONDS);
+
+        try {
+            waiting.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+        assertThat(connectionRealizers, hasSize(1));
+    }
+
+    @Test
+    public void concurrentConnectsLimitRequiresBackgroundExecutor() {
+        thrown.expect(IllegalStateException.class);
+        new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                .maxConcurrentConnectsPerHost(1)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void warmUpConnections() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 3);
+        sendServiceDiscoveryEvents(upEvent("address-1"), upEvent("address-2"));
+
+        assertThat(connectionsCreated, hasSize(6));
+        assertThat(lb.activeAddresses(), contains(
+                both(hasProperty("key", is("address-1"))).and(hasProperty("value", hasSize(3))),
+                both(hasProperty("key", is("address-2"))).and(hasProperty("value", hasSize(3)))));
+
+        awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(connectionsCreated, hasSize(6));
+    }
+
+    @Test
+    public void warmUpConnectionsRespectConcurrencyLimit() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(this::newUnrealizedConnectionSingle);
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 2, 5);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        assertThat(connectionRealizers, hasSize(2));
+        connectionRealizers.forEach(Runnable::run);
+        assertThat(lb.activeAddresses().get(0).getValue(), hasSize(2));
+    }
+
+    @Test
+    public void multiplexedConnectionsAreSelectedByLoad() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(
+                address -> succeeded(newMultiplexedConnection(address, 10)));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 3);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(connectionsCreated, hasSize(3));
+        activeRequests(connectionsCreated.get(0), 5);
+        activeRequests(connectionsCreated.get(1), 2);
+        activeRequests(connectionsCreated.get(2), 8);
+
+        for (int i = 0; i < 5; ++i) {
+            assertThat(awaitIndefinitely(lb.selectConnection(any())), is(connectionsCreated.get(1)));
+        }
+        assertThat(connectionsCreated, hasSize(3));
+    }
+
+    @Test
+    public void singleRequestConnectionsAreNotSelectedByLoad() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(
+                address -> succeeded(newMultiplexedConnection(address, 1)));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 2);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(connectionsCreated, hasSize(2));
+        activeRequests(connectionsCreated.get(0), 1);
+        activeRequests(connectionsCreated.get(1), 0);
+
+        // The selector has the final say, the usage reported by the connections is ignored.
+        final Set<TestLoadBalancedConnection> selected = new HashSet<>();
+        for (int i = 0; i < 100 && selected.size() < 2; ++i) {
+            selected.add(awaitIndefinitely(lb.selectConnection(any())));
+        }
+        assertThat(selected, hasSize(2));
+        assertThat(connectionsCreated, hasSize(2));
+    }
+
+    @Test
+    public void saturatedMultiplexedConnectionsEstablishConnectionInBackground() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(address -> connectionsCreated.isEmpty() ?
+                succeeded(newMultiplexedConnection(address, 10)) : newUnrealizedConnectionSingle(address));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 1);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(connectionsCreated, hasSize(1));
+        final TestLoadBalancedConnection saturated = connectionsCreated.get(0);
+        activeRequests(saturated, 8);
+
+        // Only a single connection is established in the background while the existing one is still selected.
+        assertThat(awaitIndefinitely(lb.selectConnection(any())), is(saturated));
+        assertThat(awaitIndefinitely(lb.selectConnection(any())), is(saturated));
+        assertThat(connectionRealizers, hasSize(1));
+
+        final Runnable realizer = connectionRealizers.poll();
+        assert realizer != null;
+        realizer.run();
+        assertThat(lb.activeAddresses().get(0).getValue(), hasSize(2));
+    }
+
+    @Test
+    public void closingMultiplexedConnectionIsNotSelected() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(
+                address -> succeeded(newMultiplexedConnection(address, 10)));
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 2);
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+        assertThat(connectionsCreated, hasSize(2));
+        // A connection which received a GOAWAY does not accept new requests, but may still have requests in-flight.
+        activeRequests(connectionsCreated.get(0), -2);
+        activeRequests(connectionsCreated.get(1), 4);
+
+        for (int i = 0; i < 5; ++i) {
+            assertThat(awaitIndefinitely(lb.selectConnection(any())), is(connectionsCreated.get(1)));
+        }
+    }
+
+    @Test
+    public void exhaustedPoolQueuesSelectionsInOrder() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        connectionFactory = new DelegatingConnectionFactory(
+                address -> succeeded(newMultiplexedConnection(address, 1)));
+        final AtomicInteger queued = new AtomicInteger();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 0,
+                new ConnectionPoolConfig<>(1, SECONDS.toNanos(DEFAULT_TIMEOUT_SECONDS), 0, immediate(),
+                        new ConnectionPoolObserver<String>() {
+                            @Override
+                            public void onAcquireQueued(final String address) {
+                                queued.incrementAndGet();
+                            }
+                        }));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        final AtomicBoolean busy = new AtomicBoolean();
+        final Predicate<TestLoadBalancedConnection> selector = __ -> busy.compareAndSet(false, true);
+        final TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(selector));
+        final ArgumentCaptor<Runnable> capacityListener = ArgumentCaptor.forClass(Runnable.class);
+        verify((MultiplexedLoadBalancedConnection) connection).capacityListener(capacityListener.capture());
+
+        final Future<TestLoadBalancedConnection> second = lb.selectConnection(selector).toFuture();
+        final Future<TestLoadBalancedConnection> third = lb.selectConnection(selector).toFuture();
+        assertThat(queued.get(), is(2));
+        assertFalse(second.isDone());
+        assertFalse(third.isDone());
+
+        busy.set(false);
+        capacityListener.getValue().run();
+        assertThat(second.get(), is(connection));
+        assertFalse(third.isDone());
+
+        busy.set(false);
+        capacityListener.getValue().run();
+        assertThat(third.get(), is(connection));
+        assertThat(connectionsCreated, hasSize(1));
+    }
+
+    @Test
+    public void exhaustedPoolSelectionTimesOut() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        final TestExecutor executor = new TestExecutor();
+        final AtomicInteger timeouts = new AtomicInteger();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 0,
+                new ConnectionPoolConfig<>(1, SECONDS.toNanos(1), 0, executor,
+                        new ConnectionPoolObserver<String>() {
+                            @Override
+                            public void onAcquireTimeout(final String address) {
+                                timeouts.incrementAndGet();
+                            }
+                        }));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        final AtomicBoolean busy = new AtomicBoolean();
+        final Predicate<TestLoadBalancedConnection> selector = __ -> busy.compareAndSet(false, true);
+        awaitIndefinitely(lb.selectConnection(selector));
+        final Future<TestLoadBalancedConnection> waiting = lb.selectConnection(selector).toFuture();
+        executor.advanceTimeBy(1, SECONDS);
+
+        try {
+            waiting.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+        assertThat(timeouts.get(), is(1));
+        assertThat(connectionsCreated, hasSize(1));
+    }
+
+    @Test
+    public void connectionIsClosedAfterMaxLifetime() throws Exception {
+        serviceDiscoveryPublisher.onComplete();
+        final TestExecutor executor = new TestExecutor();
+        lb = new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory, null, 0, 0,
+                new ConnectionPoolConfig<>(0, SECONDS.toNanos(1), SECONDS.toNanos(10), executor,
+                        new ConnectionPoolObserver<String>() { }));
+        sendServiceDiscoveryEvents(upEvent("address-1"));
+
+        final TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+        assertThat(lb.activeAddresses().get(0).getValue(), hasSize(1));
+        executor.advanceTimeBy(10, SECONDS);
+        verify(connection).closeAsyncGracefully();
+        assertThat(lb.activeAddresses().get(0).getValue(), is(empty()));
+    }
+
+    @Test
+    public void boundedPoolRequiresBackgroundExecutor() {
+        thrown.expect(IllegalStateException.class);
+        new RoundRobinLoadBalancerFactory.Builder<String, TestLoadBalancedConnection>()
+                .maxConnectionsPerHost(1)
+                .build();
+    }
+
     @Test
     public void hostDownGracefulCloseConnection() throws Exception {
         sendServiceDiscoveryEvents(upEvent("address-1"));
@@ -451,6 +914,30 @@ public class RoundRobinLoadBalancerTest {
         return new DefaultServiceDiscovererEvent<>(address, false);
     }
 
+    private List<String> selectAddresses(final int selections) throws Exception {
+        final List<String> addresses = new ArrayList<>(selections);
+        for (int i = 0; i < selections; ++i) {
+            final TestLoadBalancedConnection connection = awaitIndefinitely(lb.selectConnection(any()));
+            assert connection != null;
+            addresses.add(connection.address());
+        }
+        return addresses;
+    }
+
+    private RequestOutcomeListener requestOutcomeListener(final String address) {
+        final TestLoadBalancedConnection cnx = connectionsCreated.stream()
+                .filter(c -> address.equals(c.address())).findFirst().orElseThrow(NoSuchElementException::new);
+        final ArgumentCaptor<RequestOutcomeListener> captor = ArgumentCaptor.forClass(RequestOutcomeListener.class);
+        verify((RequestTrackingLoadBalancedConnection) cnx).requestOutcomeListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private static HealthCheckConfig newHealthCheckConfig() {
+        return new HealthCheckConfig(FAILURE_THRESHOLD,
+                RoundRobinLoadBalancer.DEFAULT_HEALTH_CHECK_INTERVAL.toNanos(),
+                RoundRobinLoadBalancer.DEFAULT_HEALTH_CHECK_MAX_INTERVAL.toNanos(), null);
+    }
+
     private RoundRobinLoadBalancer<String, TestLoadBalancedConnection> newTestLoadBalancer(
             final DelegatingConnectionFactory connectionFactory) {
         return new RoundRobinLoadBalancer<>(serviceDiscoveryPublisher, connectionFactory);
@@ -468,7 +955,8 @@ public class RoundRobinLoadBalancerTest {
 
     @SuppressWarnings("unchecked")
     private TestLoadBalancedConnection newConnection(final String address) {
-        final TestLoadBalancedConnection cnx = mock(TestLoadBalancedConnection.class);
+        final TestLoadBalancedConnection cnx = mock(TestLoadBalancedConnection.class,
+                withSettings().extraInterfaces(RequestTrackingLoadBalancedConnection.class));
         final ListenableAsyncCloseable closeable = emptyAsyncCloseable();
         when(cnx.closeAsync()).thenReturn(closeable.closeAsync());
         when(cnx.closeAsyncGracefully()).thenReturn(closeable.closeAsyncGracefully());
@@ -480,6 +968,24 @@ public class RoundRobinLoadBalancerTest {
         return cnx;
     }
 
+    private TestLoadBalancedConnection newMultiplexedConnection(final String address, final int maxConcurrency) {
+        final TestLoadBalancedConnection cnx = mock(TestLoadBalancedConnection.class,
+                withSettings().extraInterfaces(MultiplexedLoadBalancedConnection.class));
+        final ListenableAsyncCloseable closeable = emptyAsyncCloseable();
+        when(cnx.closeAsync()).thenReturn(closeable.closeAsync());
+        when(cnx.closeAsyncGracefully()).thenReturn(closeable.closeAsyncGracefully());
+        when(cnx.onClose()).thenReturn(closeable.onClose());
+        when(cnx.address()).thenReturn(address);
+        when(((MultiplexedLoadBalancedConnection) cnx).maxConcurrentRequests()).thenReturn(maxConcurrency);
+
+        connectionsCreated.add(cnx);
+        return cnx;
+    }
+
+    private static void activeRequests(final TestLoadBalancedConnection cnx, final int activeRequests) {
+        when(((MultiplexedLoadBalancedConnection) cnx).activeRequests()).thenReturn(activeRequests);
+    }
+
     private static Predicate<TestLoadBalancedConnection> newSaturableConnectionFilter() {
         final AtomicInteger selectConnectionCount = new AtomicInteger();
         final Set<TestLoadBalancedConnection> saturatedConnections = new CopyOnWriteArraySet<>();
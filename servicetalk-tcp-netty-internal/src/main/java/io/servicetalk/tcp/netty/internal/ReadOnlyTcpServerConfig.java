@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,8 @@ package io.servicetalk.tcp.netty.internal;
 import io.servicetalk.transport.netty.internal.ReadOnlyServerSecurityConfig;
 
 import io.netty.handler.ssl.SslContext;
-import io.netty.util.DomainNameMapping;
-import io.netty.util.DomainNameMappingBuilder;
+import io.netty.util.DomainWildcardMappingBuilder;
+import io.netty.util.Mapping;
 
 import java.util.List;
 import java.util.Map;
@@ -36,8 +36,9 @@ public final class ReadOnlyTcpServerConfig
     @Nullable
     private final SslContext sslContext;
     @Nullable
-    private final DomainNameMapping<SslContext> mappings;
+    private final Mapping<String, SslContext> mappings;
     private final int backlog;
+    private final boolean reusePort;
 
     /**
      * Copy constructor.
@@ -52,7 +53,8 @@ public final class ReadOnlyTcpServerConfig
                 throw new IllegalStateException("No default security config defined but found SNI config mappings");
             }
             sslContext = forServer(securityConfig, supportedAlpnProtocols);
-            final DomainNameMappingBuilder<SslContext> mappingBuilder = new DomainNameMappingBuilder<>(sslContext);
+            final DomainWildcardMappingBuilder<SslContext> mappingBuilder =
+                    new DomainWildcardMappingBuilder<>(sslContext);
             for (Map.Entry<String, ReadOnlyServerSecurityConfig> sniConfigEntries : from.sniConfigs().entrySet()) {
                 mappingBuilder.add(sniConfigEntries.getKey(),
                         forServer(sniConfigEntries.getValue(), supportedAlpnProtocols));
@@ -66,6 +68,7 @@ public final class ReadOnlyTcpServerConfig
             mappings = null;
         }
         backlog = from.backlog();
+        reusePort = from.reusePort();
     }
 
     @Nullable
@@ -75,12 +78,12 @@ public final class ReadOnlyTcpServerConfig
     }
 
     /**
-     * Gets {@link DomainNameMapping}, if any.
+     * Gets the SNI {@link Mapping} of domain names to {@link SslContext}s, if any.
      *
      * @return Configured mapping, {@code null} if none configured
      */
     @Nullable
-    public DomainNameMapping<SslContext> domainNameMapping() {
+    public Mapping<String, SslContext> domainNameMapping() {
         return mappings;
     }
 
@@ -92,4 +95,13 @@ public final class ReadOnlyTcpServerConfig
     public int backlog() {
         return backlog;
     }
+
+    /**
+     * Returns {@code true} if one listen socket per IO thread should be bound using {@code SO_REUSEPORT}.
+     *
+     * @return {@code true} if one listen socket per IO thread should be bound using {@code SO_REUSEPORT}.
+     */
+    public boolean reusePort() {
+        return reusePort;
+    }
 }
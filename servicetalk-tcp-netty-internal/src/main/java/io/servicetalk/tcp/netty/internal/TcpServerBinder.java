@@ -15,6 +15,8 @@
  */
 package io.servicetalk.tcp.netty.internal;
 
+import io.servicetalk.concurrent.Cancellable;
+import io.servicetalk.concurrent.SingleSource.Subscriber;
 import io.servicetalk.concurrent.api.Single;
 import io.servicetalk.concurrent.api.internal.SubscribableSingle;
 import io.servicetalk.transport.api.ConnectionAcceptor;
@@ -31,22 +33,33 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.ReferenceCounted;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.Single.defer;
 import static io.servicetalk.concurrent.api.Single.succeeded;
+import static io.servicetalk.transport.netty.internal.BuilderUtils.isReusePortSupported;
+import static io.servicetalk.transport.netty.internal.BuilderUtils.reusePortOption;
 import static io.servicetalk.transport.netty.internal.BuilderUtils.toNettyAddress;
 import static io.servicetalk.transport.netty.internal.CopyByteBufHandlerChannelInitializer.POOLED_ALLOCATOR;
 import static io.servicetalk.transport.netty.internal.EventLoopAwareNettyIoExecutors.toEventLoopAwareNettyIoExecutor;
@@ -88,28 +101,16 @@ public final class TcpServerBinder {
         requireNonNull(connectionConsumer);
         listenAddress = toNettyAddress(listenAddress);
         EventLoopAwareNettyIoExecutor nettyIoExecutor = toEventLoopAwareNettyIoExecutor(executionContext.ioExecutor());
+        EventLoopGroup eventLoopGroup = nettyIoExecutor.eventLoopGroup();
+        if (eventLoopGroup == null) {
+            throw new IllegalStateException("IoExecutor must be specified before building");
+        }
         ServerBootstrap bs = new ServerBootstrap();
-        configure(config, autoRead, bs, nettyIoExecutor.eventLoopGroup(), listenAddress.getClass());
+        configure(config, autoRead, bs, eventLoopGroup, listenAddress.getClass());
 
         ChannelSet channelSet = new ChannelSet(executionContext.executor());
-        bs.handler(new ChannelInboundHandlerAdapter() {
-            @Override
-            public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-                // Verify that we do not leak pooled memory in the "accept" pipeline
-                if (msg instanceof ReferenceCounted) {
-                    try {
-                        throw new IllegalArgumentException("Unexpected ReferenceCounted msg in 'accept' pipeline: " +
-                                msg);
-                    } finally {
-                        ((ReferenceCounted) msg).release();
-                    }
-                }
-                if (msg instanceof Channel && !channelSet.addIfAbsent((Channel) msg)) {
-                    LOGGER.warn("Channel ({}) not added to ChannelSet", msg);
-                }
-                ctx.fireChannelRead(msg);
-            }
-        });
+        // The same handler is added to all server channels bound with SO_REUSEPORT.
+        bs.handler(new AcceptedChannelsHandler(channelSet));
         bs.childHandler(new io.netty.channel.ChannelInitializer<Channel>() {
             @Override
             protected void initChannel(Channel channel) {
@@ -133,7 +134,13 @@ public final class TcpServerBinder {
             }
         });
 
-        ChannelFuture future = bs.bind(listenAddress);
+        if (config.reusePort() && isReusePortSupported(eventLoopGroup, listenAddress.getClass())) {
+            bs.option(reusePortOption(), true);
+            return bindReusePort(bs, listenAddress, eventLoopGroup, channels ->
+                    NettyServerContext.wrap(channels, channelSet, connectionAcceptor, executionContext));
+        }
+
+        ChannelFuture future = bs.clone().group(eventLoopGroup).bind(listenAddress);
         return new SubscribableSingle<ServerContext>() {
             @Override
             protected void handleSubscribe(Subscriber<? super ServerContext> subscriber) {
@@ -153,13 +160,150 @@ public final class TcpServerBinder {
         };
     }
 
+    /**
+     * Binds one server channel per {@link EventLoop} of the {@code eventLoopGroup} to the same address, the first
+     * bind determines the address if {@code listenAddress} uses an ephemeral port.
+     */
+    private static Single<ServerContext> bindReusePort(final ServerBootstrap bs, final SocketAddress listenAddress,
+                                                       final EventLoopGroup eventLoopGroup,
+                                                       final Function<List<Channel>, ServerContext> contextFactory) {
+        final List<EventLoop> eventLoops = new ArrayList<>();
+        for (EventExecutor executor : eventLoopGroup) {
+            eventLoops.add((EventLoop) executor);
+        }
+        return new SubscribableSingle<ServerContext>() {
+            @Override
+            protected void handleSubscribe(Subscriber<? super ServerContext> subscriber) {
+                final ReusePortBind bind = new ReusePortBind(eventLoops.size(), subscriber, contextFactory);
+                subscriber.onSubscribe(bind);
+                final ChannelFuture first = bs.clone().group(eventLoops.get(0), eventLoopGroup).bind(listenAddress);
+                bind.add(0, first);
+                first.addListener((ChannelFuture f) -> {
+                    if (f.cause() != null || bind.cancelled || eventLoops.size() == 1) {
+                        bind.onBindComplete(f, eventLoops.size());
+                        return;
+                    }
+                    final SocketAddress boundAddress = f.channel().localAddress();
+                    for (int i = 1; i < eventLoops.size(); ++i) {
+                        final ChannelFuture future =
+                                bs.clone().group(eventLoops.get(i), eventLoopGroup).bind(boundAddress);
+                        bind.add(i, future);
+                        future.addListener((ChannelFuture bf) -> bind.onBindComplete(bf, 1));
+                    }
+                    bind.onBindComplete(f, 1);
+                });
+            }
+        };
+    }
+
+    /**
+     * Tracks the binds of the server channels which share an address with SO_REUSEPORT. The bind completes once all
+     * server channels are bound, if any bind fails or the bind is cancelled all bound server channels are closed.
+     */
+    private static final class ReusePortBind implements Cancellable {
+        private final AtomicReferenceArray<ChannelFuture> futures;
+        private final AtomicInteger pending;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final Subscriber<? super ServerContext> subscriber;
+        private final Function<List<Channel>, ServerContext> contextFactory;
+        volatile boolean cancelled;
+
+        ReusePortBind(final int channels, final Subscriber<? super ServerContext> subscriber,
+                      final Function<List<Channel>, ServerContext> contextFactory) {
+            futures = new AtomicReferenceArray<>(channels);
+            pending = new AtomicInteger(channels);
+            this.subscriber = subscriber;
+            this.contextFactory = contextFactory;
+        }
+
+        void add(final int index, final ChannelFuture future) {
+            futures.set(index, future);
+            if (cancelled) {
+                future.cancel(true);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            for (int i = 0; i < futures.length(); ++i) {
+                final ChannelFuture future = futures.get(i);
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        /**
+         * Completes a bind.
+         *
+         * @param future the completed bind.
+         * @param completed the number of binds which are completed by {@code future}, binds which are not attempted
+         * after a failure of the first bind are completed with it.
+         */
+        void onBindComplete(final ChannelFuture future, final int completed) {
+            if (future.cause() != null) {
+                failure.compareAndSet(null, future.cause());
+            }
+            // The decrement publishes the futures and the failure to the listener that completes the bind.
+            if (pending.addAndGet(-completed) != 0) {
+                return;
+            }
+            Throwable cause = failure.get();
+            if (cause == null && cancelled) {
+                cause = new CancellationException("Bind cancelled");
+            }
+            final List<Channel> channels = new ArrayList<>(futures.length());
+            for (int i = 0; i < futures.length(); ++i) {
+                final ChannelFuture bindFuture = futures.get(i);
+                if (bindFuture != null) {
+                    channels.add(bindFuture.channel());
+                }
+            }
+            if (cause == null) {
+                subscriber.onSuccess(contextFactory.apply(channels));
+            } else {
+                for (Channel channel : channels) {
+                    channel.close();
+                }
+                subscriber.onError(cause);
+            }
+        }
+    }
+
+    /**
+     * Adds accepted {@link Channel}s to the {@link ChannelSet} of the server.
+     */
+    @Sharable
+    private static final class AcceptedChannelsHandler extends ChannelInboundHandlerAdapter {
+        private final ChannelSet channelSet;
+
+        AcceptedChannelsHandler(final ChannelSet channelSet) {
+            this.channelSet = channelSet;
+        }
+
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+            // Verify that we do not leak pooled memory in the "accept" pipeline
+            if (msg instanceof ReferenceCounted) {
+                try {
+                    throw new IllegalArgumentException("Unexpected ReferenceCounted msg in 'accept' pipeline: " +
+                            msg);
+                } finally {
+                    ((ReferenceCounted) msg).release();
+                }
+            }
+            if (msg instanceof Channel && !channelSet.addIfAbsent((Channel) msg)) {
+                LOGGER.warn("Channel ({}) not added to ChannelSet", msg);
+            }
+            ctx.fireChannelRead(msg);
+        }
+    }
+
     private static void configure(ReadOnlyTcpServerConfig config, boolean autoRead, ServerBootstrap bs,
-                                  @Nullable EventLoopGroup eventLoopGroup,
+                                  EventLoopGroup eventLoopGroup,
                                   Class<? extends SocketAddress> bindAddressClass) {
-        if (eventLoopGroup == null) {
-            throw new IllegalStateException("IoExecutor must be specified before building");
-        }
-        bs.group(eventLoopGroup);
+        // The group is set when binding, so that a server channel can be bound per EventLoop.
         bs.channel(BuilderUtils.serverChannel(eventLoopGroup, bindAddressClass));
 
         for (@SuppressWarnings("rawtypes") Map.Entry<ChannelOption, Object> opt : config.options().entrySet()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ public final class TcpServerConfig extends AbstractTcpConfig<ReadOnlyServerSecur
     @Nullable
     private Map<String, ReadOnlyServerSecurityConfig> sniConfigs;
     private int backlog = NetUtil.SOMAXCONN;
+    private boolean reusePort;
 
     @Nullable
     Map<String, ReadOnlyServerSecurityConfig> sniConfigs() {
@@ -44,6 +45,10 @@ public final class TcpServerConfig extends AbstractTcpConfig<ReadOnlyServerSecur
         return backlog;
     }
 
+    boolean reusePort() {
+        return reusePort;
+    }
+
     /**
      * Add security related config.
      *
@@ -78,6 +83,20 @@ public final class TcpServerConfig extends AbstractTcpConfig<ReadOnlyServerSecur
         return this;
     }
 
+    /**
+     * Bind one listen socket per IO thread to the same address using {@code SO_REUSEPORT}, which lets the kernel
+     * distribute new connections across the IO threads instead of accepting all connections on a single thread.
+     * <p>
+     * This is only supported by the native epoll transport for IP addresses, otherwise a single listen socket is bound.
+     *
+     * @param reusePort {@code true} to bind one listen socket per IO thread.
+     * @return {@code this}
+     */
+    public TcpServerConfig reusePort(final boolean reusePort) {
+        this.reusePort = reusePort;
+        return this;
+    }
+
     @Override
     public ReadOnlyTcpServerConfig asReadOnly(final List<String> supportedAlpnProtocols) {
         return new ReadOnlyTcpServerConfig(this, supportedAlpnProtocols);
@@ -128,6 +128,8 @@ public abstract class AbstractTcpServerTest {
 
     @After
     public void stopServer() throws Exception {
-        serverContext.closeAsync().toFuture().get();
+        if (serverContext != null) {
+            serverContext.closeAsync().toFuture().get();
+        }
     }
 }
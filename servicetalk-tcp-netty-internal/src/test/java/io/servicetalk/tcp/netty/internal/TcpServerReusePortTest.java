@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2020 Apple Inc. and the ServiceTalk project authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.servicetalk.tcp.netty.internal;
+
+import io.servicetalk.buffer.api.Buffer;
+import io.servicetalk.concurrent.api.Executors;
+import io.servicetalk.concurrent.api.Publisher;
+import io.servicetalk.transport.netty.internal.ExecutionContextRule;
+import io.servicetalk.transport.netty.internal.IoThreadFactory;
+import io.servicetalk.transport.netty.internal.NettyConnection;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.servicetalk.buffer.netty.BufferAllocators.DEFAULT_ALLOCATOR;
+import static io.servicetalk.concurrent.api.BlockingTestUtils.awaitIndefinitelyNonNull;
+import static io.servicetalk.transport.api.ConnectionAcceptor.ACCEPT_ALL;
+import static io.servicetalk.transport.netty.NettyIoExecutors.createIoExecutor;
+import static io.servicetalk.transport.netty.internal.BuilderUtils.isReusePortSupported;
+import static io.servicetalk.transport.netty.internal.EventLoopAwareNettyIoExecutors.toEventLoopAwareNettyIoExecutor;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assume.assumeTrue;
+
+public class TcpServerReusePortTest extends AbstractTcpServerTest {
+    private static final int IO_THREADS = 2;
+
+    @ClassRule
+    public static final ExecutionContextRule REUSE_PORT_SERVER_CTX = new ExecutionContextRule(() -> DEFAULT_ALLOCATOR,
+            () -> createIoExecutor(IO_THREADS, new IoThreadFactory("server-reuse-port-io-executor")),
+            Executors::newCachedThreadExecutor);
+
+    private final Set<Channel> listenChannels = ConcurrentHashMap.newKeySet();
+
+    @Override
+    TcpServerConfig getTcpServerConfig() {
+        return super.getTcpServerConfig().reusePort(true);
+    }
+
+    @Before
+    @Override
+    public void startServer() throws Exception {
+        final EventLoopGroup eventLoopGroup =
+                toEventLoopAwareNettyIoExecutor(REUSE_PORT_SERVER_CTX.ioExecutor()).eventLoopGroup();
+        assumeTrue("SO_REUSEPORT is not supported", eventLoopGroup != null &&
+                isReusePortSupported(eventLoopGroup, InetSocketAddress.class));
+        server = createServer();
+        serverContext = server.bind(REUSE_PORT_SERVER_CTX, 0, ACCEPT_ALL, conn -> {
+            // The parent of an accepted channel is the server channel which accepted it.
+            listenChannels.add(conn.nettyChannel().parent());
+            return conn.write(conn.read());
+        }, REUSE_PORT_SERVER_CTX.executionStrategy());
+        serverAddress = (InetSocketAddress) serverContext.listenAddress();
+        client = createClient();
+    }
+
+    @Test
+    public void connectionsAreAcceptedByAllListeners() throws Exception {
+        // The kernel balances connections by a hash of their addresses, with this many connections every listener
+        // accepts at least one connection, unless there is only one listener.
+        for (int i = 0; i < 64; ++i) {
+            NettyConnection<Buffer, Buffer> connection = client.connectBlocking(CLIENT_CTX, serverAddress);
+            try {
+                final Buffer buffer = connection.executionContext().bufferAllocator().fromAscii("Hello" + i);
+                connection.write(Publisher.from(buffer)).toFuture().get();
+                Buffer responseBuffer = awaitIndefinitelyNonNull(connection.read().firstOrElse(() -> null));
+                assertThat(responseBuffer.toString(US_ASCII), equalTo("Hello" + i));
+            } finally {
+                connection.closeAsync().toFuture().get();
+            }
+        }
+        assertThat(listenChannels, hasSize(IO_THREADS));
+    }
+}
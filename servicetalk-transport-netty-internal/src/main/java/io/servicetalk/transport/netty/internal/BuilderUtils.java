@@ -19,9 +19,11 @@ import io.servicetalk.transport.api.FileDescriptorSocketAddress;
 import io.servicetalk.transport.api.HostAndPort;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollDomainSocketChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
@@ -39,6 +41,10 @@ import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.incubator.channel.uring.IOUringDatagramChannel;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
 import io.netty.util.NetUtil;
 
 import java.io.Closeable;
@@ -83,12 +89,27 @@ public final class BuilderUtils {
                 ((EventLoop) group).parent() instanceof KQueueEventLoopGroup);
     }
 
+    /**
+     * Returns {@code true} if native io_uring transport should be used.
+     *
+     * @param group the used {@link EventLoopGroup}
+     * @return {@code true} if native transport should be used
+     */
+    public static boolean useIoUring(EventLoopGroup group) {
+        // Check if we should use the io_uring transport. This is true if either the IOUringEventLoopGroup is used
+        // directly or if the passed group is a EventLoop and it's parent is an IOUringEventLoopGroup.
+        return group instanceof IOUringEventLoopGroup || (group instanceof EventLoop &&
+                ((EventLoop) group).parent() instanceof IOUringEventLoopGroup);
+    }
+
     /**
      * Returns the correct {@link Class} to use with the given {@link EventLoopGroup}.
      *
      * @param group        the {@link EventLoopGroup} for which the class is needed
      * @param addressClass The class of the address that the server socket will be bound to.
      * @return the class that should be used for bootstrapping
+     * @throws IllegalArgumentException if {@code group} uses the io_uring transport and {@code addressClass} is a
+     * {@link DomainSocketAddress}, which the io_uring transport does not support.
      */
     public static Class<? extends ServerChannel> serverChannel(EventLoopGroup group,
                                                                Class<? extends SocketAddress> addressClass) {
@@ -98,17 +119,54 @@ public final class BuilderUtils {
         } else if (useKQueue(group)) {
             return DomainSocketAddress.class.isAssignableFrom(addressClass) ? KQueueServerDomainSocketChannel.class :
                     KQueueServerSocketChannel.class;
+        } else if (useIoUring(group)) {
+            checkNotDomainSocket(addressClass);
+            return IOUringServerSocketChannel.class;
         } else {
             return NioServerSocketChannel.class;
         }
     }
 
+    private static void checkNotDomainSocket(Class<? extends SocketAddress> addressClass) {
+        // The channel has to match the EventLoop, falling back to epoll is not possible.
+        if (DomainSocketAddress.class.isAssignableFrom(addressClass)) {
+            throw new IllegalArgumentException("The io_uring transport does not support domain sockets: " +
+                    addressClass.getName());
+        }
+    }
+
+    /**
+     * Returns {@code true} if multiple server channels can be bound to the same address using {@code SO_REUSEPORT},
+     * such that the kernel distributes new connections between them.
+     *
+     * @param group        the {@link EventLoopGroup} used by the server channels
+     * @param addressClass The class of the address to bind to.
+     * @return {@code true} if multiple server channels can be bound to the same address using {@code SO_REUSEPORT}
+     */
+    public static boolean isReusePortSupported(EventLoopGroup group, Class<? extends SocketAddress> addressClass) {
+        // Only Linux distributes connections between sockets bound with SO_REUSEPORT, BSD lets the last bound socket
+        // accept all connections.
+        return useEpoll(group) && !DomainSocketAddress.class.isAssignableFrom(addressClass);
+    }
+
+    /**
+     * Returns the {@link ChannelOption} to enable {@code SO_REUSEPORT} for server channels, only valid if
+     * {@link #isReusePortSupported(EventLoopGroup, Class)} returns {@code true}.
+     *
+     * @return the {@link ChannelOption} to enable {@code SO_REUSEPORT} for server channels
+     */
+    public static ChannelOption<Boolean> reusePortOption() {
+        return EpollChannelOption.SO_REUSEPORT;
+    }
+
     /**
      * Returns the correct {@link Class} to use with the given {@link EventLoopGroup}.
      *
      * @param group        the {@link EventLoopGroup} for which the class is needed
      * @param addressClass The class of the address that to connect to.
      * @return the class that should be used for bootstrapping
+     * @throws IllegalArgumentException if {@code group} uses the io_uring transport and {@code addressClass} is a
+     * {@link DomainSocketAddress}, which the io_uring transport does not support.
      */
     public static Class<? extends Channel> socketChannel(EventLoopGroup group,
                                                          Class<? extends SocketAddress> addressClass) {
@@ -118,6 +176,9 @@ public final class BuilderUtils {
         } else if (useKQueue(group)) {
             return DomainSocketAddress.class.isAssignableFrom(addressClass) ? KQueueDomainSocketChannel.class :
                     KQueueSocketChannel.class;
+        } else if (useIoUring(group)) {
+            checkNotDomainSocket(addressClass);
+            return IOUringSocketChannel.class;
         } else {
             return NioSocketChannel.class;
         }
@@ -175,6 +236,8 @@ public final class BuilderUtils {
             return EpollDatagramChannel.class;
         } else if (useKQueue(group)) {
             return KQueueDatagramChannel.class;
+        } else if (useIoUring(group)) {
+            return IOUringDatagramChannel.class;
         } else {
             return NioDatagramChannel.class;
         }
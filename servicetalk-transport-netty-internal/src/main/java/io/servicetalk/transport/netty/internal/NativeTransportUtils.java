@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,10 +17,18 @@ package io.servicetalk.transport.netty.internal;
 
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUring;
 import io.netty.util.concurrent.EventExecutorGroup;
 
 final class NativeTransportUtils {
 
+    /**
+     * System property to opt-in to the io_uring transport, which is preferred over epoll if it is available. Only
+     * applies to {@link EventExecutorGroup}s which are created without an explicit transport selection.
+     */
+    static final String IO_URING_PROPERTY = "io.servicetalk.transport.netty.ioUring";
+    private static final boolean IO_URING_ENABLED = Boolean.getBoolean(IO_URING_PROPERTY);
+
     private NativeTransportUtils() {
         // No instances
     }
@@ -42,4 +50,24 @@ final class NativeTransportUtils {
     static boolean isFileDescriptorSocketAddressSupported(EventExecutorGroup group) {
         return group instanceof EpollEventLoopGroup || group instanceof KQueueEventLoopGroup;
     }
+
+    /**
+     * Determine if the io_uring transport should be used for new {@link EventExecutorGroup}s which are created
+     * without an explicit transport selection.
+     * @return {@code true} if the io_uring transport was enabled via {@link #IO_URING_PROPERTY} and is available.
+     */
+    static boolean useIoUring() {
+        // Check the property first to avoid loading the native library if io_uring was not requested.
+        return IO_URING_ENABLED && IOUring.isAvailable();
+    }
+
+    /**
+     * Ensure the io_uring transport is available after it was selected explicitly.
+     * @throws IllegalStateException if the io_uring transport is not available.
+     */
+    static void ensureIoUringAvailable() {
+        if (!IOUring.isAvailable()) {
+            throw new IllegalStateException("io_uring transport is not available", IOUring.unavailabilityCause());
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,9 +24,12 @@ import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.kqueue.KQueue;
 import io.netty.channel.kqueue.KQueueEventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
 
 import java.util.concurrent.ThreadFactory;
 
+import static io.servicetalk.transport.netty.internal.NativeTransportUtils.ensureIoUringAvailable;
+import static io.servicetalk.transport.netty.internal.NativeTransportUtils.useIoUring;
 import static java.lang.Runtime.getRuntime;
 import static java.util.Objects.requireNonNull;
 
@@ -61,8 +64,27 @@ public final class NettyIoExecutors {
         return new EventLoopGroupIoExecutor(createEventLoopGroup(ioThreads, threadFactory), true);
     }
 
+    /**
+     * Create a new {@link NettyIoExecutor} with an explicit selection of the io_uring transport.
+     *
+     * @param ioThreads number of threads.
+     * @param threadFactory the {@link ThreadFactory} to use.
+     * @param ioUring {@code true} to use the io_uring transport, {@code false} to use the native transport available
+     * on the current platform or NIO, regardless of the {@code io.servicetalk.transport.netty.ioUring} system property.
+     * @return The created {@link IoExecutor}
+     * @throws IllegalStateException if {@code ioUring} is {@code true} but the io_uring transport is not available.
+     */
+    public static NettyIoExecutor createIoExecutor(int ioThreads, ThreadFactory threadFactory, boolean ioUring) {
+        validateIoThreads(ioThreads);
+        return new EventLoopGroupIoExecutor(createEventLoopGroup(ioThreads, threadFactory, ioUring), true);
+    }
+
     /**
      * Create a new {@link EventLoopGroup}.
+     * <p>
+     * The native transport available on the current platform is preferred over NIO. The io_uring transport is only
+     * used if it is enabled via the {@code io.servicetalk.transport.netty.ioUring} system property, see
+     * {@link #createEventLoopGroup(int, ThreadFactory, boolean)} to select it explicitly.
      *
      * @param ioThreads number of threads
      * @param threadFactory the {@link ThreadFactory} to use.
@@ -70,6 +92,30 @@ public final class NettyIoExecutors {
      */
     public static EventLoopGroup createEventLoopGroup(int ioThreads, ThreadFactory threadFactory) {
         validateIoThreads(ioThreads);
+        return useIoUring() ? new IOUringEventLoopGroup(ioThreads, threadFactory) :
+                createNativeOrNioEventLoopGroup(ioThreads, threadFactory);
+    }
+
+    /**
+     * Create a new {@link EventLoopGroup} with an explicit selection of the io_uring transport.
+     *
+     * @param ioThreads number of threads
+     * @param threadFactory the {@link ThreadFactory} to use.
+     * @param ioUring {@code true} to use the io_uring transport, {@code false} to use the native transport available
+     * on the current platform or NIO, regardless of the {@code io.servicetalk.transport.netty.ioUring} system property.
+     * @return The created {@link IoExecutor}
+     * @throws IllegalStateException if {@code ioUring} is {@code true} but the io_uring transport is not available.
+     */
+    public static EventLoopGroup createEventLoopGroup(int ioThreads, ThreadFactory threadFactory, boolean ioUring) {
+        validateIoThreads(ioThreads);
+        if (ioUring) {
+            ensureIoUringAvailable();
+            return new IOUringEventLoopGroup(ioThreads, threadFactory);
+        }
+        return createNativeOrNioEventLoopGroup(ioThreads, threadFactory);
+    }
+
+    private static EventLoopGroup createNativeOrNioEventLoopGroup(int ioThreads, ThreadFactory threadFactory) {
         return Epoll.isAvailable() ? new EpollEventLoopGroup(ioThreads, threadFactory) :
                 KQueue.isAvailable() ? new KQueueEventLoopGroup(ioThreads, threadFactory) :
                         new NioEventLoopGroup(ioThreads, threadFactory);
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import io.servicetalk.transport.api.ServerContext;
 import io.netty.channel.Channel;
 
 import java.net.SocketAddress;
+import java.util.List;
 import javax.annotation.Nullable;
 
 import static io.servicetalk.concurrent.api.AsyncCloseables.newCompositeCloseable;
@@ -78,6 +79,32 @@ public final class NettyServerContext implements ServerContext {
         return new NettyServerContext(listenChannel, toListenableAsyncCloseable(closeAsync), executionContext);
     }
 
+    /**
+     * Wrap the passed {@link Channel}s which listen on the same address.
+     *
+     * @param listenChannels {@link Channel}s to wrap, all bound to the same address.
+     * @param channelSetCloseable {@link ChannelSet} to wrap.
+     * @param closeBefore {@link Completable} which needs to closed first before {@code listenChannels} will be closed.
+     * @param executionContext {@link ExecutionContext} used by this server.
+     * @return A new {@link NettyServerContext} instance.
+     */
+    public static ServerContext wrap(List<Channel> listenChannels, ListenableAsyncCloseable channelSetCloseable,
+                                     @Nullable AsyncCloseable closeBefore, ExecutionContext executionContext) {
+        if (listenChannels.size() == 1) {
+            return wrap(listenChannels.get(0), channelSetCloseable, closeBefore, executionContext);
+        }
+        final CompositeCloseable channelsCloseable = newCompositeCloseable();
+        for (Channel listenChannel : listenChannels) {
+            channelsCloseable.merge(new NettyChannelListenableAsyncCloseable(listenChannel,
+                    executionContext.executor()));
+        }
+        final CompositeCloseable closeAsync = closeBefore == null ?
+                newCompositeCloseable().appendAll(channelsCloseable, channelSetCloseable) :
+                newCompositeCloseable().appendAll(closeBefore, channelsCloseable, channelSetCloseable);
+        return new NettyServerContext(listenChannels.get(0), toListenableAsyncCloseable(closeAsync),
+                executionContext);
+    }
+
     @Override
     public SocketAddress listenAddress() {
         return listenChannel.localAddress();
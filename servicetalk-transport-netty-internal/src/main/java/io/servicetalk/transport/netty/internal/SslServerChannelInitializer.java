@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018-2019 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,7 +21,7 @@ import io.netty.channel.Channel;
 import io.netty.handler.ssl.SniHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
-import io.netty.util.DomainNameMapping;
+import io.netty.util.Mapping;
 
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLEngine;
@@ -36,7 +36,7 @@ import static java.util.Objects.requireNonNull;
 public class SslServerChannelInitializer implements ChannelInitializer {
 
     @Nullable
-    private final DomainNameMapping<SslContext> domainNameMapping;
+    private final Mapping<String, SslContext> domainNameMapping;
     @Nullable
     private final SslContext sslContext;
 
@@ -53,7 +53,7 @@ public class SslServerChannelInitializer implements ChannelInitializer {
      * New instance.
      * @param domainNameMapping to use for configuring SSL.
      */
-    public SslServerChannelInitializer(DomainNameMapping<SslContext> domainNameMapping) {
+    public SslServerChannelInitializer(Mapping<String, SslContext> domainNameMapping) {
         this.domainNameMapping = requireNonNull(domainNameMapping);
         sslContext = null;
     }
@@ -75,7 +75,7 @@ public class SslServerChannelInitializer implements ChannelInitializer {
      */
     private static final class SniHandlerWithPooledAllocator extends SniHandler {
 
-        SniHandlerWithPooledAllocator(final DomainNameMapping<SslContext> domainNameMapping) {
+        SniHandlerWithPooledAllocator(final Mapping<String, SslContext> domainNameMapping) {
             super(domainNameMapping);
         }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright © 2018 Apple Inc. and the ServiceTalk project authors
+ * Copyright © 2018-2020 Apple Inc. and the ServiceTalk project authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,12 @@ import java.util.concurrent.ThreadFactory;
 
 /**
  * Factory methods to create {@link IoExecutor}s using netty as the transport.
+ * <p>
+ * The native transport of the current platform (epoll or kqueue) is used if available, otherwise NIO. On Linux the
+ * io_uring transport can be selected explicitly via {@link #createIoExecutor(int, ThreadFactory, boolean)}. Factory
+ * methods without an explicit selection fall back to the {@code io.servicetalk.transport.netty.ioUring} system
+ * property, in which case io_uring is only used if the kernel supports it. The io_uring transport does not support
+ * domain sockets, binding or connecting to a domain socket address fails with an {@link IllegalArgumentException}.
  */
 public final class NettyIoExecutors {
 
@@ -42,6 +48,23 @@ public final class NettyIoExecutors {
         return io.servicetalk.transport.netty.internal.NettyIoExecutors.createIoExecutor(ioThreads, threadFactory);
     }
 
+    /**
+     * Creates a new {@link IoExecutor} with the specified number of {@code ioThreads} and an explicit selection of the
+     * io_uring transport.
+     *
+     * @param ioThreads number of threads.
+     * @param threadFactory the {@link ThreadFactory} to use. If possible you should use an instance
+     * of {@link IoThreadFactory} as it allows internal optimizations.
+     * @param ioUring {@code true} to use the io_uring transport, {@code false} to use the native transport of the
+     * current platform or NIO, regardless of the {@code io.servicetalk.transport.netty.ioUring} system property.
+     * @return The created {@link IoExecutor}
+     * @throws IllegalStateException if {@code ioUring} is {@code true} but the io_uring transport is not available.
+     */
+    public static IoExecutor createIoExecutor(int ioThreads, ThreadFactory threadFactory, boolean ioUring) {
+        return io.servicetalk.transport.netty.internal.NettyIoExecutors.createIoExecutor(ioThreads, threadFactory,
+                ioUring);
+    }
+
     /**
      * Creates a new {@link IoExecutor} with the specified number of {@code ioThreads}.
      *